@@ -0,0 +1,78 @@
+package com.bindstone.backend.benchmark;
+
+import com.bindstone.backend.audit.AuditLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Request path cost of auditing a {@code POST /admin/user}: {@code publish} is what {@link AuditLog#record} adds to
+ * the request while the writer thread batches in the background, {@code synchronousAppend} the write and flush of
+ * one log line that the request would otherwise wait for.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuditLogBenchmark {
+
+    private static final String LINE = "2025-01-01T10:00:00Z CONTINENTAL f1c2d3e4-5678-90ab-cdef-1234567890ab "
+            + "user.create alice 201\n";
+
+    private Path directory;
+    private AuditLog auditLog;
+    private FileChannel channel;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("audit-benchmark");
+        auditLog = new AuditLog(directory.resolve("segments"), 65536, 256, 64 * 1024 * 1024, true);
+        channel = FileChannel.open(directory.resolve("synchronous.log"), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        auditLog.destroy();
+        channel.close();
+        System.out.printf("%naudit records published=%d dropped=%d batches=%d%n", auditLog.getPublished(),
+                auditLog.getDropped(), auditLog.getBatches());
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public boolean publish() {
+        return auditLog.record("CONTINENTAL", "f1c2d3e4-5678-90ab-cdef-1234567890ab", "user.create", "alice", 201,
+                false);
+    }
+
+    @Benchmark
+    public int synchronousAppend() throws IOException {
+        int written = channel.write(ByteBuffer.wrap(LINE.getBytes(StandardCharsets.UTF_8)));
+        channel.force(false);
+        return written;
+    }
+}
@@ -0,0 +1,126 @@
+package com.bindstone.backend.benchmark;
+
+import com.bindstone.backend.BackendApplication;
+import com.bindstone.backend.config.SecurityConfig;
+import com.bindstone.backend.config.TestSecurityConfig;
+import com.bindstone.backend.security.KeycloakGrantedAuthoritiesConverter;
+import com.bindstone.backend.utils.JwtTestUtils;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.web.context.AbstractSecurityWebApplicationInitializer;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the JWT authentication hot path, split into decoding, claim-to-authority conversion and the
+ * complete security filter chain. Run with {@code -prof gc} to get the allocation rate next to throughput.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Tokens {
+
+        @Param({"user", "admin", "multiRole", "resourceAdmin", "largeRoles"})
+        public String tokenType;
+
+        public String token;
+        public Jwt jwt;
+        public JwtDecoder decoder;
+        public Converter<Jwt, AbstractAuthenticationToken> converter;
+
+        @Setup
+        public void setUp() {
+            token = switch (tokenType) {
+                case "user" -> JwtTestUtils.generateUserToken();
+                case "admin" -> JwtTestUtils.generateAdminToken();
+                case "multiRole" -> JwtTestUtils.generateMultiRoleToken();
+                case "resourceAdmin" -> JwtTestUtils.generateResourceAdminToken();
+                case "largeRoles" -> JwtTestUtils.generateLargeRoleToken(40);
+                default -> throw new IllegalArgumentException(tokenType);
+            };
+            decoder = new TestSecurityConfig().jwtDecoder();
+            converter = new SecurityConfig().jwtAuthenticationConverter(new KeycloakGrantedAuthoritiesConverter(1024));
+            jwt = decoder.decode(token);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Application {
+
+        @Param({"0", "10000"})
+        public String jwtCacheSize;
+
+        public ConfigurableApplicationContext context;
+        public Filter filterChain;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = new SpringApplicationBuilder(BackendApplication.class, TestSecurityConfig.class)
+                    .properties("server.port=0",
+                            "logging.level.root=WARN",
+                            "security.jwt.cache.max-size=" + jwtCacheSize)
+                    .run();
+            filterChain = context.getBean(AbstractSecurityWebApplicationInitializer.DEFAULT_FILTER_NAME, Filter.class);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+    }
+
+    private static final FilterChain NO_OP = (request, response) -> { };
+
+    @Benchmark
+    public Jwt decode(Tokens tokens) {
+        return tokens.decoder.decode(tokens.token);
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken convertAuthorities(Tokens tokens) {
+        return tokens.converter.convert(tokens.jwt);
+    }
+
+    @Benchmark
+    public int filterChain(Tokens tokens, Application application) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/private");
+        request.setServletPath("/private");
+        request.addHeader("Authorization", "Bearer " + tokens.token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            application.filterChain.doFilter(request, response, NO_OP);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response.getStatus();
+    }
+}
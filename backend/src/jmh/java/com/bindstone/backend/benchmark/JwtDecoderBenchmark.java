@@ -0,0 +1,132 @@
+package com.bindstone.backend.benchmark;
+
+import com.bindstone.backend.security.KeycloakGrantedAuthoritiesConverter;
+import com.bindstone.backend.security.KeycloakJwkSource;
+import com.bindstone.backend.security.LightweightJwtDecoder;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RS256 decoding of Keycloak-shaped tokens with the standard Nimbus decoder and the lightweight claim extractor
+ * ({@code security.jwt.decoder.mode}). Signature verification is the same for both, the difference is payload parsing.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtDecoderBenchmark {
+
+    private static final String ISSUER = "http://localhost:8080/realms/CONTINENTAL";
+
+    @Param({"standard", "lightweight"})
+    public String decoderMode;
+
+    @Param({"3", "40"})
+    public int roleCount;
+
+    private String token;
+    private JwtDecoder decoder;
+    private KeycloakGrantedAuthoritiesConverter converter;
+
+    @Setup
+    public void setUp() throws JOSEException {
+        RSAKey key = new RSAKeyGenerator(2048).keyID("benchmark").generate();
+        KeycloakJwkSource source = new KeycloakJwkSource(() -> new JWKSet(key.toPublicJWK()).toString(),
+                null, Duration.ofSeconds(30), Clock.systemUTC());
+        source.initialize();
+
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, source));
+        processor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+        NimbusJwtDecoder standard = new NimbusJwtDecoder(processor);
+        standard.setJwtValidator(JwtValidators.createDefaultWithIssuer(ISSUER));
+        decoder = "lightweight".equals(decoderMode) ? new LightweightJwtDecoder(source, ISSUER, standard) : standard;
+        converter = new KeycloakGrantedAuthoritiesConverter(1024);
+        token = sign(key, roleCount);
+    }
+
+    @Benchmark
+    public Jwt decode() {
+        return decoder.decode(token);
+    }
+
+    @Benchmark
+    public Collection<GrantedAuthority> decodeAndConvert() {
+        return converter.convert(decoder.decode(token));
+    }
+
+    // Mirrors the claims Keycloak puts into an access token of the CONTINENTAL realm
+    private static String sign(RSAKey key, int roleCount) throws JOSEException {
+        List<String> roles = new ArrayList<>(roleCount);
+        for (int i = 0; i < roleCount; i++) {
+            roles.add("CONTINENTAL_ROLE_" + i);
+        }
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(ISSUER)
+                .subject("f1c2d3e4-5678-90ab-cdef-1234567890ab")
+                .audience("account")
+                .jwtID("onrtac:9d2c6a3e-1f2b-4c5d-8e9f-0a1b2c3d4e5f")
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(1, ChronoUnit.HOURS)))
+                .claim("typ", "Bearer")
+                .claim("azp", "CONTINENTAL-CLIENT")
+                .claim("sid", "6a1f2b3c-4d5e-6f70-8192-a3b4c5d6e7f8")
+                .claim("acr", "1")
+                .claim("allowed-origins", List.of("http://localhost:3000"))
+                .claim("realm_access", Map.of("roles", roles))
+                .claim("resource_access", Map.of("account", Map.of("roles",
+                        List.of("manage-account", "manage-account-links", "view-profile"))))
+                .claim("scope", "openid email profile")
+                .claim("email_verified", true)
+                .claim("name", "Alice Example")
+                .claim("preferred_username", "alice")
+                .claim("given_name", "Alice")
+                .claim("family_name", "Example")
+                .claim("email", "alice@example.com")
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+}
@@ -0,0 +1,144 @@
+package com.bindstone.backend.benchmark;
+
+import com.bindstone.backend.security.KeycloakJwkSource;
+import com.bindstone.backend.security.KeycloakJwsKeySelector;
+import com.bindstone.backend.security.PooledJwsVerifierFactory;
+import com.bindstone.backend.security.SignatureVerifiers;
+import com.bindstone.backend.utils.JwtTestUtils;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verification cost per realm signature algorithm ({@code defaultSignatureAlgorithm} in realm.json), for tokens
+ * signed like the ones from {@link JwtTestUtils}. {@code pooled} and {@code fresh} compare the reused
+ * {@link SignatureVerifiers} instances with a JCA lookup and initialization per token; {@code decode} is the full
+ * standard decoder with the pooled verifiers plugged in.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SignatureVerificationBenchmark {
+
+    private static final String ISSUER = "http://localhost:8080/realms/CONTINENTAL";
+
+    @Param({"RS256", "ES256", "EdDSA"})
+    public String algorithm;
+
+    private JWSAlgorithm jwsAlgorithm;
+    private PublicKey publicKey;
+    private String jcaName;
+    private byte[] signingInput;
+    private byte[] signature;
+    private String token;
+    private SignatureVerifiers verifiers;
+    private JwtDecoder decoder;
+
+    @Setup
+    public void setUp() throws GeneralSecurityException {
+        jwsAlgorithm = JWSAlgorithm.parse(algorithm);
+        KeyPair keyPair;
+        JWK jwk;
+        switch (algorithm) {
+            case "RS256" -> {
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+                generator.initialize(2048);
+                keyPair = generator.generateKeyPair();
+                jwk = new RSAKey.Builder((RSAPublicKey) keyPair.getPublic()).keyID("benchmark").build();
+                jcaName = "SHA256withRSA";
+            }
+            case "ES256" -> {
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+                keyPair = generator.generateKeyPair();
+                jwk = new ECKey.Builder(Curve.P_256, (ECPublicKey) keyPair.getPublic()).keyID("benchmark").build();
+                jcaName = "SHA256withECDSAinP1363Format";
+            }
+            default -> {
+                keyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+                byte[] encoded = keyPair.getPublic().getEncoded();
+                jwk = new OctetKeyPair.Builder(Curve.Ed25519,
+                        Base64URL.encode(Arrays.copyOfRange(encoded, encoded.length - 32, encoded.length)))
+                        .keyID("benchmark").build();
+                jcaName = "Ed25519";
+            }
+        }
+        publicKey = keyPair.getPublic();
+        token = JwtTestUtils.generateSignedToken(keyPair.getPrivate(), "benchmark", ISSUER);
+        int payloadEnd = token.lastIndexOf('.');
+        signingInput = token.substring(0, payloadEnd).getBytes(StandardCharsets.US_ASCII);
+        signature = Base64.getUrlDecoder().decode(token.substring(payloadEnd + 1));
+
+        KeycloakJwkSource source = new KeycloakJwkSource(() -> new JWKSet(jwk).toString(),
+                null, Duration.ofSeconds(30), Clock.systemUTC());
+        source.initialize();
+        verifiers = new SignatureVerifiers();
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new KeycloakJwsKeySelector(source, verifiers));
+        processor.setJWSVerifierFactory(new PooledJwsVerifierFactory(verifiers));
+        processor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+        NimbusJwtDecoder standard = new NimbusJwtDecoder(processor);
+        standard.setJwtValidator(JwtValidators.createDefaultWithIssuer(ISSUER));
+        decoder = standard;
+    }
+
+    @Benchmark
+    public boolean pooled() throws JOSEException {
+        return verifiers.verify(jwsAlgorithm, publicKey, signingInput, signature);
+    }
+
+    @Benchmark
+    public boolean fresh() throws GeneralSecurityException {
+        Signature verifier = Signature.getInstance(jcaName);
+        verifier.initVerify(publicKey);
+        verifier.update(signingInput);
+        return verifier.verify(signature);
+    }
+
+    @Benchmark
+    public Jwt decode() {
+        return decoder.decode(token);
+    }
+}
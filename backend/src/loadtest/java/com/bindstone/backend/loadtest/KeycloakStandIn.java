@@ -0,0 +1,187 @@
+package com.bindstone.backend.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the Keycloak endpoints the backend talks to: the realm JWKS, the admin token endpoint and the
+ * admin REST calls used by user provisioning. Tokens are RS256 signed with a key generated at startup. Admin calls
+ * answer after a fixed delay to mimic Keycloak and its database.
+ */
+public class KeycloakStandIn implements AutoCloseable {
+
+    public static final String REALM = "CONTINENTAL";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Duration TOKEN_LIFETIME = Duration.ofHours(1);
+
+    private final RSAKey signingKey;
+    private final RSASSASigner signer;
+    private final HttpServer server;
+    private final Duration adminLatency;
+    private final AtomicLong adminRequests = new AtomicLong();
+
+    public KeycloakStandIn(Duration adminLatency) throws IOException, JOSEException {
+        this.adminLatency = adminLatency;
+        this.signingKey = new RSAKeyGenerator(2048).keyID("load-test").generate();
+        this.signer = new RSASSASigner(signingKey);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 512);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/realms/" + REALM + "/protocol/openid-connect/certs", this::jwks);
+        server.createContext("/realms/master/protocol/openid-connect/token", this::adminToken);
+        server.createContext("/admin/realms/" + REALM + "/", this::admin);
+        server.start();
+    }
+
+    public String serverUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public String issuer() {
+        return serverUrl() + "/realms/" + REALM;
+    }
+
+    public String jwkSetUri() {
+        return issuer() + "/protocol/openid-connect/certs";
+    }
+
+    public long adminRequests() {
+        return adminRequests.get();
+    }
+
+    /**
+     * A Keycloak-shaped access token for the given subject with realm roles.
+     */
+    public String issueToken(String subject, List<String> roles) {
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(issuer())
+                .subject(subject)
+                .audience("account")
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(TOKEN_LIFETIME)))
+                .jwtID(UUID.randomUUID().toString())
+                .claim("typ", "Bearer")
+                .claim("azp", "frontend")
+                .claim("sid", UUID.randomUUID().toString())
+                .claim("preferred_username", subject)
+                .claim("realm_access", Map.of("roles", roles))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256)
+                .type(JOSEObjectType.JWT)
+                .keyID(signingKey.getKeyID())
+                .build(), claims);
+        try {
+            jwt.sign(signer);
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Could not sign load test token", e);
+        }
+        return jwt.serialize();
+    }
+
+    private void jwks(HttpExchange exchange) throws IOException {
+        respond(exchange, 200, new JWKSet(signingKey.toPublicJWK()).toString());
+    }
+
+    private void adminToken(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        respond(exchange, 200, MAPPER.writeValueAsString(Map.of(
+                "access_token", issueToken("admin", List.of("admin")),
+                "expires_in", TOKEN_LIFETIME.toSeconds(),
+                "refresh_expires_in", TOKEN_LIFETIME.toSeconds(),
+                "refresh_token", issueToken("admin", List.of()),
+                "token_type", "Bearer")));
+    }
+
+    // POST users, GET groups?search= and PUT users/{id}/groups/{groupId}, everything else is 404
+    private void admin(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        adminRequests.incrementAndGet();
+        simulateLatency();
+        String path = exchange.getRequestURI().getPath().substring(("/admin/realms/" + REALM).length());
+        String method = exchange.getRequestMethod();
+        if (method.equals("POST") && path.equals("/users")) {
+            exchange.getResponseHeaders().set("Location", issuer().replace("/realms/", "/admin/realms/")
+                    + "/users/" + UUID.randomUUID());
+            respond(exchange, 201, null);
+        } else if (method.equals("GET") && path.equals("/groups")) {
+            String name = queryParameter(exchange, "search");
+            respond(exchange, 200, MAPPER.writeValueAsString(List.of(Map.of(
+                    "id", UUID.nameUUIDFromBytes(String.valueOf(name).getBytes(StandardCharsets.UTF_8)).toString(),
+                    "name", String.valueOf(name),
+                    "path", "/" + name,
+                    "subGroups", List.of()))));
+        } else if (method.equals("PUT") && path.matches("/users/[^/]+/groups/[^/]+")) {
+            respond(exchange, 204, null);
+        } else {
+            respond(exchange, 404, null);
+        }
+    }
+
+    private void simulateLatency() {
+        if (adminLatency.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(adminLatency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String queryParameter(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String parameter : query.split("&")) {
+            String[] pair = parameter.split("=", 2);
+            if (pair[0].equals(name)) {
+                return pair.length == 2 ? URLDecoder.decode(pair[1], StandardCharsets.UTF_8) : "";
+            }
+        }
+        return null;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json != null ? json.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (json != null) {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+        }
+        exchange.sendResponseHeaders(status, body.length > 0 ? body.length : -1);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,320 @@
+package com.bindstone.backend.loadtest;
+
+import com.bindstone.backend.BackendApplication;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load test of the backend against {@link KeycloakStandIn}, without Docker, Keycloak or network access.
+ * Each worker repeatedly picks a scenario from the configured mix and waits for its response. Arguments are
+ * {@code key=value} pairs; unknown keys are passed to the backend as Spring properties, e.g.
+ * {@code security.jwt.decoder.mode=lightweight}.
+ * <ul>
+ *     <li>{@code concurrency} workers, default 32</li>
+ *     <li>{@code warmup} and {@code duration} in seconds, default 10 and 30</li>
+ *     <li>{@code mix} weights, default {@code public:40,private:40,admin:15,create-user:5}</li>
+ *     <li>{@code subjects} distinct users and admins holding tokens, default 100</li>
+ *     <li>{@code admin-latency-ms} answer delay of the mock admin API, default 5</li>
+ * </ul>
+ * Latency percentiles are per scenario. Allocation is measured for the whole process, so it includes the load
+ * generator and the stand-in; both stay the same between runs, which keeps the numbers comparable.
+ */
+public class LoadTest {
+
+    enum Scenario {
+        PUBLIC("public", "GET", "/public"),
+        PRIVATE("private", "GET", "/private"),
+        ADMIN("admin", "GET", "/admin"),
+        CREATE_USER("create-user", "POST", "/admin/user");
+
+        final String key;
+        final String method;
+        final String path;
+
+        Scenario(String key, String method, String path) {
+            this.key = key;
+            this.method = method;
+            this.path = path;
+        }
+
+        static Scenario of(String key) {
+            for (Scenario scenario : values()) {
+                if (scenario.key.equals(key)) {
+                    return scenario;
+                }
+            }
+            throw new IllegalArgumentException("Unknown scenario '" + key + "'");
+        }
+    }
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final AtomicLong USER_SEQUENCE = new AtomicLong();
+    private static final Thread.Builder WORKER_THREADS = Thread.ofPlatform().daemon().name("load-worker-", 0);
+
+    private final Map<String, String> options;
+    private final int[] cumulativeWeights = new int[Scenario.values().length];
+    private final int totalWeight;
+
+    private LoadTest(Map<String, String> options) {
+        this.options = options;
+        Map<Scenario, Integer> mix = new LinkedHashMap<>();
+        for (String entry : option("mix", "public:40,private:40,admin:15,create-user:5").split(",")) {
+            String[] scenarioAndWeight = entry.trim().split(":");
+            mix.put(Scenario.of(scenarioAndWeight[0].trim()), Integer.parseInt(scenarioAndWeight[1].trim()));
+        }
+        int sum = 0;
+        for (Scenario scenario : Scenario.values()) {
+            sum += mix.getOrDefault(scenario, 0);
+            cumulativeWeights[scenario.ordinal()] = sum;
+        }
+        if (sum <= 0) {
+            throw new IllegalArgumentException("The scenario mix needs at least one positive weight");
+        }
+        this.totalWeight = sum;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            String[] keyAndValue = arg.split("=", 2);
+            options.put(keyAndValue[0], keyAndValue.length == 2 ? keyAndValue[1] : "true");
+        }
+        new LoadTest(options).run();
+    }
+
+    private void run() throws Exception {
+        int concurrency = Integer.parseInt(option("concurrency", "32"));
+        int subjects = Integer.parseInt(option("subjects", "100"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(option("warmup", "10")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(option("duration", "30")));
+        Duration adminLatency = Duration.ofMillis(Long.parseLong(option("admin-latency-ms", "5")));
+
+        try (KeycloakStandIn keycloak = new KeycloakStandIn(adminLatency);
+             ConfigurableApplicationContext backend = startBackend(keycloak)) {
+            int port = ((WebServerApplicationContext) backend).getWebServer().getPort();
+            List<String> userTokens = new ArrayList<>();
+            List<String> adminTokens = new ArrayList<>();
+            for (int i = 0; i < subjects; i++) {
+                userTokens.add(keycloak.issueToken("load-user-" + i, List.of("USER")));
+                adminTokens.add(keycloak.issueToken("load-admin-" + i, List.of("CONTINENTAL_ROLE_ADMIN")));
+            }
+
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            Worker[] workers = new Worker[concurrency];
+            for (int i = 0; i < concurrency; i++) {
+                workers[i] = new Worker(client, URI.create("http://127.0.0.1:" + port), userTokens, adminTokens);
+                workers[i].thread.start();
+            }
+
+            System.out.printf(Locale.ROOT, "Warming up for %ds with %d workers%n", warmup.toSeconds(), concurrency);
+            Thread.sleep(warmup);
+            Snapshot start = Snapshot.take();
+            for (Worker worker : workers) {
+                worker.measuring = true;
+            }
+            System.out.printf(Locale.ROOT, "Measuring for %ds%n", duration.toSeconds());
+            Thread.sleep(duration);
+            for (Worker worker : workers) {
+                worker.measuring = false;
+            }
+            Snapshot end = Snapshot.take();
+            for (Worker worker : workers) {
+                worker.running = false;
+            }
+            for (Worker worker : workers) {
+                worker.thread.join();
+            }
+            report(workers, start, end, keycloak);
+        }
+    }
+
+    private ConfigurableApplicationContext startBackend(KeycloakStandIn keycloak) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("logging.level.root", "WARN");
+        properties.put("spring.security.oauth2.resourceserver.jwt.issuer-uri", keycloak.issuer());
+        properties.put("spring.security.oauth2.resourceserver.jwt.jwk-set-uri", keycloak.jwkSetUri());
+        properties.put("security.jwt.jwks.snapshot-file", "");
+        properties.put("keycloak.server-url", keycloak.serverUrl());
+        properties.put("keycloak.realm", KeycloakStandIn.REALM);
+        // Measure the request path, not the limiter rejecting a handful of subjects
+        properties.put("security.rate-limit.rules", "");
+        options.forEach((key, value) -> {
+            if (!key.equals("concurrency") && !key.equals("subjects") && !key.equals("warmup")
+                    && !key.equals("duration") && !key.equals("mix") && !key.equals("admin-latency-ms")) {
+                properties.put(key, value);
+            }
+        });
+        // Command line arguments, default properties would lose against application.properties
+        return new SpringApplicationBuilder(BackendApplication.class)
+                .run(properties.entrySet().stream()
+                        .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                        .toArray(String[]::new));
+    }
+
+    private String option(String key, String defaultValue) {
+        return options.getOrDefault(key, defaultValue);
+    }
+
+    private Scenario pick() {
+        int value = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Scenario scenario : Scenario.values()) {
+            if (value < cumulativeWeights[scenario.ordinal()]) {
+                return scenario;
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    private void report(Worker[] workers, Snapshot start, Snapshot end, KeycloakStandIn keycloak) {
+        double seconds = (end.nanoTime - start.nanoTime) / 1e9;
+        long totalRequests = 0;
+        System.out.println();
+        System.out.printf(Locale.ROOT, "%-12s %10s %8s %10s %9s %9s %9s %9s%n",
+                "scenario", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        Histogram all = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+        for (Scenario scenario : Scenario.values()) {
+            Histogram histogram = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+            long errors = 0;
+            for (Worker worker : workers) {
+                histogram.add(worker.latencies[scenario.ordinal()]);
+                errors += worker.errors[scenario.ordinal()];
+            }
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            all.add(histogram);
+            totalRequests += histogram.getTotalCount();
+            printRow(scenario.key, histogram, errors, seconds);
+        }
+        long errors = 0;
+        for (Worker worker : workers) {
+            for (long scenarioErrors : worker.errors) {
+                errors += scenarioErrors;
+            }
+        }
+        printRow("total", all, errors, seconds);
+
+        long allocated = end.allocatedBytes - start.allocatedBytes;
+        System.out.println();
+        System.out.printf(Locale.ROOT, "allocation   %.1f MB/s, %.1f KB/request (whole process)%n",
+                allocated / seconds / (1024 * 1024), totalRequests > 0 ? allocated / 1024.0 / totalRequests : 0);
+        System.out.printf(Locale.ROOT, "gc           %d collections, %d ms%n",
+                end.gcCount - start.gcCount, end.gcMillis - start.gcMillis);
+        System.out.printf(Locale.ROOT, "admin api    %d calls to the stand-in%n", keycloak.adminRequests());
+    }
+
+    private static void printRow(String name, Histogram histogram, long errors, double seconds) {
+        System.out.printf(Locale.ROOT, "%-12s %10d %8d %10.0f %9.2f %9.2f %9.2f %9.2f%n",
+                name, histogram.getTotalCount(), errors, histogram.getTotalCount() / seconds,
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private final class Worker implements Runnable {
+
+        private final Thread thread = WORKER_THREADS.unstarted(this);
+        private final Histogram[] latencies = new Histogram[Scenario.values().length];
+        private final long[] errors = new long[Scenario.values().length];
+        private final HttpClient client;
+        private final URI baseUri;
+        private final List<String> userTokens;
+        private final List<String> adminTokens;
+        private volatile boolean running = true;
+        private volatile boolean measuring;
+
+        private Worker(HttpClient client, URI baseUri, List<String> userTokens, List<String> adminTokens) {
+            this.client = client;
+            this.baseUri = baseUri;
+            this.userTokens = userTokens;
+            this.adminTokens = adminTokens;
+            for (int i = 0; i < latencies.length; i++) {
+                latencies[i] = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                Scenario scenario = pick();
+                HttpRequest request = request(scenario);
+                long start = System.nanoTime();
+                boolean failed;
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    failed = response.statusCode() >= 300;
+                } catch (Exception e) {
+                    failed = true;
+                }
+                long elapsed = System.nanoTime() - start;
+                if (measuring) {
+                    latencies[scenario.ordinal()].recordValue(Math.min(elapsed, HIGHEST_TRACKABLE_NANOS));
+                    if (failed) {
+                        errors[scenario.ordinal()]++;
+                    }
+                }
+            }
+        }
+
+        private HttpRequest request(Scenario scenario) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(baseUri.resolve(scenario.path))
+                    .timeout(Duration.ofSeconds(30));
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            switch (scenario) {
+                case PUBLIC -> builder.GET();
+                case PRIVATE -> builder.GET()
+                        .header("Authorization", "Bearer " + userTokens.get(random.nextInt(userTokens.size())));
+                case ADMIN -> builder.GET()
+                        .header("Authorization", "Bearer " + adminTokens.get(random.nextInt(adminTokens.size())));
+                case CREATE_USER -> {
+                    String username = "load-" + USER_SEQUENCE.incrementAndGet();
+                    builder.POST(HttpRequest.BodyPublishers.ofString("""
+                                    {"username":"%s","email":"%s@example.com","firstName":"Load","lastName":"Test","password":"secret"}"""
+                                    .formatted(username, username)))
+                            .header("Content-Type", "application/json")
+                            .header("Authorization", "Bearer " + adminTokens.get(random.nextInt(adminTokens.size())));
+                }
+            }
+            return builder.build();
+        }
+    }
+
+    private record Snapshot(long nanoTime, long allocatedBytes, long gcCount, long gcMillis) {
+
+        static Snapshot take() {
+            long gcCount = 0;
+            long gcMillis = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                gcCount += Math.max(0, gc.getCollectionCount());
+                gcMillis += Math.max(0, gc.getCollectionTime());
+            }
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            return new Snapshot(System.nanoTime(), threads.getTotalThreadAllocatedBytes(), gcCount, gcMillis);
+        }
+    }
+}
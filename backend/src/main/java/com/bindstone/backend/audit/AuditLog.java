@@ -0,0 +1,193 @@
+package com.bindstone.backend.audit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audit trail of admin operations that stays off the request path. {@link #record} only puts the record into a
+ * lock-free ring buffer; a single writer thread drains it in batches into memory-mapped segments
+ * (see {@link AuditSegmentWriter}) and, with {@code audit.force=true}, flushes each batch to disk. When the buffer is
+ * full the record is dropped and counted rather than making the request wait. Dropped and unwritten records are
+ * reported at WARN, at most once every ten seconds. {@link AuditLogReader} replays the segments.
+ */
+@Component
+public class AuditLog implements MeterBinder, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLog.class);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long WARN_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final AuditRingBuffer buffer;
+    private final AuditSegmentWriter writer;
+    private final int batchSize;
+    private final Clock clock;
+    private final Thread writerThread;
+    private volatile boolean running = true;
+    private volatile boolean idle;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final AtomicLong nextWarning = new AtomicLong(System.nanoTime());
+
+    @Autowired
+    public AuditLog(@Value("${audit.directory:audit}") Path directory,
+                    @Value("${audit.buffer-size:8192}") int bufferSize,
+                    @Value("${audit.batch-size:256}") int batchSize,
+                    @Value("${audit.segment-size-bytes:16777216}") int segmentSize,
+                    @Value("${audit.force:true}") boolean force) {
+        this(directory, bufferSize, batchSize, segmentSize, force, Clock.systemUTC());
+    }
+
+    AuditLog(Path directory, int bufferSize, int batchSize, int segmentSize, boolean force, Clock clock) {
+        this.buffer = new AuditRingBuffer(bufferSize);
+        this.writer = new AuditSegmentWriter(directory, segmentSize, force);
+        this.batchSize = Math.max(1, batchSize);
+        this.clock = clock;
+        this.writerThread = new Thread(this::drain, "audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Queues an audit record stamped with the current time; returns false if the buffer was full and the record
+     * was dropped.
+     */
+    public boolean record(String realm, String actor, String action, String target, int status, boolean replayed) {
+        AuditRecord record = new AuditRecord(clock.instant(), realm, actor, action, target, status, replayed);
+        if (!running || !buffer.offer(record)) {
+            dropped.increment();
+            warnLost(null);
+            return false;
+        }
+        published.increment();
+        if (idle) {
+            LockSupport.unpark(writerThread);
+        }
+        return true;
+    }
+
+    public long getPublished() {
+        return published.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    public int pending() {
+        return buffer.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("audit.records", this, AuditLog::getPublished)
+                .tag("result", "published").register(registry);
+        FunctionCounter.builder("audit.records", this, AuditLog::getDropped)
+                .tag("result", "dropped").register(registry);
+        FunctionCounter.builder("audit.records", this, AuditLog::getWritten)
+                .tag("result", "written").register(registry);
+        FunctionCounter.builder("audit.records", this, AuditLog::getFailed)
+                .tag("result", "failed").register(registry);
+        FunctionCounter.builder("audit.batches", this, AuditLog::getBatches)
+                .register(registry);
+        Gauge.builder("audit.buffer.size", this, AuditLog::pending)
+                .register(registry);
+    }
+
+    // Stops taking records, writes what is queued and closes the segment
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void drain() {
+        List<AuditRecord> batch = new ArrayList<>(batchSize);
+        while (true) {
+            AuditRecord record;
+            while (batch.size() < batchSize && (record = buffer.poll()) != null) {
+                batch.add(record);
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+                continue;
+            }
+            if (!running) {
+                break;
+            }
+            idle = true;
+            // A record published before idle was set is picked up by this check, later ones unpark the thread
+            if (buffer.size() == 0 && running) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            idle = false;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.error("Could not close the audit segment", e);
+        }
+    }
+
+    private void write(List<AuditRecord> batch) {
+        try {
+            writer.append(batch);
+            written.add(batch.size());
+            batches.increment();
+        } catch (IOException | RuntimeException e) {
+            failed.add(batch.size());
+            warnLost(e);
+        }
+    }
+
+    // One warning per interval with the totals so far, so a full buffer or a broken disk does not flood the log
+    private void warnLost(Exception cause) {
+        long now = System.nanoTime();
+        long next = nextWarning.get();
+        if (now - next < 0 || !nextWarning.compareAndSet(next, now + WARN_INTERVAL_NANOS)) {
+            return;
+        }
+        if (cause == null) {
+            log.warn("Audit records lost: {} dropped because the buffer was full, {} failed to write", getDropped(),
+                    getFailed());
+        } else {
+            log.warn("Audit records lost: {} dropped because the buffer was full, {} failed to write", getDropped(),
+                    getFailed(), cause);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.bindstone.backend.audit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Replays the segments written by {@link AuditLog} in write order. Every frame is checked against its checksum; a
+ * frame that fails ends its segment (a write cut off by a crash) and is counted, replay goes on with the next
+ * segment. Reading the segment that is still being written sees the records of all completed writes.
+ */
+public class AuditLogReader {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogReader.class);
+
+    private final Path directory;
+    private long corruptFrames;
+
+    public AuditLogReader(Path directory) {
+        this.directory = directory;
+    }
+
+    public long replay(Consumer<AuditRecord> consumer) throws IOException {
+        return replay(Instant.EPOCH, consumer);
+    }
+
+    /**
+     * Hands every intact record written at or after {@code since} to {@code consumer} and returns how many there
+     * were.
+     */
+    public long replay(Instant since, Consumer<AuditRecord> consumer) throws IOException {
+        long replayed = 0;
+        for (Path segment : AuditSegmentWriter.segments(directory)) {
+            replayed += replaySegment(segment, since, consumer);
+        }
+        return replayed;
+    }
+
+    public long getCorruptFrames() {
+        return corruptFrames;
+    }
+
+    private long replaySegment(Path segment, Instant since, Consumer<AuditRecord> consumer) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.remaining() < AuditSegmentWriter.HEADER_SIZE || buffer.getInt() != AuditSegmentWriter.MAGIC
+                || buffer.getInt() != AuditSegmentWriter.VERSION) {
+            log.warn("Skipping {}: not an audit segment", segment);
+            corruptFrames++;
+            return 0;
+        }
+        CRC32C crc = new CRC32C();
+        long replayed = 0;
+        while (buffer.remaining() >= AuditSegmentWriter.FRAME_HEADER_SIZE) {
+            int position = buffer.position();
+            int length = buffer.getInt();
+            if (length == 0) {
+                break;
+            }
+            int checksum = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                return corrupt(segment, position, replayed);
+            }
+            ByteBuffer payload = buffer.slice(buffer.position(), length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                return corrupt(segment, position, replayed);
+            }
+            buffer.position(buffer.position() + length);
+            AuditRecord record = AuditRecord.decode(payload);
+            if (!record.timestamp().isBefore(since)) {
+                consumer.accept(record);
+                replayed++;
+            }
+        }
+        return replayed;
+    }
+
+    private long corrupt(Path segment, int position, long replayed) {
+        log.warn("Audit segment {} is corrupt at offset {}, skipping its remaining frames", segment, position);
+        corruptFrames++;
+        return replayed;
+    }
+}
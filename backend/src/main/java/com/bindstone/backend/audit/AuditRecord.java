@@ -0,0 +1,62 @@
+package com.bindstone.backend.audit;
+
+import org.springframework.http.HttpStatus;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * One audited admin operation: who ({@code actor}, the {@code sub} of the caller's token) did what ({@code action})
+ * to which user ({@code target}) in which realm, and the HTTP status it was answered with. {@code replayed} marks an
+ * answer that came from the idempotency cache without calling Keycloak again.
+ */
+public record AuditRecord(Instant timestamp, String realm, String actor, String action, String target, int status,
+                          boolean replayed) {
+
+    // Longer values are cut, so a frame always fits into a segment
+    static final int MAX_FIELD_LENGTH = 256;
+
+    public String outcome() {
+        HttpStatus httpStatus = HttpStatus.resolve(status);
+        return httpStatus != null ? httpStatus.name() : Integer.toString(status);
+    }
+
+    byte[] encode() {
+        byte[][] fields = {bytes(realm), bytes(actor), bytes(action), bytes(target)};
+        int size = Long.BYTES + Short.BYTES + 1;
+        for (byte[] field : fields) {
+            size += Short.BYTES + field.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size)
+                .putLong(timestamp.toEpochMilli())
+                .putShort((short) status)
+                .put((byte) (replayed ? 1 : 0));
+        for (byte[] field : fields) {
+            buffer.putShort((short) field.length).put(field);
+        }
+        return buffer.array();
+    }
+
+    static AuditRecord decode(ByteBuffer buffer) {
+        Instant timestamp = Instant.ofEpochMilli(buffer.getLong());
+        int status = buffer.getShort();
+        boolean replayed = buffer.get() != 0;
+        return new AuditRecord(timestamp, string(buffer), string(buffer), string(buffer), string(buffer), status,
+                replayed);
+    }
+
+    private static byte[] bytes(String value) {
+        if (value == null) {
+            return new byte[0];
+        }
+        String cut = value.length() > MAX_FIELD_LENGTH ? value.substring(0, MAX_FIELD_LENGTH) : value;
+        return cut.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(ByteBuffer buffer) {
+        byte[] value = new byte[buffer.getShort()];
+        buffer.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
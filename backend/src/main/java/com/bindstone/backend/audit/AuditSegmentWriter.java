@@ -0,0 +1,135 @@
+package com.bindstone.backend.audit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Appends audit records to memory-mapped segment files of a fixed size, {@code audit-0000000001.seg},
+ * {@code audit-0000000002.seg} and so on. A segment starts with a magic number and the format version, followed by
+ * frames of {@code length}, {@code CRC32C} of the payload and the payload itself; the zeroed rest of the file ends the
+ * segment. The length is written last, so a frame cut off by a crash is either invisible or fails its checksum.
+ * <p>
+ * A batch that does not fit rotates to a new segment. After a restart writing continues in a new segment, existing
+ * ones are never modified. Only the writer thread of {@link AuditLog} uses an instance.
+ */
+class AuditSegmentWriter implements Closeable {
+
+    static final int MAGIC = 0x41554431; // "AUD1"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 2 * Integer.BYTES;
+    static final int FRAME_HEADER_SIZE = 2 * Integer.BYTES;
+    static final int MIN_SEGMENT_SIZE = 64 * 1024;
+    static final String PREFIX = "audit-";
+    static final String SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean force;
+    private final CRC32C crc = new CRC32C();
+
+    private long segmentIndex;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long rotations;
+
+    AuditSegmentWriter(Path directory, int segmentSize, boolean force) {
+        this.directory = directory;
+        this.segmentSize = Math.max(MIN_SEGMENT_SIZE, segmentSize);
+        this.force = force;
+    }
+
+    void append(List<AuditRecord> batch) throws IOException {
+        if (buffer == null) {
+            open(lastSegmentIndex(directory) + 1);
+        }
+        int batchStart = buffer.position();
+        for (AuditRecord record : batch) {
+            byte[] payload = record.encode();
+            int frameSize = FRAME_HEADER_SIZE + payload.length;
+            // Keeps room for the zero length that ends the segment
+            if (buffer.remaining() < frameSize + Integer.BYTES) {
+                flush(batchStart);
+                rotate();
+                batchStart = buffer.position();
+            }
+            int position = buffer.position();
+            crc.reset();
+            crc.update(payload);
+            buffer.putInt(position + Integer.BYTES, (int) crc.getValue());
+            buffer.put(position + FRAME_HEADER_SIZE, payload);
+            buffer.putInt(position, payload.length);
+            buffer.position(position + frameSize);
+        }
+        flush(batchStart);
+    }
+
+    long getRotations() {
+        return rotations;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            buffer.force();
+            channel.close();
+            channel = null;
+            buffer = null;
+        }
+    }
+
+    static Path segmentPath(Path directory, long index) {
+        return directory.resolve(String.format("%s%010d%s", PREFIX, index, SUFFIX));
+    }
+
+    static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            // Zero padded indexes sort in write order
+            return files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }).sorted().toList();
+        }
+    }
+
+    private void flush(int from) {
+        if (force && buffer.position() > from) {
+            buffer.force(from, buffer.position() - from);
+        }
+    }
+
+    private void rotate() throws IOException {
+        close();
+        open(segmentIndex + 1);
+        rotations++;
+    }
+
+    private void open(long index) throws IOException {
+        Files.createDirectories(directory);
+        segmentIndex = index;
+        channel = FileChannel.open(segmentPath(directory, index), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // Mapping beyond the end grows the file to the full segment size, filled with zeros
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        buffer.putInt(MAGIC).putInt(VERSION);
+    }
+
+    private static long lastSegmentIndex(Path directory) throws IOException {
+        List<Path> segments = segments(directory);
+        if (segments.isEmpty()) {
+            return 0;
+        }
+        String name = segments.get(segments.size() - 1).getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,22 @@
+package com.bindstone.backend.config;
+
+import com.bindstone.backend.security.KeycloakJwkSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class JwkSetRefresher {
+
+    private final KeycloakJwkSource keycloakJwkSource;
+
+    public JwkSetRefresher(KeycloakJwkSource keycloakJwkSource) {
+        this.keycloakJwkSource = keycloakJwkSource;
+    }
+
+    // Keycloak publishes a new key before it signs with it, so periodic refreshes keep rotations off the request path
+    @Scheduled(initialDelayString = "${security.jwt.jwks.refresh-interval-ms:300000}",
+            fixedDelayString = "${security.jwt.jwks.refresh-interval-ms:300000}")
+    public void refresh() {
+        keycloakJwkSource.refresh();
+    }
+}
@@ -0,0 +1,101 @@
+package com.bindstone.backend.config;
+
+import com.bindstone.backend.security.KeycloakJwkSource;
+import com.bindstone.backend.security.KeycloakJwsKeySelector;
+import com.bindstone.backend.security.LightweightJwtDecoder;
+import com.bindstone.backend.security.MultiRealmJwtDecoder;
+import com.bindstone.backend.security.PooledJwsVerifierFactory;
+import com.bindstone.backend.security.SignatureVerifiers;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.util.StringUtils;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+public class JwtDecoderConfig {
+
+    private static final String CERTS_PATH = "/protocol/openid-connect/certs";
+
+    @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}")
+    private String issuerUri;
+
+    @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}")
+    private String jwkSetUri;
+
+    @Value("${security.jwt.jwks.snapshot-file:}")
+    private String snapshotFile;
+
+    @Value("${security.jwt.jwks.timeout-ms:5000}")
+    private long timeoutMillis;
+
+    @Value("${security.jwt.jwks.min-refetch-interval-ms:30000}")
+    private long minRefetchIntervalMillis;
+
+    @Value("${security.jwt.decoder.mode:standard}")
+    private String decoderMode;
+
+    @Bean(initMethod = "initialize")
+    public KeycloakJwkSource keycloakJwkSource() {
+        return new KeycloakJwkSource(URI.create(jwkSetUri),
+                StringUtils.hasText(snapshotFile) ? Path.of(snapshotFile) : null,
+                Duration.ofMillis(timeoutMillis),
+                Duration.ofMillis(minRefetchIntervalMillis));
+    }
+
+    // Verifiers of every realm share the pools, keys are told apart by their value
+    @Bean
+    public SignatureVerifiers signatureVerifiers(
+            @Value("${security.jwt.algorithms:RS256,ES256,EdDSA}") List<String> algorithms,
+            @Value("${security.jwt.signature-pool.max-keys:64}") int maxKeys) {
+        return SignatureVerifiers.of(algorithms, maxKeys);
+    }
+
+    // Replaces the Boot default decoder; building it does no I/O, the JWK set source fetches in the background
+    @Bean
+    public JwtDecoder keycloakJwtDecoder(KeycloakJwkSource keycloakJwkSource, SignatureVerifiers signatureVerifiers,
+                                 @Value("${security.jwt.trusted-issuers:}") List<String> trustedIssuers,
+                                 @Value("${security.jwt.realm-decoders.max-size:100}") int maxRealms,
+                                 @Value("${security.jwt.realm-decoders.unknown-ttl-seconds:300}") long unknownTtlSeconds) {
+        JwtDecoder decoder = realmDecoder(keycloakJwkSource, issuerUri, signatureVerifiers);
+        if (trustedIssuers.stream().allMatch(String::isBlank)) {
+            return decoder;
+        }
+        // Other realms get their JWK set without snapshot or scheduled refresh, an unknown kid refetches it
+        return new MultiRealmJwtDecoder(issuerUri, decoder,
+                trustedIssuers.stream().filter(issuer -> !issuer.isBlank()).toList(),
+                issuer -> {
+                    KeycloakJwkSource jwkSource = new KeycloakJwkSource(URI.create(issuer + CERTS_PATH), null,
+                            Duration.ofMillis(timeoutMillis), Duration.ofMillis(minRefetchIntervalMillis));
+                    return new MultiRealmJwtDecoder.Realm(realmDecoder(jwkSource, issuer, signatureVerifiers),
+                            () -> !jwkSource.getJwkSet().getKeys().isEmpty());
+                },
+                maxRealms, Duration.ofSeconds(unknownTtlSeconds));
+    }
+
+    private JwtDecoder realmDecoder(KeycloakJwkSource jwkSource, String issuer, SignatureVerifiers verifiers) {
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new KeycloakJwsKeySelector(jwkSource, verifiers));
+        processor.setJWSVerifierFactory(new PooledJwsVerifierFactory(verifiers));
+        // Claims are validated by the Spring validators below
+        processor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(processor);
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuer));
+        if ("lightweight".equalsIgnoreCase(decoderMode)) {
+            return new LightweightJwtDecoder(jwkSource, issuer, decoder, verifiers, Clock.systemUTC());
+        }
+        return decoder;
+    }
+}
@@ -0,0 +1,67 @@
+package com.bindstone.backend.config;
+
+import jakarta.ws.rs.client.ClientBuilder;
+import org.jboss.resteasy.client.jaxrs.ResteasyClient;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.KeycloakBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@EnableScheduling
+@ImportRuntimeHints(KeycloakRuntimeHints.class)
+public class KeycloakAdminConfig {
+
+    @Value("${keycloak.server-url}")
+    private String serverUrl;
+
+    @Value("${keycloak.admin.username}")
+    private String adminUsername;
+
+    @Value("${keycloak.admin.password}")
+    private String adminPassword;
+
+    @Value("${keycloak.admin.client-id}")
+    private String adminClientId;
+
+    @Value("${keycloak.admin.pool-size:20}")
+    private int poolSize;
+
+    @Value("${keycloak.admin.connection-ttl-seconds:300}")
+    private long connectionTtlSeconds;
+
+    @Value("${keycloak.admin.timeout-seconds:10}")
+    private long timeoutSeconds;
+
+    @Value("${keycloak.admin.token-min-validity-seconds:30}")
+    private long tokenMinValiditySeconds;
+
+    @Bean(destroyMethod = "close")
+    public Keycloak keycloakAdminClient() {
+        ResteasyClient client = ((ResteasyClientBuilder) ClientBuilder.newBuilder())
+                .connectionPoolSize(poolSize)
+                .maxPooledPerRoute(poolSize)
+                .connectionTTL(connectionTtlSeconds, TimeUnit.SECONDS)
+                .connectionCheckoutTimeout(timeoutSeconds, TimeUnit.SECONDS)
+                .connectTimeout(timeoutSeconds, TimeUnit.SECONDS)
+                .readTimeout(timeoutSeconds, TimeUnit.SECONDS)
+                .build();
+
+        Keycloak keycloak = KeycloakBuilder.builder()
+                .serverUrl(serverUrl)
+                .realm("master")
+                .username(adminUsername)
+                .password(adminPassword)
+                .clientId(adminClientId)
+                .resteasyClient(client)
+                .build();
+        keycloak.tokenManager().setMinTokenValidity(tokenMinValiditySeconds);
+        return keycloak;
+    }
+}
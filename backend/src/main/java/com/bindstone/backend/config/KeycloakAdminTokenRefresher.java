@@ -0,0 +1,34 @@
+package com.bindstone.backend.config;
+
+import org.keycloak.admin.client.Keycloak;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnWebApplication(type = Type.SERVLET)
+public class KeycloakAdminTokenRefresher {
+
+    private static final Logger log = LoggerFactory.getLogger(KeycloakAdminTokenRefresher.class);
+
+    private final Keycloak keycloak;
+
+    public KeycloakAdminTokenRefresher(Keycloak keycloak) {
+        this.keycloak = keycloak;
+    }
+
+    // The token manager only contacts Keycloak once the token is within its min validity,
+    // so request threads never pay for the admin login round-trip
+    @Scheduled(initialDelayString = "${keycloak.admin.token-refresh-interval-ms:15000}",
+            fixedDelayString = "${keycloak.admin.token-refresh-interval-ms:15000}")
+    public void refresh() {
+        try {
+            keycloak.tokenManager().getAccessTokenString();
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh Keycloak admin token: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.bindstone.backend.config;
+
+import org.jboss.resteasy.client.jaxrs.internal.proxy.ResteasyClientProxy;
+import org.keycloak.admin.client.JacksonProvider;
+import org.keycloak.admin.client.resource.GroupResource;
+import org.keycloak.admin.client.resource.GroupsResource;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.admin.client.resource.RealmsResource;
+import org.keycloak.admin.client.resource.RoleMappingResource;
+import org.keycloak.admin.client.resource.RoleScopeResource;
+import org.keycloak.admin.client.resource.UserResource;
+import org.keycloak.admin.client.resource.UsersResource;
+import org.keycloak.admin.client.spi.ResteasyClientClassicProvider;
+import org.keycloak.admin.client.token.TokenService;
+import org.keycloak.representations.AccessTokenResponse;
+import org.keycloak.representations.idm.CredentialRepresentation;
+import org.keycloak.representations.idm.ErrorRepresentation;
+import org.keycloak.representations.idm.GroupRepresentation;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.util.ClassUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Native image hints for the parts of the backend that rely on reflection the AOT engine cannot see: the RESTEasy
+ * proxies behind the Keycloak admin client built by {@code KeycloakBuilder}, the Keycloak representations bound by
+ * Jackson and the JAX-RS implementations RESTEasy discovers through {@code META-INF/services} files.
+ */
+public class KeycloakRuntimeHints implements RuntimeHintsRegistrar {
+
+    static final List<Class<?>> ADMIN_RESOURCES = List.of(
+            RealmsResource.class, RealmResource.class, UsersResource.class, UserResource.class,
+            GroupsResource.class, GroupResource.class, RoleMappingResource.class, RoleScopeResource.class,
+            TokenService.class);
+
+    static final List<Class<?>> REPRESENTATIONS = List.of(
+            UserRepresentation.class, CredentialRepresentation.class, GroupRepresentation.class,
+            RoleRepresentation.class, ErrorRepresentation.class, AccessTokenResponse.class);
+
+    // JAX-RS looks these implementations up by name, RESTEasy instantiates every listed provider
+    static final List<String> SERVICE_FILES = List.of(
+            "META-INF/services/jakarta.ws.rs.ext.Providers",
+            "META-INF/services/jakarta.ws.rs.ext.RuntimeDelegate",
+            "META-INF/services/jakarta.ws.rs.client.ClientBuilder");
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> resource : ADMIN_RESOURCES) {
+            // RESTEasy reads the JAX-RS annotations of every method and proxies the interface together with its marker
+            hints.reflection().registerType(resource, MemberCategory.INTROSPECT_PUBLIC_METHODS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS);
+            hints.proxies().registerJdkProxy(resource, ResteasyClientProxy.class);
+        }
+        bindingRegistrar.registerReflectionHints(hints.reflection(), REPRESENTATIONS.toArray(Class<?>[]::new));
+
+        hints.reflection().registerType(JacksonProvider.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.reflection().registerType(ResteasyClientClassicProvider.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.resources().registerPattern("META-INF/services/jakarta.ws.rs.*");
+        hints.resources().registerPattern("META-INF/services/org.keycloak.admin.client.spi.*");
+        for (String provider : serviceClasses(classLoader)) {
+            if (ClassUtils.isPresent(provider, classLoader)) {
+                hints.reflection().registerType(TypeReference.of(provider), MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                        MemberCategory.INTROSPECT_PUBLIC_METHODS);
+            }
+        }
+    }
+
+    static List<String> serviceClasses(ClassLoader classLoader) {
+        ClassLoader loader = classLoader != null ? classLoader : ClassUtils.getDefaultClassLoader();
+        Set<String> classes = new LinkedHashSet<>();
+        for (String serviceFile : SERVICE_FILES) {
+            try {
+                Enumeration<URL> files = loader.getResources(serviceFile);
+                while (files.hasMoreElements()) {
+                    try (BufferedReader reader = new BufferedReader(new InputStreamReader(files.nextElement().openStream(),
+                            StandardCharsets.UTF_8))) {
+                        reader.lines()
+                                .map(line -> line.replaceFirst("#.*", "").trim())
+                                .filter(line -> !line.isEmpty())
+                                .forEach(classes::add);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read " + serviceFile, e);
+            }
+        }
+        return List.copyOf(classes);
+    }
+}
@@ -0,0 +1,23 @@
+package com.bindstone.backend.config;
+
+import com.bindstone.backend.security.RateLimitFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnWebApplication(type = Type.SERVLET)
+public class RateLimitBucketEvictor {
+
+    private final RateLimitFilter rateLimitFilter;
+
+    public RateLimitBucketEvictor(RateLimitFilter rateLimitFilter) {
+        this.rateLimitFilter = rateLimitFilter;
+    }
+
+    @Scheduled(fixedDelayString = "${security.rate-limit.eviction-interval-ms:60000}")
+    public void evict() {
+        rateLimitFilter.evictIdle();
+    }
+}
@@ -1,92 +1,232 @@
 package com.bindstone.backend.config;
 
+import com.bindstone.backend.security.AuthFailureHandler;
+import com.bindstone.backend.security.CachingJwtDecoder;
+import com.bindstone.backend.security.CachingOpaqueTokenIntrospector;
+import com.bindstone.backend.security.CorsPolicy;
+import com.bindstone.backend.security.CorsPreflightFilter;
+import com.bindstone.backend.security.HybridTokenAuthenticationManagerResolver;
+import com.bindstone.backend.security.JwtDecoderCache;
+import com.bindstone.backend.security.KeycloakGrantedAuthoritiesConverter;
+import com.bindstone.backend.security.KeycloakOpaqueTokenAuthenticationConverter;
+import com.bindstone.backend.security.RateLimitFilter;
+import com.bindstone.backend.security.RateLimitRule;
+import com.bindstone.backend.security.RevocationCheckingJwtDecoder;
+import com.bindstone.backend.security.RevocationCheckingOpaqueTokenIntrospector;
+import com.bindstone.backend.security.RouteAuthorizationManager;
+import com.bindstone.backend.security.RouteRule;
+import com.bindstone.backend.security.SecurityEventLog;
+import com.bindstone.backend.security.SecurityMetrics;
+import com.bindstone.backend.security.TenantRealmResolver;
+import com.bindstone.backend.security.TokenRevocationList;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.converter.Converter;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.support.BasicAuthenticationInterceptor;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
-import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+import org.springframework.security.oauth2.server.resource.authentication.OpaqueTokenAuthenticationProvider;
+import org.springframework.security.oauth2.server.resource.introspection.SpringOpaqueTokenIntrospector;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
 import org.springframework.security.web.SecurityFilterChain;
 
-import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
+import org.springframework.web.client.RestTemplate;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collection;
+import java.time.Duration;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
+// Web security is enabled by Spring Boot for the servlet stack only, the reactive stack uses ReactiveSecurityConfig
 @Configuration
-@EnableWebSecurity
 public class SecurityConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
+
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    @ConditionalOnWebApplication(type = Type.SERVLET)
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtDecoder jwtDecoder, JwtDecoderCache jwtDecoderCache,
+                                                   TokenRevocationList tokenRevocationList,
+                                                   Converter<Jwt, AbstractAuthenticationToken> jwtAuthenticationConverter,
+                                                   SecurityMetrics securityMetrics, SecurityEventLog securityEventLog,
+                                                   RateLimitFilter rateLimitFilter,
+                                                   RouteAuthorizationManager routeAuthorizationManager,
+                                                   CorsConfigurationSource corsConfigurationSource,
+                                                   ObjectProvider<CachingOpaqueTokenIntrospector> opaqueTokenIntrospector,
+                                                   KeycloakGrantedAuthoritiesConverter keycloakGrantedAuthoritiesConverter) throws Exception {
+        AuthFailureHandler failureHandler = new AuthFailureHandler(securityMetrics, securityEventLog);
+        JwtDecoder decoder = securityMetrics.timed(new RevocationCheckingJwtDecoder(
+                new CachingJwtDecoder(jwtDecoder, jwtDecoderCache), tokenRevocationList));
+        Converter<Jwt, AbstractAuthenticationToken> converter = securityMetrics.timed(jwtAuthenticationConverter);
+        CachingOpaqueTokenIntrospector introspector = opaqueTokenIntrospector.getIfAvailable();
         http
-                .cors(cors -> cors.configurationSource(corsConfigurationSource()))
+                .cors(cors -> cors.configurationSource(corsConfigurationSource))
                 .authorizeHttpRequests(authorize -> authorize
-                        .requestMatchers("/public").permitAll()
-                        .requestMatchers("/private").authenticated()
-                        .requestMatchers("/admin").hasRole("CONTINENTAL_ROLE_ADMIN")
-                        .anyRequest().authenticated()
+                        .anyRequest().access(routeAuthorizationManager)
                 )
-                .oauth2ResourceServer(oauth2 -> oauth2
-                        .jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter()))
-                );
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(failureHandler)
+                        .accessDeniedHandler(failureHandler))
+                .oauth2ResourceServer(oauth2 -> {
+                    oauth2
+                            .authenticationEntryPoint(failureHandler)
+                            .accessDeniedHandler(failureHandler);
+                    if (introspector == null) {
+                        oauth2.jwt(jwt -> jwt
+                                .decoder(decoder)
+                                .jwtAuthenticationConverter(converter));
+                        return;
+                    }
+                    // Opaque tokens configured as well: pick the provider per token shape
+                    JwtAuthenticationProvider jwtProvider = new JwtAuthenticationProvider(decoder);
+                    jwtProvider.setJwtAuthenticationConverter(converter);
+                    OpaqueTokenAuthenticationProvider opaqueProvider = new OpaqueTokenAuthenticationProvider(
+                            securityMetrics.timed(new RevocationCheckingOpaqueTokenIntrospector(introspector, tokenRevocationList)));
+                    opaqueProvider.setAuthenticationConverter(
+                            new KeycloakOpaqueTokenAuthenticationConverter(keycloakGrantedAuthoritiesConverter));
+                    oauth2.authenticationManagerResolver(new HybridTokenAuthenticationManagerResolver(
+                            new ProviderManager(jwtProvider), new ProviderManager(opaqueProvider)));
+                })
+                .addFilterAfter(rateLimitFilter, BearerTokenAuthenticationFilter.class);
         return http.build();
     }
 
     @Bean
-    public Converter<Jwt, AbstractAuthenticationToken> jwtAuthenticationConverter() {
+    @ConditionalOnWebApplication(type = Type.SERVLET)
+    public RateLimitFilter rateLimitFilter(@Value("${security.rate-limit.rules:}") List<String> rules,
+                                           @Value("${security.rate-limit.idle-timeout-seconds:600}") long idleTimeoutSeconds) {
+        return new RateLimitFilter(rules.stream()
+                .filter(rule -> !rule.isBlank())
+                .map(RateLimitRule::parse)
+                .toList(), Duration.ofSeconds(idleTimeoutSeconds));
+    }
+
+    // The filter only runs inside the security chain, keep Spring Boot from adding it to the servlet filters as well
+    @Bean
+    @ConditionalOnWebApplication(type = Type.SERVLET)
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter rateLimitFilter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    @Bean
+    public SecurityMetrics securityMetrics(MeterRegistry meterRegistry) {
+        return new SecurityMetrics(meterRegistry);
+    }
+
+    @Bean
+    public SecurityEventLog securityEventLog(@Value("${security.events.capacity:4096}") int capacity,
+                                             @Value("${security.events.max-clients:1000}") int maxClients) {
+        return new SecurityEventLog(capacity, maxClients);
+    }
+
+    // Shared by the servlet and the reactive chain, so both stacks enforce the same table
+    @Bean
+    public RouteAuthorizationManager routeAuthorizationManager(@Value("${security.authorization.routes:}") List<String> routes,
+                                                               @Value("${security.authorization.default-access:authenticated}") String defaultAccess,
+                                                               @Value("${security.authorization.fail-on-conflict:false}") boolean failOnConflict,
+                                                               SecurityMetrics securityMetrics) {
+        RouteAuthorizationManager manager = new RouteAuthorizationManager(routes.stream()
+                .filter(route -> !route.isBlank())
+                .map(RouteRule::parse)
+                .toList(), defaultAccess, securityMetrics::timed);
+        manager.conflicts().forEach(conflict -> log.warn("Route authorization: {}", conflict));
+        if (failOnConflict && !manager.conflicts().isEmpty()) {
+            throw new IllegalStateException("Route authorization table has " + manager.conflicts().size() + " conflicting rules");
+        }
+        return manager;
+    }
+
+    // Introspects opaque tokens at Keycloak, only when an introspection endpoint is configured
+    @Bean
+    @ConditionalOnProperty("spring.security.oauth2.resourceserver.opaquetoken.introspection-uri")
+    public CachingOpaqueTokenIntrospector opaqueTokenIntrospector(
+            @Value("${spring.security.oauth2.resourceserver.opaquetoken.introspection-uri}") String introspectionUri,
+            @Value("${spring.security.oauth2.resourceserver.opaquetoken.client-id}") String clientId,
+            @Value("${spring.security.oauth2.resourceserver.opaquetoken.client-secret}") String clientSecret,
+            @Value("${security.opaque-token.timeout-ms:5000}") long timeoutMillis,
+            @Value("${security.opaque-token.cache.max-size:10000}") int maxSize,
+            @Value("${security.opaque-token.cache.max-ttl-seconds:60}") long maxTtlSeconds,
+            @Value("${security.opaque-token.cache.rejection-ttl-seconds:10}") long rejectionTtlSeconds) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(Duration.ofMillis(timeoutMillis));
+        requestFactory.setReadTimeout(Duration.ofMillis(timeoutMillis));
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        restTemplate.getInterceptors().add(new BasicAuthenticationInterceptor(clientId, clientSecret));
+        return new CachingOpaqueTokenIntrospector(new SpringOpaqueTokenIntrospector(introspectionUri, restTemplate),
+                maxSize, Duration.ofSeconds(maxTtlSeconds), Duration.ofSeconds(rejectionTtlSeconds));
+    }
+
+    @Bean
+    public TenantRealmResolver tenantRealmResolver(@Value("${keycloak.realm}") String defaultRealm) {
+        return new TenantRealmResolver(defaultRealm);
+    }
+
+    @Bean
+    public JwtDecoderCache jwtDecoderCache(@Value("${security.jwt.cache.max-size:10000}") int maxSize) {
+        return new JwtDecoderCache(maxSize);
+    }
+
+    @Bean
+    public TokenRevocationList tokenRevocationList(
+            @Value("${security.jwt.revocation.expected-entries:100000}") int expectedEntries,
+            @Value("${security.jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        return new TokenRevocationList(expectedEntries, falsePositiveRate);
+    }
+
+    @Bean
+    public KeycloakGrantedAuthoritiesConverter keycloakGrantedAuthoritiesConverter(
+            @Value("${security.jwt.authorities-cache.max-size:1024}") int maxSize) {
+        return new KeycloakGrantedAuthoritiesConverter(maxSize);
+    }
+
+    @Bean
+    public Converter<Jwt, AbstractAuthenticationToken> jwtAuthenticationConverter(
+            KeycloakGrantedAuthoritiesConverter keycloakGrantedAuthoritiesConverter) {
         JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
-        converter.setJwtGrantedAuthoritiesConverter(jwt -> {
-            List<GrantedAuthority> authorities = new ArrayList<>();
-
-            // Extract Realm Roles
-            Map<String, Object> realmAccess = (Map<String, Object>) jwt.getClaims().get("realm_access");
-            if (realmAccess != null && !realmAccess.isEmpty()) {
-                Collection<String> roles = (Collection<String>) realmAccess.get("roles");
-
-                if (roles != null) {
-                    authorities.addAll(roles.stream()
-                            .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
-                            .collect(Collectors.toList()));
-                }
-            }
-
-            // Extract Resource Roles
-            Map<String, Object> resourceAccess = (Map<String, Object>) jwt.getClaims().get("resource_access");
-            if (resourceAccess != null && !resourceAccess.isEmpty()) {
-                resourceAccess.values().forEach(resource -> {
-                    Map<String, Object> resourceMap = (Map<String, Object>) resource;
-                    Collection<String> roles = (Collection<String>) resourceMap.get("roles");
-                    if (roles != null) {
-                        authorities.addAll(roles.stream()
-                                .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
-                                .collect(Collectors.toList()));
-                    }
-                });
-            }
-            return authorities;
-        });
+        converter.setJwtGrantedAuthoritiesConverter(keycloakGrantedAuthoritiesConverter);
         return converter;
     }
 
     @Bean
-    public CorsConfigurationSource corsConfigurationSource() {
-        CorsConfiguration configuration = new CorsConfiguration();
-        configuration.setAllowedOrigins(List.of("http://localhost:3000"));
-        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type"));
+    public CorsPolicy corsPolicy(@Value("${security.cors.allowed-origins:http://localhost:3000}") List<String> allowedOrigins,
+                                 @Value("${security.cors.allowed-methods:GET,POST,PUT,DELETE,OPTIONS}") List<String> allowedMethods,
+                                 @Value("${security.cors.allowed-headers:Authorization,Content-Type,Idempotency-Key}") List<String> allowedHeaders,
+                                 @Value("${security.cors.max-age-seconds:1800}") long maxAgeSeconds) {
+        return new CorsPolicy(allowedOrigins, allowedMethods, allowedHeaders, Duration.ofSeconds(maxAgeSeconds));
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = Type.SERVLET)
+    public CorsConfigurationSource corsConfigurationSource(CorsPolicy corsPolicy) {
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
-        source.registerCorsConfiguration("/**", configuration);
+        source.registerCorsConfiguration("/**", corsPolicy.toCorsConfiguration());
         return source;
     }
+
+    // Preflight requests are answered before they reach the security filter chain
+    @Bean
+    @ConditionalOnWebApplication(type = Type.SERVLET)
+    public FilterRegistrationBean<CorsPreflightFilter> corsPreflightFilterRegistration(CorsPolicy corsPolicy) {
+        FilterRegistrationBean<CorsPreflightFilter> registration = new FilterRegistrationBean<>(new CorsPreflightFilter(corsPolicy));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
 }
\ No newline at end of file
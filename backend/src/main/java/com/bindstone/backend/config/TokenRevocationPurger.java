@@ -0,0 +1,21 @@
+package com.bindstone.backend.config;
+
+import com.bindstone.backend.security.TokenRevocationList;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TokenRevocationPurger {
+
+    private final TokenRevocationList tokenRevocationList;
+
+    public TokenRevocationPurger(TokenRevocationList tokenRevocationList) {
+        this.tokenRevocationList = tokenRevocationList;
+    }
+
+    // Revoked tokens are rejected by their own exp once it has passed, so their entries can go
+    @Scheduled(fixedDelayString = "${security.jwt.revocation.purge-interval-ms:60000}")
+    public void purge() {
+        tokenRevocationList.purgeExpired();
+    }
+}
@@ -1,41 +1,53 @@
 package com.bindstone.backend.controller;
 
+import com.bindstone.backend.audit.AuditLog;
+import com.bindstone.backend.dto.ProvisioningJobStatus;
+import com.bindstone.backend.dto.ProvisioningResult;
 import com.bindstone.backend.dto.UserPayload;
-import jakarta.ws.rs.core.Response;
-import org.keycloak.admin.client.Keycloak;
-import org.keycloak.admin.client.KeycloakBuilder;
-import org.keycloak.admin.client.resource.RealmResource;
-import org.keycloak.admin.client.resource.UsersResource;
-import org.keycloak.representations.idm.CredentialRepresentation;
-import org.keycloak.representations.idm.GroupRepresentation;
-import org.keycloak.representations.idm.UserRepresentation;
-import org.springframework.beans.factory.annotation.Value;
+import com.bindstone.backend.security.TenantRealmResolver;
+import com.bindstone.backend.service.IdempotencyCache;
+import com.bindstone.backend.service.ProvisioningJobService;
+import com.bindstone.backend.service.UserProvisioningService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.server.resource.authentication.AbstractOAuth2TokenAuthenticationToken;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.Collections;
+import java.net.URI;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
+@ConditionalOnWebApplication(type = Type.SERVLET)
 public class AdminController {
 
-    @Value("${keycloak.server-url}")
-    private String serverUrl;
-
-    @Value("${keycloak.realm}")
-    private String realm;
-
-    @Value("${keycloak.admin.username}")
-    private String adminUsername;
-
-    @Value("${keycloak.admin.password}")
-    private String adminPassword;
-
-    @Value("${keycloak.admin.client-id}")
-    private String adminClientId;
+    private static final String RETRY_AFTER_SECONDS = "5";
+    static final String CREATE_USER = "user.create";
+    static final String CREATE_USER_JOB = "user.create.job";
+
+    private final UserProvisioningService provisioningService;
+    private final ProvisioningJobService jobService;
+    private final IdempotencyCache idempotencyCache;
+    private final TenantRealmResolver realmResolver;
+    private final AuditLog auditLog;
+
+    public AdminController(UserProvisioningService provisioningService, ProvisioningJobService jobService,
+                           IdempotencyCache idempotencyCache, TenantRealmResolver realmResolver, AuditLog auditLog) {
+        this.provisioningService = provisioningService;
+        this.jobService = jobService;
+        this.idempotencyCache = idempotencyCache;
+        this.realmResolver = realmResolver;
+        this.auditLog = auditLog;
+    }
 
     @GetMapping("/admin")
     public ResponseEntity<String> hello() {
@@ -43,51 +55,75 @@ public class AdminController {
     }
 
     @PostMapping("/admin/user")
-    public ResponseEntity<String> createUser(@RequestBody UserPayload payload) {
-        try (Keycloak keycloak = KeycloakBuilder.builder()
-                .serverUrl(serverUrl)
-                .realm("master")
-                .username(adminUsername)
-                .password(adminPassword)
-                .clientId(adminClientId)
-                .build()) {
-
-            UserRepresentation user = new UserRepresentation();
-            user.setEnabled(true);
-            user.setUsername(payload.getUsername());
-            user.setEmail(payload.getEmail());
-            user.setFirstName(payload.getFirstName());
-            user.setLastName(payload.getLastName());
-
-            CredentialRepresentation credential = new CredentialRepresentation();
-            credential.setType(CredentialRepresentation.PASSWORD);
-            credential.setValue(payload.getPassword());
-            credential.setTemporary(false);
-            user.setCredentials(Collections.singletonList(credential));
-
-            RealmResource realmResource = keycloak.realm(realm);
-            UsersResource usersResource = realmResource.users();
+    public ResponseEntity<?> createUser(@RequestBody UserPayload payload,
+                                        @RequestParam(defaultValue = "false") boolean async,
+                                        @RequestHeader(name = IdempotencyCache.HEADER, required = false) String idempotencyKey,
+                                        Authentication authentication) {
+        String realm = realmResolver.resolve(authentication);
+        int status = HttpStatus.INTERNAL_SERVER_ERROR.value();
+        boolean replayed = false;
+        try {
+            ResponseEntity<?> response = createUser(realm, payload, async, idempotencyKey, authentication);
+            status = response.getStatusCode().value();
+            replayed = response.getHeaders().containsKey(IdempotencyCache.REPLAYED_HEADER);
+            return response;
+        } finally {
+            auditLog.record(realm, subject(authentication), CREATE_USER, payload.getUsername(), status, replayed);
+        }
+    }
 
-            Response response = usersResource.create(user);
+    @GetMapping("/admin/user/jobs/{id}")
+    public ResponseEntity<ProvisioningJobStatus> jobStatus(@PathVariable String id, Authentication authentication) {
+        return ResponseEntity.of(jobService.find(realmResolver.resolve(authentication), id));
+    }
 
-            if (response.getStatus() == 201) {
-                String userId = response.getLocation().getPath().replaceAll(".*/([^/]+)$", "$1");
+    private ResponseEntity<?> createUser(String realm, UserPayload payload, boolean async, String idempotencyKey,
+                                         Authentication authentication) {
+        if (idempotencyKey == null) {
+            return createUser(realm, payload, async, authentication);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > IdempotencyCache.MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest()
+                    .body("Idempotency-Key must be 1 to " + IdempotencyCache.MAX_KEY_LENGTH + " characters");
+        }
+        return idempotencyCache.execute(realm + '/' + authentication.getName(), idempotencyKey,
+                fingerprint(payload, async), () -> createUser(realm, payload, async, authentication));
+    }
 
-                //RoleRepresentation role = realmResource.roles().get("CONTINENTAL_ROLE_USER").toRepresentation();
-                //realmResource.users().get(userId).roles().realmLevel().add(Collections.singletonList(role));
+    private ResponseEntity<?> createUser(String realm, UserPayload payload, boolean async,
+                                         Authentication authentication) {
+        if (async) {
+            return submitUser(realm, payload, subject(authentication));
+        }
+        ProvisioningResult result = provisioningService.provision(realm, payload);
+        return ResponseEntity.status(result.status()).body(result.message());
+    }
 
-                //RoleRepresentation role = realmResource.clients().get("CONTINENTAL-CLIENT").roles().get("CONTINENTAL_ROLE_USER").toRepresentation();
-                //realmResource.users().get(userId).roles().realmLevel().add(Collections.singletonList(role));
-;
-                GroupRepresentation group = realmResource.groups().groups().stream().filter(x -> x.getName().equals("CONTINENTAL_GROUP_USER")).findFirst().get();
-                realmResource.users().get(userId).joinGroup(group.getId());
+    // The 202 is audited by the request, the outcome of the job by a second record once it completes
+    private ResponseEntity<?> submitUser(String realm, UserPayload payload, String actor) {
+        try {
+            ProvisioningJobStatus job = jobService.submit(realm, payload, done -> auditLog.record(realm, actor,
+                    CREATE_USER_JOB, done.username(), done.status(), false));
+            return ResponseEntity.accepted()
+                    .location(URI.create("/admin/user/jobs/" + job.id()))
+                    .body(job);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .body("Provisioning queue is full, retry later");
+        }
+    }
 
-                return ResponseEntity.status(HttpStatus.CREATED).body("User created successfully");
-            } else {
-                return ResponseEntity.status(response.getStatus()).body("Failed to create user: " + response.getStatusInfo().getReasonPhrase());
-            }
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error: " + e.getMessage());
+    static String subject(Authentication authentication) {
+        if (authentication instanceof AbstractOAuth2TokenAuthenticationToken<?> token
+                && token.getTokenAttributes().get("sub") != null) {
+            return token.getTokenAttributes().get("sub").toString();
         }
+        return authentication.getName();
+    }
+
+    // Hashed, so the password is not kept in memory for the lifetime of the key
+    private static String fingerprint(UserPayload payload, boolean async) {
+        return async + ":" + UserProvisioningService.fingerprint(payload);
     }
-}
\ No newline at end of file
+}
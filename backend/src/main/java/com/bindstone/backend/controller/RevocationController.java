@@ -0,0 +1,65 @@
+package com.bindstone.backend.controller;
+
+import com.bindstone.backend.dto.RevocationRequest;
+import com.bindstone.backend.security.TokenRevocationList;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@RestController
+public class RevocationController {
+
+    private final TokenRevocationList revocationList;
+    private final JwtDecoder jwtDecoder;
+    private final Duration sessionTtl;
+
+    public RevocationController(TokenRevocationList revocationList, JwtDecoder jwtDecoder,
+                                @Value("${security.jwt.revocation.session-ttl-seconds:36000}") long sessionTtlSeconds) {
+        this.revocationList = revocationList;
+        this.jwtDecoder = jwtDecoder;
+        this.sessionTtl = Duration.ofSeconds(sessionTtlSeconds);
+    }
+
+    @PostMapping("/admin/revocations")
+    public ResponseEntity<String> revoke(@RequestBody RevocationRequest request) {
+        if (request.token() != null) {
+            return revokeToken(request.token());
+        }
+        if (request.jti() != null) {
+            if (request.expiresAt() == null) {
+                return ResponseEntity.badRequest().body("expiresAt is required to revoke a jti");
+            }
+            revocationList.revokeToken(request.jti(), request.expiresAt());
+            return ResponseEntity.noContent().build();
+        }
+        if (request.sid() != null) {
+            // A session outlives its access tokens, keep it until the SSO session max unless told otherwise
+            Instant expiresAt = request.expiresAt() != null ? request.expiresAt() : Instant.now().plus(sessionTtl);
+            revocationList.revokeSession(request.sid(), expiresAt);
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.badRequest().body("One of token, jti or sid is required");
+    }
+
+    private ResponseEntity<String> revokeToken(String token) {
+        Jwt jwt;
+        try {
+            jwt = jwtDecoder.decode(token);
+        } catch (JwtException e) {
+            return ResponseEntity.badRequest().body("Token could not be verified: " + e.getMessage());
+        }
+        if (jwt.getId() == null || jwt.getExpiresAt() == null) {
+            return ResponseEntity.badRequest().body("Token has no jti or exp");
+        }
+        revocationList.revokeToken(jwt.getId(), jwt.getExpiresAt());
+        return ResponseEntity.noContent().build();
+    }
+}
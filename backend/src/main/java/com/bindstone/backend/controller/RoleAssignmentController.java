@@ -0,0 +1,59 @@
+package com.bindstone.backend.controller;
+
+import com.bindstone.backend.audit.AuditLog;
+import com.bindstone.backend.dto.RoleAssignmentRequest;
+import com.bindstone.backend.dto.RoleAssignmentSummary;
+import com.bindstone.backend.security.TenantRealmResolver;
+import com.bindstone.backend.service.RoleAssignmentService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Locale;
+
+@RestController
+@ConditionalOnWebApplication(type = Type.SERVLET)
+public class RoleAssignmentController {
+
+    private final RoleAssignmentService assignmentService;
+    private final TenantRealmResolver realmResolver;
+    private final AuditLog auditLog;
+
+    public RoleAssignmentController(RoleAssignmentService assignmentService, TenantRealmResolver realmResolver,
+                                    AuditLog auditLog) {
+        this.assignmentService = assignmentService;
+        this.realmResolver = realmResolver;
+        this.auditLog = auditLog;
+    }
+
+    // Answers 200 with the users that failed once every user was processed. A bad request gets 400 and a group or
+    // role outside the allow-list gets 403, both before any user is touched
+    @PostMapping("/admin/users/assignments")
+    public ResponseEntity<?> assign(@RequestBody RoleAssignmentRequest request,
+                                    @RequestParam(required = false) Integer concurrency,
+                                    Authentication authentication) {
+        String realm = realmResolver.resolve(authentication);
+        String actor = AdminController.subject(authentication);
+        try {
+            RoleAssignmentSummary summary = assignmentService.assign(realm, request,
+                    assignmentService.effectiveConcurrency(concurrency), result -> auditLog.record(realm, actor,
+                            action(request), result.username(), result.status(), false));
+            return ResponseEntity.ok(summary);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        }
+    }
+
+    private static String action(RoleAssignmentRequest request) {
+        return "user.assignments." + request.operation().name().toLowerCase(Locale.ROOT);
+    }
+}
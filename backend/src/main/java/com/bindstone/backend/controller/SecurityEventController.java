@@ -0,0 +1,47 @@
+package com.bindstone.backend.controller;
+
+import com.bindstone.backend.dto.SecurityEventSummary;
+import com.bindstone.backend.dto.SecurityEventSummary.ClientFailures;
+import com.bindstone.backend.security.SecurityEventLog;
+import com.bindstone.backend.service.SecurityEventStream;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@ConditionalOnWebApplication(type = Type.SERVLET)
+public class SecurityEventController {
+
+    private final SecurityEventLog eventLog;
+    private final SecurityEventStream eventStream;
+
+    public SecurityEventController(SecurityEventLog eventLog, SecurityEventStream eventStream) {
+        this.eventLog = eventLog;
+        this.eventStream = eventStream;
+    }
+
+    @GetMapping("/admin/security-events")
+    public SecurityEventSummary summary(@RequestParam(defaultValue = "100") int limit,
+                                        @RequestParam(defaultValue = "20") int clients) {
+        return new SecurityEventSummary(eventLog.position(), eventLog.countsByReason(),
+                eventLog.topClients(Math.max(0, clients)).stream()
+                        .map(entry -> new ClientFailures(entry.getKey(), entry.getValue()))
+                        .toList(),
+                eventLog.recent(Math.max(0, limit)));
+    }
+
+    @GetMapping(path = "/admin/security-events/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream() {
+        SseEmitter emitter = eventStream.subscribe();
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+}
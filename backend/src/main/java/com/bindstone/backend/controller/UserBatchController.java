@@ -0,0 +1,60 @@
+package com.bindstone.backend.controller;
+
+import com.bindstone.backend.dto.BatchSummary;
+import com.bindstone.backend.security.TenantRealmResolver;
+import com.bindstone.backend.service.UserBatchService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+@RestController
+@ConditionalOnWebApplication(type = Type.SERVLET)
+public class UserBatchController {
+
+    private final UserBatchService batchService;
+    private final ObjectMapper objectMapper;
+    private final TenantRealmResolver realmResolver;
+
+    public UserBatchController(UserBatchService batchService, ObjectMapper objectMapper,
+                               TenantRealmResolver realmResolver) {
+        this.batchService = batchService;
+        this.objectMapper = objectMapper;
+        this.realmResolver = realmResolver;
+    }
+
+    // Results are written as NDJSON while the body is still being read, one line per record plus a final summary
+    @PostMapping("/admin/users/batch")
+    public void createUsers(@RequestParam(required = false) Integer concurrency, Authentication authentication,
+                            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        ServletOutputStream out = response.getOutputStream();
+
+        BatchSummary summary = batchService.provisionAll(realmResolver.resolve(authentication),
+                request.getInputStream(), batchService.effectiveConcurrency(concurrency), result -> writeLine(out, result));
+        writeLine(out, Map.of("summary", summary));
+    }
+
+    private void writeLine(ServletOutputStream out, Object value) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
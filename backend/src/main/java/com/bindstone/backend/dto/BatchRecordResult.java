@@ -0,0 +1,8 @@
+package com.bindstone.backend.dto;
+
+public record BatchRecordResult(long index, String username, ProvisioningResult.Outcome outcome, int status, String message) {
+
+    public static BatchRecordResult of(long index, ProvisioningResult result) {
+        return new BatchRecordResult(index, result.username(), result.outcome(), result.status(), result.message());
+    }
+}
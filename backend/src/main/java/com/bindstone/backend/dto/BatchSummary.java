@@ -0,0 +1,4 @@
+package com.bindstone.backend.dto;
+
+public record BatchSummary(long total, long created, long conflict, long error, long elapsedMillis, double usersPerSecond) {
+}
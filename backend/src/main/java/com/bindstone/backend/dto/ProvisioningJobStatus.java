@@ -0,0 +1,15 @@
+package com.bindstone.backend.dto;
+
+import java.time.Instant;
+
+public record ProvisioningJobStatus(String id, String username, State state, int attempts,
+                                    Integer status, String message, Instant submittedAt, Instant completedAt) {
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        RETRYING,
+        SUCCEEDED,
+        FAILED
+    }
+}
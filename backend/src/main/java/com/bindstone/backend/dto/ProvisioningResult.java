@@ -0,0 +1,35 @@
+package com.bindstone.backend.dto;
+
+public record ProvisioningResult(String username, Outcome outcome, int status, String message) {
+
+    public enum Outcome {
+        CREATED,
+        CONFLICT,
+        ERROR
+    }
+
+    public static ProvisioningResult created(String username) {
+        return new ProvisioningResult(username, Outcome.CREATED, 201, "User created successfully");
+    }
+
+    public static ProvisioningResult rejected(String username, int status, String reason) {
+        Outcome outcome = status == 409 ? Outcome.CONFLICT : Outcome.ERROR;
+        return new ProvisioningResult(username, outcome, status, "Failed to create user: " + reason);
+    }
+
+    /**
+     * Unexpected failure. The message is fixed so that no exception detail reaches the client, callers log
+     * {@code e} themselves.
+     */
+    public static ProvisioningResult error(String username, Exception e) {
+        return new ProvisioningResult(username, Outcome.ERROR, 500, "Failed to create user: internal error");
+    }
+
+    /**
+     * Failures worth retrying: exceptions, 5xx and 429 answers from Keycloak. A conflict or any other 4xx will not
+     * change on a second try.
+     */
+    public boolean isTransient() {
+        return outcome == Outcome.ERROR && (status >= 500 || status == 429);
+    }
+}
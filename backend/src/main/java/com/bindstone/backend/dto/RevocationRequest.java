@@ -0,0 +1,10 @@
+package com.bindstone.backend.dto;
+
+import java.time.Instant;
+
+/**
+ * Either the raw {@code token} to revoke, a token ID ({@code jti}) with its {@code expiresAt},
+ * or a Keycloak session ID ({@code sid}) whose tokens should all be rejected.
+ */
+public record RevocationRequest(String token, String jti, String sid, Instant expiresAt) {
+}
@@ -0,0 +1,17 @@
+package com.bindstone.backend.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adds or removes the given {@code groups}, {@code realmRoles} and {@code clientRoles} (client ID to role names)
+ * for every username in {@code users}.
+ */
+public record RoleAssignmentRequest(Operation operation, List<String> users, List<String> groups,
+                                    List<String> realmRoles, Map<String, List<String>> clientRoles) {
+
+    public enum Operation {
+        ADD,
+        REMOVE
+    }
+}
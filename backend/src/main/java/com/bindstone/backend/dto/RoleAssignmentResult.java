@@ -0,0 +1,8 @@
+package com.bindstone.backend.dto;
+
+public record RoleAssignmentResult(String username, int status, String message) {
+
+    public static RoleAssignmentResult done(String username) {
+        return new RoleAssignmentResult(username, 200, "Assignments updated");
+    }
+}
@@ -0,0 +1,10 @@
+package com.bindstone.backend.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk assignment. Only the users that failed are listed, with the status Keycloak answered.
+ */
+public record RoleAssignmentSummary(RoleAssignmentRequest.Operation operation, long total, long succeeded, long failed,
+                                    long elapsedMillis, double usersPerSecond, List<RoleAssignmentResult> failures) {
+}
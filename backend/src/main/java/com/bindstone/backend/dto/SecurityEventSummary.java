@@ -0,0 +1,14 @@
+package com.bindstone.backend.dto;
+
+import com.bindstone.backend.security.AuthFailureReason;
+import com.bindstone.backend.security.SecurityEvent;
+
+import java.util.List;
+import java.util.Map;
+
+public record SecurityEventSummary(long position, Map<AuthFailureReason, Long> reasons, List<ClientFailures> clients,
+                                   List<SecurityEvent> events) {
+
+    public record ClientFailures(String client, long failures) {
+    }
+}
@@ -0,0 +1,104 @@
+package com.bindstone.backend.security;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.AbstractOAuth2TokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.web.BearerTokenAuthenticationEntryPoint;
+import org.springframework.security.oauth2.server.resource.web.access.BearerTokenAccessDeniedHandler;
+import org.springframework.security.web.AuthenticationEntryPoint;
+import org.springframework.security.web.access.AccessDeniedHandler;
+
+import java.io.IOException;
+import java.util.Base64;
+
+/**
+ * Counts every rejected request by {@link AuthFailureReason}, records it in the {@link SecurityEventLog} and then
+ * answers exactly like the default bearer token entry point and access denied handler.
+ */
+public class AuthFailureHandler implements AuthenticationEntryPoint, AccessDeniedHandler {
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final String BEARER = "Bearer ";
+    private static final int MAX_TOKEN_LENGTH = 8192;
+    private static final int MAX_CLIENT_LENGTH = 128;
+
+    private final SecurityMetrics metrics;
+    private final SecurityEventLog events;
+    private final AuthenticationEntryPoint entryPoint = new BearerTokenAuthenticationEntryPoint();
+    private final AccessDeniedHandler accessDeniedHandler = new BearerTokenAccessDeniedHandler();
+
+    public AuthFailureHandler(SecurityMetrics metrics, SecurityEventLog events) {
+        this.metrics = metrics;
+        this.events = events;
+    }
+
+    @Override
+    public void commence(HttpServletRequest request, HttpServletResponse response,
+                         AuthenticationException authException) throws IOException, ServletException {
+        AuthFailureReason reason = AuthFailureReason.of(authException);
+        metrics.failure(reason);
+        entryPoint.commence(request, response, authException);
+        events.record(reason, response.getStatus(), claimedClient(request), request.getRemoteAddr(),
+                request.getMethod(), request.getRequestURI());
+    }
+
+    @Override
+    public void handle(HttpServletRequest request, HttpServletResponse response,
+                       AccessDeniedException accessDeniedException) throws IOException, ServletException {
+        AuthFailureReason reason = AuthFailureReason.of(accessDeniedException);
+        metrics.failure(reason);
+        accessDeniedHandler.handle(request, response, accessDeniedException);
+        events.record(reason, response.getStatus(), authenticatedClient(), request.getRemoteAddr(),
+                request.getMethod(), request.getRequestURI());
+    }
+
+    private static String authenticatedClient() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof AbstractOAuth2TokenAuthenticationToken<?> token
+                && token.getTokenAttributes().get("azp") instanceof String azp) {
+            return azp;
+        }
+        return null;
+    }
+
+    // The token was rejected, so its azp is only what the caller claims; good enough to tell clients apart
+    private static String claimedClient(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BEARER, 0, BEARER.length())
+                || header.length() > MAX_TOKEN_LENGTH) {
+            return null;
+        }
+        int payloadStart = header.indexOf('.');
+        int payloadEnd = payloadStart < 0 ? -1 : header.indexOf('.', payloadStart + 1);
+        if (payloadEnd < 0) {
+            return null;
+        }
+        try (JsonParser parser = JSON.createParser(
+                Base64.getUrlDecoder().decode(header.substring(payloadStart + 1, payloadEnd)))) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("azp".equals(name) && value == JsonToken.VALUE_STRING) {
+                    String azp = parser.getText();
+                    return azp.length() <= MAX_CLIENT_LENGTH ? azp : null;
+                }
+                parser.skipChildren();
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // Not a JWT, recorded by remote address only
+        }
+        return null;
+    }
+}
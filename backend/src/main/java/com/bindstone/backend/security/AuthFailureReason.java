@@ -0,0 +1,85 @@
+package com.bindstone.backend.security;
+
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.InsufficientAuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.security.web.csrf.CsrfException;
+
+import java.util.Locale;
+
+public enum AuthFailureReason {
+
+    MISSING_TOKEN,
+    EXPIRED,
+    NOT_YET_VALID,
+    INVALID_ISSUER,
+    INVALID_CLAIMS,
+    INVALID_SIGNATURE,
+    REVOKED,
+    MALFORMED,
+    INVALID_TOKEN,
+    ACCESS_DENIED,
+    CSRF;
+
+    public String tag() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static AuthFailureReason of(Exception exception) {
+        if (exception instanceof CsrfException) {
+            return CSRF;
+        }
+        if (exception instanceof AccessDeniedException) {
+            return ACCESS_DENIED;
+        }
+        if (exception instanceof InsufficientAuthenticationException) {
+            return MISSING_TOKEN;
+        }
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof JwtValidationException validation) {
+                return ofValidationErrors(validation);
+            }
+            if (cause instanceof BadJwtException || cause instanceof BadOpaqueTokenException) {
+                return ofMessage(cause.getMessage());
+            }
+        }
+        return INVALID_TOKEN;
+    }
+
+    // The Spring validators only report their findings as error descriptions
+    private static AuthFailureReason ofValidationErrors(JwtValidationException exception) {
+        for (OAuth2Error error : exception.getErrors()) {
+            String description = String.valueOf(error.getDescription()).toLowerCase(Locale.ROOT);
+            if (description.contains("expired")) {
+                return EXPIRED;
+            }
+            if (description.contains("before")) {
+                return NOT_YET_VALID;
+            }
+            if (description.contains("iss")) {
+                return INVALID_ISSUER;
+            }
+        }
+        return INVALID_CLAIMS;
+    }
+
+    private static AuthFailureReason ofMessage(String message) {
+        String text = String.valueOf(message).toLowerCase(Locale.ROOT);
+        if (text.contains("revoked")) {
+            return REVOKED;
+        }
+        if (text.contains("issuer")) {
+            return INVALID_ISSUER;
+        }
+        if (text.contains("signature") || text.contains("no matching key")) {
+            return INVALID_SIGNATURE;
+        }
+        if (text.contains("malformed")) {
+            return MALFORMED;
+        }
+        return INVALID_TOKEN;
+    }
+}
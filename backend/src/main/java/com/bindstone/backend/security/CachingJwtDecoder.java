@@ -0,0 +1,34 @@
+package com.bindstone.backend.security;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * {@link JwtDecoder} that only runs the (expensive) signature verification of its delegate
+ * the first time a token is seen and serves repeated tokens from a {@link JwtDecoderCache}.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final JwtDecoderCache cache;
+
+    public CachingJwtDecoder(JwtDecoder delegate, JwtDecoderCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        if (!cache.isEnabled()) {
+            return delegate.decode(token);
+        }
+        Jwt cached = cache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+        Jwt jwt = delegate.decode(token);
+        cache.put(token, jwt);
+        return jwt;
+    }
+}
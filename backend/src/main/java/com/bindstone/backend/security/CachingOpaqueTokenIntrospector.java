@@ -0,0 +1,225 @@
+package com.bindstone.backend.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospectionClaimNames;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link OpaqueTokenIntrospector} that asks Keycloak about a token once and answers repeated lookups from memory.
+ * A result is kept for at most {@code maxTtl} and never past the token's {@code exp}, so a session ended in Keycloak
+ * is noticed within {@code maxTtl}. Concurrent lookups of the same token share one introspection call. A token
+ * Keycloak reports as inactive is rejected from memory for {@code rejectionTtl}, so replaying a bad token does not
+ * cost an introspection call each time; Keycloak errors are not cached. Keys are SHA-256 digests, the raw token is
+ * not kept.
+ */
+public class CachingOpaqueTokenIntrospector implements OpaqueTokenIntrospector, MeterBinder {
+
+    private final OpaqueTokenIntrospector delegate;
+    private final int maxSize;
+    private final int lowWater;
+    private final ReentrantLock sweepLock = new ReentrantLock();
+    private final Duration maxTtl;
+    private final Duration rejectionTtl;
+    private final Clock clock;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<OAuth2AuthenticatedPrincipal>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CachingOpaqueTokenIntrospector(OpaqueTokenIntrospector delegate, int maxSize, Duration maxTtl,
+                                          Duration rejectionTtl) {
+        this(delegate, maxSize, maxTtl, rejectionTtl, Clock.systemUTC());
+    }
+
+    public CachingOpaqueTokenIntrospector(OpaqueTokenIntrospector delegate, int maxSize, Duration maxTtl,
+                                          Duration rejectionTtl, Clock clock) {
+        this.delegate = delegate;
+        this.maxSize = maxSize;
+        this.lowWater = maxSize - Math.max(1, maxSize / 10);
+        this.maxTtl = maxTtl;
+        this.rejectionTtl = rejectionTtl;
+        this.clock = clock;
+    }
+
+    @Override
+    public OAuth2AuthenticatedPrincipal introspect(String token) {
+        String key = JwtDecoderCache.digest(token);
+        Entry cached = entries.get(key);
+        if (cached != null) {
+            if (clock.instant().isBefore(cached.expiresAt)) {
+                if (cached.principal == null) {
+                    rejections.increment();
+                    throw new BadOpaqueTokenException(cached.rejection);
+                }
+                hits.increment();
+                return cached.principal;
+            }
+            if (entries.remove(key, cached)) {
+                evictions.increment();
+            }
+        }
+
+        CompletableFuture<OAuth2AuthenticatedPrincipal> flight = new CompletableFuture<>();
+        CompletableFuture<OAuth2AuthenticatedPrincipal> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            collapsed.increment();
+            return await(leader);
+        }
+        misses.increment();
+        try {
+            OAuth2AuthenticatedPrincipal principal = delegate.introspect(token);
+            put(key, principal);
+            flight.complete(principal);
+            return principal;
+        } catch (BadOpaqueTokenException e) {
+            reject(key, e);
+            flight.completeExceptionally(e);
+            throw e;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getCollapsed() {
+        return collapsed.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("security.opaque.cache.requests", this, CachingOpaqueTokenIntrospector::getHits)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("security.opaque.cache.requests", this, CachingOpaqueTokenIntrospector::getRejections)
+                .tag("result", "rejected").register(registry);
+        FunctionCounter.builder("security.opaque.cache.requests", this, CachingOpaqueTokenIntrospector::getMisses)
+                .tag("result", "miss").register(registry);
+        FunctionCounter.builder("security.opaque.cache.requests", this, CachingOpaqueTokenIntrospector::getCollapsed)
+                .tag("result", "collapsed").register(registry);
+        FunctionCounter.builder("security.opaque.cache.evictions", this, CachingOpaqueTokenIntrospector::getEvictions)
+                .register(registry);
+        Gauge.builder("security.opaque.cache.size", this, CachingOpaqueTokenIntrospector::size)
+                .register(registry);
+    }
+
+    private void put(String key, OAuth2AuthenticatedPrincipal principal) {
+        if (maxSize <= 0) {
+            return;
+        }
+        Instant now = clock.instant();
+        Instant expiresAt = now.plus(maxTtl);
+        Instant exp = expiry(principal);
+        if (exp != null && exp.isBefore(expiresAt)) {
+            expiresAt = exp;
+        }
+        if (!now.isBefore(expiresAt)) {
+            return;
+        }
+        store(key, new Entry(principal, null, expiresAt), now);
+    }
+
+    // Only the token's own rejection is remembered, so an inactive token is not asked about again right away
+    private void reject(String key, BadOpaqueTokenException e) {
+        if (maxSize <= 0 || rejectionTtl.isZero() || rejectionTtl.isNegative()) {
+            return;
+        }
+        Instant now = clock.instant();
+        store(key, new Entry(null, e.getMessage(), now.plus(rejectionTtl)), now);
+    }
+
+    private void store(String key, Entry entry, Instant now) {
+        if (entries.size() >= maxSize) {
+            makeRoom(now);
+        }
+        entries.put(key, entry);
+    }
+
+    // Sweeps down to the low-water mark, so the next sweep is at least a tenth of the capacity of inserts away.
+    // Only one thread sweeps, the others carry on and may overshoot the bound by a few entries meanwhile
+    private void makeRoom(Instant now) {
+        if (!sweepLock.tryLock()) {
+            return;
+        }
+        try {
+            entries.values().removeIf(entry -> {
+                boolean expired = !now.isBefore(entry.expiresAt);
+                if (expired) {
+                    evictions.increment();
+                }
+                return expired;
+            });
+
+            // Still above the mark with live tokens: drop arbitrary entries, they will simply be introspected again
+            Iterator<String> keys = entries.keySet().iterator();
+            // The caller adds its entry next, so stop once that one fits under the mark
+            while (entries.size() >= lowWater && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+                evictions.increment();
+            }
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    // SpringOpaqueTokenIntrospector has already converted exp to an Instant
+    private static Instant expiry(OAuth2AuthenticatedPrincipal principal) {
+        return principal.getAttribute(OAuth2TokenIntrospectionClaimNames.EXP);
+    }
+
+    private static OAuth2AuthenticatedPrincipal await(CompletableFuture<OAuth2AuthenticatedPrincipal> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // A null principal marks a rejected token
+    private record Entry(OAuth2AuthenticatedPrincipal principal, String rejection, Instant expiresAt) {
+    }
+}
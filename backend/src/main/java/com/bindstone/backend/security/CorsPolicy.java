@@ -0,0 +1,119 @@
+package com.bindstone.backend.security;
+
+import org.springframework.web.cors.CorsConfiguration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Allowed CORS origins, methods and headers, shared by {@link CorsPreflightFilter} and Spring's CORS handling of
+ * actual requests. Origins follow {@link CorsConfiguration#setAllowedOriginPatterns} semantics, e.g.
+ * {@code https://app.example.com}, {@code https://*.example.com}, {@code https://*.example.com:[8443,9443]} or
+ * {@code *}, and are matched by {@link CorsConfiguration#checkOrigin}, so preflight and actual requests always agree.
+ * <p>
+ * Origins without wildcards or port lists are looked up in a set, which is how the real frontends are usually
+ * configured; only the remaining patterns, compiled once, are run through {@code checkOrigin}. Nothing is cached per
+ * request origin and no lookup takes a lock.
+ */
+public class CorsPolicy {
+
+    private final List<String> allowedOrigins;
+    private final List<String> allowedMethods;
+    private final List<String> allowedHeaders;
+    private final Duration maxAge;
+
+    private final Set<String> exactOrigins = new HashSet<>();
+    private final CorsConfiguration patternConfiguration = new CorsConfiguration();
+    private final boolean hasPatterns;
+    private final boolean anyHeader;
+    private final Set<String> methods;
+    private final Set<String> headers = new HashSet<>();
+
+    public CorsPolicy(List<String> allowedOrigins, List<String> allowedMethods, List<String> allowedHeaders,
+                      Duration maxAge) {
+        this.allowedOrigins = List.copyOf(allowedOrigins);
+        this.allowedMethods = List.copyOf(allowedMethods);
+        this.allowedHeaders = List.copyOf(allowedHeaders);
+        this.maxAge = maxAge;
+        List<String> patterns = new ArrayList<>();
+        for (String origin : this.allowedOrigins) {
+            if (origin.contains("*") || origin.contains("[")) {
+                patterns.add(origin);
+            } else {
+                exactOrigins.add(trimTrailingSlash(origin));
+            }
+        }
+        this.patternConfiguration.setAllowedOriginPatterns(patterns);
+        this.hasPatterns = !patterns.isEmpty();
+        this.anyHeader = allowedHeaders.contains(CorsConfiguration.ALL);
+        this.methods = Set.copyOf(allowedMethods);
+        for (String header : allowedHeaders) {
+            headers.add(header.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    public boolean isOriginAllowed(String origin) {
+        if (origin == null) {
+            return false;
+        }
+        // checkOrigin ignores a trailing slash as well
+        return exactOrigins.contains(trimTrailingSlash(origin))
+                || hasPatterns && patternConfiguration.checkOrigin(origin) != null;
+    }
+
+    public boolean isMethodAllowed(String method) {
+        return method != null && methods.contains(method);
+    }
+
+    /**
+     * Whether every header of a comma separated {@code Access-Control-Request-Headers} value is allowed.
+     */
+    public boolean areHeadersAllowed(String requestHeaders) {
+        if (anyHeader || requestHeaders == null || requestHeaders.isBlank()) {
+            return true;
+        }
+        for (String header : requestHeaders.split(",")) {
+            String name = header.trim();
+            if (!name.isEmpty() && !headers.contains(name.toLowerCase(Locale.ROOT))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean allowsAnyHeader() {
+        return anyHeader;
+    }
+
+    public List<String> getAllowedMethods() {
+        return allowedMethods;
+    }
+
+    public List<String> getAllowedHeaders() {
+        return allowedHeaders;
+    }
+
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+
+    private static String trimTrailingSlash(String origin) {
+        return origin.endsWith("/") ? origin.substring(0, origin.length() - 1) : origin;
+    }
+
+    /**
+     * The same policy for Spring's {@code CorsFilter} and {@code CorsWebFilter}.
+     */
+    public CorsConfiguration toCorsConfiguration() {
+        CorsConfiguration configuration = new CorsConfiguration();
+        configuration.setAllowedOriginPatterns(allowedOrigins);
+        configuration.setAllowedMethods(allowedMethods);
+        configuration.setAllowedHeaders(allowedHeaders);
+        configuration.setMaxAge(maxAge);
+        return configuration;
+    }
+}
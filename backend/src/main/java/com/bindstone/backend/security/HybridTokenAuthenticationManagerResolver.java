@@ -0,0 +1,39 @@
+package com.bindstone.backend.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationManagerResolver;
+import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
+import org.springframework.security.oauth2.server.resource.web.DefaultBearerTokenResolver;
+
+/**
+ * Sends JWT shaped bearer tokens (three dot separated parts) to the JWT decoder and everything else to Keycloak's
+ * introspection endpoint. Only the shape is checked here; a forged JWT fails signature verification as before.
+ */
+public class HybridTokenAuthenticationManagerResolver implements AuthenticationManagerResolver<HttpServletRequest> {
+
+    private final BearerTokenResolver tokenResolver = new DefaultBearerTokenResolver();
+    private final AuthenticationManager jwtAuthenticationManager;
+    private final AuthenticationManager opaqueTokenAuthenticationManager;
+
+    public HybridTokenAuthenticationManagerResolver(AuthenticationManager jwtAuthenticationManager,
+                                                    AuthenticationManager opaqueTokenAuthenticationManager) {
+        this.jwtAuthenticationManager = jwtAuthenticationManager;
+        this.opaqueTokenAuthenticationManager = opaqueTokenAuthenticationManager;
+    }
+
+    @Override
+    public AuthenticationManager resolve(HttpServletRequest request) {
+        String token = tokenResolver.resolve(request);
+        return token == null || isJwt(token) ? jwtAuthenticationManager : opaqueTokenAuthenticationManager;
+    }
+
+    static boolean isJwt(String token) {
+        int first = token.indexOf('.');
+        if (first < 0) {
+            return false;
+        }
+        int second = token.indexOf('.', first + 1);
+        return second > 0 && token.indexOf('.', second + 1) < 0;
+    }
+}
@@ -0,0 +1,184 @@
+package com.bindstone.backend.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded cache of already verified {@link Jwt}s, keyed by a SHA-256 digest of the raw token.
+ * Entries are dropped once the token's {@code exp} has passed. Hits read a concurrent map and only mark the entry
+ * as used; when full, a CLOCK sweep over the slots evicts an entry that was not used since the hand last passed it,
+ * an approximation of least recently used.
+ */
+public class JwtDecoderCache implements MeterBinder {
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final Clock clock;
+
+    // Only inserts take the lock, they follow a signature check that costs far more
+    private final ReentrantLock insertLock = new ReentrantLock();
+    private final Entry[] slots;
+    private int hand;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public JwtDecoderCache(int maxSize) {
+        this(maxSize, Clock.systemUTC());
+    }
+
+    public JwtDecoderCache(int maxSize, Clock clock) {
+        this.maxSize = maxSize;
+        this.clock = clock;
+        this.slots = new Entry[Math.max(0, maxSize)];
+    }
+
+    public Jwt get(String token) {
+        String key = digest(token);
+        Entry entry = entries.get(key);
+        if (entry != null && isExpired(entry.jwt, clock.instant())) {
+            if (entries.remove(key, entry)) {
+                evictions.increment();
+            }
+            entry = null;
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (!entry.used) {
+            entry.used = true;
+        }
+        hits.increment();
+        return entry.jwt;
+    }
+
+    public void put(String token, Jwt jwt) {
+        if (maxSize <= 0 || jwt.getExpiresAt() == null) {
+            return;
+        }
+        String key = digest(token);
+        insertLock.lock();
+        try {
+            if (entries.containsKey(key)) {
+                return;
+            }
+            Entry entry = new Entry(key, jwt);
+            slots[claimSlot(clock.instant())] = entry;
+            entries.put(key, entry);
+        } finally {
+            insertLock.unlock();
+        }
+    }
+
+    /**
+     * Advances the hand to a slot that can take a new entry: an empty one, one whose entry is already gone or
+     * expired, or one not used since the last sweep. Used entries get a second chance; should hits keep marking
+     * them, the sweep gives up after two turns and takes the slot under the hand.
+     */
+    private int claimSlot(Instant now) {
+        for (int step = 0; ; step++) {
+            int slot = hand;
+            hand = (hand + 1) % slots.length;
+            Entry entry = slots[slot];
+            if (entry == null || entries.get(entry.key) != entry) {
+                return slot;
+            }
+            if (entry.used && !isExpired(entry.jwt, now) && step < 2 * slots.length) {
+                entry.used = false;
+                continue;
+            }
+            if (entries.remove(entry.key, entry)) {
+                evictions.increment();
+            }
+            return slot;
+        }
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public void clear() {
+        insertLock.lock();
+        try {
+            entries.clear();
+            Arrays.fill(slots, null);
+        } finally {
+            insertLock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("security.jwt.cache.requests", this, JwtDecoderCache::getHits)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("security.jwt.cache.requests", this, JwtDecoderCache::getMisses)
+                .tag("result", "miss").register(registry);
+        FunctionCounter.builder("security.jwt.cache.evictions", this, JwtDecoderCache::getEvictions)
+                .register(registry);
+        Gauge.builder("security.jwt.cache.size", this, JwtDecoderCache::size)
+                .register(registry);
+    }
+
+    private static boolean isExpired(Jwt jwt, Instant now) {
+        return !now.isBefore(jwt.getExpiresAt());
+    }
+
+    static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class Entry {
+
+        private final String key;
+        private final Jwt jwt;
+        private volatile boolean used;
+
+        private Entry(String key, Jwt jwt) {
+            this.key = key;
+            this.jwt = jwt;
+        }
+    }
+}
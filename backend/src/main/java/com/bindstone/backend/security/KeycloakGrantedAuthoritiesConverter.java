@@ -0,0 +1,237 @@
+package com.bindstone.backend.security;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps Keycloak {@code realm_access} and {@code resource_access} roles to {@code ROLE_} authorities.
+ * The resulting immutable collection is memoized per distinct role sequence and the authorities themselves
+ * are interned, so a token whose role set was seen before is converted without building new authorities.
+ */
+public class KeycloakGrantedAuthoritiesConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+    private static final long SIGNATURE_SEED = 1125899906842597L;
+
+    private final int maxSize;
+    private final Map<Long, RoleSet> roleSets = new ConcurrentHashMap<>();
+    private final Map<String, GrantedAuthority> authorities = new ConcurrentHashMap<>();
+
+    public KeycloakGrantedAuthoritiesConverter(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public Collection<GrantedAuthority> convert(Jwt jwt) {
+        if (jwt instanceof KeycloakJwt keycloakJwt) {
+            return convert(keycloakJwt.getRoles());
+        }
+        return convert(jwt.getClaims());
+    }
+
+    // Roles already flattened by LightweightJwtDecoder, in the same order collectRoles would produce
+    public Collection<GrantedAuthority> convert(List<String> roles) {
+        if (maxSize <= 0) {
+            return List.copyOf(toAuthorities(roles, false));
+        }
+
+        long signature = SIGNATURE_SEED;
+        for (String role : roles) {
+            signature = hashRole(signature, role);
+        }
+        RoleSet cached = roleSets.get(signature);
+        if (cached != null && cached.matches(roles)) {
+            return cached.authorities();
+        }
+
+        RoleSet roleSet = new RoleSet(roles.toArray(String[]::new), List.copyOf(toAuthorities(roles, true)));
+        if (cached == null) {
+            if (roleSets.size() >= maxSize) {
+                evictOne(roleSets);
+            }
+            roleSets.put(signature, roleSet);
+        }
+        return roleSet.authorities();
+    }
+
+    public Collection<GrantedAuthority> convert(Map<String, Object> claims) {
+        Map<String, Object> realmAccess = asMap(claims.get("realm_access"));
+        Map<String, Object> resourceAccess = asMap(claims.get("resource_access"));
+        if (maxSize <= 0) {
+            return List.copyOf(toAuthorities(collectRoles(realmAccess, resourceAccess), false));
+        }
+
+        long signature = signature(realmAccess, resourceAccess);
+        RoleSet cached = roleSets.get(signature);
+        if (cached != null && cached.matches(realmAccess, resourceAccess)) {
+            return cached.authorities();
+        }
+
+        List<String> roles = collectRoles(realmAccess, resourceAccess);
+        RoleSet roleSet = new RoleSet(roles.toArray(String[]::new), List.copyOf(toAuthorities(roles, true)));
+        if (cached == null) {
+            if (roleSets.size() >= maxSize) {
+                evictOne(roleSets);
+            }
+            roleSets.put(signature, roleSet);
+        }
+        return roleSet.authorities();
+    }
+
+    public int size() {
+        return roleSets.size();
+    }
+
+    private List<GrantedAuthority> toAuthorities(List<String> roles, boolean intern) {
+        List<GrantedAuthority> result = new ArrayList<>(roles.size());
+        for (String role : roles) {
+            result.add(intern ? intern(role) : new SimpleGrantedAuthority(ROLE_PREFIX + role));
+        }
+        return result;
+    }
+
+    private GrantedAuthority intern(String role) {
+        GrantedAuthority authority = authorities.get(role);
+        if (authority == null) {
+            authority = new SimpleGrantedAuthority(ROLE_PREFIX + role);
+            if (authorities.size() < maxSize * 16) {
+                GrantedAuthority existing = authorities.putIfAbsent(role, authority);
+                if (existing != null) {
+                    authority = existing;
+                }
+            }
+        }
+        return authority;
+    }
+
+    private static List<String> collectRoles(Map<String, Object> realmAccess, Map<String, Object> resourceAccess) {
+        List<String> roles = new ArrayList<>();
+        // Extract Realm Roles
+        if (realmAccess != null) {
+            addRoles(realmAccess, roles);
+        }
+        // Extract Resource Roles
+        if (resourceAccess != null) {
+            for (Object resource : resourceAccess.values()) {
+                Map<String, Object> resourceMap = asMap(resource);
+                if (resourceMap != null) {
+                    addRoles(resourceMap, roles);
+                }
+            }
+        }
+        return roles;
+    }
+
+    private static void addRoles(Map<String, Object> access, List<String> roles) {
+        if (access.get("roles") instanceof Collection<?> values) {
+            for (Object role : values) {
+                // A null entry is no role, hashRoles skips it as well
+                if (role != null) {
+                    roles.add(String.valueOf(role));
+                }
+            }
+        }
+    }
+
+    // Walks the same sequence as collectRoles without copying it
+    private static long signature(Map<String, Object> realmAccess, Map<String, Object> resourceAccess) {
+        long hash = SIGNATURE_SEED;
+        if (realmAccess != null) {
+            hash = hashRoles(realmAccess, hash);
+        }
+        if (resourceAccess != null) {
+            for (Object resource : resourceAccess.values()) {
+                Map<String, Object> resourceMap = asMap(resource);
+                if (resourceMap != null) {
+                    hash = hashRoles(resourceMap, hash);
+                }
+            }
+        }
+        return hash;
+    }
+
+    private static long hashRoles(Map<String, Object> access, long hash) {
+        if (access.get("roles") instanceof Collection<?> values) {
+            for (Object role : values) {
+                if (role != null) {
+                    hash = hashRole(hash, role);
+                }
+            }
+        }
+        return hash;
+    }
+
+    private static long hashRole(long hash, Object role) {
+        hash = 31 * hash + role.hashCode();
+        return hash ^ (hash >>> 29);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(Object value) {
+        return value instanceof Map<?, ?> map && !map.isEmpty() ? (Map<String, Object>) map : null;
+    }
+
+    private static <K, V> void evictOne(Map<K, V> map) {
+        Iterator<K> keys = map.keySet().iterator();
+        if (keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private record RoleSet(String[] roles, List<GrantedAuthority> authorities) {
+
+        // Guards against signature collisions, compares element by element without allocating a key
+        boolean matches(Map<String, Object> realmAccess, Map<String, Object> resourceAccess) {
+            int index = 0;
+            if (realmAccess != null) {
+                index = matchRoles(realmAccess, index);
+            }
+            if (index >= 0 && resourceAccess != null) {
+                for (Object resource : resourceAccess.values()) {
+                    Map<String, Object> resourceMap = asMap(resource);
+                    if (resourceMap != null) {
+                        index = matchRoles(resourceMap, index);
+                        if (index < 0) {
+                            return false;
+                        }
+                    }
+                }
+            }
+            return index == roles.length;
+        }
+
+        boolean matches(List<String> candidate) {
+            if (candidate.size() != roles.length) {
+                return false;
+            }
+            for (int i = 0; i < roles.length; i++) {
+                if (!roles[i].equals(candidate.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int matchRoles(Map<String, Object> access, int index) {
+            if (access.get("roles") instanceof Collection<?> values) {
+                for (Object role : values) {
+                    if (index >= roles.length || !roles[index].equals(role)) {
+                        return -1;
+                    }
+                    index++;
+                }
+            }
+            return index;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.bindstone.backend.security;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * JWK set of the Keycloak realm held in memory, so verifying a token never waits on the network.
+ * <ul>
+ *     <li>{@link #initialize()} restores the last good set from the snapshot file and fetches the current one in the
+ *     background, so startup never waits on Keycloak; a token arriving before the fetch completes joins it.</li>
+ *     <li>{@link #refresh()} is called periodically to pick up rotated keys before tokens signed with them arrive.</li>
+ *     <li>A {@code kid} that is not known triggers a refetch, shared by concurrent callers and at most one per
+ *     {@code minRefetchInterval}.</li>
+ * </ul>
+ */
+public class KeycloakJwkSource implements JWKSource<SecurityContext> {
+
+    private static final Logger log = LoggerFactory.getLogger(KeycloakJwkSource.class);
+
+    @FunctionalInterface
+    public interface JwkSetLoader {
+        String load() throws IOException, InterruptedException;
+    }
+
+    private final JwkSetLoader loader;
+    private final Path snapshotFile;
+    private final Duration minRefetchInterval;
+    private final Clock clock;
+
+    private final AtomicReference<JWKSet> current = new AtomicReference<>(new JWKSet());
+    private final AtomicReference<CompletableFuture<JWKSet>> inFlight = new AtomicReference<>();
+    private volatile Instant lastFetchAttempt = Instant.MIN;
+
+    public KeycloakJwkSource(URI jwkSetUri, Path snapshotFile, Duration timeout, Duration minRefetchInterval) {
+        this(httpLoader(jwkSetUri, timeout), snapshotFile, minRefetchInterval, Clock.systemUTC());
+    }
+
+    public KeycloakJwkSource(JwkSetLoader loader, Path snapshotFile, Duration minRefetchInterval, Clock clock) {
+        this.loader = loader;
+        this.snapshotFile = snapshotFile;
+        this.minRefetchInterval = minRefetchInterval;
+        this.clock = clock;
+    }
+
+    public CompletableFuture<JWKSet> initialize() {
+        loadSnapshot();
+        return CompletableFuture.supplyAsync(this::refresh,
+                task -> Thread.ofVirtual().name("jwks-prefetch").start(task));
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) throws KeySourceException {
+        List<JWK> matches = jwkSelector.select(current.get());
+        if (!matches.isEmpty()) {
+            return matches;
+        }
+        // Unknown kid: the realm may have rotated its keys since the last refresh
+        if (inFlight.get() == null && clock.instant().isBefore(lastFetchAttempt.plus(minRefetchInterval))) {
+            return matches;
+        }
+        return jwkSelector.select(refresh());
+    }
+
+    public JWKSet refresh() {
+        CompletableFuture<JWKSet> running = inFlight.get();
+        if (running != null) {
+            return running.join();
+        }
+        CompletableFuture<JWKSet> fetch = new CompletableFuture<>();
+        if (!inFlight.compareAndSet(null, fetch)) {
+            CompletableFuture<JWKSet> other = inFlight.get();
+            return other != null ? other.join() : current.get();
+        }
+        try {
+            fetch.complete(fetch());
+        } catch (RuntimeException e) {
+            fetch.complete(current.get());
+        } finally {
+            inFlight.set(null);
+        }
+        return fetch.join();
+    }
+
+    public JWKSet getJwkSet() {
+        return current.get();
+    }
+
+    private JWKSet fetch() {
+        lastFetchAttempt = clock.instant();
+        try {
+            String json = loader.load();
+            JWKSet jwkSet = JWKSet.parse(json);
+            current.set(jwkSet);
+            writeSnapshot(jwkSet);
+            return jwkSet;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while fetching JWK set");
+        } catch (IOException | ParseException e) {
+            // toString keeps the exception class, a ConnectException has no message
+            log.warn("Could not fetch JWK set, keeping {} known key(s): {}", current.get().size(), e.toString());
+        }
+        return current.get();
+    }
+
+    private void loadSnapshot() {
+        if (snapshotFile == null || !Files.isReadable(snapshotFile)) {
+            return;
+        }
+        try {
+            JWKSet jwkSet = JWKSet.parse(Files.readString(snapshotFile, StandardCharsets.UTF_8));
+            current.set(jwkSet);
+            log.info("Loaded {} key(s) from JWK set snapshot {}", jwkSet.size(), snapshotFile);
+        } catch (IOException | ParseException e) {
+            log.warn("Ignoring unreadable JWK set snapshot {}: {}", snapshotFile, e.toString());
+        }
+    }
+
+    // Written to a temporary file first so a crash never leaves a truncated snapshot behind
+    private void writeSnapshot(JWKSet jwkSet) {
+        if (snapshotFile == null) {
+            return;
+        }
+        try {
+            Path directory = snapshotFile.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, snapshotFile.getFileName().toString(), ".tmp");
+            Files.writeString(temporary, jwkSet.toString(true), StandardCharsets.UTF_8);
+            Files.move(temporary, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not write JWK set snapshot {}: {}", snapshotFile, e.toString());
+        }
+    }
+
+    private static JwkSetLoader httpLoader(URI jwkSetUri, Duration timeout) {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(timeout).build();
+        HttpRequest request = HttpRequest.newBuilder(jwkSetUri).timeout(timeout)
+                .header("Accept", "application/json").GET().build();
+        return () -> {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IOException("JWK set endpoint answered " + response.statusCode());
+            }
+            return response.body();
+        };
+    }
+}
@@ -0,0 +1,56 @@
+package com.bindstone.backend.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.JWSKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Selects the realm keys for the {@code alg} and {@code kid} of a token header, for every algorithm the
+ * {@link SignatureVerifiers} accept. Unlike Nimbus' {@code JWSVerificationKeySelector} this also hands out Ed25519
+ * keys, which Nimbus only exports when Tink is on the class path. Keys come from {@link SignatureVerifiers#key}, so a
+ * JWK is converted once rather than for every token.
+ */
+public class KeycloakJwsKeySelector implements JWSKeySelector<SecurityContext> {
+
+    private final JWKSource<SecurityContext> jwkSource;
+    private final SignatureVerifiers verifiers;
+
+    public KeycloakJwsKeySelector(JWKSource<SecurityContext> jwkSource, SignatureVerifiers verifiers) {
+        this.jwkSource = jwkSource;
+        this.verifiers = verifiers;
+    }
+
+    @Override
+    public List<PublicKey> selectJWSKeys(JWSHeader header, SecurityContext context) throws KeySourceException {
+        if (!verifiers.accepts(header.getAlgorithm())) {
+            return List.of();
+        }
+        // Matches kid, key type, curve and use=sig; an unknown kid lets the source refetch the set
+        JWKMatcher matcher = JWKMatcher.forJWSHeader(header);
+        if (matcher == null) {
+            return List.of();
+        }
+        List<PublicKey> keys = new ArrayList<>(1);
+        for (JWK jwk : jwkSource.get(new JWKSelector(matcher), context)) {
+            try {
+                PublicKey key = verifiers.key(jwk);
+                if (SignatureVerifiers.matches(header.getAlgorithm(), key)) {
+                    keys.add(key);
+                }
+            } catch (JOSEException e) {
+                // Unusable key, tokens signed with it fail with "no matching key"
+            }
+        }
+        return keys;
+    }
+}
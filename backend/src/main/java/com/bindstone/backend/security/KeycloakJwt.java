@@ -0,0 +1,99 @@
+package com.bindstone.backend.security;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.io.Serial;
+import java.time.Instant;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * {@link Jwt} produced by {@link LightweightJwtDecoder}. Only the claims the application reads on every request
+ * are extracted up front, together with the flattened Keycloak roles. {@link #getClaims()} answers those claims
+ * directly and parses the complete payload only when another claim, or the whole map, is asked for.
+ */
+public class KeycloakJwt extends Jwt {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final List<String> roles;
+    private final Claims claims;
+
+    KeycloakJwt(String tokenValue, Instant issuedAt, Instant expiresAt, Map<String, Object> headers,
+                Map<String, Object> extractedClaims, List<String> roles, Supplier<Map<String, Object>> fullClaims) {
+        super(tokenValue, issuedAt, expiresAt, headers, extractedClaims);
+        this.roles = roles;
+        this.claims = new Claims(extractedClaims, fullClaims);
+    }
+
+    /**
+     * Realm roles followed by the roles of each {@code resource_access} client, the order the standard converter uses.
+     */
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    @Override
+    public Map<String, Object> getClaims() {
+        return claims;
+    }
+
+    boolean isMaterialized() {
+        return claims.full != null;
+    }
+
+    private static final class Claims extends AbstractMap<String, Object> {
+
+        private final Map<String, Object> extracted;
+        private transient Supplier<Map<String, Object>> loader;
+        private volatile Map<String, Object> full;
+
+        private Claims(Map<String, Object> extracted, Supplier<Map<String, Object>> loader) {
+            this.extracted = extracted;
+            this.loader = loader;
+        }
+
+        @Override
+        public Object get(Object key) {
+            Object value = extracted.get(key);
+            if (value != null || full == null && LightweightJwtDecoder.EXTRACTED_CLAIMS.contains(key)) {
+                return value;
+            }
+            return materialize().get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            if (extracted.containsKey(key)) {
+                return true;
+            }
+            return materialize().containsKey(key);
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return materialize().entrySet();
+        }
+
+        private Map<String, Object> materialize() {
+            Map<String, Object> result = full;
+            if (result == null) {
+                synchronized (this) {
+                    result = full;
+                    if (result == null) {
+                        result = Collections.unmodifiableMap(new LinkedHashMap<>(loader.get()));
+                        full = result;
+                        loader = null;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+}
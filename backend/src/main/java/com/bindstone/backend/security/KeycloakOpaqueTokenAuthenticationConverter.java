@@ -0,0 +1,38 @@
+package com.bindstone.backend.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospectionClaimNames;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthentication;
+import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionAuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenAuthenticationConverter;
+
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Maps the Keycloak roles of an introspected token with the same {@link KeycloakGrantedAuthoritiesConverter} as
+ * JWTs, so route rules see identical {@code ROLE_} authorities for both token types. Keycloak includes
+ * {@code realm_access} and {@code resource_access} in the introspection response.
+ */
+public class KeycloakOpaqueTokenAuthenticationConverter implements OpaqueTokenAuthenticationConverter {
+
+    private final KeycloakGrantedAuthoritiesConverter authoritiesConverter;
+
+    public KeycloakOpaqueTokenAuthenticationConverter(KeycloakGrantedAuthoritiesConverter authoritiesConverter) {
+        this.authoritiesConverter = authoritiesConverter;
+    }
+
+    @Override
+    public Authentication convert(String token, OAuth2AuthenticatedPrincipal principal) {
+        Collection<GrantedAuthority> authorities = authoritiesConverter.convert(principal.getAttributes());
+        OAuth2AuthenticatedPrincipal mapped = new OAuth2IntrospectionAuthenticatedPrincipal(principal.getName(),
+                principal.getAttributes(), authorities);
+        OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, token,
+                principal.getAttribute(OAuth2TokenIntrospectionClaimNames.IAT),
+                principal.<Instant>getAttribute(OAuth2TokenIntrospectionClaimNames.EXP));
+        return new BearerTokenAuthentication(mapped, accessToken, authorities);
+    }
+}
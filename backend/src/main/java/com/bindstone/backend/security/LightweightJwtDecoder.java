@@ -0,0 +1,337 @@
+package com.bindstone.backend.security;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.Algorithm;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyOperation;
+import com.nimbusds.jose.jwk.KeyType;
+import com.nimbusds.jose.jwk.KeyUse;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+import org.springframework.security.oauth2.jwt.MappedJwtClaimSetConverter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.PublicKey;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link JwtDecoder} for Keycloak tokens that skips building the full claim set. The signature is verified
+ * over the raw {@code header.payload} bytes with the pooled {@link SignatureVerifiers}, then a streaming parser reads only {@code exp}, {@code iat},
+ * {@code nbf}, {@code iss}, {@code sub}, {@code jti}, {@code sid}, {@code azp} and the realm and resource roles
+ * from the decoded payload and skips everything else. Validation matches
+ * {@code JwtValidators.createDefaultWithIssuer}: expiry and not-before with 60 seconds of clock skew, and the issuer.
+ * The resulting {@link KeycloakJwt} parses the rest of the payload only if someone asks for it.
+ * Tokens this decoder does not fully understand (a {@code crit} header or a {@code cnf} confirmation claim)
+ * are handed to the standard decoder.
+ */
+public class LightweightJwtDecoder implements JwtDecoder {
+
+    static final Set<String> EXTRACTED_CLAIMS = Set.of("exp", "iat", "nbf", "iss", "sub", "jti", "sid", "azp");
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final ObjectMapper MAPPER = new ObjectMapper(JSON);
+    private static final Converter<Map<String, Object>, Map<String, Object>> CLAIM_SET_CONVERTER =
+            MappedJwtClaimSetConverter.withDefaults(Collections.emptyMap());
+    private static final Duration CLOCK_SKEW = Duration.ofSeconds(60);
+
+    private final KeycloakJwkSource jwkSource;
+    private final String issuer;
+    private final JwtDecoder fallback;
+    private final SignatureVerifiers verifiers;
+    private final Clock clock;
+    private volatile VerificationKeys keys = new VerificationKeys(null, Map.of());
+
+    public LightweightJwtDecoder(KeycloakJwkSource jwkSource, String issuer, JwtDecoder fallback) {
+        this(jwkSource, issuer, fallback, Clock.systemUTC());
+    }
+
+    public LightweightJwtDecoder(KeycloakJwkSource jwkSource, String issuer, JwtDecoder fallback, Clock clock) {
+        this(jwkSource, issuer, fallback, new SignatureVerifiers(), clock);
+    }
+
+    public LightweightJwtDecoder(KeycloakJwkSource jwkSource, String issuer, JwtDecoder fallback,
+                                 SignatureVerifiers verifiers, Clock clock) {
+        this.jwkSource = jwkSource;
+        this.issuer = issuer;
+        this.fallback = fallback;
+        this.verifiers = verifiers;
+        this.clock = clock;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        int headerEnd = token.indexOf('.');
+        int payloadEnd = headerEnd < 0 ? -1 : token.indexOf('.', headerEnd + 1);
+        if (headerEnd <= 0 || payloadEnd < 0 || token.indexOf('.', payloadEnd + 1) >= 0) {
+            throw new BadJwtException("Malformed token");
+        }
+
+        Map<String, Object> headers = parseHeader(decodeSegment(token, 0, headerEnd));
+        if (headers.containsKey("crit")) {
+            return fallback.decode(token);
+        }
+        JWSAlgorithm algorithm = headers.get("alg") instanceof String alg ? JWSAlgorithm.parse(alg) : null;
+        if (algorithm == null || !verifiers.accepts(algorithm)) {
+            throw new BadJwtException("Unsupported algorithm " + headers.get("alg"));
+        }
+        verifySignature(token, headerEnd, payloadEnd, algorithm, headers.get("kid") instanceof String kid ? kid : null);
+
+        byte[] payload = decodeSegment(token, headerEnd + 1, payloadEnd);
+        Map<String, Object> claims = new HashMap<>(16);
+        List<String> roles = new ArrayList<>();
+        List<String> resourceRoles = new ArrayList<>();
+        if (!parsePayload(payload, claims, roles, resourceRoles)) {
+            return fallback.decode(token);
+        }
+        validate(claims);
+        roles.addAll(resourceRoles);
+
+        return new KeycloakJwt(token, (Instant) claims.get("iat"), (Instant) claims.get("exp"), headers,
+                claims, Collections.unmodifiableList(roles), () -> materialize(payload));
+    }
+
+    private void verifySignature(String token, int headerEnd, int payloadEnd, JWSAlgorithm algorithm, String kid) {
+        PublicKey key = findKey(kid, algorithm);
+        try {
+            if (!verifiers.verify(algorithm, key, token.substring(0, payloadEnd).getBytes(StandardCharsets.US_ASCII),
+                    decodeSegment(token, payloadEnd + 1, token.length()))) {
+                throw new BadJwtException("Invalid signature");
+            }
+        } catch (JOSEException e) {
+            throw new BadJwtException("Invalid signature: " + e.getMessage(), e);
+        }
+    }
+
+    private PublicKey findKey(String kid, JWSAlgorithm algorithm) {
+        if (kid == null) {
+            throw new BadJwtException("Invalid signature: token has no kid");
+        }
+        PublicKey key = currentKeys().find(kid, algorithm);
+        if (key == null) {
+            // Lets the JWK source refetch the set for a key it does not know yet
+            try {
+                jwkSource.get(new JWKSelector(new JWKMatcher.Builder().keyID(kid)
+                        .keyType(KeyType.forAlgorithm(algorithm)).keyUses(KeyUse.SIGNATURE, null)
+                        .algorithms(algorithm, null).build()), null);
+            } catch (KeySourceException e) {
+                throw new JwtException("Could not load the JWK set: " + e.getMessage(), e);
+            }
+            key = currentKeys().find(kid, algorithm);
+        }
+        if (key == null) {
+            throw new BadJwtException("Invalid signature: no matching key for kid " + kid);
+        }
+        return key;
+    }
+
+    private VerificationKeys currentKeys() {
+        JWKSet jwkSet = jwkSource.getJwkSet();
+        VerificationKeys current = keys;
+        if (current.jwkSet() != jwkSet) {
+            current = VerificationKeys.of(jwkSet, verifiers);
+            keys = current;
+        }
+        return current;
+    }
+
+    private void validate(Map<String, Object> claims) {
+        Instant now = clock.instant();
+        if (claims.get("exp") instanceof Instant exp && now.minus(CLOCK_SKEW).isAfter(exp)) {
+            throw invalid("Jwt expired at " + exp);
+        }
+        if (claims.get("nbf") instanceof Instant nbf && now.plus(CLOCK_SKEW).isBefore(nbf)) {
+            throw invalid("Jwt used before " + nbf);
+        }
+        if (issuer != null && !issuer.equals(claims.get("iss"))) {
+            throw invalid("The iss claim is not valid");
+        }
+    }
+
+    private static JwtValidationException invalid(String description) {
+        OAuth2Error error = new OAuth2Error(OAuth2ErrorCodes.INVALID_TOKEN, description,
+                "https://tools.ietf.org/html/rfc6750#section-3.1");
+        return new JwtValidationException("An error occurred while attempting to decode the Jwt: " + description,
+                List.of(error));
+    }
+
+    private static byte[] decodeSegment(String token, int start, int end) {
+        try {
+            return Base64.getUrlDecoder().decode(token.substring(start, end));
+        } catch (IllegalArgumentException e) {
+            throw new BadJwtException("Malformed token: " + e.getMessage(), e);
+        }
+    }
+
+    private static Map<String, Object> parseHeader(byte[] header) {
+        Map<String, Object> headers = new HashMap<>(4);
+        try (JsonParser parser = JSON.createParser(header)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.VALUE_STRING) {
+                    headers.put(name, parser.getText());
+                } else {
+                    // Critical or nested headers are not expected from Keycloak, keep them for completeness
+                    headers.put(name, MAPPER.readValue(parser, Object.class));
+                }
+            }
+        } catch (IOException e) {
+            throw new BadJwtException("Malformed token header: " + e.getMessage(), e);
+        }
+        return headers;
+    }
+
+    // Returns false when the token carries claims that only the standard validators check
+    private static boolean parsePayload(byte[] payload, Map<String, Object> claims, List<String> realmRoles,
+                                        List<String> resourceRoles) {
+        try (JsonParser parser = JSON.createParser(payload)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (name) {
+                    case "exp", "iat", "nbf" -> {
+                        if (value.isNumeric()) {
+                            claims.put(name, Instant.ofEpochSecond(parser.getLongValue()));
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    case "iss", "sub", "jti", "sid", "azp" -> {
+                        if (value == JsonToken.VALUE_STRING) {
+                            claims.put(name, parser.getText());
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    case "realm_access" -> readRoles(parser, value, realmRoles);
+                    case "resource_access" -> {
+                        if (value == JsonToken.START_OBJECT) {
+                            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                                readRoles(parser, parser.nextToken(), resourceRoles);
+                            }
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    case "cnf" -> {
+                        return false;
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new BadJwtException("Malformed payload: " + e.getMessage(), e);
+        }
+        return true;
+    }
+
+    // Reads {"roles": [...], ...} and leaves the parser on the closing brace
+    private static void readRoles(JsonParser parser, JsonToken value, List<String> roles) throws IOException {
+        if (value != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            JsonToken field = parser.nextToken();
+            if ("roles".equals(parser.currentName()) && field == JsonToken.START_ARRAY) {
+                JsonToken role;
+                while ((role = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (role == JsonToken.VALUE_STRING) {
+                        roles.add(parser.getText());
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> materialize(byte[] payload) {
+        try {
+            return CLAIM_SET_CONVERTER.convert(MAPPER.readValue(payload, Map.class));
+        } catch (IOException e) {
+            throw new BadJwtException("Malformed payload: " + e.getMessage(), e);
+        }
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Expected " + expected + " but found " + actual);
+        }
+    }
+
+    /**
+     * Keys of one JWK set by kid, limited to those {@link JWKMatcher#forJWSHeader} would accept: no {@code use} or
+     * {@code use=sig}, no {@code key_ops} or {@code verify} among them, and a key type and {@code alg} that fit the
+     * token's algorithm. An encryption key published under the same kid is never used to verify a signature.
+     */
+    private record VerificationKeys(JWKSet jwkSet, Map<String, List<VerificationKey>> byKid) {
+
+        static VerificationKeys of(JWKSet jwkSet, SignatureVerifiers verifiers) {
+            Map<String, List<VerificationKey>> byKid = new HashMap<>();
+            if (jwkSet != null) {
+                for (JWK jwk : jwkSet.getKeys()) {
+                    if (jwk.getKeyID() != null && canVerify(jwk)) {
+                        try {
+                            byKid.computeIfAbsent(jwk.getKeyID(), kid -> new ArrayList<>())
+                                    .add(new VerificationKey(jwk.getKeyType(), jwk.getAlgorithm(), verifiers.key(jwk)));
+                        } catch (JOSEException e) {
+                            // Unusable key, tokens signed with it fail with "no matching key"
+                        }
+                    }
+                }
+            }
+            byKid.replaceAll((kid, keys) -> List.copyOf(keys));
+            return new VerificationKeys(jwkSet, Map.copyOf(byKid));
+        }
+
+        PublicKey find(String kid, JWSAlgorithm algorithm) {
+            KeyType keyType = KeyType.forAlgorithm(algorithm);
+            for (VerificationKey candidate : byKid.getOrDefault(kid, List.of())) {
+                if (candidate.keyType().equals(keyType)
+                        && (candidate.algorithm() == null || candidate.algorithm().equals(algorithm))) {
+                    return candidate.key();
+                }
+            }
+            return null;
+        }
+
+        private static boolean canVerify(JWK jwk) {
+            return (jwk.getKeyUse() == null || KeyUse.SIGNATURE.equals(jwk.getKeyUse()))
+                    && (jwk.getKeyOperations() == null || jwk.getKeyOperations().contains(KeyOperation.VERIFY));
+        }
+    }
+
+    private record VerificationKey(KeyType keyType, Algorithm algorithm, PublicKey key) {
+    }
+}
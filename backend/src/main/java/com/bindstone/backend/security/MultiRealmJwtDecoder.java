@@ -0,0 +1,190 @@
+package com.bindstone.backend.security;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Accepts tokens of several Keycloak realms. The {@code iss} claim is read from the unverified payload and checked
+ * against the allow-list first; the token is then verified by the decoder of that realm, which also validates the
+ * issuer again. Allowed issuers are exact ({@code https://sso.example.com/realms/acme}) or any realm of a server
+ * ({@code https://sso.example.com/realms/*}).
+ * <p>
+ * The decoder of the default realm is built at startup. Decoders of other realms are built on their first token
+ * and kept in an LRU of at most {@code maxRealms}, so startup does not depend on the number of tenants and an
+ * evicted realm simply fetches its JWK set again.
+ * <p>
+ * The issuer is attacker controlled until the signature is checked. Under a wildcard only realm names of
+ * {@value #REALM_NAME_PATTERN} are accepted, and a realm that publishes no keys, such as one that does not exist,
+ * is remembered for {@code unknownRealmTtl} and rejected without another JWK set request.
+ */
+public class MultiRealmJwtDecoder implements JwtDecoder {
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final String ANY_REALM = "/realms/*";
+    static final String REALM_NAME_PATTERN = "[A-Za-z0-9_-]{1,64}";
+    private static final Pattern REALM_NAME = Pattern.compile(REALM_NAME_PATTERN);
+
+    /**
+     * Decoder of one realm, with a check whether its JWK set holds any key.
+     */
+    public record Realm(JwtDecoder decoder, BooleanSupplier hasKeys) {
+    }
+
+    private final String defaultIssuer;
+    private final JwtDecoder defaultDecoder;
+    private final Set<String> exactIssuers = new HashSet<>();
+    private final List<String> realmPrefixes = new ArrayList<>();
+    private final Function<String, Realm> realmFactory;
+    private final Map<String, Realm> realms;
+    private final Map<String, Instant> unknownRealms;
+    private final Duration unknownRealmTtl;
+    private final Clock clock;
+
+    public MultiRealmJwtDecoder(String defaultIssuer, JwtDecoder defaultDecoder, List<String> trustedIssuers,
+                                Function<String, Realm> realmFactory, int maxRealms, Duration unknownRealmTtl) {
+        this(defaultIssuer, defaultDecoder, trustedIssuers, realmFactory, maxRealms, unknownRealmTtl,
+                Clock.systemUTC());
+    }
+
+    MultiRealmJwtDecoder(String defaultIssuer, JwtDecoder defaultDecoder, List<String> trustedIssuers,
+                         Function<String, Realm> realmFactory, int maxRealms, Duration unknownRealmTtl, Clock clock) {
+        this.defaultIssuer = defaultIssuer;
+        this.defaultDecoder = defaultDecoder;
+        this.realmFactory = realmFactory;
+        this.unknownRealmTtl = unknownRealmTtl;
+        this.clock = clock;
+        for (String issuer : trustedIssuers) {
+            if (issuer.endsWith(ANY_REALM)) {
+                realmPrefixes.add(issuer.substring(0, issuer.length() - 1));
+            } else if (issuer.contains("*")) {
+                throw new IllegalArgumentException("Unsupported trusted issuer '" + issuer
+                        + "', expected an exact issuer or <server>/realms/*");
+            } else {
+                exactIssuers.add(issuer);
+            }
+        }
+        // Lookups reorder an access ordered map, so every access holds the lock; building a decoder does no I/O
+        this.realms = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Realm> eldest) {
+                return size() > maxRealms;
+            }
+        };
+        this.unknownRealms = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Instant> eldest) {
+                return size() > maxRealms;
+            }
+        };
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String issuer = issuer(token);
+        if (defaultIssuer.equals(issuer)) {
+            return defaultDecoder.decode(token);
+        }
+        if (issuer == null || !isTrusted(issuer)) {
+            throw new BadJwtException("Untrusted token issuer");
+        }
+        Realm realm = realm(issuer);
+        try {
+            return realm.decoder().decode(token);
+        } catch (JwtException e) {
+            if (!realm.hasKeys().getAsBoolean()) {
+                synchronized (realms) {
+                    realms.remove(issuer, realm);
+                    unknownRealms.put(issuer, clock.instant().plus(unknownRealmTtl));
+                }
+            }
+            throw e;
+        }
+    }
+
+    private Realm realm(String issuer) {
+        synchronized (realms) {
+            Instant retryAt = unknownRealms.get(issuer);
+            if (retryAt != null) {
+                if (clock.instant().isBefore(retryAt)) {
+                    throw new BadJwtException("Unknown token realm");
+                }
+                unknownRealms.remove(issuer);
+            }
+            Realm realm = realms.get(issuer);
+            if (realm == null) {
+                try {
+                    realm = realmFactory.apply(issuer);
+                } catch (RuntimeException e) {
+                    throw new BadJwtException("Unusable token issuer", e);
+                }
+                realms.put(issuer, realm);
+            }
+            return realm;
+        }
+    }
+
+    public boolean isTrusted(String issuer) {
+        if (defaultIssuer.equals(issuer) || exactIssuers.contains(issuer)) {
+            return true;
+        }
+        for (String prefix : realmPrefixes) {
+            if (issuer.startsWith(prefix)
+                    && REALM_NAME.matcher(issuer).region(prefix.length(), issuer.length()).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int realmCount() {
+        synchronized (realms) {
+            return realms.size();
+        }
+    }
+
+    // Streams the payload until the top level iss, nothing is verified yet
+    static String issuer(String token) {
+        int headerEnd = token.indexOf('.');
+        int payloadEnd = headerEnd < 0 ? -1 : token.indexOf('.', headerEnd + 1);
+        if (headerEnd <= 0 || payloadEnd < 0 || token.indexOf('.', payloadEnd + 1) >= 0) {
+            throw new BadJwtException("Malformed token");
+        }
+        try (JsonParser parser = JSON.createParser(
+                Base64.getUrlDecoder().decode(token.substring(headerEnd + 1, payloadEnd)))) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new BadJwtException("Malformed token payload");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("iss".equals(name)) {
+                    return value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                }
+                parser.skipChildren();
+            }
+            return null;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new BadJwtException("Malformed token payload", e);
+        }
+    }
+}
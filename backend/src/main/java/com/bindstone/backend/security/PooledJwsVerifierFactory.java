@@ -0,0 +1,73 @@
+package com.bindstone.backend.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.jca.JCAContext;
+import com.nimbusds.jose.proc.JWSVerifierFactory;
+import com.nimbusds.jose.util.Base64URL;
+
+import java.security.Key;
+import java.security.PublicKey;
+import java.util.Set;
+
+/**
+ * Plugs {@link SignatureVerifiers} into the Nimbus processor behind the standard decoder, replacing the default
+ * factory that builds a new verifier, and with it a new JCA {@code Signature}, for every token.
+ */
+public class PooledJwsVerifierFactory implements JWSVerifierFactory {
+
+    private final SignatureVerifiers verifiers;
+    private final JCAContext jcaContext = new JCAContext();
+
+    public PooledJwsVerifierFactory(SignatureVerifiers verifiers) {
+        this.verifiers = verifiers;
+    }
+
+    @Override
+    public JWSVerifier createJWSVerifier(JWSHeader header, Key key) throws JOSEException {
+        if (!(key instanceof PublicKey publicKey) || !SignatureVerifiers.matches(header.getAlgorithm(), publicKey)) {
+            throw new JOSEException("Unsupported JWS algorithm " + header.getAlgorithm() + " for the given key");
+        }
+        return new Verifier(publicKey);
+    }
+
+    @Override
+    public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+        return verifiers.getAlgorithms();
+    }
+
+    @Override
+    public JCAContext getJCAContext() {
+        return jcaContext;
+    }
+
+    private final class Verifier implements JWSVerifier {
+
+        private final PublicKey key;
+
+        Verifier(PublicKey key) {
+            this.key = key;
+        }
+
+        @Override
+        public boolean verify(JWSHeader header, byte[] signingInput, Base64URL signature) throws JOSEException {
+            // No critical header parameter is understood, same as the Nimbus verifiers without deferred params
+            if (header.getCriticalParams() != null && !header.getCriticalParams().isEmpty()) {
+                return false;
+            }
+            return verifiers.verify(header.getAlgorithm(), key, signingInput, signature.decode());
+        }
+
+        @Override
+        public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+            return verifiers.getAlgorithms();
+        }
+
+        @Override
+        public JCAContext getJCAContext() {
+            return jcaContext;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.bindstone.backend.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket rate limiting, placed after bearer token authentication so buckets can be keyed by the
+ * caller's JWT. The first matching {@link RateLimitRule} applies; requests without a rule are not limited.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding the theoretical arrival time of the next request
+ * (GCRA, equivalent to a token bucket), so taking a token is one CAS and needs no lock. Buckets live in one
+ * {@link ConcurrentHashMap} per rule, whose bins spread concurrent callers over independent stripes.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String REJECTED_MESSAGE = "Rate limit exceeded";
+
+    private final List<Limiter> limiters;
+    private final long idleTimeoutNanos;
+    private final LongSupplier nanoClock;
+
+    public RateLimitFilter(List<RateLimitRule> rules, Duration idleTimeout) {
+        this(rules, idleTimeout, System::nanoTime);
+    }
+
+    RateLimitFilter(List<RateLimitRule> rules, Duration idleTimeout, LongSupplier nanoClock) {
+        this.limiters = rules.stream().map(Limiter::new).toList();
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Limiter limiter = find(request);
+        if (limiter != null) {
+            long waitNanos = limiter.acquire(key(limiter.rule.key(), request), nanoClock.getAsLong());
+            if (waitNanos > 0) {
+                long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+                reject(response, retryAfterSeconds);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    // Written directly: sendError would dispatch to /error, which the security chain may answer with a 401
+    private static void reject(HttpServletResponse response, long retryAfterSeconds) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(REJECTED_MESSAGE);
+    }
+
+    public void evictIdle() {
+        long now = nanoClock.getAsLong();
+        for (Limiter limiter : limiters) {
+            // A bucket that has been full for the idle timeout behaves exactly like a new one
+            limiter.buckets.values().removeIf(bucket -> now - bucket.get() > idleTimeoutNanos);
+        }
+    }
+
+    public int bucketCount() {
+        return limiters.stream().mapToInt(limiter -> limiter.buckets.size()).sum();
+    }
+
+    private Limiter find(HttpServletRequest request) {
+        String method = request.getMethod();
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Limiter limiter : limiters) {
+            if (limiter.rule.matches(method, path)) {
+                return limiter;
+            }
+        }
+        return null;
+    }
+
+    private static String key(RateLimitRule.Key key, HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (key == RateLimitRule.Key.IP || authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return request.getRemoteAddr();
+        }
+        if (key == RateLimitRule.Key.CLIENT && authentication instanceof JwtAuthenticationToken jwtAuthentication
+                && jwtAuthentication.getToken().getClaims().get("azp") instanceof String azp) {
+            return azp;
+        }
+        return authentication.getName();
+    }
+
+    private static final class Limiter {
+
+        private final RateLimitRule rule;
+        private final long emissionIntervalNanos;
+        private final long burstToleranceNanos;
+        private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+        private Limiter(RateLimitRule rule) {
+            this.rule = rule;
+            this.emissionIntervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / rule.refillPerSecond()));
+            this.burstToleranceNanos = emissionIntervalNanos * (rule.capacity() - 1);
+        }
+
+        /**
+         * @return 0 when the request may pass, otherwise the nanos until a token is available
+         */
+        private long acquire(String key, long now) {
+            AtomicLong bucket = buckets.get(key);
+            if (bucket == null) {
+                bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+            }
+            while (true) {
+                long arrival = bucket.get();
+                long theoretical = Math.max(arrival, now);
+                long wait = theoretical - now - burstToleranceNanos;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (bucket.compareAndSet(arrival, theoretical + emissionIntervalNanos)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
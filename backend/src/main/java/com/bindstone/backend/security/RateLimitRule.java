@@ -0,0 +1,49 @@
+package com.bindstone.backend.security;
+
+import org.springframework.util.AntPathMatcher;
+
+import java.util.Locale;
+
+/**
+ * One rate limit, written as {@code [METHOD ]path=key:capacity:refillPerSecond}, e.g.
+ * {@code POST /admin/user=subject:10:2}. The key is {@code subject} (JWT {@code sub}),
+ * {@code client} (JWT {@code azp}) or {@code ip}.
+ */
+public record RateLimitRule(String method, String path, Key key, long capacity, double refillPerSecond) {
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    public enum Key {
+        SUBJECT,
+        CLIENT,
+        IP
+    }
+
+    public RateLimitRule {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Rate limit for " + path + " needs a capacity >= 1 and a positive refill rate");
+        }
+    }
+
+    public static RateLimitRule parse(String spec) {
+        String[] target = spec.trim().split("=", 2);
+        String[] limit = target.length == 2 ? target[1].trim().split(":") : new String[0];
+        if (limit.length != 3) {
+            throw new IllegalArgumentException("Invalid rate limit rule '" + spec + "', expected [METHOD ]path=key:capacity:refillPerSecond");
+        }
+        String[] methodAndPath = target[0].trim().split("\\s+", 2);
+        String method = methodAndPath.length == 2 ? methodAndPath[0].toUpperCase(Locale.ROOT) : null;
+        String path = methodAndPath[methodAndPath.length - 1];
+        return new RateLimitRule(method, path, Key.valueOf(limit[0].trim().toUpperCase(Locale.ROOT)),
+                Long.parseLong(limit[1].trim()), Double.parseDouble(limit[2].trim()));
+    }
+
+    public boolean matches(String requestMethod, String requestPath) {
+        return (method == null || method.equals(requestMethod)) && PATH_MATCHER.match(path, requestPath);
+    }
+
+    @Override
+    public String toString() {
+        return (method != null ? method + " " : "") + path;
+    }
+}
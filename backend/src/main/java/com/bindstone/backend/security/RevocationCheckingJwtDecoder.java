@@ -0,0 +1,30 @@
+package com.bindstone.backend.security;
+
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * Rejects tokens on the {@link TokenRevocationList}. Wraps the caching decoder, so tokens that were
+ * verified before their revocation are rejected as well.
+ */
+public class RevocationCheckingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final TokenRevocationList revocationList;
+
+    public RevocationCheckingJwtDecoder(JwtDecoder delegate, TokenRevocationList revocationList) {
+        this.delegate = delegate;
+        this.revocationList = revocationList;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        Jwt jwt = delegate.decode(token);
+        if (revocationList.isRevoked(jwt)) {
+            throw new BadJwtException("Token has been revoked");
+        }
+        return jwt;
+    }
+}
@@ -0,0 +1,31 @@
+package com.bindstone.backend.security;
+
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospectionClaimNames;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
+
+/**
+ * Rejects opaque tokens whose {@code jti} or {@code sid} is on the {@link TokenRevocationList}. Wraps the caching
+ * introspector, so a revocation takes effect before the cached introspection result expires.
+ */
+public class RevocationCheckingOpaqueTokenIntrospector implements OpaqueTokenIntrospector {
+
+    private final OpaqueTokenIntrospector delegate;
+    private final TokenRevocationList revocationList;
+
+    public RevocationCheckingOpaqueTokenIntrospector(OpaqueTokenIntrospector delegate, TokenRevocationList revocationList) {
+        this.delegate = delegate;
+        this.revocationList = revocationList;
+    }
+
+    @Override
+    public OAuth2AuthenticatedPrincipal introspect(String token) {
+        OAuth2AuthenticatedPrincipal principal = delegate.introspect(token);
+        if (revocationList.isRevoked(principal.getAttribute(OAuth2TokenIntrospectionClaimNames.JTI),
+                principal.getAttribute("sid"))) {
+            throw new BadOpaqueTokenException("Token has been revoked");
+        }
+        return principal;
+    }
+}
@@ -0,0 +1,263 @@
+package com.bindstone.backend.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Route rules compiled into a path trie, so an authorization decision costs one walk over the request path
+ * instead of evaluating a list of matchers in order. Requests no rule matches fall back to the default access.
+ * <p>
+ * The most specific rule wins: literal segments before {@code *}, {@code *} before {@code **}, and an exact
+ * method before any method. The lookup never backtracks, so a literal segment hides its {@code *} siblings for
+ * every path below it. {@link #conflicts()} reports rules hidden that way, as well as rules that override a more
+ * general rule with different access.
+ */
+public class RouteAuthorizationManager implements AuthorizationManager<RequestAuthorizationContext> {
+
+    public static final String DEFAULT_RULE = "any";
+
+    private static final UrlPathHelper PATH_HELPER = UrlPathHelper.defaultInstance;
+
+    private final Node root = new Node();
+    private final List<Route> routes = new ArrayList<>();
+    private final AuthorizationManager<RequestAuthorizationContext> defaultManager;
+    private final List<String> conflicts;
+
+    public RouteAuthorizationManager(List<RouteRule> rules, String defaultAccess) {
+        this(rules, defaultAccess, (name, manager) -> manager);
+    }
+
+    public RouteAuthorizationManager(List<RouteRule> rules, String defaultAccess,
+                                     BiFunction<String, AuthorizationManager<RequestAuthorizationContext>,
+                                             AuthorizationManager<RequestAuthorizationContext>> decorator) {
+        for (RouteRule rule : rules) {
+            add(new Route(rule, rule.segments(), decorator.apply(rule.toString(), rule.authorizationManager())));
+        }
+        this.defaultManager = decorator.apply(DEFAULT_RULE, RouteRule.authorizationManager(defaultAccess));
+        this.conflicts = findConflicts();
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        return resolve(context.getRequest()).check(authentication, context);
+    }
+
+    @Override
+    public AuthorizationResult authorize(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        return resolve(context.getRequest()).authorize(authentication, context);
+    }
+
+    /**
+     * The manager deciding the given request, the default access when no rule matches. Used by the reactive stack,
+     * which has no {@link RequestAuthorizationContext}; none of the rule managers look at the request.
+     */
+    public AuthorizationManager<RequestAuthorizationContext> manager(String method, String path) {
+        Route route = lookup(method, path);
+        return route != null ? route.manager : defaultManager;
+    }
+
+    /**
+     * The rule deciding the given request, or {@code null} when the default access applies.
+     */
+    public RouteRule find(String method, String path) {
+        Route route = lookup(method, path);
+        return route != null ? route.rule : null;
+    }
+
+    /**
+     * Human readable findings about shadowed and overlapping rules, empty for a clean table.
+     */
+    public List<String> conflicts() {
+        return conflicts;
+    }
+
+    private AuthorizationManager<RequestAuthorizationContext> resolve(HttpServletRequest request) {
+        return manager(request.getMethod(), PATH_HELPER.getPathWithinApplication(request));
+    }
+
+    private Route lookup(String method, String path) {
+        Node node = root;
+        Route fallback = null;
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = path.endsWith("/") && path.length() > start ? path.length() - 1 : path.length();
+        while (true) {
+            Route remainder = node.remainder.get(method);
+            if (remainder != null) {
+                fallback = remainder;
+            }
+            if (start >= end) {
+                Route exact = node.exact.get(method);
+                return exact != null ? exact : fallback;
+            }
+            int slash = path.indexOf('/', start);
+            if (slash < 0 || slash > end) {
+                slash = end;
+            }
+            Node next = node.literals.get(path.substring(start, slash));
+            if (next == null) {
+                next = node.wildcard;
+            }
+            if (next == null) {
+                return fallback;
+            }
+            node = next;
+            start = slash + 1;
+        }
+    }
+
+    private void add(Route route) {
+        Node node = root;
+        boolean remainder = false;
+        for (String segment : route.segments) {
+            if (segment.equals(RouteRule.REMAINDER)) {
+                remainder = true;
+            } else if (segment.equals(RouteRule.WILDCARD)) {
+                node = node.wildcard != null ? node.wildcard : (node.wildcard = new Node());
+            } else {
+                node = node.literals.computeIfAbsent(segment, key -> new Node());
+            }
+        }
+        Route existing = (remainder ? node.remainder : node.exact).put(route);
+        if (existing != null) {
+            throw new IllegalArgumentException("Route rule " + route.rule + " duplicates " + existing.rule);
+        }
+        routes.add(route);
+    }
+
+    private List<String> findConflicts() {
+        Set<String> findings = new LinkedHashSet<>();
+        for (Route route : routes) {
+            List<Route> covering = new ArrayList<>();
+            collectCovering(root, route.segments, 0, covering);
+            for (Route general : covering) {
+                if (general != route && (general.rule.method() == null || general.rule.method().equals(route.rule.method()))
+                        && !general.rule.access().equals(route.rule.access())) {
+                    findings.add(describe(route) + " overrides " + describe(general));
+                }
+            }
+        }
+        collectShadowed(root, "", findings);
+        return List.copyOf(findings);
+    }
+
+    // Every rule whose pattern matches at least all the paths the given pattern matches
+    private static void collectCovering(Node node, List<String> segments, int index, List<Route> covering) {
+        if (node == null) {
+            return;
+        }
+        covering.addAll(node.remainder.byMethod.values());
+        if (index == segments.size()) {
+            covering.addAll(node.exact.byMethod.values());
+            return;
+        }
+        String segment = segments.get(index);
+        if (segment.equals(RouteRule.REMAINDER)) {
+            return;
+        }
+        if (!segment.equals(RouteRule.WILDCARD)) {
+            collectCovering(node.literals.get(segment), segments, index + 1, covering);
+        }
+        collectCovering(node.wildcard, segments, index + 1, covering);
+    }
+
+    private static void collectShadowed(Node node, String prefix, Set<String> findings) {
+        node.literals.forEach((segment, literal) -> {
+            String literalPath = prefix + "/" + segment;
+            if (node.wildcard != null) {
+                compare(node.wildcard, literal, literalPath, findings);
+            }
+            collectShadowed(literal, literalPath, findings);
+        });
+        if (node.wildcard != null) {
+            collectShadowed(node.wildcard, prefix + "/*", findings);
+        }
+    }
+
+    // Reports routes below intended that a lookup ends up looking for below actual instead
+    private static void compare(Node intended, Node actual, String literalPath, Set<String> findings) {
+        if (actual == null) {
+            forEachRoute(intended, route -> findings.add(shadowed(route, literalPath)));
+            return;
+        }
+        intended.exact.byMethod.values().forEach(route -> {
+            if (actual.exact.get(route.rule.method()) == null && actual.remainder.get(route.rule.method()) == null) {
+                findings.add(shadowed(route, literalPath));
+            }
+        });
+        intended.remainder.byMethod.values().forEach(route -> {
+            if (actual.remainder.get(route.rule.method()) == null) {
+                findings.add(shadowed(route, literalPath));
+            }
+        });
+        intended.literals.forEach((segment, child) -> {
+            Node next = actual.literals.get(segment);
+            compare(child, next != null ? next : actual.wildcard, literalPath, findings);
+        });
+        if (intended.wildcard != null) {
+            compare(intended.wildcard, actual.wildcard, literalPath, findings);
+        }
+    }
+
+    private static void forEachRoute(Node node, Consumer<Route> action) {
+        node.exact.byMethod.values().forEach(action);
+        node.remainder.byMethod.values().forEach(action);
+        node.literals.values().forEach(child -> forEachRoute(child, action));
+        if (node.wildcard != null) {
+            forEachRoute(node.wildcard, action);
+        }
+    }
+
+    private static String shadowed(Route route, String literalPath) {
+        return describe(route) + " is shadowed by the literal segment " + literalPath + " for paths starting with it";
+    }
+
+    private static String describe(Route route) {
+        return route.rule + "=" + route.rule.access();
+    }
+
+    private record Route(RouteRule rule, List<String> segments,
+                         AuthorizationManager<RequestAuthorizationContext> manager) {
+    }
+
+    private static final class Node {
+
+        private final Map<String, Node> literals = new LinkedHashMap<>();
+        private final Routes exact = new Routes();
+        private final Routes remainder = new Routes();
+        private Node wildcard;
+    }
+
+    private static final class Routes {
+
+        private static final String ANY_METHOD = "";
+
+        private final Map<String, Route> byMethod = new HashMap<>(2);
+
+        Route get(String method) {
+            Route route = method != null ? byMethod.get(method) : null;
+            return route != null ? route : byMethod.get(ANY_METHOD);
+        }
+
+        Route put(Route route) {
+            String method = route.rule.method();
+            return byMethod.putIfAbsent(method != null ? method : ANY_METHOD, route);
+        }
+    }
+}
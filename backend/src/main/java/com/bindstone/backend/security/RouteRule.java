@@ -0,0 +1,91 @@
+package com.bindstone.backend.security;
+
+import org.springframework.security.authorization.AuthenticatedAuthorizationManager;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * One route authorization rule, written as {@code [METHOD ]path=access}, e.g. {@code POST /admin/user=role:ADMIN}.
+ * Access is {@code permitAll}, {@code denyAll}, {@code authenticated}, {@code role:A|B} or {@code authority:A|B}.
+ * Path segments are literals, {@code *} or {@code {name}} for exactly one segment, and a trailing {@code **}
+ * for any remainder.
+ */
+public record RouteRule(String method, String path, String access) {
+
+    static final String WILDCARD = "*";
+    static final String REMAINDER = "**";
+
+    public RouteRule {
+        List<String> segments = split(path);
+        for (int i = 0; i < segments.size(); i++) {
+            String segment = segments.get(i);
+            if (segment.equals(REMAINDER) ? i != segments.size() - 1
+                    : !segment.equals(WILDCARD) && (segment.contains("*") || segment.contains("{"))) {
+                throw new IllegalArgumentException("Unsupported route pattern '" + path
+                        + "', wildcards must be whole segments and ** can only be the last one");
+            }
+        }
+        authorizationManager(access);
+    }
+
+    public static RouteRule parse(String spec) {
+        String[] target = spec.trim().split("=", 2);
+        if (target.length != 2 || target[1].isBlank()) {
+            throw new IllegalArgumentException("Invalid route rule '" + spec + "', expected [METHOD ]path=access");
+        }
+        String[] methodAndPath = target[0].trim().split("\\s+", 2);
+        String method = methodAndPath.length == 2 ? methodAndPath[0].toUpperCase(Locale.ROOT) : null;
+        return new RouteRule(method, methodAndPath[methodAndPath.length - 1], target[1].trim());
+    }
+
+    /**
+     * Path segments with {@code {name}} variables normalised to {@code *}.
+     */
+    List<String> segments() {
+        return split(path);
+    }
+
+    <T> AuthorizationManager<T> authorizationManager() {
+        return authorizationManager(access);
+    }
+
+    static <T> AuthorizationManager<T> authorizationManager(String access) {
+        String[] kindAndValues = access.split(":", 2);
+        String kind = kindAndValues[0].trim().toLowerCase(Locale.ROOT);
+        String[] values = kindAndValues.length == 2 ? kindAndValues[1].trim().split("\\|") : new String[0];
+        AuthorizationManager<T> manager = switch (kind) {
+            case "permitall" -> (authentication, object) -> new AuthorizationDecision(true);
+            case "denyall" -> (authentication, object) -> new AuthorizationDecision(false);
+            case "authenticated" -> AuthenticatedAuthorizationManager.authenticated();
+            case "role" -> values.length > 0 ? AuthorityAuthorizationManager.hasAnyRole(values) : null;
+            case "authority" -> values.length > 0 ? AuthorityAuthorizationManager.hasAnyAuthority(values) : null;
+            default -> null;
+        };
+        if (manager == null) {
+            throw new IllegalArgumentException("Invalid access '" + access
+                    + "', expected permitAll, denyAll, authenticated, role:A|B or authority:A|B");
+        }
+        return manager;
+    }
+
+    private static List<String> split(String path) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : path.trim().split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            segments.add(segment.startsWith("{") && segment.endsWith("}") ? WILDCARD : segment);
+        }
+        return segments;
+    }
+
+    @Override
+    public String toString() {
+        return (method != null ? method + " " : "") + path;
+    }
+}
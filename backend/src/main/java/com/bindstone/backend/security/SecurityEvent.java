@@ -0,0 +1,11 @@
+package com.bindstone.backend.security;
+
+import java.time.Instant;
+
+/**
+ * A rejected request as kept by {@link SecurityEventLog}. {@code client} is the {@code azp} of the token if there was
+ * one: taken from the authentication for a 403, read from the rejected (so unverified) token for a 401.
+ */
+public record SecurityEvent(long sequence, Instant timestamp, AuthFailureReason reason, int status, String client,
+                            String remoteAddress, String method, String path) {
+}
@@ -0,0 +1,267 @@
+package com.bindstone.backend.security;
+
+import java.lang.invoke.VarHandle;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The most recent authentication and authorization failures in a fixed-size ring, plus counts by reason and by
+ * client since startup. Recording is lock-free and allocates nothing but the counter of a client seen for the first
+ * time: a writer claims the next sequence number with one atomic increment and fills preallocated columns, the
+ * oldest event is overwritten. Each slot carries the sequence of its event, set to -1 while it is written, so
+ * readers detect and skip slots that are being rewritten underneath them (a seqlock).
+ * <p>
+ * Clients are keyed by {@code azp}, or by remote address when the request had no token. For a rejected token the
+ * {@code azp} is only claimed, so the table of at most {@code maxClients} counters keeps the heavy hitters rather than
+ * the first clients seen: a count-min sketch of recent failures estimates every client, and a client outside the
+ * table replaces the smallest counter once its estimate exceeds it (space-saving). A flood of one-off forged
+ * clients stays under {@value #OTHER_CLIENTS} and cannot push out the clients that keep failing. Counts of clients
+ * admitted that way start from their estimate and are approximate.
+ */
+public class SecurityEventLog {
+
+    public static final String OTHER_CLIENTS = "(other)";
+
+    private static final AuthFailureReason[] REASONS = AuthFailureReason.values();
+
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong();
+    private final AtomicLongArray sequences;
+    private final long[] timestamps;
+    private final byte[] reasons;
+    private final short[] statuses;
+    private final String[] clients;
+    private final String[] remoteAddresses;
+    private final String[] methods;
+    private final String[] paths;
+
+    private final LongAdder[] byReason = new LongAdder[REASONS.length];
+    private final Map<String, LongAdder> byClient = new ConcurrentHashMap<>();
+    private final LongAdder otherClients = new LongAdder();
+    private final ClientSketch sketch;
+    private final Object admission = new Object();
+    private volatile long admissionFloor;
+    private final int maxClients;
+    private final Clock clock;
+
+    public SecurityEventLog(int capacity, int maxClients) {
+        this(capacity, maxClients, Clock.systemUTC());
+    }
+
+    SecurityEventLog(int capacity, int maxClients, Clock clock) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, -1);
+        }
+        this.timestamps = new long[size];
+        this.reasons = new byte[size];
+        this.statuses = new short[size];
+        this.clients = new String[size];
+        this.remoteAddresses = new String[size];
+        this.methods = new String[size];
+        this.paths = new String[size];
+        for (int i = 0; i < byReason.length; i++) {
+            byReason[i] = new LongAdder();
+        }
+        this.maxClients = maxClients;
+        this.sketch = new ClientSketch(maxClients);
+        this.clock = clock;
+    }
+
+    public void record(AuthFailureReason reason, int status, String client, String remoteAddress, String method,
+                       String path) {
+        long sequence = cursor.getAndIncrement();
+        int index = (int) sequence & mask;
+        sequences.set(index, -1);
+        // The column writes below must not become visible before the slot is marked as being written
+        VarHandle.storeStoreFence();
+        timestamps[index] = clock.millis();
+        reasons[index] = (byte) reason.ordinal();
+        statuses[index] = (short) status;
+        clients[index] = client;
+        remoteAddresses[index] = remoteAddress;
+        methods[index] = method;
+        paths[index] = path;
+        sequences.set(index, sequence);
+
+        byReason[reason.ordinal()].increment();
+        count(client != null ? client : remoteAddress);
+    }
+
+    /**
+     * Sequence number the next event will get; pass it to {@link #since} to read only newer events.
+     */
+    public long position() {
+        return cursor.get();
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Events with a sequence of at least {@code from}, oldest first and at most {@code max}. Events that were
+     * overwritten before they could be read are missing, which shows as a gap in the sequence numbers.
+     */
+    public List<SecurityEvent> since(long from, int max) {
+        long end = cursor.get();
+        long start = Math.max(0, Math.max(from, end - capacity()));
+        List<SecurityEvent> events = new ArrayList<>((int) Math.min(max, Math.max(0, end - start)));
+        for (long sequence = start; sequence < end && events.size() < max; sequence++) {
+            SecurityEvent event = read(sequence);
+            if (event != null) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
+    public List<SecurityEvent> recent(int max) {
+        return since(cursor.get() - max, max);
+    }
+
+    public Map<AuthFailureReason, Long> countsByReason() {
+        Map<AuthFailureReason, Long> counts = new EnumMap<>(AuthFailureReason.class);
+        for (AuthFailureReason reason : REASONS) {
+            long count = byReason[reason.ordinal()].sum();
+            if (count > 0) {
+                counts.put(reason, count);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Clients with the most failures, largest count first.
+     */
+    public List<Map.Entry<String, Long>> topClients(int max) {
+        List<Map.Entry<String, Long>> counts = new ArrayList<>(byClient.size() + 1);
+        byClient.forEach((client, count) -> counts.add(Map.entry(client, count.sum())));
+        if (otherClients.sum() > 0) {
+            counts.add(Map.entry(OTHER_CLIENTS, otherClients.sum()));
+        }
+        counts.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()));
+        return counts.subList(0, Math.min(max, counts.size()));
+    }
+
+    private SecurityEvent read(long sequence) {
+        int index = (int) sequence & mask;
+        if (sequences.get(index) != sequence) {
+            return null;
+        }
+        long timestamp = timestamps[index];
+        byte reason = reasons[index];
+        short status = statuses[index];
+        String client = clients[index];
+        String remoteAddress = remoteAddresses[index];
+        String method = methods[index];
+        String path = paths[index];
+        // Keeps the reads above from moving past the second check, like StampedLock.validate
+        VarHandle.acquireFence();
+        if (sequences.get(index) != sequence) {
+            return null;
+        }
+        return new SecurityEvent(sequence, Instant.ofEpochMilli(timestamp), REASONS[reason], status, client,
+                remoteAddress, method, path);
+    }
+
+    private void count(String client) {
+        if (client == null) {
+            return;
+        }
+        long estimate = sketch.add(client);
+        LongAdder count = byClient.get(client);
+        if (count != null) {
+            count.increment();
+            return;
+        }
+        if (byClient.size() < maxClients) {
+            byClient.computeIfAbsent(client, key -> new LongAdder()).increment();
+            return;
+        }
+        // Every counter in the table is at least the floor, so a client estimated below it is not worth a scan
+        if (estimate <= admissionFloor) {
+            otherClients.increment();
+            return;
+        }
+        synchronized (admission) {
+            admit(client, estimate);
+        }
+    }
+
+    private void admit(String client, long estimate) {
+        LongAdder admitted = byClient.get(client);
+        if (admitted != null) {
+            admitted.increment();
+            return;
+        }
+        String smallest = null;
+        long smallestCount = Long.MAX_VALUE;
+        for (Map.Entry<String, LongAdder> entry : byClient.entrySet()) {
+            long count = entry.getValue().sum();
+            if (count < smallestCount) {
+                smallest = entry.getKey();
+                smallestCount = count;
+            }
+        }
+        admissionFloor = smallestCount;
+        if (smallest == null || estimate <= smallestCount) {
+            otherClients.increment();
+            return;
+        }
+        LongAdder evicted = byClient.remove(smallest);
+        otherClients.add(evicted.sum());
+        admitted = new LongAdder();
+        admitted.add(estimate);
+        byClient.put(client, admitted);
+    }
+
+    /**
+     * Count-min sketch of failures per client. All counters are halved every {@code width} additions, so estimates
+     * reflect recent failures and the noise of many distinct clients stays around one per counter.
+     */
+    private static final class ClientSketch {
+
+        private static final int[] SEEDS = {0x9E3779B1, 0x85EBCA77, 0xC2B2AE3D, 0x27D4EB2F};
+
+        private final AtomicLongArray counters;
+        private final int width;
+        private final AtomicLong additions = new AtomicLong();
+
+        private ClientSketch(int maxClients) {
+            this.width = Math.max(1024, Integer.highestOneBit(Math.max(1, maxClients * 4 - 1)) << 1);
+            this.counters = new AtomicLongArray(width * SEEDS.length);
+        }
+
+        long add(String client) {
+            int hash = client.hashCode();
+            long estimate = Long.MAX_VALUE;
+            for (int row = 0; row < SEEDS.length; row++) {
+                int mixed = hash * SEEDS[row];
+                int index = row * width + ((mixed ^ (mixed >>> 16)) & (width - 1));
+                estimate = Math.min(estimate, counters.incrementAndGet(index));
+            }
+            if (additions.incrementAndGet() % width == 0) {
+                age();
+            }
+            return estimate;
+        }
+
+        private void age() {
+            for (int i = 0; i < counters.length(); i++) {
+                counters.set(i, counters.get(i) >> 1);
+            }
+        }
+    }
+}
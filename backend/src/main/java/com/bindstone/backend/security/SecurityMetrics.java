@@ -0,0 +1,121 @@
+package com.bindstone.backend.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Timers for each stage of the resource server path (decode or introspection, authority conversion, authorization rule)
+ * and counters for authentication and authorization failures by reason.
+ */
+public class SecurityMetrics {
+
+    private final MeterRegistry registry;
+    private final Timer decodeSuccess;
+    private final Timer decodeFailure;
+    private final Timer convert;
+    private final Map<AuthFailureReason, Counter> failures = new EnumMap<>(AuthFailureReason.class);
+
+    public SecurityMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.decodeSuccess = timer("security.jwt.decode", "outcome", "success");
+        this.decodeFailure = timer("security.jwt.decode", "outcome", "failure");
+        this.convert = timer("security.jwt.convert");
+        for (AuthFailureReason reason : AuthFailureReason.values()) {
+            failures.put(reason, Counter.builder("security.auth.failures")
+                    .description("Rejected requests by reason")
+                    .tag("reason", reason.tag())
+                    .register(registry));
+        }
+    }
+
+    public JwtDecoder timed(JwtDecoder decoder) {
+        return token -> {
+            long start = System.nanoTime();
+            try {
+                Jwt jwt = decoder.decode(token);
+                decodeSuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return jwt;
+            } catch (JwtException e) {
+                decodeFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                throw e;
+            }
+        };
+    }
+
+    public Converter<Jwt, AbstractAuthenticationToken> timed(Converter<Jwt, AbstractAuthenticationToken> converter) {
+        return jwt -> convert.record(() -> converter.convert(jwt));
+    }
+
+    public OpaqueTokenIntrospector timed(OpaqueTokenIntrospector introspector) {
+        Timer success = timer("security.opaque.introspect", "outcome", "success");
+        Timer failure = timer("security.opaque.introspect", "outcome", "failure");
+        return token -> {
+            long start = System.nanoTime();
+            try {
+                OAuth2AuthenticatedPrincipal principal = introspector.introspect(token);
+                success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return principal;
+            } catch (RuntimeException e) {
+                failure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                throw e;
+            }
+        };
+    }
+
+    public <T> AuthorizationManager<T> timed(String rule, AuthorizationManager<T> manager) {
+        Timer granted = timer("security.authorization", "rule", rule, "decision", "granted");
+        Timer denied = timer("security.authorization", "rule", rule, "decision", "denied");
+        return new AuthorizationManager<>() {
+
+            @Override
+            @SuppressWarnings("deprecation")
+            public AuthorizationDecision check(Supplier<Authentication> authentication, T object) {
+                long start = System.nanoTime();
+                AuthorizationDecision decision = manager.check(authentication, object);
+                record(decision, start);
+                return decision;
+            }
+
+            @Override
+            public AuthorizationResult authorize(Supplier<Authentication> authentication, T object) {
+                long start = System.nanoTime();
+                AuthorizationResult result = manager.authorize(authentication, object);
+                record(result, start);
+                return result;
+            }
+
+            private void record(AuthorizationResult result, long start) {
+                Timer timer = result != null && result.isGranted() ? granted : denied;
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+
+    public void failure(AuthFailureReason reason) {
+        failures.get(reason).increment();
+    }
+
+    private Timer timer(String name, String... tags) {
+        return Timer.builder(name)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
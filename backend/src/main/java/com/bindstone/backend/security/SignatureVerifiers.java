@@ -0,0 +1,341 @@
+package com.bindstone.backend.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.util.Base64URL;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.EdECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.EllipticCurve;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Verifies JWS signatures with JCA {@link Signature} instances that are already initialized for the key, instead of
+ * looking up the provider and initializing a new instance for every token. Each (algorithm, key) pair has a small
+ * pool of instances; a thread takes one from the slot its thread id points at, or the next free one, and puts it back
+ * after {@link Signature#verify(byte[])} has reset it. A {@link ThreadLocal} would not be reused on virtual threads,
+ * which live for one request. An instance that threw is dropped rather than pooled again.
+ * <p>
+ * Supports RS256, ES256 (P-256) and EdDSA (Ed25519). The algorithm in the token header must match the type of the
+ * key, so a token cannot pick a weaker interpretation of a published key. The number of pooled keys is bounded;
+ * once full, arbitrary pools are dropped and rebuilt on their next use.
+ * <p>
+ * Keys taken from a JWK set go through {@link #key(JWK)}, which converts each JWK once and binds its pool to the
+ * result, so neither the conversion nor a pool lookup by the encoded key is repeated per token.
+ */
+public class SignatureVerifiers implements MeterBinder {
+
+    public static final Set<JWSAlgorithm> SUPPORTED = Set.of(JWSAlgorithm.RS256, JWSAlgorithm.ES256, JWSAlgorithm.EdDSA);
+
+    // DER prefix of an X.509 SubjectPublicKeyInfo for Ed25519, followed by the 32 byte public key
+    private static final byte[] ED25519_PREFIX = HexFormat.of().parseHex("302a300506032b6570032100");
+    private static final EllipticCurve P_256 = Curve.P_256.toECParameterSpec().getCurve();
+    private static final int SLOTS = Math.max(2, 2 * Runtime.getRuntime().availableProcessors());
+
+    private final Set<JWSAlgorithm> algorithms;
+    private final int maxKeys;
+    private final Map<PoolKey, Pool> pools = new ConcurrentHashMap<>();
+    private final Map<String, CachedKey> jwkKeys = new ConcurrentHashMap<>();
+
+    private final LongAdder created = new LongAdder();
+    private final LongAdder reused = new LongAdder();
+
+    public SignatureVerifiers() {
+        this(SUPPORTED, 64);
+    }
+
+    public SignatureVerifiers(Collection<JWSAlgorithm> algorithms, int maxKeys) {
+        for (JWSAlgorithm algorithm : algorithms) {
+            if (!SUPPORTED.contains(algorithm)) {
+                throw new IllegalArgumentException("Unsupported JWS algorithm " + algorithm);
+            }
+        }
+        this.algorithms = Set.copyOf(algorithms);
+        this.maxKeys = maxKeys;
+    }
+
+    public static SignatureVerifiers of(Collection<String> algorithmNames, int maxKeys) {
+        return new SignatureVerifiers(algorithmNames.stream()
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .map(JWSAlgorithm::parse)
+                .collect(Collectors.toSet()), maxKeys);
+    }
+
+    public Set<JWSAlgorithm> getAlgorithms() {
+        return algorithms;
+    }
+
+    public boolean accepts(JWSAlgorithm algorithm) {
+        return algorithms.contains(algorithm);
+    }
+
+    /**
+     * Returns whether {@code signature} is a valid signature over {@code content}. A malformed signature is reported
+     * as invalid; an algorithm that is not accepted or that does not fit the key is an error.
+     */
+    public boolean verify(JWSAlgorithm algorithm, PublicKey key, byte[] content, byte[] signature)
+            throws JOSEException {
+        if (!accepts(algorithm)) {
+            throw new JOSEException("Unsupported algorithm " + algorithm);
+        }
+        if (!matches(algorithm, key)) {
+            throw new JOSEException("Algorithm " + algorithm + " does not match the " + key.getAlgorithm() + " key");
+        }
+        if (key instanceof VerificationKey prepared) {
+            return prepared.pool.verify(content, signature);
+        }
+        Pool pool = pools.get(new PoolKey(algorithm, key));
+        if (pool == null) {
+            if (pools.size() >= maxKeys) {
+                makeRoom();
+            }
+            pool = pools.computeIfAbsent(new PoolKey(algorithm, key), Pool::new);
+        }
+        return pool.verify(content, signature);
+    }
+
+    /**
+     * Whether {@code key} can verify {@code algorithm}: an RSA key for RS256, a P-256 key for ES256 and an Ed25519
+     * key for EdDSA.
+     */
+    public static boolean matches(JWSAlgorithm algorithm, PublicKey key) {
+        if (key instanceof VerificationKey prepared) {
+            return prepared.pool != null && prepared.pool.algorithm.equals(algorithm);
+        }
+        if (JWSAlgorithm.RS256.equals(algorithm)) {
+            return key instanceof RSAPublicKey;
+        }
+        if (JWSAlgorithm.ES256.equals(algorithm)) {
+            return key instanceof ECPublicKey ec && P_256.equals(ec.getParams().getCurve());
+        }
+        if (JWSAlgorithm.EdDSA.equals(algorithm)) {
+            return key instanceof EdECPublicKey ed && "Ed25519".equalsIgnoreCase(ed.getParams().getName());
+        }
+        return false;
+    }
+
+    /**
+     * Public key of an RSA, EC or Ed25519 JWK. Nimbus exports the first two itself, Ed25519 keys are only available
+     * as raw bytes and are wrapped into an X.509 encoding the JDK understands.
+     */
+    public static PublicKey publicKey(JWK jwk) throws JOSEException {
+        if (jwk instanceof RSAKey rsaKey) {
+            return rsaKey.toRSAPublicKey();
+        }
+        if (jwk instanceof ECKey ecKey) {
+            return ecKey.toECPublicKey();
+        }
+        if (jwk instanceof OctetKeyPair okp && Curve.Ed25519.equals(okp.getCurve())) {
+            byte[] raw = okp.getDecodedX();
+            byte[] encoded = new byte[ED25519_PREFIX.length + raw.length];
+            System.arraycopy(ED25519_PREFIX, 0, encoded, 0, ED25519_PREFIX.length);
+            System.arraycopy(raw, 0, encoded, ED25519_PREFIX.length, raw.length);
+            try {
+                return KeyFactory.getInstance("Ed25519").generatePublic(new X509EncodedKeySpec(encoded));
+            } catch (GeneralSecurityException e) {
+                throw new JOSEException("Invalid Ed25519 key: " + e.getMessage(), e);
+            }
+        }
+        throw new JOSEException("Unsupported key type " + jwk.getKeyType());
+    }
+
+    /**
+     * Public key of {@code jwk} with its signature pool. Cached by kid and checked against the JWK thumbprint: the same
+     * JWK object is a plain lookup, a refetched but unchanged key keeps its pool, and a key rotated under the same kid
+     * replaces the old one.
+     */
+    public VerificationKey key(JWK jwk) throws JOSEException {
+        Base64URL thumbprint = null;
+        String id = jwk.getKeyID();
+        if (id == null) {
+            thumbprint = jwk.computeThumbprint();
+            id = thumbprint.toString();
+        }
+        CachedKey cached = jwkKeys.get(id);
+        if (cached != null && cached.jwk() == jwk) {
+            return cached.key();
+        }
+        if (thumbprint == null) {
+            thumbprint = jwk.computeThumbprint();
+        }
+        VerificationKey key = cached != null && cached.thumbprint().equals(thumbprint)
+                ? cached.key()
+                : new VerificationKey(publicKey(jwk));
+        if (cached == null && jwkKeys.size() >= maxKeys) {
+            makeRoom(jwkKeys);
+        }
+        jwkKeys.put(id, new CachedKey(jwk, thumbprint, key));
+        return key;
+    }
+
+    public int size() {
+        return pools.size() + jwkKeys.size();
+    }
+
+    public long getCreated() {
+        return created.sum();
+    }
+
+    public long getReused() {
+        return reused.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("security.jwt.signature.instances", this, SignatureVerifiers::getCreated)
+                .tag("result", "created").register(registry);
+        FunctionCounter.builder("security.jwt.signature.instances", this, SignatureVerifiers::getReused)
+                .tag("result", "reused").register(registry);
+        Gauge.builder("security.jwt.signature.keys", this, SignatureVerifiers::size)
+                .register(registry);
+    }
+
+    private void makeRoom() {
+        makeRoom(pools);
+    }
+
+    // Realms publish a handful of keys, this only triggers when keys rotate often or many realms are trusted
+    private void makeRoom(Map<?, ?> cache) {
+        Iterator<?> keys = cache.keySet().iterator();
+        while (cache.size() >= maxKeys && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static JWSAlgorithm algorithmOf(PublicKey key) {
+        for (JWSAlgorithm algorithm : SUPPORTED) {
+            if (matches(algorithm, key)) {
+                return algorithm;
+            }
+        }
+        return null;
+    }
+
+    private static String jcaName(JWSAlgorithm algorithm) {
+        if (JWSAlgorithm.RS256.equals(algorithm)) {
+            return "SHA256withRSA";
+        }
+        if (JWSAlgorithm.ES256.equals(algorithm)) {
+            // JWS carries R || S, not the DER sequence the plain SHA256withECDSA expects
+            return "SHA256withECDSAinP1363Format";
+        }
+        return "Ed25519";
+    }
+
+    private record PoolKey(JWSAlgorithm algorithm, PublicKey key) {
+    }
+
+    private record CachedKey(JWK jwk, Base64URL thumbprint, VerificationKey key) {
+    }
+
+    /**
+     * A JDK public key that carries its own signature pool; only verifies the algorithm its key type stands for.
+     */
+    public final class VerificationKey implements PublicKey {
+
+        private final PublicKey key;
+        private final transient Pool pool;
+
+        private VerificationKey(PublicKey key) {
+            JWSAlgorithm algorithm = algorithmOf(key);
+            this.key = key;
+            this.pool = algorithm == null ? null : new Pool(new PoolKey(algorithm, key));
+        }
+
+        @Override
+        public String getAlgorithm() {
+            return key.getAlgorithm();
+        }
+
+        @Override
+        public String getFormat() {
+            return key.getFormat();
+        }
+
+        @Override
+        public byte[] getEncoded() {
+            return key.getEncoded();
+        }
+    }
+
+    private final class Pool {
+
+        private final JWSAlgorithm algorithm;
+        private final String jcaName;
+        private final PublicKey key;
+        private final AtomicReferenceArray<Signature> slots = new AtomicReferenceArray<>(SLOTS);
+
+        Pool(PoolKey poolKey) {
+            this.algorithm = poolKey.algorithm();
+            this.jcaName = jcaName(poolKey.algorithm());
+            this.key = poolKey.key();
+        }
+
+        boolean verify(byte[] content, byte[] signature) throws JOSEException {
+            int home = (int) (Thread.currentThread().threadId() % SLOTS);
+            Signature verifier = borrow(home);
+            boolean valid;
+            try {
+                verifier.update(content);
+                valid = verifier.verify(signature);
+            } catch (SignatureException e) {
+                // Wrong length or encoding, the instance state is unknown afterwards
+                return false;
+            }
+            release(home, verifier);
+            return valid;
+        }
+
+        private Signature borrow(int home) throws JOSEException {
+            for (int i = 0; i < SLOTS; i++) {
+                Signature pooled = slots.getAndSet((home + i) % SLOTS, null);
+                if (pooled != null) {
+                    reused.increment();
+                    return pooled;
+                }
+            }
+            try {
+                Signature fresh = Signature.getInstance(jcaName);
+                fresh.initVerify(key);
+                created.increment();
+                return fresh;
+            } catch (GeneralSecurityException e) {
+                throw new JOSEException("Could not initialize " + jcaName + ": " + e.getMessage(), e);
+            }
+        }
+
+        private void release(int home, Signature verifier) {
+            for (int i = 0; i < SLOTS; i++) {
+                if (slots.compareAndSet((home + i) % SLOTS, null, verifier)) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.bindstone.backend.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.server.resource.authentication.AbstractOAuth2TokenAuthenticationToken;
+
+/**
+ * Keycloak realm an admin operation acts on: the realm that issued the caller's token (JWT or introspected), so a
+ * tenant administrator manages users of their own realm. Callers without a token issuer fall back to the
+ * configured realm.
+ */
+public class TenantRealmResolver {
+
+    private static final String REALMS = "/realms/";
+
+    private final String defaultRealm;
+
+    public TenantRealmResolver(String defaultRealm) {
+        this.defaultRealm = defaultRealm;
+    }
+
+    public String resolve(Authentication authentication) {
+        if (!(authentication instanceof AbstractOAuth2TokenAuthenticationToken<?> token)) {
+            return defaultRealm;
+        }
+        // The introspector hands iss over as a URL, the JWT decoders as a String
+        Object issuer = token.getTokenAttributes().get("iss");
+        String realm = issuer != null ? realmOf(issuer.toString()) : null;
+        return realm != null ? realm : defaultRealm;
+    }
+
+    public String getDefaultRealm() {
+        return defaultRealm;
+    }
+
+    static String realmOf(String issuer) {
+        int start = issuer.lastIndexOf(REALMS);
+        if (start < 0 || start + REALMS.length() == issuer.length()) {
+            return null;
+        }
+        String realm = issuer.substring(start + REALMS.length());
+        return realm.indexOf('/') < 0 ? realm : null;
+    }
+}
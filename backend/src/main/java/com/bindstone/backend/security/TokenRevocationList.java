@@ -0,0 +1,163 @@
+package com.bindstone.backend.security;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Denylist of revoked token IDs ({@code jti}) and Keycloak sessions ({@code sid}).
+ * Every lookup first probes a Bloom filter, which is lock-free and allocation-free; only a possible hit
+ * is confirmed against the exact set. Entries are kept until the expiry given on revocation, and
+ * {@link #purgeExpired()} rebuilds the filters from the live entries so their size stays bounded.
+ */
+public class TokenRevocationList {
+
+    private final Denylist tokens;
+    private final Denylist sessions;
+    private final Clock clock;
+
+    public TokenRevocationList(int expectedEntries, double falsePositiveRate) {
+        this(expectedEntries, falsePositiveRate, Clock.systemUTC());
+    }
+
+    public TokenRevocationList(int expectedEntries, double falsePositiveRate, Clock clock) {
+        this.tokens = new Denylist(expectedEntries, falsePositiveRate);
+        this.sessions = new Denylist(expectedEntries, falsePositiveRate);
+        this.clock = clock;
+    }
+
+    public void revokeToken(String jti, Instant expiresAt) {
+        tokens.add(jti, expiresAt);
+    }
+
+    public void revokeSession(String sid, Instant expiresAt) {
+        sessions.add(sid, expiresAt);
+    }
+
+    public boolean isRevoked(Jwt jwt) {
+        return isRevoked(jwt.getId(), jwt.getClaims().get("sid"));
+    }
+
+    // Also used for introspected opaque tokens, whose attributes carry the same jti and sid
+    public boolean isRevoked(String jti, Object sid) {
+        Instant now = null;
+        if (jti != null && tokens.mightContain(jti)) {
+            now = clock.instant();
+            if (tokens.contains(jti, now)) {
+                return true;
+            }
+        }
+        if (sid instanceof String session && sessions.mightContain(session)) {
+            return sessions.contains(session, now != null ? now : clock.instant());
+        }
+        return false;
+    }
+
+    public int size() {
+        return tokens.entries.size() + sessions.entries.size();
+    }
+
+    public void purgeExpired() {
+        Instant now = clock.instant();
+        tokens.purge(now);
+        sessions.purge(now);
+    }
+
+    private static final class Denylist {
+
+        private final Map<String, Instant> entries = new ConcurrentHashMap<>();
+        private final int bits;
+        private final int hashes;
+        private volatile BloomFilter filter;
+
+        private Denylist(int expectedEntries, double falsePositiveRate) {
+            int n = Math.max(expectedEntries, 1);
+            long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bits = (int) Math.min(Math.max(m, Long.SIZE), Integer.MAX_VALUE - Long.SIZE);
+            this.hashes = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+            this.filter = new BloomFilter(bits, hashes);
+        }
+
+        // Writers are rare (admin revocations, purges) and synchronize so a rebuild cannot lose an add
+        private synchronized void add(String key, Instant expiresAt) {
+            entries.merge(key, expiresAt, (current, added) -> added.isAfter(current) ? added : current);
+            filter.add(key);
+        }
+
+        private boolean mightContain(String key) {
+            return filter.mightContain(key);
+        }
+
+        private boolean contains(String key, Instant now) {
+            Instant expiresAt = entries.get(key);
+            return expiresAt != null && now.isBefore(expiresAt);
+        }
+
+        private synchronized void purge(Instant now) {
+            if (!entries.values().removeIf(expiresAt -> !now.isBefore(expiresAt))) {
+                return;
+            }
+            BloomFilter rebuilt = new BloomFilter(bits, hashes);
+            entries.keySet().forEach(rebuilt::add);
+            filter = rebuilt;
+        }
+    }
+
+    private static final class BloomFilter {
+
+        private final AtomicLongArray words;
+        private final int bits;
+        private final int hashes;
+
+        private BloomFilter(int bits, int hashes) {
+            this.words = new AtomicLongArray((bits + Long.SIZE - 1) / Long.SIZE);
+            this.bits = bits;
+            this.hashes = hashes;
+        }
+
+        private void add(String key) {
+            long hash = hash(key);
+            long h1 = mix(hash);
+            long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashes; i++) {
+                int bit = (int) Long.remainderUnsigned(h1 + i * h2, bits);
+                long mask = 1L << bit;
+                words.getAndUpdate(bit >>> 6, word -> word | mask);
+            }
+        }
+
+        private boolean mightContain(String key) {
+            long hash = hash(key);
+            long h1 = mix(hash);
+            long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashes; i++) {
+                int bit = (int) Long.remainderUnsigned(h1 + i * h2, bits);
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // 64-bit FNV-1a over the chars, so probing does not have to encode the key
+        private static long hash(String key) {
+            long hash = 0xCBF29CE484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                hash ^= key.charAt(i);
+                hash *= 0x100000001B3L;
+            }
+            return hash;
+        }
+
+        // SplitMix64 finalizer, spreads the FNV result over all bits
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
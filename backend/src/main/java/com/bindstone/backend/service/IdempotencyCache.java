@@ -0,0 +1,183 @@
+package com.bindstone.backend.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Responses of admin requests sent with an {@code Idempotency-Key} header, so a retried request gets the original
+ * answer without calling Keycloak again. Keys are scoped per caller and remembered together with a fingerprint of
+ * the request; reusing a key for a different request is answered with 422. A replay that arrives while the first
+ * request is still running waits for its response.
+ * <p>
+ * Transient failures (5xx and 429) are not remembered, the retry runs again. The cache is bounded: once full, one
+ * sweep drops expired entries first, then arbitrary completed ones until a tenth of the capacity is free again.
+ * Entries still running are never dropped, so a replay cannot start a second execution of a request that is in
+ * progress.
+ */
+@Component
+public class IdempotencyCache implements MeterBinder {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final int lowWater;
+    private final ReentrantLock sweepLock = new ReentrantLock();
+    private final Duration ttl;
+    private final Clock clock;
+
+    private final LongAdder replays = new LongAdder();
+    private final LongAdder mismatches = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public IdempotencyCache(@Value("${admin.idempotency.max-entries:10000}") int maxEntries,
+                            @Value("${admin.idempotency.ttl-seconds:86400}") long ttlSeconds) {
+        this(maxEntries, Duration.ofSeconds(ttlSeconds), Clock.systemUTC());
+    }
+
+    IdempotencyCache(int maxEntries, Duration ttl, Clock clock) {
+        this.maxEntries = maxEntries;
+        this.lowWater = maxEntries - Math.max(1, maxEntries / 10);
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    /**
+     * Runs {@code request} once per {@code scope} and {@code key}; later calls with the same fingerprint get the
+     * remembered response marked with {@value #REPLAYED_HEADER}.
+     */
+    public ResponseEntity<?> execute(String scope, String key, String fingerprint,
+                                     Supplier<ResponseEntity<?>> request) {
+        String id = scope + '\n' + key;
+        Entry fresh = new Entry(fingerprint, new CompletableFuture<>(), clock.instant().plus(ttl));
+        Entry existing;
+        while ((existing = entries.putIfAbsent(id, fresh)) != null) {
+            if (!existing.isExpired(clock.instant())) {
+                return replay(existing, fingerprint);
+            }
+            if (entries.remove(id, existing)) {
+                evictions.increment();
+            }
+        }
+        if (entries.size() > maxEntries) {
+            makeRoom();
+        }
+
+        try {
+            ResponseEntity<?> response = request.get();
+            fresh.response.complete(response);
+            if (isTransient(response)) {
+                entries.remove(id, fresh);
+            }
+            return response;
+        } catch (RuntimeException | Error e) {
+            entries.remove(id, fresh);
+            fresh.response.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getReplays() {
+        return replays.sum();
+    }
+
+    public long getMismatches() {
+        return mismatches.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("admin.idempotency.requests", this, IdempotencyCache::getReplays)
+                .tag("result", "replay").register(registry);
+        FunctionCounter.builder("admin.idempotency.requests", this, IdempotencyCache::getMismatches)
+                .tag("result", "mismatch").register(registry);
+        FunctionCounter.builder("admin.idempotency.evictions", this, IdempotencyCache::getEvictions)
+                .register(registry);
+        Gauge.builder("admin.idempotency.size", this, IdempotencyCache::size)
+                .register(registry);
+    }
+
+    private ResponseEntity<?> replay(Entry entry, String fingerprint) {
+        if (!entry.fingerprint.equals(fingerprint)) {
+            mismatches.increment();
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body("Idempotency-Key was already used for a different request");
+        }
+        replays.increment();
+        ResponseEntity<?> original = entry.response.join();
+        return ResponseEntity.status(original.getStatusCode())
+                .headers(original.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(original.getBody());
+    }
+
+    // Sweeps down to the low-water mark, so the next sweep is at least a tenth of the capacity of inserts away.
+    // Only one thread sweeps, the others carry on and may overshoot the bound by a few entries meanwhile
+    private void makeRoom() {
+        if (!sweepLock.tryLock()) {
+            return;
+        }
+        try {
+            Instant now = clock.instant();
+            entries.values().removeIf(entry -> {
+                boolean expired = entry.isExpired(now);
+                if (expired) {
+                    evictions.increment();
+                }
+                return expired;
+            });
+
+            // Still above the mark: forget arbitrary completed keys, a late retry of those is simply executed again
+            Iterator<Entry> values = entries.values().iterator();
+            while (entries.size() > lowWater && values.hasNext()) {
+                if (values.next().response.isDone()) {
+                    values.remove();
+                    evictions.increment();
+                }
+            }
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    private static boolean isTransient(ResponseEntity<?> response) {
+        int status = response.getStatusCode().value();
+        return status >= 500 || status == HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    private record Entry(String fingerprint, CompletableFuture<ResponseEntity<?>> response, Instant expiresAt) {
+
+        boolean isExpired(Instant now) {
+            return !now.isBefore(expiresAt);
+        }
+    }
+}
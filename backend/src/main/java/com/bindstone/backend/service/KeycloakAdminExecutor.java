@@ -0,0 +1,115 @@
+package com.bindstone.backend.service;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs the Keycloak calls of the bulk admin endpoints on one shared executor. A {@link Batch} limits how many of
+ * its own tasks run at once. Across all batches at most {@code keycloak.admin.pool-size} tasks run, which is the
+ * number of connections the admin client has anyway. Concurrent bulk requests therefore share the connections
+ * instead of each starting its own threads.
+ */
+@Component
+public class KeycloakAdminExecutor implements DisposableBean {
+
+    private final ExecutorService executor;
+    private final Semaphore connections;
+
+    public KeycloakAdminExecutor(@Value("${keycloak.admin.pool-size:20}") int poolSize,
+                                 @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.connections = new Semaphore(poolSize);
+        if (virtualThreads) {
+            // The semaphore alone bounds the load on Keycloak, no worker pool is needed
+            this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("keycloak-admin-", 1).factory());
+        } else {
+            AtomicInteger threadCount = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(poolSize, runnable -> {
+                Thread thread = new Thread(runnable, "keycloak-admin-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Starts a batch with at most {@code concurrency} tasks in flight; closing it waits for all of them.
+     */
+    public Batch batch(int concurrency) {
+        return new Batch(concurrency);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tasks of one bulk request. The first exception a task throws, typically the response sink failing because the
+     * client went away, is kept: tasks that have not started yet are skipped, {@link #submit} refuses new ones and
+     * {@link #close} rethrows it.
+     */
+    public final class Batch implements AutoCloseable {
+
+        private final int concurrency;
+        private final Semaphore inFlight;
+        private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+        private Batch(int concurrency) {
+            this.concurrency = concurrency;
+            this.inFlight = new Semaphore(concurrency);
+        }
+
+        /**
+         * Runs {@code task} once a slot of this batch is free; blocks the caller until then. Returns false, without
+         * running it, once a task of this batch has failed.
+         */
+        public boolean submit(Runnable task) {
+            inFlight.acquireUninterruptibly();
+            if (failure.get() != null) {
+                inFlight.release();
+                return false;
+            }
+            try {
+                executor.execute(() -> {
+                    connections.acquireUninterruptibly();
+                    try {
+                        if (failure.get() == null) {
+                            task.run();
+                        }
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        connections.release();
+                        inFlight.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                inFlight.release();
+                throw e;
+            }
+            return true;
+        }
+
+        @Override
+        public void close() {
+            inFlight.acquireUninterruptibly(concurrency);
+            inFlight.release(concurrency);
+            RuntimeException e = failure.get();
+            if (e != null) {
+                throw e;
+            }
+        }
+    }
+}
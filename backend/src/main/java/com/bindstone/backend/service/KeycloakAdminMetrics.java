@@ -0,0 +1,18 @@
+package com.bindstone.backend.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+final class KeycloakAdminMetrics {
+
+    private KeycloakAdminMetrics() {
+    }
+
+    static Timer timer(MeterRegistry registry, String operation) {
+        return Timer.builder("keycloak.admin.requests")
+                .description("Round trips to the Keycloak admin API")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
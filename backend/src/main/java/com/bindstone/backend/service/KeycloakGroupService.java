@@ -0,0 +1,120 @@
+package com.bindstone.backend.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.ws.rs.NotFoundException;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.UserResource;
+import org.keycloak.representations.idm.GroupRepresentation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Resolves Keycloak group names to IDs with a local TTL cache, so user provisioning does not
+ * have to list every group of the realm.
+ */
+@Service
+public class KeycloakGroupService {
+
+    static final int SEARCH_PAGE_SIZE = 20;
+
+    private final Keycloak keycloak;
+    private final Duration ttl;
+    private final Clock clock;
+    private final Timer lookupTimer;
+    private final Timer joinTimer;
+    private final Timer leaveTimer;
+    private final Map<String, CachedGroup> groups = new ConcurrentHashMap<>();
+
+    @Autowired
+    public KeycloakGroupService(Keycloak keycloak, MeterRegistry meterRegistry,
+                                @Value("${keycloak.group-cache.ttl-seconds:300}") long ttlSeconds) {
+        this(keycloak, meterRegistry, Duration.ofSeconds(ttlSeconds), Clock.systemUTC());
+    }
+
+    KeycloakGroupService(Keycloak keycloak, MeterRegistry meterRegistry, Duration ttl, Clock clock) {
+        this.keycloak = keycloak;
+        this.ttl = ttl;
+        this.clock = clock;
+        this.lookupTimer = KeycloakAdminMetrics.timer(meterRegistry, "group-lookup");
+        this.joinTimer = KeycloakAdminMetrics.timer(meterRegistry, "join-group");
+        this.leaveTimer = KeycloakAdminMetrics.timer(meterRegistry, "leave-group");
+    }
+
+    public String resolveGroupId(String realm, String groupName) {
+        String key = realm + '/' + groupName;
+        CachedGroup cached = groups.get(key);
+        Instant now = clock.instant();
+        if (cached != null && now.isBefore(cached.expiresAt())) {
+            return cached.id();
+        }
+        String id = searchGroupId(realm, groupName)
+                .orElseThrow(() -> new IllegalStateException("Group not found: " + groupName));
+        groups.put(key, new CachedGroup(id, now.plus(ttl)));
+        return id;
+    }
+
+    public void invalidate(String realm, String groupName) {
+        groups.remove(realm + '/' + groupName);
+    }
+
+    public void joinGroup(String realm, String userId, String groupName) {
+        updateMembership(realm, userId, groupName, joinTimer, UserResource::joinGroup);
+    }
+
+    public void leaveGroup(String realm, String userId, String groupName) {
+        updateMembership(realm, userId, groupName, leaveTimer, UserResource::leaveGroup);
+    }
+
+    private void updateMembership(String realm, String userId, String groupName, Timer timer,
+                                  BiConsumer<UserResource, String> update) {
+        String groupId = resolveGroupId(realm, groupName);
+        try {
+            timer.record(() -> update.accept(keycloak.realm(realm).users().get(userId), groupId));
+        } catch (NotFoundException e) {
+            // The cached ID may belong to a group that was deleted and re-created, look it up once more
+            invalidate(realm, groupName);
+            String refreshedId = resolveGroupId(realm, groupName);
+            if (refreshedId.equals(groupId)) {
+                throw e;
+            }
+            timer.record(() -> update.accept(keycloak.realm(realm).users().get(userId), refreshedId));
+        }
+    }
+
+    private Optional<String> searchGroupId(String realm, String groupName) {
+        List<GroupRepresentation> matches = lookupTimer.record(() -> keycloak.realm(realm).groups()
+                .groups(groupName, true, 0, SEARCH_PAGE_SIZE, true));
+        return findByName(matches, groupName).map(GroupRepresentation::getId);
+    }
+
+    // An exact search returns the matching group together with its ancestors
+    static Optional<GroupRepresentation> findByName(List<GroupRepresentation> candidates, String groupName) {
+        if (candidates == null) {
+            return Optional.empty();
+        }
+        for (GroupRepresentation group : candidates) {
+            if (groupName.equals(group.getName())) {
+                return Optional.of(group);
+            }
+            Optional<GroupRepresentation> subGroup = findByName(group.getSubGroups(), groupName);
+            if (subGroup.isPresent()) {
+                return subGroup;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private record CachedGroup(String id, Instant expiresAt) {
+    }
+}
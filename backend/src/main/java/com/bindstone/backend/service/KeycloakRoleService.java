@@ -0,0 +1,134 @@
+package com.bindstone.backend.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.ws.rs.NotFoundException;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.RoleMappingResource;
+import org.keycloak.admin.client.resource.RoleScopeResource;
+import org.keycloak.representations.idm.ClientRepresentation;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Resolves realm and client roles to their representations with a local TTL cache, and adds or removes role
+ * mappings of a user. Keycloak needs the full representation, including the ID, in every mapping call, so without
+ * the cache each assignment would cost one lookup per role on top of the mapping itself.
+ */
+@Service
+public class KeycloakRoleService {
+
+    private final Keycloak keycloak;
+    private final Duration ttl;
+    private final Clock clock;
+    private final Timer roleLookupTimer;
+    private final Timer clientLookupTimer;
+    private final Timer addTimer;
+    private final Timer removeTimer;
+    private final Map<String, Cached<RoleRepresentation>> realmRoles = new ConcurrentHashMap<>();
+    private final Map<String, Cached<RoleRepresentation>> clientRoles = new ConcurrentHashMap<>();
+    private final Map<String, Cached<String>> clients = new ConcurrentHashMap<>();
+
+    @Autowired
+    public KeycloakRoleService(Keycloak keycloak, MeterRegistry meterRegistry,
+                               @Value("${keycloak.role-cache.ttl-seconds:300}") long ttlSeconds) {
+        this(keycloak, meterRegistry, Duration.ofSeconds(ttlSeconds), Clock.systemUTC());
+    }
+
+    KeycloakRoleService(Keycloak keycloak, MeterRegistry meterRegistry, Duration ttl, Clock clock) {
+        this.keycloak = keycloak;
+        this.ttl = ttl;
+        this.clock = clock;
+        this.roleLookupTimer = KeycloakAdminMetrics.timer(meterRegistry, "role-lookup");
+        this.clientLookupTimer = KeycloakAdminMetrics.timer(meterRegistry, "client-lookup");
+        this.addTimer = KeycloakAdminMetrics.timer(meterRegistry, "add-roles");
+        this.removeTimer = KeycloakAdminMetrics.timer(meterRegistry, "remove-roles");
+    }
+
+    public RoleRepresentation resolveRealmRole(String realm, String roleName) {
+        return cached(realmRoles, realm + '/' + roleName, () -> {
+            try {
+                return roleLookupTimer.record(() -> keycloak.realm(realm).roles().get(roleName).toRepresentation());
+            } catch (NotFoundException e) {
+                throw new IllegalStateException("Realm role not found: " + roleName, e);
+            }
+        });
+    }
+
+    /**
+     * Internal ID of the client with the given {@code clientId}, which the role mapping endpoints expect.
+     */
+    public String resolveClientId(String realm, String clientId) {
+        return cached(clients, realm + '/' + clientId, () -> {
+            List<ClientRepresentation> matches = clientLookupTimer.record(
+                    () -> keycloak.realm(realm).clients().findByClientId(clientId));
+            if (matches == null || matches.isEmpty()) {
+                throw new IllegalStateException("Client not found: " + clientId);
+            }
+            return matches.get(0).getId();
+        });
+    }
+
+    public RoleRepresentation resolveClientRole(String realm, String clientId, String roleName) {
+        String clientUuid = resolveClientId(realm, clientId);
+        return cached(clientRoles, realm + '/' + clientId + '/' + roleName, () -> {
+            try {
+                return roleLookupTimer.record(() -> keycloak.realm(realm).clients().get(clientUuid).roles()
+                        .get(roleName).toRepresentation());
+            } catch (NotFoundException e) {
+                throw new IllegalStateException("Role " + roleName + " not found in client " + clientId, e);
+            }
+        });
+    }
+
+    public void invalidate(String realm) {
+        realmRoles.keySet().removeIf(key -> key.startsWith(realm + '/'));
+        clientRoles.keySet().removeIf(key -> key.startsWith(realm + '/'));
+        clients.keySet().removeIf(key -> key.startsWith(realm + '/'));
+    }
+
+    public void updateRealmRoles(String realm, String userId, List<RoleRepresentation> roleList, boolean add) {
+        update(mappings(realm, userId).realmLevel(), roleList, add);
+    }
+
+    public void updateClientRoles(String realm, String userId, String clientUuid, List<RoleRepresentation> roleList,
+                                  boolean add) {
+        update(mappings(realm, userId).clientLevel(clientUuid), roleList, add);
+    }
+
+    private RoleMappingResource mappings(String realm, String userId) {
+        return keycloak.realm(realm).users().get(userId).roles();
+    }
+
+    private void update(RoleScopeResource scope, List<RoleRepresentation> roleList, boolean add) {
+        if (add) {
+            addTimer.record(() -> scope.add(roleList));
+        } else {
+            removeTimer.record(() -> scope.remove(roleList));
+        }
+    }
+
+    private <T> T cached(Map<String, Cached<T>> cache, String key, Supplier<T> lookup) {
+        Cached<T> entry = cache.get(key);
+        Instant now = clock.instant();
+        if (entry != null && now.isBefore(entry.expiresAt())) {
+            return entry.value();
+        }
+        T value = lookup.get();
+        cache.put(key, new Cached<>(value, now.plus(ttl)));
+        return value;
+    }
+
+    private record Cached<T>(T value, Instant expiresAt) {
+    }
+}
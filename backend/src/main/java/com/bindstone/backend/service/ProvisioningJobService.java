@@ -0,0 +1,234 @@
+package com.bindstone.backend.service;
+
+import com.bindstone.backend.dto.ProvisioningJobStatus;
+import com.bindstone.backend.dto.ProvisioningJobStatus.State;
+import com.bindstone.backend.dto.ProvisioningResult;
+import com.bindstone.backend.dto.ProvisioningResult.Outcome;
+import com.bindstone.backend.dto.UserPayload;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs user provisioning in the background. Jobs wait in a bounded queue in front of a fixed set of
+ * workers; when the queue is full {@link #submit} fails fast instead of piling up requests.
+ * Transient failures (exceptions, 5xx and 429 answers from Keycloak) are retried with exponential backoff. A retry
+ * only repeats the step that failed, so a user is never created twice, and the password is dropped as soon as the
+ * user exists.
+ */
+@Service
+public class ProvisioningJobService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ProvisioningJobService.class);
+
+    private final UserProvisioningService provisioningService;
+    private final ThreadPoolExecutor executor;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration retention;
+    private final Clock clock;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public ProvisioningJobService(UserProvisioningService provisioningService,
+                                  @Value("${admin.async.workers:4}") int workers,
+                                  @Value("${admin.async.queue-capacity:100}") int queueCapacity,
+                                  @Value("${admin.async.max-attempts:3}") int maxAttempts,
+                                  @Value("${admin.async.retry-backoff-ms:500}") long retryBackoffMs,
+                                  @Value("${admin.async.job-retention-seconds:3600}") long retentionSeconds) {
+        this.provisioningService = provisioningService;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoff = Duration.ofMillis(retryBackoffMs);
+        this.retention = Duration.ofSeconds(retentionSeconds);
+        this.clock = Clock.systemUTC();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "provisioning-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * @throws RejectedExecutionException when the queue is full
+     */
+    public ProvisioningJobStatus submit(String realm, UserPayload payload) {
+        return submit(realm, payload, status -> {
+        });
+    }
+
+    /**
+     * Like {@link #submit(String, UserPayload)}, and hands the final status of the job to {@code onCompletion} on the
+     * worker thread.
+     *
+     * @throws RejectedExecutionException when the queue is full
+     */
+    public ProvisioningJobStatus submit(String realm, UserPayload payload,
+                                        Consumer<ProvisioningJobStatus> onCompletion) {
+        Job job = new Job(UUID.randomUUID().toString(), realm, payload, onCompletion, clock.instant());
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw e;
+        }
+        return job.snapshot();
+    }
+
+    // Jobs are only visible to callers of the realm they were submitted for
+    public Optional<ProvisioningJobStatus> find(String realm, String id) {
+        return Optional.ofNullable(jobs.get(id))
+                .filter(job -> job.realm.equals(realm))
+                .map(Job::snapshot);
+    }
+
+    public int queuedJobs() {
+        return executor.getQueue().size();
+    }
+
+    @Scheduled(fixedDelayString = "${admin.async.purge-interval-ms:60000}")
+    public void purgeCompleted() {
+        Instant cutoff = clock.instant().minus(retention);
+        jobs.values().removeIf(job -> job.completedAt != null && job.completedAt.isBefore(cutoff));
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void run(Job job) {
+        ProvisioningResult result;
+        while (true) {
+            job.state = State.RUNNING;
+            job.attempts++;
+            result = attempt(job);
+            if (!result.isTransient() || job.attempts >= maxAttempts) {
+                break;
+            }
+            job.state = State.RETRYING;
+            job.message = result.message();
+            if (!backOff(job.attempts)) {
+                break;
+            }
+        }
+        job.status = result.status();
+        job.message = result.message();
+        job.payload = null;
+        job.completedAt = clock.instant();
+        job.state = result.outcome() == Outcome.CREATED ? State.SUCCEEDED : State.FAILED;
+        if (job.state == State.FAILED) {
+            log.info("Provisioning job {} for {} failed after {} attempt(s): {}",
+                    job.id, job.username, job.attempts, result.message());
+        }
+        try {
+            job.onCompletion.accept(job.snapshot());
+        } catch (RuntimeException e) {
+            log.warn("Completion callback of provisioning job {} failed", job.id, e);
+        }
+    }
+
+    private ProvisioningResult attempt(Job job) {
+        if (job.userId == null) {
+            UserProvisioningService.Creation creation = provisioningService.createUser(job.realm, job.payload);
+            ProvisioningResult result = creation.result();
+            if (creation.userId() != null) {
+                job.userId = creation.userId();
+            } else if (result.outcome() == Outcome.CONFLICT && job.maybeCreated) {
+                // The attempt that timed out may have created the user, carry on with it only if it is ours
+                job.userId = provisioningService.findUser(job.realm, job.username)
+                        .filter(user -> matches(user, job.payload))
+                        .map(UserRepresentation::getId)
+                        .orElse(null);
+                if (job.userId == null) {
+                    return result;
+                }
+            } else {
+                job.maybeCreated |= result.isTransient();
+                return result;
+            }
+            job.payload = null;
+        }
+        return provisioningService.joinUserGroup(job.realm, job.userId, job.username);
+    }
+
+    /**
+     * Whether {@code user} carries the details of {@code payload}. Keycloak stores e-mail addresses in lower case.
+     */
+    static boolean matches(UserRepresentation user, UserPayload payload) {
+        return normalize(user.getEmail()).equalsIgnoreCase(normalize(payload.getEmail()))
+                && normalize(user.getFirstName()).equals(normalize(payload.getFirstName()))
+                && normalize(user.getLastName()).equals(normalize(payload.getLastName()));
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value;
+    }
+
+    private boolean backOff(int attempt) {
+        try {
+            Thread.sleep(retryBackoff.multipliedBy(1L << Math.min(attempt - 1, 10)));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static final class Job {
+
+        private final String id;
+        private final String realm;
+        private final String username;
+        private final Consumer<ProvisioningJobStatus> onCompletion;
+        private final Instant submittedAt;
+        // Holds the password until the user is created
+        private volatile UserPayload payload;
+        private volatile String userId;
+        private volatile boolean maybeCreated;
+        private volatile State state = State.QUEUED;
+        private volatile int attempts;
+        private volatile Integer status;
+        private volatile String message;
+        private volatile Instant completedAt;
+
+        private Job(String id, String realm, UserPayload payload, Consumer<ProvisioningJobStatus> onCompletion,
+                    Instant submittedAt) {
+            this.id = id;
+            this.realm = realm;
+            this.username = payload.getUsername();
+            this.payload = payload;
+            this.onCompletion = onCompletion;
+            this.submittedAt = submittedAt;
+        }
+
+        private ProvisioningJobStatus snapshot() {
+            return new ProvisioningJobStatus(id, username, state, attempts, status, message,
+                    submittedAt, completedAt);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.bindstone.backend.service;
+
+import com.bindstone.backend.dto.RoleAssignmentRequest;
+import com.bindstone.backend.dto.RoleAssignmentResult;
+import com.bindstone.backend.dto.RoleAssignmentSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.WebApplicationException;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Adds or removes groups, realm roles and client roles for many users in one call. Groups, roles and clients are
+ * resolved once up front, so an unknown name fails the request before any user is touched and the per-user work is
+ * only the mapping calls. Users are processed in parallel with at most {@code concurrency} in flight; each user's
+ * calls run in sequence and a failure is reported for that user without stopping the others.
+ * <p>
+ * Only the groups and roles listed in {@code admin.assignments.allowed-*} can be assigned or removed. The admin
+ * client acts with the rights of the Keycloak admin, so without that list a realm admin could grant themselves
+ * {@code realm-management} roles. Client roles are listed as {@code clientId:role}.
+ * <p>
+ * Adding a mapping that exists or removing one that does not is a no-op in Keycloak, so a partly failed request can
+ * simply be sent again.
+ */
+@Service
+public class RoleAssignmentService {
+
+    private final Keycloak keycloak;
+    private final KeycloakGroupService groupService;
+    private final KeycloakRoleService roleService;
+    private final KeycloakAdminExecutor adminExecutor;
+    private final Set<String> allowedGroups;
+    private final Set<String> allowedRoles;
+    private final Set<String> allowedClientRoles;
+    private final Timer userLookupTimer;
+
+    @Value("${admin.assignments.concurrency:16}")
+    private int defaultConcurrency;
+
+    @Value("${admin.assignments.max-concurrency:20}")
+    private int maxConcurrency;
+
+    @Value("${admin.assignments.max-users:10000}")
+    private int maxUsers;
+
+    public RoleAssignmentService(Keycloak keycloak, KeycloakGroupService groupService, KeycloakRoleService roleService,
+                                 KeycloakAdminExecutor adminExecutor, MeterRegistry meterRegistry,
+                                 @Value("${admin.assignments.allowed-groups:}") List<String> allowedGroups,
+                                 @Value("${admin.assignments.allowed-roles:}") List<String> allowedRoles,
+                                 @Value("${admin.assignments.allowed-client-roles:}") List<String> allowedClientRoles) {
+        this.keycloak = keycloak;
+        this.groupService = groupService;
+        this.roleService = roleService;
+        this.adminExecutor = adminExecutor;
+        this.allowedGroups = names(allowedGroups);
+        this.allowedRoles = names(allowedRoles);
+        this.allowedClientRoles = names(allowedClientRoles);
+        this.userLookupTimer = KeycloakAdminMetrics.timer(meterRegistry, "user-lookup");
+    }
+
+    public int effectiveConcurrency(Integer requested) {
+        if (requested == null || requested < 1) {
+            return defaultConcurrency;
+        }
+        return Math.min(requested, maxConcurrency);
+    }
+
+    /**
+     * Applies {@code request} to every listed user of {@code realm} and passes each user's result to
+     * {@code listener}, from the worker threads.
+     *
+     * @throws IllegalArgumentException if the request is incomplete or lists more than the allowed users
+     * @throws AccessDeniedException    if a group or role is not in the allow-list
+     * @throws IllegalStateException    if a group, role or client does not exist
+     */
+    public RoleAssignmentSummary assign(String realm, RoleAssignmentRequest request, int concurrency,
+                                        Consumer<RoleAssignmentResult> listener) {
+        Set<String> users = validate(request);
+        checkAllowed(request);
+        Plan plan = plan(realm, request);
+        boolean add = request.operation() == RoleAssignmentRequest.Operation.ADD;
+
+        long started = System.nanoTime();
+        LongAdder succeeded = new LongAdder();
+        ConcurrentLinkedQueue<RoleAssignmentResult> failures = new ConcurrentLinkedQueue<>();
+        try (KeycloakAdminExecutor.Batch batch = adminExecutor.batch(concurrency)) {
+            for (String username : users) {
+                boolean submitted = batch.submit(() -> {
+                    RoleAssignmentResult result = assignUser(realm, username, plan, add);
+                    if (result.status() == 200) {
+                        succeeded.increment();
+                    } else {
+                        failures.add(result);
+                    }
+                    listener.accept(result);
+                });
+                if (!submitted) {
+                    break;
+                }
+            }
+        }
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        return new RoleAssignmentSummary(request.operation(), users.size(), succeeded.sum(), failures.size(),
+                elapsedMillis, users.size() * 1000.0 / elapsedMillis, List.copyOf(failures));
+    }
+
+    private Set<String> validate(RoleAssignmentRequest request) {
+        if (request.operation() == null) {
+            throw new IllegalArgumentException("operation must be ADD or REMOVE");
+        }
+        if (request.users() == null || request.users().isEmpty()) {
+            throw new IllegalArgumentException("users must not be empty");
+        }
+        Set<String> users = new LinkedHashSet<>();
+        for (String username : request.users()) {
+            if (username == null || username.isBlank()) {
+                throw new IllegalArgumentException("users must not contain blank usernames");
+            }
+            users.add(username);
+        }
+        if (users.size() > maxUsers) {
+            throw new IllegalArgumentException("At most " + maxUsers + " users per request");
+        }
+        if (isEmpty(request.groups()) && isEmpty(request.realmRoles())
+                && (request.clientRoles() == null || request.clientRoles().values().stream().allMatch(this::isEmpty))) {
+            throw new IllegalArgumentException("One of groups, realmRoles or clientRoles is required");
+        }
+        return users;
+    }
+
+    private void checkAllowed(RoleAssignmentRequest request) {
+        List<String> denied = new ArrayList<>();
+        if (request.groups() != null) {
+            request.groups().stream().filter(group -> !allowedGroups.contains(group))
+                    .forEach(group -> denied.add("group " + group));
+        }
+        if (request.realmRoles() != null) {
+            request.realmRoles().stream().filter(role -> !allowedRoles.contains(role))
+                    .forEach(role -> denied.add("realm role " + role));
+        }
+        if (request.clientRoles() != null) {
+            request.clientRoles().forEach((clientId, roleNames) -> {
+                if (roleNames != null) {
+                    roleNames.stream().filter(role -> !allowedClientRoles.contains(clientId + ':' + role))
+                            .forEach(role -> denied.add("client role " + clientId + ':' + role));
+                }
+            });
+        }
+        if (!denied.isEmpty()) {
+            throw new AccessDeniedException("Not assignable: " + String.join(", ", denied));
+        }
+    }
+
+    private Plan plan(String realm, RoleAssignmentRequest request) {
+        List<String> groups = request.groups() == null ? List.of() : List.copyOf(new LinkedHashSet<>(request.groups()));
+        groups.forEach(group -> groupService.resolveGroupId(realm, group));
+
+        List<RoleRepresentation> realmRoles = new ArrayList<>();
+        if (request.realmRoles() != null) {
+            new LinkedHashSet<>(request.realmRoles())
+                    .forEach(role -> realmRoles.add(roleService.resolveRealmRole(realm, role)));
+        }
+
+        Map<String, List<RoleRepresentation>> clientRoles = new LinkedHashMap<>();
+        if (request.clientRoles() != null) {
+            request.clientRoles().forEach((clientId, roleNames) -> {
+                if (isEmpty(roleNames)) {
+                    return;
+                }
+                List<RoleRepresentation> roles = new ArrayList<>();
+                new LinkedHashSet<>(roleNames)
+                        .forEach(role -> roles.add(roleService.resolveClientRole(realm, clientId, role)));
+                clientRoles.put(roleService.resolveClientId(realm, clientId), roles);
+            });
+        }
+        return new Plan(groups, realmRoles, clientRoles);
+    }
+
+    private RoleAssignmentResult assignUser(String realm, String username, Plan plan, boolean add) {
+        String step = "user lookup";
+        try {
+            String userId = findUserId(realm, username);
+            if (userId == null) {
+                return new RoleAssignmentResult(username, 404, "User not found");
+            }
+            for (String group : plan.groups()) {
+                step = "group " + group;
+                if (add) {
+                    groupService.joinGroup(realm, userId, group);
+                } else {
+                    groupService.leaveGroup(realm, userId, group);
+                }
+            }
+            if (!plan.realmRoles().isEmpty()) {
+                step = "realm roles";
+                roleService.updateRealmRoles(realm, userId, plan.realmRoles(), add);
+            }
+            for (Map.Entry<String, List<RoleRepresentation>> client : plan.clientRoles().entrySet()) {
+                step = "client roles";
+                roleService.updateClientRoles(realm, userId, client.getKey(), client.getValue(), add);
+            }
+            return RoleAssignmentResult.done(username);
+        } catch (WebApplicationException e) {
+            if (e instanceof NotFoundException) {
+                // A role or client may have been re-created under a new ID, resolve them again on the next request
+                roleService.invalidate(realm);
+            }
+            return new RoleAssignmentResult(username, e.getResponse().getStatus(), "Failed at " + step + ": "
+                    + e.getResponse().getStatusInfo().getReasonPhrase());
+        } catch (Exception e) {
+            return new RoleAssignmentResult(username, 500, "Failed at " + step + ": " + e.getMessage());
+        }
+    }
+
+    // Exact search, Keycloak stores usernames in lower case
+    private String findUserId(String realm, String username) {
+        List<UserRepresentation> matches = userLookupTimer.record(
+                () -> keycloak.realm(realm).users().searchByUsername(username, true));
+        if (matches == null) {
+            return null;
+        }
+        for (UserRepresentation user : matches) {
+            if (username.equalsIgnoreCase(user.getUsername())) {
+                return user.getId();
+            }
+        }
+        return null;
+    }
+
+    private static Set<String> names(List<String> names) {
+        return names.stream().map(String::trim).filter(name -> !name.isEmpty()).collect(Collectors.toUnmodifiableSet());
+    }
+
+    private boolean isEmpty(List<String> names) {
+        return names == null || names.isEmpty();
+    }
+
+    private record Plan(List<String> groups, List<RoleRepresentation> realmRoles,
+                        Map<String, List<RoleRepresentation>> clientRoles) {
+    }
+}
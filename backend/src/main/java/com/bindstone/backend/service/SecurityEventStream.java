@@ -0,0 +1,98 @@
+package com.bindstone.backend.service;
+
+import com.bindstone.backend.security.SecurityEvent;
+import com.bindstone.backend.security.SecurityEventLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Server-sent event tail of the {@link SecurityEventLog}. Recording a failure never touches the subscribers; a
+ * scheduled task reads each subscriber's new events from the ring and sends them as {@code auth-failure} events.
+ * A subscriber that fell behind by more than the ring holds gets an {@code overrun} event with the number of events
+ * it missed.
+ */
+@Service
+@ConditionalOnWebApplication(type = Type.SERVLET)
+public class SecurityEventStream {
+
+    private static final int MAX_EVENTS_PER_PUSH = 1000;
+
+    private final SecurityEventLog eventLog;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    public SecurityEventStream(SecurityEventLog eventLog,
+                               @Value("${security.events.stream.max-subscribers:16}") int maxSubscribers,
+                               @Value("${security.events.stream.timeout-ms:1800000}") long timeoutMillis) {
+        this.eventLog = eventLog;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Starts a tail at the current end of the log, or returns null when {@code max-subscribers} are connected.
+     */
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            return null;
+        }
+        Subscriber subscriber = new Subscriber(new SseEmitter(timeoutMillis), eventLog.position());
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return subscriber.emitter;
+    }
+
+    public int subscribers() {
+        return subscribers.size();
+    }
+
+    @Scheduled(fixedDelayString = "${security.events.stream.interval-ms:1000}")
+    public void push() {
+        for (Subscriber subscriber : subscribers) {
+            List<SecurityEvent> events = eventLog.since(subscriber.position, MAX_EVENTS_PER_PUSH);
+            if (events.isEmpty()) {
+                continue;
+            }
+            try {
+                long missed = events.get(0).sequence() - subscriber.position;
+                if (missed > 0) {
+                    subscriber.emitter.send(SseEmitter.event().name("overrun").data(missed));
+                }
+                for (SecurityEvent event : events) {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(Long.toString(event.sequence()))
+                            .name("auth-failure")
+                            .data(event, MediaType.APPLICATION_JSON));
+                }
+                subscriber.position = events.get(events.size() - 1).sequence() + 1;
+            } catch (IOException | IllegalStateException e) {
+                // Client went away, the emitter callbacks may not fire for a connection that is already closed
+                subscribers.remove(subscriber);
+                subscriber.emitter.completeWithError(e);
+            }
+        }
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private long position;
+
+        private Subscriber(SseEmitter emitter, long position) {
+            this.emitter = emitter;
+            this.position = position;
+        }
+    }
+}
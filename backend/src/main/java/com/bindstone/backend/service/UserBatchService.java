@@ -0,0 +1,114 @@
+package com.bindstone.backend.service;
+
+import com.bindstone.backend.dto.BatchRecordResult;
+import com.bindstone.backend.dto.BatchSummary;
+import com.bindstone.backend.dto.ProvisioningResult;
+import com.bindstone.backend.dto.UserPayload;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Provisions a stream of users read one record at a time from a JSON array or NDJSON body.
+ * At most {@code concurrency} records are in flight; reading blocks until a slot frees up,
+ * so the body is never buffered as a whole.
+ */
+@Service
+public class UserBatchService {
+
+    private final UserProvisioningService provisioningService;
+    private final KeycloakAdminExecutor adminExecutor;
+    private final ObjectReader payloadReader;
+
+    @Value("${admin.batch.concurrency:8}")
+    private int defaultConcurrency;
+
+    @Value("${admin.batch.max-concurrency:32}")
+    private int maxConcurrency;
+
+    public UserBatchService(UserProvisioningService provisioningService, ObjectMapper objectMapper,
+                            KeycloakAdminExecutor adminExecutor) {
+        this.provisioningService = provisioningService;
+        this.adminExecutor = adminExecutor;
+        this.payloadReader = objectMapper.readerFor(UserPayload.class);
+    }
+
+    public int effectiveConcurrency(Integer requested) {
+        if (requested == null || requested < 1) {
+            return defaultConcurrency;
+        }
+        return Math.min(requested, maxConcurrency);
+    }
+
+    public BatchSummary provisionAll(String realm, InputStream body, int concurrency,
+                                     Consumer<BatchRecordResult> sink) throws IOException {
+        long started = System.nanoTime();
+        Tally tally = new Tally();
+        Consumer<BatchRecordResult> reporter = result -> {
+            tally.add(result.outcome());
+            synchronized (sink) {
+                sink.accept(result);
+            }
+        };
+
+        long index = 0;
+        // A root-level array is unwrapped by the reader, otherwise values are read as a whitespace separated sequence
+        try (KeycloakAdminExecutor.Batch batch = adminExecutor.batch(concurrency);
+             MappingIterator<UserPayload> payloads = payloadReader.readValues(body)) {
+            UserPayload payload;
+            while ((payload = nextRecord(payloads, index, reporter)) != null) {
+                UserPayload record = payload;
+                long recordIndex = index++;
+                // Refused once the sink failed, close() then rethrows that failure
+                if (!batch.submit(() -> reporter.accept(
+                        BatchRecordResult.of(recordIndex, provisioningService.provision(realm, record))))) {
+                    break;
+                }
+            }
+        }
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        return tally.summary(elapsedMillis);
+    }
+
+    // A malformed record leaves the parser in an unknown state, so it ends the batch with an error entry
+    private static UserPayload nextRecord(MappingIterator<UserPayload> payloads, long index,
+                                          Consumer<BatchRecordResult> reporter) throws IOException {
+        try {
+            return payloads.hasNextValue() ? payloads.nextValue() : null;
+        } catch (JsonProcessingException e) {
+            reporter.accept(new BatchRecordResult(index, null, ProvisioningResult.Outcome.ERROR, 400,
+                    "Malformed record: " + e.getOriginalMessage()));
+            return null;
+        }
+    }
+
+    private static class Tally {
+
+        private final LongAdder created = new LongAdder();
+        private final LongAdder conflict = new LongAdder();
+        private final LongAdder error = new LongAdder();
+
+        void add(ProvisioningResult.Outcome outcome) {
+            switch (outcome) {
+                case CREATED -> created.increment();
+                case CONFLICT -> conflict.increment();
+                case ERROR -> error.increment();
+            }
+        }
+
+        BatchSummary summary(long elapsedMillis) {
+            long total = created.sum() + conflict.sum() + error.sum();
+            return new BatchSummary(total, created.sum(), conflict.sum(), error.sum(), elapsedMillis,
+                    total * 1000.0 / elapsedMillis);
+        }
+    }
+}
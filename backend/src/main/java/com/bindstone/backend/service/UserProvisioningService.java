@@ -0,0 +1,192 @@
+package com.bindstone.backend.service;
+
+import com.bindstone.backend.dto.ProvisioningResult;
+import com.bindstone.backend.dto.UserPayload;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.ws.rs.core.Response;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.admin.client.resource.UsersResource;
+import org.keycloak.representations.idm.CredentialRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class UserProvisioningService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserProvisioningService.class);
+
+    static final String USER_GROUP = "CONTINENTAL_GROUP_USER";
+
+    private final Keycloak keycloak;
+    private final KeycloakGroupService groupService;
+    private final Timer createTimer;
+    private final Counter collapsed;
+    private final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+
+    // Realm of callers without a token issuer
+    @Value("${keycloak.realm}")
+    private String realm;
+
+    public UserProvisioningService(Keycloak keycloak, KeycloakGroupService groupService, MeterRegistry meterRegistry) {
+        this.keycloak = keycloak;
+        this.groupService = groupService;
+        this.createTimer = KeycloakAdminMetrics.timer(meterRegistry, "create-user");
+        this.collapsed = Counter.builder("keycloak.admin.collapsed")
+                .description("User creations answered by an identical request already in flight")
+                .register(meterRegistry);
+    }
+
+    public ProvisioningResult provision(UserPayload payload) {
+        return provision(realm, payload);
+    }
+
+    /**
+     * Creates the user in {@code realm} and adds it to the user group. Concurrent identical calls share one creation,
+     * so duplicate submissions cost a single set of Keycloak round trips and all get the same result. A different
+     * payload for a username whose creation is in flight is answered with 409 right away.
+     */
+    public ProvisioningResult provision(String realm, UserPayload payload) {
+        if (payload.getUsername() == null) {
+            return create(realm, payload);
+        }
+        // Keycloak stores usernames in lower case
+        String key = realm + '/' + payload.getUsername().toLowerCase(Locale.ROOT);
+        Flight flight = new Flight(fingerprint(payload), new CompletableFuture<>());
+        Flight leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            if (!leader.fingerprint().equals(flight.fingerprint())) {
+                return ProvisioningResult.rejected(payload.getUsername(), 409,
+                        "A different creation of this user is in progress");
+            }
+            collapsed.increment();
+            return leader.result().join();
+        }
+        try {
+            ProvisioningResult result = create(realm, payload);
+            flight.result().complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private ProvisioningResult create(String realm, UserPayload payload) {
+        Creation creation = createUser(realm, payload);
+        if (creation.userId() == null) {
+            return creation.result();
+        }
+        return joinUserGroup(realm, creation.userId(), payload.getUsername());
+    }
+
+    /**
+     * First step of {@link #provision}: creates the user without adding it to the user group. The user ID is only set
+     * when Keycloak answered 201.
+     */
+    Creation createUser(String realm, UserPayload payload) {
+        try {
+            UserRepresentation user = toRepresentation(payload);
+
+            RealmResource realmResource = keycloak.realm(realm);
+            UsersResource usersResource = realmResource.users();
+
+            try (Response response = createTimer.record(() -> usersResource.create(user))) {
+                if (response.getStatus() == 201) {
+                    String userId = response.getLocation().getPath().replaceAll(".*/([^/]+)$", "$1");
+
+                    //RoleRepresentation role = realmResource.roles().get("CONTINENTAL_ROLE_USER").toRepresentation();
+                    //realmResource.users().get(userId).roles().realmLevel().add(Collections.singletonList(role));
+
+                    //RoleRepresentation role = realmResource.clients().get("CONTINENTAL-CLIENT").roles().get("CONTINENTAL_ROLE_USER").toRepresentation();
+                    //realmResource.users().get(userId).roles().realmLevel().add(Collections.singletonList(role));
+
+                    return new Creation(userId, ProvisioningResult.created(payload.getUsername()));
+                } else {
+                    return new Creation(null, ProvisioningResult.rejected(payload.getUsername(), response.getStatus(), response.getStatusInfo().getReasonPhrase()));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Could not create user {} in realm {}", payload.getUsername(), realm, e);
+            return new Creation(null, ProvisioningResult.error(payload.getUsername(), e));
+        }
+    }
+
+    /**
+     * Second step of {@link #provision}: adds the created user to the user group.
+     */
+    ProvisioningResult joinUserGroup(String realm, String userId, String username) {
+        try {
+            groupService.joinGroup(realm, userId, USER_GROUP);
+            return ProvisioningResult.created(username);
+        } catch (Exception e) {
+            log.warn("Could not add user {} to group {} in realm {}", username, USER_GROUP, realm, e);
+            return ProvisioningResult.error(username, e);
+        }
+    }
+
+    /**
+     * The user with exactly this username, empty when there is none.
+     */
+    Optional<UserRepresentation> findUser(String realm, String username) {
+        return keycloak.realm(realm).users().searchByUsername(username, true).stream().findFirst();
+    }
+
+    /**
+     * SHA-256 over every field of {@code payload}, the password included, so requests can be compared without
+     * keeping the password itself.
+     */
+    public static String fingerprint(UserPayload payload) {
+        String username = payload.getUsername() == null ? null : payload.getUsername().toLowerCase(Locale.ROOT);
+        String fields = String.join("\u0000", username, String.valueOf(payload.getEmail()),
+                String.valueOf(payload.getFirstName()), String.valueOf(payload.getLastName()),
+                String.valueOf(payload.getPassword()));
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(fields.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    static UserRepresentation toRepresentation(UserPayload payload) {
+        UserRepresentation user = new UserRepresentation();
+        user.setEnabled(true);
+        user.setUsername(payload.getUsername());
+        user.setEmail(payload.getEmail());
+        user.setFirstName(payload.getFirstName());
+        user.setLastName(payload.getLastName());
+
+        CredentialRepresentation credential = new CredentialRepresentation();
+        credential.setType(CredentialRepresentation.PASSWORD);
+        credential.setValue(payload.getPassword());
+        credential.setTemporary(false);
+        user.setCredentials(Collections.singletonList(credential));
+        return user;
+    }
+
+    record Creation(String userId, ProvisioningResult result) {
+    }
+
+    private record Flight(String fingerprint, CompletableFuture<ProvisioningResult> result) {
+    }
+}
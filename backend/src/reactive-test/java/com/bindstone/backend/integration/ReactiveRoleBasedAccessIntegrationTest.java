@@ -0,0 +1,44 @@
+package com.bindstone.backend.integration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.springSecurity;
+
+@SpringBootTest
+@ActiveProfiles("reactive")
+class ReactiveRoleBasedAccessIntegrationTest extends RoleBasedAccessScenarios {
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        this.webTestClient = WebTestClient.bindToApplicationContext(this.applicationContext)
+                .apply(springSecurity())
+                .configureClient()
+                .build();
+    }
+
+    // CORS needs an absolute request URI to compare the origin against
+    @Override
+    protected Response get(String path, String origin) {
+        EntityExchangeResult<String> result = webTestClient.get().uri("http://localhost" + path)
+                .headers(headers -> {
+                    if (origin != null) {
+                        headers.setOrigin(origin);
+                    }
+                })
+                .exchange()
+                .expectBody(String.class)
+                .returnResult();
+        return new Response(result.getStatus().value(), result.getResponseBody());
+    }
+}
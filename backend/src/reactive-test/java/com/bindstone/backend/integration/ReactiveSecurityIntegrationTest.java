@@ -0,0 +1,155 @@
+package com.bindstone.backend.integration;
+
+import com.bindstone.backend.audit.AuditLog;
+import com.bindstone.backend.config.ReactiveSecurityConfig;
+import com.bindstone.backend.dto.ProvisioningJobStatus;
+import com.bindstone.backend.dto.ProvisioningJobStatus.State;
+import com.bindstone.backend.dto.ProvisioningResult;
+import com.bindstone.backend.security.JwtDecoderCache;
+import com.bindstone.backend.security.SecurityMetrics;
+import com.bindstone.backend.security.TokenRevocationList;
+import com.bindstone.backend.service.ProvisioningJobService;
+import com.bindstone.backend.service.ReactiveUserProvisioningService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.csrf;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.springSecurity;
+
+/**
+ * What only the reactive stack does: where the blocking decoder runs and which admin endpoints WebFlux serves. The
+ * shared access rules are covered by {@link ReactiveRoleBasedAccessIntegrationTest}.
+ */
+@SpringBootTest
+@ActiveProfiles("reactive")
+class ReactiveSecurityIntegrationTest {
+
+    private static final ProvisioningJobStatus QUEUED = new ProvisioningJobStatus("job-1", "alice", State.QUEUED,
+            0, null, null, Instant.parse("2025-01-01T10:00:00Z"), null);
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @MockitoBean
+    private ReactiveUserProvisioningService provisioningService;
+
+    @MockitoBean
+    private ProvisioningJobService jobService;
+
+    @MockitoBean
+    private AuditLog auditLog;
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        this.webTestClient = WebTestClient.bindToApplicationContext(this.applicationContext)
+                .apply(springSecurity())
+                .configureClient()
+                .build();
+    }
+
+    @Test
+    void whenTokenDecoded_thenBlockingDecoderRunsOffTheCallingThread() {
+        AtomicReference<String> decodingThread = new AtomicReference<>();
+        ReactiveJwtDecoder decoder = new ReactiveSecurityConfig().reactiveJwtDecoder(token -> {
+            decodingThread.set(Thread.currentThread().getName());
+            return Jwt.withTokenValue(token).header("alg", "RS256").subject("alice").claim("jti", "jti-1")
+                    .expiresAt(Instant.now().plusSeconds(300)).build();
+        }, new JwtDecoderCache(0), new TokenRevocationList(100, 0.01), new SecurityMetrics(new SimpleMeterRegistry()));
+
+        assertEquals("alice", decoder.decode("token").block().getSubject());
+        assertTrue(decodingThread.get().startsWith("boundedElastic"), decodingThread.get());
+    }
+
+    @Test
+    void whenTokenCached_thenServedOnTheCallingThreadAndRevocationChecked() {
+        AtomicReference<String> decodingThread = new AtomicReference<>();
+        TokenRevocationList revocationList = new TokenRevocationList(100, 0.01);
+        ReactiveJwtDecoder decoder = new ReactiveSecurityConfig().reactiveJwtDecoder(token -> {
+            decodingThread.set(Thread.currentThread().getName());
+            return Jwt.withTokenValue(token).header("alg", "RS256").subject("alice").claim("jti", "jti-1")
+                    .expiresAt(Instant.now().plusSeconds(300)).build();
+        }, new JwtDecoderCache(10), revocationList, new SecurityMetrics(new SimpleMeterRegistry()));
+        decoder.decode("token").block();
+        decodingThread.set(null);
+
+        AtomicReference<String> servingThread = new AtomicReference<>();
+        Jwt jwt = decoder.decode("token").doOnNext(cached -> servingThread.set(Thread.currentThread().getName())).block();
+
+        assertEquals("alice", jwt.getSubject());
+        assertNull(decodingThread.get());
+        assertEquals(Thread.currentThread().getName(), servingThread.get());
+        revocationList.revokeToken("jti-1", jwt.getExpiresAt());
+        assertThrows(BadJwtException.class, () -> decoder.decode("token").block());
+    }
+
+    @Test
+    @WithMockUser(roles = {"CONTINENTAL_ROLE_ADMIN"})
+    void whenCreatingUser_thenProvisionedReactively() {
+        when(provisioningService.provision(any(), any())).thenReturn(Mono.just(ProvisioningResult.created("alice")));
+
+        webTestClient.mutateWith(csrf()).post().uri("/admin/user")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"username\":\"alice\"}")
+                .exchange()
+                .expectStatus().isCreated();
+
+        verifyNoInteractions(jobService);
+        verify(auditLog).record("CONTINENTAL", "user", "user.create", "alice", 201, false);
+    }
+
+    @Test
+    @WithMockUser(roles = {"CONTINENTAL_ROLE_ADMIN"})
+    void whenAsyncCreate_thenAcceptedAndStatusServed() {
+        when(jobService.submit(any(), any(), any())).thenReturn(QUEUED);
+        when(jobService.find("CONTINENTAL", "job-1")).thenReturn(Optional.of(QUEUED));
+
+        webTestClient.mutateWith(csrf()).post().uri("/admin/user?async=true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"username\":\"alice\"}")
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectHeader().valueEquals("Location", "/admin/user/jobs/job-1");
+        webTestClient.get().uri("/admin/user/jobs/job-1").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.state").isEqualTo("QUEUED");
+
+        verifyNoInteractions(provisioningService);
+        verify(auditLog).record("CONTINENTAL", "user", "user.create", "alice", 202, false);
+    }
+
+    @Test
+    @WithMockUser(roles = {"USER"})
+    void whenUserRoleCreatesUser_thenForbidden() {
+        webTestClient.mutateWith(csrf()).post().uri("/admin/user?async=true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"username\":\"alice\"}")
+                .exchange()
+                .expectStatus().isForbidden();
+        webTestClient.get().uri("/admin/user/jobs/job-1").exchange()
+                .expectStatus().isForbidden();
+
+        verifyNoInteractions(provisioningService, jobService);
+    }
+}
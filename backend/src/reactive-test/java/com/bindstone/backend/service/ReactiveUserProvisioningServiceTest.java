@@ -0,0 +1,102 @@
+package com.bindstone.backend.service;
+
+import com.bindstone.backend.dto.ProvisioningResult;
+import com.bindstone.backend.dto.ProvisioningResult.Outcome;
+import com.bindstone.backend.dto.UserPayload;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReactiveUserProvisioningServiceTest {
+
+    private static final String SERVER = "http://keycloak.test";
+
+    private final List<String> calls = new CopyOnWriteArrayList<>();
+    private HttpStatus createStatus;
+    private ReactiveUserProvisioningService service;
+
+    @BeforeEach
+    void setUp() {
+        createStatus = HttpStatus.CREATED;
+        WebClient.Builder builder = WebClient.builder().exchangeFunction(this::exchange);
+        service = new ReactiveUserProvisioningService(builder, new SimpleMeterRegistry(), SERVER, "CONTINENTAL",
+                "admin", "password", "admin-cli", 5, 30, 300);
+    }
+
+    @Test
+    void whenUserCreated_thenJoinsGroup() {
+        ProvisioningResult result = service.provision(payload("alice")).block();
+
+        assertEquals(Outcome.CREATED, result.outcome());
+        assertEquals(List.of(
+                "POST /realms/master/protocol/openid-connect/token",
+                "POST /admin/realms/CONTINENTAL/users",
+                "GET /admin/realms/CONTINENTAL/groups",
+                "PUT /admin/realms/CONTINENTAL/users/u-1/groups/g-1"), calls);
+    }
+
+    @Test
+    void whenProvisionedTwice_thenTokenAndGroupReused() {
+        service.provision(payload("alice")).block();
+        calls.clear();
+
+        service.provision(payload("bob")).block();
+
+        assertEquals(List.of(
+                "POST /admin/realms/CONTINENTAL/users",
+                "PUT /admin/realms/CONTINENTAL/users/u-1/groups/g-1"), calls);
+    }
+
+    @Test
+    void whenUserExists_thenConflict() {
+        createStatus = HttpStatus.CONFLICT;
+
+        ProvisioningResult result = service.provision(payload("alice")).block();
+
+        assertEquals(Outcome.CONFLICT, result.outcome());
+        assertEquals(409, result.status());
+    }
+
+    private Mono<ClientResponse> exchange(ClientRequest request) {
+        String path = request.url().getPath();
+        calls.add(request.method() + " " + path);
+        if (path.endsWith("/token")) {
+            return json("{\"access_token\":\"admin-token\",\"expires_in\":300}");
+        }
+        if (request.method() == HttpMethod.POST) {
+            return Mono.just(ClientResponse.create(createStatus)
+                    .header(HttpHeaders.LOCATION, SERVER + "/admin/realms/CONTINENTAL/users/u-1")
+                    .build());
+        }
+        if (request.method() == HttpMethod.GET) {
+            return json("[{\"id\":\"g-1\",\"name\":\"CONTINENTAL_GROUP_USER\"}]");
+        }
+        return Mono.just(ClientResponse.create(HttpStatus.NO_CONTENT).build());
+    }
+
+    private static Mono<ClientResponse> json(String body) {
+        return Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build());
+    }
+
+    private static UserPayload payload(String username) {
+        UserPayload payload = new UserPayload();
+        payload.setUsername(username);
+        return payload;
+    }
+}
@@ -0,0 +1,71 @@
+package com.bindstone.backend.config;
+
+import com.bindstone.backend.security.CacheFirstReactiveJwtDecoder;
+import com.bindstone.backend.security.CorsPolicy;
+import com.bindstone.backend.security.JwtDecoderCache;
+import com.bindstone.backend.security.ReactiveRouteAuthorizationManager;
+import com.bindstone.backend.security.RouteAuthorizationManager;
+import com.bindstone.backend.security.SecurityMetrics;
+import com.bindstone.backend.security.TokenRevocationList;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtAuthenticationConverterAdapter;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.web.cors.reactive.CorsConfigurationSource;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * WebFlux counterpart of {@link SecurityConfig}, active when the application is built with the Maven profile
+ * {@code reactive} and runs as a reactive web application (Spring profile {@code reactive}). Tokens go through the
+ * same decoder, cache and role mapping, and requests are decided by the same route table.
+ */
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class ReactiveSecurityConfig {
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, ReactiveJwtDecoder reactiveJwtDecoder,
+                                                         Converter<Jwt, AbstractAuthenticationToken> jwtAuthenticationConverter,
+                                                         SecurityMetrics securityMetrics,
+                                                         RouteAuthorizationManager routeAuthorizationManager,
+                                                         CorsConfigurationSource reactiveCorsConfigurationSource) {
+        http
+                .cors(cors -> cors.configurationSource(reactiveCorsConfigurationSource))
+                .authorizeExchange(authorize -> authorize
+                        .anyExchange().access(new ReactiveRouteAuthorizationManager(routeAuthorizationManager))
+                )
+                .oauth2ResourceServer(oauth2 -> oauth2
+                        .jwt(jwt -> jwt
+                                .jwtDecoder(reactiveJwtDecoder)
+                                .jwtAuthenticationConverter(new ReactiveJwtAuthenticationConverterAdapter(
+                                        securityMetrics.timed(jwtAuthenticationConverter))))
+                );
+        return http.build();
+    }
+
+    // The shared decoder blocks while it fetches the JWK set for an unknown kid, so only cache misses leave the event loop
+    @Bean
+    public ReactiveJwtDecoder reactiveJwtDecoder(JwtDecoder jwtDecoder, JwtDecoderCache jwtDecoderCache,
+                                                 TokenRevocationList tokenRevocationList, SecurityMetrics securityMetrics) {
+        return new CacheFirstReactiveJwtDecoder(securityMetrics.timed(jwtDecoder), jwtDecoderCache, tokenRevocationList,
+                Schedulers.boundedElastic());
+    }
+
+    @Bean
+    public CorsConfigurationSource reactiveCorsConfigurationSource(CorsPolicy corsPolicy) {
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/**", corsPolicy.toCorsConfiguration());
+        return source;
+    }
+}
@@ -0,0 +1,92 @@
+package com.bindstone.backend.controller;
+
+import com.bindstone.backend.audit.AuditLog;
+import com.bindstone.backend.dto.ProvisioningJobStatus;
+import com.bindstone.backend.dto.UserPayload;
+import com.bindstone.backend.security.TenantRealmResolver;
+import com.bindstone.backend.service.ProvisioningJobService;
+import com.bindstone.backend.service.ReactiveUserProvisioningService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.concurrent.RejectedExecutionException;
+
+import static com.bindstone.backend.controller.AdminController.CREATE_USER;
+import static com.bindstone.backend.controller.AdminController.CREATE_USER_JOB;
+import static com.bindstone.backend.controller.AdminController.subject;
+
+@RestController
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class ReactiveAdminController {
+
+    private static final String RETRY_AFTER_SECONDS = "5";
+
+    private final ReactiveUserProvisioningService provisioningService;
+    private final ProvisioningJobService jobService;
+    private final TenantRealmResolver realmResolver;
+    private final AuditLog auditLog;
+
+    public ReactiveAdminController(ReactiveUserProvisioningService provisioningService,
+                                   ProvisioningJobService jobService, TenantRealmResolver realmResolver,
+                                   AuditLog auditLog) {
+        this.provisioningService = provisioningService;
+        this.jobService = jobService;
+        this.realmResolver = realmResolver;
+        this.auditLog = auditLog;
+    }
+
+    @GetMapping("/admin")
+    public ResponseEntity<String> hello() {
+        return ResponseEntity.ok("Hello ADMIN");
+    }
+
+    @PostMapping("/admin/user")
+    public Mono<ResponseEntity<?>> createUser(@RequestBody UserPayload payload,
+                                              @RequestParam(defaultValue = "false") boolean async,
+                                              Authentication authentication) {
+        String realm = realmResolver.resolve(authentication);
+        String actor = subject(authentication);
+        // Only queues the job, the blocking admin client runs on the job workers
+        Mono<ResponseEntity<?>> response = async
+                ? Mono.fromSupplier(() -> submitUser(realm, payload, actor))
+                : provisioningService.provision(realm, payload)
+                        .map(result -> ResponseEntity.status(result.status()).body(result.message()));
+        // Same records as AdminController: every answer, and an error that produced none as a 500
+        return response
+                .doOnNext(answer -> auditLog.record(realm, actor, CREATE_USER, payload.getUsername(),
+                        answer.getStatusCode().value(), false))
+                .doOnError(e -> auditLog.record(realm, actor, CREATE_USER, payload.getUsername(),
+                        HttpStatus.INTERNAL_SERVER_ERROR.value(), false));
+    }
+
+    @GetMapping("/admin/user/jobs/{id}")
+    public ResponseEntity<ProvisioningJobStatus> jobStatus(@PathVariable String id, Authentication authentication) {
+        return ResponseEntity.of(jobService.find(realmResolver.resolve(authentication), id));
+    }
+
+    private ResponseEntity<?> submitUser(String realm, UserPayload payload, String actor) {
+        try {
+            ProvisioningJobStatus job = jobService.submit(realm, payload, done -> auditLog.record(realm, actor,
+                    CREATE_USER_JOB, done.username(), done.status(), false));
+            return ResponseEntity.accepted()
+                    .location(URI.create("/admin/user/jobs/" + job.id()))
+                    .body(job);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .body("Provisioning queue is full, retry later");
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.bindstone.backend.security;
+
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Serves tokens from the {@link JwtDecoderCache} and checks the {@link TokenRevocationList} on the calling thread,
+ * both are in memory lookups. Only a cache miss, whose signature check may block on a JWK set fetch, is moved to
+ * the given scheduler, so the common case on an edge node costs no thread hop.
+ */
+public class CacheFirstReactiveJwtDecoder implements ReactiveJwtDecoder {
+
+    private final JwtDecoderCache cache;
+    private final TokenRevocationList revocationList;
+    private final JwtDecoder verifier;
+    private final Scheduler blockingScheduler;
+
+    /**
+     * @param verifier verifies tokens the cache does not hold, without consulting the cache or revocation list
+     */
+    public CacheFirstReactiveJwtDecoder(JwtDecoder verifier, JwtDecoderCache cache,
+                                        TokenRevocationList revocationList, Scheduler blockingScheduler) {
+        this.cache = cache;
+        this.revocationList = revocationList;
+        this.verifier = verifier;
+        this.blockingScheduler = blockingScheduler;
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) {
+        Jwt cached = cache.isEnabled() ? cache.get(token) : null;
+        if (cached != null) {
+            return checked(cached);
+        }
+        return Mono.fromCallable(() -> {
+                    Jwt jwt = verifier.decode(token);
+                    cache.put(token, jwt);
+                    return jwt;
+                })
+                .subscribeOn(blockingScheduler)
+                .flatMap(this::checked);
+    }
+
+    private Mono<Jwt> checked(Jwt jwt) {
+        return revocationList.isRevoked(jwt) ? Mono.error(new BadJwtException("Token has been revoked")) : Mono.just(jwt);
+    }
+}
@@ -0,0 +1,40 @@
+package com.bindstone.backend.security;
+
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+/**
+ * Decides WebFlux exchanges with the route table of the servlet chain, so {@code security.authorization.routes}
+ * is the single source of access rules for both stacks.
+ */
+public class ReactiveRouteAuthorizationManager implements ReactiveAuthorizationManager<AuthorizationContext> {
+
+    private final RouteAuthorizationManager routes;
+
+    public ReactiveRouteAuthorizationManager(RouteAuthorizationManager routes) {
+        this.routes = routes;
+    }
+
+    @Override
+    public Mono<AuthorizationDecision> check(Mono<Authentication> authentication, AuthorizationContext context) {
+        ServerHttpRequest request = context.getExchange().getRequest();
+        AuthorizationManager<RequestAuthorizationContext> manager = routes.manager(request.getMethod().name(),
+                request.getPath().pathWithinApplication().value());
+        // The rule managers are in memory checks of the authorities, safe to run on the event loop
+        return authentication.map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .map(caller -> {
+                    AuthorizationResult result = manager.authorize(() -> caller.orElse(null), null);
+                    return new AuthorizationDecision(result != null && result.isGranted());
+                });
+    }
+}
@@ -0,0 +1,188 @@
+package com.bindstone.backend.service;
+
+import com.bindstone.backend.dto.ProvisioningResult;
+import com.bindstone.backend.dto.UserPayload;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.keycloak.representations.idm.GroupRepresentation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Non-blocking variant of {@link UserProvisioningService} and {@link KeycloakGroupService} for the reactive
+ * stack. Talks to the Keycloak admin REST API through {@link WebClient}; the admin token and group IDs are
+ * cached as {@link Mono}s so concurrent requests share a single round trip.
+ */
+@Service
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class ReactiveUserProvisioningService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveUserProvisioningService.class);
+
+    private static final ParameterizedTypeReference<List<GroupRepresentation>> GROUP_LIST =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final WebClient webClient;
+    private final String realm;
+    private final Duration timeout;
+    private final Duration groupTtl;
+    private final Mono<String> adminToken;
+    private final Timer createTimer;
+    private final Timer lookupTimer;
+    private final Timer joinTimer;
+    private final Map<String, Mono<String>> groupIds = new ConcurrentHashMap<>();
+
+    public ReactiveUserProvisioningService(WebClient.Builder webClientBuilder, MeterRegistry meterRegistry,
+                                           @Value("${keycloak.server-url}") String serverUrl,
+                                           @Value("${keycloak.realm}") String realm,
+                                           @Value("${keycloak.admin.username}") String adminUsername,
+                                           @Value("${keycloak.admin.password}") String adminPassword,
+                                           @Value("${keycloak.admin.client-id}") String adminClientId,
+                                           @Value("${keycloak.admin.timeout-seconds:10}") long timeoutSeconds,
+                                           @Value("${keycloak.admin.token-min-validity-seconds:30}") long tokenMinValiditySeconds,
+                                           @Value("${keycloak.group-cache.ttl-seconds:300}") long groupTtlSeconds) {
+        this.webClient = webClientBuilder.baseUrl(serverUrl).build();
+        this.realm = realm;
+        this.timeout = Duration.ofSeconds(timeoutSeconds);
+        this.groupTtl = Duration.ofSeconds(groupTtlSeconds);
+        this.createTimer = KeycloakAdminMetrics.timer(meterRegistry, "create-user");
+        this.lookupTimer = KeycloakAdminMetrics.timer(meterRegistry, "group-lookup");
+        this.joinTimer = KeycloakAdminMetrics.timer(meterRegistry, "join-group");
+
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("grant_type", "password");
+        form.add("username", adminUsername);
+        form.add("password", adminPassword);
+        form.add("client_id", adminClientId);
+        this.adminToken = webClient.post()
+                .uri("/realms/master/protocol/openid-connect/token")
+                .body(BodyInserters.fromFormData(form))
+                .retrieve()
+                .bodyToMono(AdminToken.class)
+                .timeout(timeout)
+                .cache(token -> Duration.ofSeconds(Math.max(0, token.expiresIn() - tokenMinValiditySeconds)),
+                        error -> Duration.ZERO,
+                        () -> Duration.ZERO)
+                .map(AdminToken::accessToken);
+    }
+
+    public Mono<ProvisioningResult> provision(UserPayload payload) {
+        return provision(realm, payload);
+    }
+
+    public Mono<ProvisioningResult> provision(String realm, UserPayload payload) {
+        String username = payload.getUsername();
+        return adminToken
+                .flatMap(token -> createUser(token, realm, payload)
+                        .flatMap(created -> {
+                            if (created.status() != 201) {
+                                return Mono.just(ProvisioningResult.rejected(username, created.status(), reasonPhrase(created.status())));
+                            }
+                            String userId = created.location().getPath().replaceAll(".*/([^/]+)$", "$1");
+                            return joinGroup(token, realm, userId, UserProvisioningService.USER_GROUP)
+                                    .thenReturn(ProvisioningResult.created(username));
+                        }))
+                .onErrorResume(Exception.class, e -> {
+                    log.warn("Could not provision user {} in realm {}", username, realm, e);
+                    return Mono.just(ProvisioningResult.error(username, e));
+                });
+    }
+
+    public Mono<String> resolveGroupId(String realm, String groupName) {
+        return groupIds.computeIfAbsent(realm + '/' + groupName, key -> adminToken
+                .flatMap(token -> searchGroupId(token, realm, groupName))
+                .cache(id -> groupTtl, error -> Duration.ZERO, () -> Duration.ZERO));
+    }
+
+    public void invalidate(String realm, String groupName) {
+        groupIds.remove(realm + '/' + groupName);
+    }
+
+    private Mono<Created> createUser(String token, String realm, UserPayload payload) {
+        return timed(createTimer, webClient.post()
+                .uri("/admin/realms/{realm}/users", realm)
+                .headers(headers -> headers.setBearerAuth(token))
+                .bodyValue(UserProvisioningService.toRepresentation(payload))
+                .exchangeToMono(response -> response.releaseBody()
+                        .thenReturn(new Created(response.statusCode().value(),
+                                response.headers().asHttpHeaders().getLocation()))));
+    }
+
+    private Mono<Void> joinGroup(String token, String realm, String userId, String groupName) {
+        return resolveGroupId(realm, groupName)
+                .flatMap(groupId -> putGroup(token, realm, userId, groupId)
+                        .onErrorResume(WebClientResponseException.NotFound.class, e -> {
+                            // The cached ID may belong to a group that was deleted and re-created, look it up once more
+                            invalidate(realm, groupName);
+                            return resolveGroupId(realm, groupName)
+                                    .flatMap(refreshedId -> refreshedId.equals(groupId)
+                                            ? Mono.error(e)
+                                            : putGroup(token, realm, userId, refreshedId));
+                        }));
+    }
+
+    private Mono<Void> putGroup(String token, String realm, String userId, String groupId) {
+        return timed(joinTimer, webClient.put()
+                .uri("/admin/realms/{realm}/users/{userId}/groups/{groupId}", realm, userId, groupId)
+                .headers(headers -> headers.setBearerAuth(token))
+                .retrieve()
+                .toBodilessEntity()
+                .then());
+    }
+
+    private Mono<String> searchGroupId(String token, String realm, String groupName) {
+        return timed(lookupTimer, webClient.get()
+                .uri(uri -> uri.path("/admin/realms/{realm}/groups")
+                        .queryParam("search", groupName)
+                        .queryParam("exact", true)
+                        .queryParam("first", 0)
+                        .queryParam("max", KeycloakGroupService.SEARCH_PAGE_SIZE)
+                        .queryParam("briefRepresentation", true)
+                        .build(realm))
+                .headers(headers -> headers.setBearerAuth(token))
+                .retrieve()
+                .bodyToMono(GROUP_LIST))
+                .map(groups -> KeycloakGroupService.findByName(groups, groupName)
+                        .map(GroupRepresentation::getId)
+                        .orElseThrow(() -> new IllegalStateException("Group not found: " + groupName)));
+    }
+
+    private <T> Mono<T> timed(Timer timer, Mono<T> call) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start();
+            return call.timeout(timeout).doFinally(signal -> sample.stop(timer));
+        });
+    }
+
+    private static String reasonPhrase(int status) {
+        HttpStatus resolved = HttpStatus.resolve(status);
+        return resolved != null ? resolved.getReasonPhrase() : String.valueOf(status);
+    }
+
+    private record Created(int status, URI location) {
+    }
+
+    private record AdminToken(@JsonProperty("access_token") String accessToken,
+                              @JsonProperty("expires_in") long expiresIn) {
+    }
+}
@@ -0,0 +1,135 @@
+package com.bindstone.backend.audit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditLogTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T10:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void whenRecorded_thenReplayedInOrderWithAllFields() throws Exception {
+        AuditLog auditLog = new AuditLog(directory, 64, 16, 0, true, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        assertTrue(auditLog.record("CONTINENTAL", "f1c2-sub", "user.create", "alice", 201, false));
+        assertTrue(auditLog.record("CONTINENTAL", "f1c2-sub", "user.create", "alice", 201, true));
+        assertTrue(auditLog.record("OCEANIC", "a9b8-sub", "user.create", "bob", 409, false));
+        auditLog.destroy();
+
+        List<AuditRecord> records = replay(new AuditLogReader(directory));
+        assertEquals(List.of(
+                new AuditRecord(NOW, "CONTINENTAL", "f1c2-sub", "user.create", "alice", 201, false),
+                new AuditRecord(NOW, "CONTINENTAL", "f1c2-sub", "user.create", "alice", 201, true),
+                new AuditRecord(NOW, "OCEANIC", "a9b8-sub", "user.create", "bob", 409, false)), records);
+        assertEquals("CONFLICT", records.get(2).outcome());
+        assertEquals(3, auditLog.getWritten());
+        assertEquals(0, auditLog.getDropped());
+    }
+
+    @Test
+    void whenSegmentFull_thenRotatedAndReplayedAcrossSegments() throws Exception {
+        AuditLog auditLog = new AuditLog(directory, 4096, 64, AuditSegmentWriter.MIN_SEGMENT_SIZE, false,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+        int count = 3000;
+        for (int i = 0; i < count; i++) {
+            while (!auditLog.record("CONTINENTAL", "sub", "user.create", "user-" + i, 201, false)) {
+                Thread.onSpinWait();
+            }
+        }
+        auditLog.destroy();
+
+        List<AuditRecord> records = replay(new AuditLogReader(directory));
+        assertTrue(AuditSegmentWriter.segments(directory).size() > 1);
+        assertEquals(count, records.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals("user-" + i, records.get(i).target());
+        }
+    }
+
+    @Test
+    void whenRestarted_thenNewSegmentAndOldRecordsKept() throws Exception {
+        AuditLog first = new AuditLog(directory, 64, 16, 0, true, Clock.fixed(NOW, ZoneOffset.UTC));
+        first.record("CONTINENTAL", "sub", "user.create", "alice", 201, false);
+        first.destroy();
+        AuditLog second = new AuditLog(directory, 64, 16, 0, true, Clock.fixed(NOW.plusSeconds(60), ZoneOffset.UTC));
+        second.record("CONTINENTAL", "sub", "user.create", "bob", 201, false);
+        second.destroy();
+
+        assertEquals(2, AuditSegmentWriter.segments(directory).size());
+        assertEquals(List.of("alice", "bob"), replay(new AuditLogReader(directory)).stream()
+                .map(AuditRecord::target).toList());
+
+        List<AuditRecord> recent = new ArrayList<>();
+        assertEquals(1, new AuditLogReader(directory).replay(NOW.plusSeconds(30), recent::add));
+        assertEquals("bob", recent.get(0).target());
+    }
+
+    @Test
+    void whenFrameCorrupted_thenReplayStopsBeforeIt() throws Exception {
+        AuditLog auditLog = new AuditLog(directory, 64, 16, 0, true, Clock.fixed(NOW, ZoneOffset.UTC));
+        auditLog.record("CONTINENTAL", "sub", "user.create", "alice", 201, false);
+        auditLog.record("CONTINENTAL", "sub", "user.create", "bob", 201, false);
+        auditLog.destroy();
+
+        // Flip the last byte of the second payload, "bob" -> "boc"
+        Path segment = AuditSegmentWriter.segments(directory).get(0);
+        int firstFrame = AuditSegmentWriter.FRAME_HEADER_SIZE
+                + new AuditRecord(NOW, "CONTINENTAL", "sub", "user.create", "alice", 201, false).encode().length;
+        int secondPayloadLength = new AuditRecord(NOW, "CONTINENTAL", "sub", "user.create", "bob", 201, false)
+                .encode().length;
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(AuditSegmentWriter.HEADER_SIZE + firstFrame + AuditSegmentWriter.FRAME_HEADER_SIZE
+                    + secondPayloadLength - 1);
+            file.write('c');
+        }
+
+        AuditLogReader reader = new AuditLogReader(directory);
+        List<AuditRecord> records = replay(reader);
+        assertEquals(List.of("alice"), records.stream().map(AuditRecord::target).toList());
+        assertEquals(1, reader.getCorruptFrames());
+    }
+
+    @Test
+    void whenBufferFull_thenRecordDroppedInsteadOfBlocking() {
+        AuditRingBuffer buffer = new AuditRingBuffer(4);
+        AuditRecord record = new AuditRecord(NOW, "CONTINENTAL", "sub", "user.create", "alice", 201, false);
+
+        for (int i = 0; i < buffer.capacity(); i++) {
+            assertTrue(buffer.offer(record));
+        }
+        assertFalse(buffer.offer(record));
+        assertSame(record, buffer.poll());
+        assertTrue(buffer.offer(record));
+        assertEquals(4, buffer.size());
+    }
+
+    @Test
+    void whenFieldTooLong_thenCut() {
+        AuditRecord record = new AuditRecord(NOW, "CONTINENTAL", "sub", "user.create", "x".repeat(10_000), 201, false);
+
+        AuditRecord decoded = AuditRecord.decode(ByteBuffer.wrap(record.encode()));
+
+        assertEquals(AuditRecord.MAX_FIELD_LENGTH, decoded.target().length());
+    }
+
+    private static List<AuditRecord> replay(AuditLogReader reader) throws IOException {
+        List<AuditRecord> records = new ArrayList<>();
+        reader.replay(records::add);
+        return records;
+    }
+}
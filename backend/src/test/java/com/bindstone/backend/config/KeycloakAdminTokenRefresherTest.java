@@ -0,0 +1,112 @@
+package com.bindstone.backend.config;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.keycloak.admin.client.Keycloak;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the admin client built by {@link KeycloakAdminConfig} against a local token endpoint, so the token manager's
+ * own expiry arithmetic decides when the refresher reaches Keycloak.
+ */
+@ExtendWith(OutputCaptureExtension.class)
+class KeycloakAdminTokenRefresherTest {
+
+    private static final String TOKEN_PATH = "/realms/master/protocol/openid-connect/token";
+
+    private final AtomicInteger tokenRequests = new AtomicInteger();
+    private volatile int status = 200;
+    private volatile int expiresInSeconds = 300;
+
+    private HttpServer server;
+    private Keycloak keycloak;
+    private KeycloakAdminTokenRefresher refresher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(TOKEN_PATH, this::token);
+        server.start();
+
+        KeycloakAdminConfig config = new KeycloakAdminConfig();
+        ReflectionTestUtils.setField(config, "serverUrl", "http://127.0.0.1:" + server.getAddress().getPort());
+        ReflectionTestUtils.setField(config, "adminUsername", "admin");
+        ReflectionTestUtils.setField(config, "adminPassword", "password");
+        ReflectionTestUtils.setField(config, "adminClientId", "admin-cli");
+        ReflectionTestUtils.setField(config, "poolSize", 2);
+        ReflectionTestUtils.setField(config, "connectionTtlSeconds", 300L);
+        ReflectionTestUtils.setField(config, "timeoutSeconds", 2L);
+        ReflectionTestUtils.setField(config, "tokenMinValiditySeconds", 30L);
+        keycloak = config.keycloakAdminClient();
+        refresher = new KeycloakAdminTokenRefresher(keycloak);
+    }
+
+    @AfterEach
+    void tearDown() {
+        keycloak.close();
+        server.stop(0);
+    }
+
+    @Test
+    void whenTokenOutsideMinValidity_thenRefreshDoesNotContactKeycloak() {
+        refresher.refresh();
+        refresher.refresh();
+        refresher.refresh();
+
+        assertEquals(1, tokenRequests.get());
+    }
+
+    @Test
+    void whenTokenWithinMinValidity_thenRefreshedAheadOfRequests() {
+        // Expires before the 30 s min validity is over, so every run renews it
+        expiresInSeconds = 20;
+
+        refresher.refresh();
+        refresher.refresh();
+
+        assertEquals(2, tokenRequests.get());
+    }
+
+    @Test
+    void whenKeycloakFails_thenWarningLoggedAndNextRunRecovers(CapturedOutput output) {
+        status = 503;
+
+        assertDoesNotThrow(refresher::refresh);
+        assertTrue(output.getOut().contains("Could not refresh Keycloak admin token"));
+
+        status = 200;
+        refresher.refresh();
+
+        assertEquals(2, tokenRequests.get());
+        assertEquals("access-2", keycloak.tokenManager().getAccessTokenString());
+    }
+
+    private void token(HttpExchange exchange) throws IOException {
+        int request = tokenRequests.incrementAndGet();
+        exchange.getRequestBody().readAllBytes();
+        byte[] body = (status == 200
+                ? "{\"access_token\":\"access-" + request + "\",\"token_type\":\"Bearer\",\"expires_in\":"
+                + expiresInSeconds + ",\"refresh_token\":\"refresh-" + request + "\",\"refresh_expires_in\":1800}"
+                : "{\"error\":\"temporarily_unavailable\"}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
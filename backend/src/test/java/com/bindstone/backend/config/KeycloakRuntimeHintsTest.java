@@ -0,0 +1,54 @@
+package com.bindstone.backend.config;
+
+import org.jboss.resteasy.client.jaxrs.internal.proxy.ResteasyClientProxy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.resource.GroupsResource;
+import org.keycloak.admin.client.resource.UsersResource;
+import org.keycloak.admin.client.token.TokenService;
+import org.keycloak.representations.AccessTokenResponse;
+import org.keycloak.representations.idm.CredentialRepresentation;
+import org.keycloak.representations.idm.GroupRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeycloakRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @BeforeEach
+    void setUp() {
+        new KeycloakRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void whenRegistered_thenAdminClientProxiesCovered() {
+        assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(UsersResource.class, ResteasyClientProxy.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(GroupsResource.class, ResteasyClientProxy.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(TokenService.class, ResteasyClientProxy.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(UsersResource.class, "create").test(hints));
+    }
+
+    @Test
+    void whenRegistered_thenRepresentationsBindable() {
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(UserRepresentation.class, "setUsername").test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(CredentialRepresentation.class, "getValue").test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(GroupRepresentation.class, "getSubGroups").test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(AccessTokenResponse.class, "getToken").test(hints));
+    }
+
+    @Test
+    void whenRegistered_thenJaxRsServicesAndProvidersIncluded() {
+        assertTrue(RuntimeHintsPredicates.resource().forResource("META-INF/services/jakarta.ws.rs.ext.Providers").test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(TypeReference.of(
+                "org.jboss.resteasy.plugins.providers.jackson.ResteasyJackson2Provider")).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(TypeReference.of(
+                "org.jboss.resteasy.client.jaxrs.internal.ResteasyClientBuilderImpl")).test(hints));
+        assertTrue(KeycloakRuntimeHints.serviceClasses(getClass().getClassLoader()).stream()
+                .noneMatch(name -> name.isBlank() || name.startsWith("#")));
+    }
+}
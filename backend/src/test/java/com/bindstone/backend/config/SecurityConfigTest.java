@@ -1,15 +1,19 @@
 package com.bindstone.backend.config;
 
+import com.bindstone.backend.security.CorsPreflightFilter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -21,6 +25,9 @@ class SecurityConfigTest {
     @Autowired
     private WebApplicationContext webApplicationContext;
 
+    @Autowired
+    private FilterRegistrationBean<CorsPreflightFilter> corsPreflightFilterRegistration;
+
     private MockMvc mockMvc;
 
     @BeforeEach
@@ -84,6 +91,22 @@ class SecurityConfigTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void whenPreflightPassesFastPathFirst_thenAnsweredBeforeSecurityChain() throws Exception {
+        MockMvc withFilters = MockMvcBuilders.webAppContextSetup(this.webApplicationContext)
+                .addFilters(corsPreflightFilterRegistration.getFilter())
+                .apply(springSecurity())
+                .build();
+
+        withFilters.perform(options("/admin/user")
+                .header("Origin", "http://localhost:3000")
+                .header("Access-Control-Request-Method", "POST"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Access-Control-Allow-Origin", "http://localhost:3000"))
+                .andExpect(header().string("Access-Control-Max-Age", "1800"));
+        assertTrue(corsPreflightFilterRegistration.getOrder() < SecurityProperties.DEFAULT_FILTER_ORDER);
+    }
+
     @Test
     void whenPostRequestWithoutAuth_thenForbidden() throws Exception {
         mockMvc.perform(post("/private"))
@@ -2,6 +2,7 @@ package com.bindstone.backend.config;
 
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 
@@ -14,7 +15,9 @@ public class TestSecurityConfig {
     private static final String SECRET_KEY = "mySecretKey123456789012345678901234567890";
     private static final SecretKey key = new SecretKeySpec(SECRET_KEY.getBytes(), "HMACSHA256");
 
+    // Takes precedence over the Keycloak decoder of the application, which stays defined next to it
     @Bean
+    @Primary
     public JwtDecoder jwtDecoder() {
         return NimbusJwtDecoder.withSecretKey(key).build();
     }
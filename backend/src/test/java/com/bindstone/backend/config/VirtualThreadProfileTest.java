@@ -0,0 +1,51 @@
+package com.bindstone.backend.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureWebMvc
+@ActiveProfiles("virtual-threads")
+class VirtualThreadProfileTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(this.webApplicationContext)
+                .apply(springSecurity())
+                .build();
+    }
+
+    @Test
+    void whenVirtualThreadsProfileActive_thenPinningMonitorRegistered() {
+        assertEquals(1, applicationContext.getBeanNamesForType(VirtualThreadPinningMonitor.class).length);
+    }
+
+    @Test
+    void whenVirtualThreadsProfileActive_thenSecurityRulesUnchanged() throws Exception {
+        mockMvc.perform(get("/public"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/private"))
+                .andExpect(status().isUnauthorized());
+    }
+}
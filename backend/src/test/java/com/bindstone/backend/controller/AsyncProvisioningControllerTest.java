@@ -0,0 +1,189 @@
+package com.bindstone.backend.controller;
+
+import com.bindstone.backend.audit.AuditLog;
+import com.bindstone.backend.dto.ProvisioningJobStatus;
+import com.bindstone.backend.dto.ProvisioningJobStatus.State;
+import com.bindstone.backend.service.ProvisioningJobService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureWebMvc
+class AsyncProvisioningControllerTest {
+
+    private static final ProvisioningJobStatus QUEUED = new ProvisioningJobStatus("job-1", "alice", State.QUEUED,
+            0, null, null, Instant.parse("2025-01-01T10:00:00Z"), null);
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @MockitoBean
+    private ProvisioningJobService jobService;
+
+    @MockitoBean
+    private AuditLog auditLog;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(this.webApplicationContext)
+                .apply(springSecurity())
+                .build();
+    }
+
+    @Test
+    @WithMockUser(roles = {"CONTINENTAL_ROLE_ADMIN"})
+    void whenAsyncCreate_thenAcceptedWithJobLocation() throws Exception {
+        when(jobService.submit(any(), any(), any())).thenReturn(QUEUED);
+
+        mockMvc.perform(post("/admin/user").param("async", "true")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"alice\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/admin/user/jobs/job-1"))
+                .andExpect(jsonPath("$.state").value("QUEUED"));
+    }
+
+    @Test
+    @WithMockUser(roles = {"CONTINENTAL_ROLE_ADMIN"})
+    void whenQueueFull_thenTooManyRequests() throws Exception {
+        when(jobService.submit(any(), any(), any())).thenThrow(new RejectedExecutionException("full"));
+
+        mockMvc.perform(post("/admin/user").param("async", "true")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"alice\"}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    @WithMockUser(roles = {"CONTINENTAL_ROLE_ADMIN"})
+    void whenAsyncCreateRetriedWithIdempotencyKey_thenSubmittedOnce() throws Exception {
+        when(jobService.submit(any(), any(), any())).thenReturn(QUEUED);
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/admin/user").param("async", "true")
+                    .with(csrf())
+                    .header("Idempotency-Key", "create-alice")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"username\":\"alice\"}"))
+                    .andExpect(status().isAccepted())
+                    .andExpect(header().string("Location", "/admin/user/jobs/job-1"));
+        }
+        mockMvc.perform(post("/admin/user").param("async", "true")
+                .with(csrf())
+                .header("Idempotency-Key", "create-alice")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"bob\"}"))
+                .andExpect(status().isUnprocessableEntity());
+        mockMvc.perform(post("/admin/user").param("async", "true")
+                .with(csrf())
+                .header("Idempotency-Key", "create-alice")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"alice\",\"password\":\"other\"}"))
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(jobService, times(1)).submit(any(), any(), any());
+    }
+
+    @Test
+    @WithMockUser(username = "admin-sub", roles = {"CONTINENTAL_ROLE_ADMIN"})
+    void whenCreateRequested_thenEveryAnswerAudited() throws Exception {
+        when(jobService.submit(any(), any(), any())).thenAnswer(invocation -> {
+            Consumer<ProvisioningJobStatus> onCompletion = invocation.getArgument(2);
+            onCompletion.accept(new ProvisioningJobStatus("job-1", "alice", State.SUCCEEDED, 1, 201,
+                    "User created successfully", QUEUED.submittedAt(), Instant.parse("2025-01-01T10:00:01Z")));
+            return QUEUED;
+        });
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/admin/user").param("async", "true")
+                    .with(csrf())
+                    .header("Idempotency-Key", "audit-alice")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"username\":\"alice\"}"))
+                    .andExpect(status().isAccepted());
+        }
+        doThrow(new RejectedExecutionException("full")).when(jobService).submit(any(), any(), any());
+        mockMvc.perform(post("/admin/user").param("async", "true")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"bob\"}"))
+                .andExpect(status().isTooManyRequests());
+
+        verify(auditLog).record("CONTINENTAL", "admin-sub", "user.create", "alice", 202, false);
+        verify(auditLog).record("CONTINENTAL", "admin-sub", "user.create", "alice", 202, true);
+        verify(auditLog).record("CONTINENTAL", "admin-sub", "user.create", "bob", 429, false);
+        verify(auditLog, times(3)).record(any(), eq("admin-sub"), eq("user.create"), any(), anyInt(), anyBoolean());
+        // The replay did not submit again, so only one job completed
+        verify(auditLog, times(1)).record("CONTINENTAL", "admin-sub", "user.create.job", "alice", 201, false);
+    }
+
+    @Test
+    @WithMockUser(roles = {"CONTINENTAL_ROLE_ADMIN"})
+    void whenIdempotencyKeyTooLong_thenBadRequest() throws Exception {
+        mockMvc.perform(post("/admin/user").param("async", "true")
+                .with(csrf())
+                .header("Idempotency-Key", "k".repeat(256))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"alice\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = {"CONTINENTAL_ROLE_ADMIN"})
+    void whenJobKnown_thenStatusReturned() throws Exception {
+        when(jobService.find("CONTINENTAL", "job-1")).thenReturn(Optional.of(QUEUED));
+
+        mockMvc.perform(get("/admin/user/jobs/job-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("alice"))
+                .andExpect(jsonPath("$.submittedAt").value("2025-01-01T10:00:00Z"));
+    }
+
+    @Test
+    @WithMockUser(roles = {"CONTINENTAL_ROLE_ADMIN"})
+    void whenJobUnknown_thenNotFound() throws Exception {
+        when(jobService.find("CONTINENTAL", "missing")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/admin/user/jobs/missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void whenJobStatusWithoutAuth_thenUnauthorized() throws Exception {
+        mockMvc.perform(get("/admin/user/jobs/job-1"))
+                .andExpect(status().isUnauthorized());
+    }
+}
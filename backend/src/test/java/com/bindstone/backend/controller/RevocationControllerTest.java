@@ -0,0 +1,88 @@
+package com.bindstone.backend.controller;
+
+import com.bindstone.backend.security.TokenRevocationList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureWebMvc
+class RevocationControllerTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(this.webApplicationContext)
+                .apply(springSecurity())
+                .build();
+    }
+
+    @Test
+    @WithMockUser(roles = {"USER"})
+    void whenRevokeWithUserRole_thenForbidden() throws Exception {
+        mockMvc.perform(post("/admin/revocations")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"jti\":\"jti-1\",\"expiresAt\":\"2099-01-01T00:00:00Z\"}"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = {"CONTINENTAL_ROLE_ADMIN"})
+    void whenRevokeJti_thenTokenRevoked() throws Exception {
+        mockMvc.perform(post("/admin/revocations")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"jti\":\"jti-revoked\",\"expiresAt\":\"2099-01-01T00:00:00Z\"}"))
+                .andExpect(status().isNoContent());
+
+        assertTrue(tokenRevocationList.isRevoked(Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .jti("jti-revoked")
+                .expiresAt(Instant.parse("2099-01-01T00:00:00Z"))
+                .build()));
+    }
+
+    @Test
+    @WithMockUser(roles = {"CONTINENTAL_ROLE_ADMIN"})
+    void whenRevokeSession_thenNoContent() throws Exception {
+        mockMvc.perform(post("/admin/revocations")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"sid\":\"session-1\"}"))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    @WithMockUser(roles = {"CONTINENTAL_ROLE_ADMIN"})
+    void whenJtiWithoutExpiry_thenBadRequest() throws Exception {
+        mockMvc.perform(post("/admin/revocations")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"jti\":\"jti-1\"}"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,126 @@
+package com.bindstone.backend.controller;
+
+import com.bindstone.backend.audit.AuditLog;
+import com.bindstone.backend.dto.RoleAssignmentRequest;
+import com.bindstone.backend.dto.RoleAssignmentRequest.Operation;
+import com.bindstone.backend.dto.RoleAssignmentResult;
+import com.bindstone.backend.dto.RoleAssignmentSummary;
+import com.bindstone.backend.service.RoleAssignmentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureWebMvc
+class RoleAssignmentControllerTest {
+
+    private static final String BODY = """
+            {"operation":"ADD","users":["alice","ghost"],"realmRoles":["CONTINENTAL_ROLE_USER"]}
+            """;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @MockitoBean
+    private RoleAssignmentService assignmentService;
+
+    @MockitoBean
+    private AuditLog auditLog;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(this.webApplicationContext)
+                .apply(springSecurity())
+                .build();
+        when(assignmentService.effectiveConcurrency(any())).thenReturn(4);
+    }
+
+    @Test
+    @WithMockUser(username = "assigner", roles = {"USER"})
+    void whenAssigningWithUserRole_thenForbidden() throws Exception {
+        mockMvc.perform(post("/admin/users/assignments")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(BODY))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(assignmentService);
+    }
+
+    @Test
+    @WithMockUser(username = "assigner", roles = {"CONTINENTAL_ROLE_ADMIN"})
+    void whenAssigningWithAdminRole_thenFailuresReportedAndUsersAudited() throws Exception {
+        RoleAssignmentResult ghost = new RoleAssignmentResult("ghost", 404, "User not found");
+        when(assignmentService.assign(any(), any(), eq(4), any())).thenAnswer(invocation -> {
+            Consumer<RoleAssignmentResult> listener = invocation.getArgument(3);
+            listener.accept(RoleAssignmentResult.done("alice"));
+            listener.accept(ghost);
+            return new RoleAssignmentSummary(Operation.ADD, 2, 1, 1, 10, 200.0, List.of(ghost));
+        });
+
+        mockMvc.perform(post("/admin/users/assignments")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(BODY))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failures[0].username").value("ghost"))
+                .andExpect(jsonPath("$.failures[0].status").value(404));
+
+        verify(assignmentService).assign(any(), eq(new RoleAssignmentRequest(Operation.ADD,
+                List.of("alice", "ghost"), null, List.of("CONTINENTAL_ROLE_USER"), null)), eq(4), any());
+        verify(auditLog).record(any(), eq("assigner"), eq("user.assignments.add"), eq("alice"), eq(200), eq(false));
+        verify(auditLog).record(any(), eq("assigner"), eq("user.assignments.add"), eq("ghost"), eq(404), eq(false));
+    }
+
+    @Test
+    @WithMockUser(username = "assigner", roles = {"CONTINENTAL_ROLE_ADMIN"})
+    void whenRoleUnknown_thenBadRequest() throws Exception {
+        when(assignmentService.assign(any(), any(), anyInt(), any()))
+                .thenThrow(new IllegalStateException("Realm role not found: CONTINENTAL_ROLE_USER"));
+
+        mockMvc.perform(post("/admin/users/assignments")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(BODY))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Realm role not found: CONTINENTAL_ROLE_USER"));
+    }
+
+    @Test
+    @WithMockUser(username = "assigner", roles = {"CONTINENTAL_ROLE_ADMIN"})
+    void whenRoleNotAllowListed_thenForbidden() throws Exception {
+        when(assignmentService.assign(any(), any(), anyInt(), any()))
+                .thenThrow(new AccessDeniedException("Not assignable: realm role admin"));
+
+        mockMvc.perform(post("/admin/users/assignments")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(BODY))
+                .andExpect(status().isForbidden())
+                .andExpect(content().string("Not assignable: realm role admin"));
+
+        verifyNoInteractions(auditLog);
+    }
+}
@@ -0,0 +1,77 @@
+package com.bindstone.backend.controller;
+
+import com.bindstone.backend.dto.ProvisioningResult;
+import com.bindstone.backend.dto.UserPayload;
+import com.bindstone.backend.service.UserProvisioningService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureWebMvc
+class UserBatchControllerTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @MockitoBean
+    private UserProvisioningService provisioningService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(this.webApplicationContext)
+                .apply(springSecurity())
+                .build();
+        when(provisioningService.provision(any(), any()))
+                .thenAnswer(invocation -> ProvisioningResult.created(((UserPayload) invocation.getArgument(1)).getUsername()));
+    }
+
+    @Test
+    void whenBatchWithoutAuth_thenForbidden() throws Exception {
+        mockMvc.perform(post("/admin/users/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = {"USER"})
+    void whenBatchWithUserRole_thenForbidden() throws Exception {
+        mockMvc.perform(post("/admin/users/batch")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = {"CONTINENTAL_ROLE_ADMIN"})
+    void whenBatchWithAdminRole_thenResultsStreamed() throws Exception {
+        mockMvc.perform(post("/admin/users/batch")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{\"username\":\"alice\"}\n{\"username\":\"bob\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(containsString("\"username\":\"alice\"")))
+                .andExpect(content().string(containsString("\"summary\":{\"total\":2,\"created\":2")));
+    }
+}
@@ -0,0 +1,177 @@
+package com.bindstone.backend.integration;
+
+import com.bindstone.backend.dto.ProvisioningResult;
+import com.bindstone.backend.service.UserProvisioningService;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tokens of realms other than the configured one, with their JWK sets served by a local stand-in that is only
+ * asked once a token of the realm arrives.
+ */
+@SpringBootTest
+@AutoConfigureWebMvc
+class MultiRealmIntegrationTest {
+
+    private static final RSAKey KEY = generateKey();
+    private static final HttpServer JWKS = startJwks();
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @MockitoBean
+    private UserProvisioningService provisioningService;
+
+    private MockMvc mockMvc;
+
+    @DynamicPropertySource
+    static void trustedIssuers(DynamicPropertyRegistry registry) {
+        registry.add("security.jwt.trusted-issuers", () -> server() + "/realms/*");
+    }
+
+    @AfterAll
+    static void stopJwks() {
+        JWKS.stop(0);
+    }
+
+    @BeforeEach
+    void setUp() {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(this.webApplicationContext)
+                .apply(springSecurity())
+                .build();
+    }
+
+    @Test
+    void whenTokenOfTrustedRealm_thenAccepted() throws Exception {
+        mockMvc.perform(get("/private").header("Authorization", "Bearer " + token("ACME", "USER")))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Hello PRIVATE"));
+    }
+
+    @Test
+    void whenTokenOfUntrustedServer_thenUnauthorized() throws Exception {
+        mockMvc.perform(get("/private").header("Authorization", "Bearer "
+                        + token("http://sso.invalid/realms/ACME", "USER")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void whenTenantAdminCreatesUser_thenCreatedInTheirRealm() throws Exception {
+        when(provisioningService.provision(any(), any())).thenReturn(ProvisioningResult.created("alice"));
+
+        mockMvc.perform(post("/admin/user")
+                        .with(csrf())
+                        .header("Authorization", "Bearer " + token("GLOBEX", "CONTINENTAL_ROLE_ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"alice\"}"))
+                .andExpect(status().isCreated());
+
+        verify(provisioningService).provision(eq("GLOBEX"), any());
+    }
+
+    @Test
+    void whenTenantUserCreatesUser_thenForbidden() throws Exception {
+        mockMvc.perform(post("/admin/user")
+                        .with(csrf())
+                        .header("Authorization", "Bearer " + token("GLOBEX", "USER"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"alice\"}"))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(get("/admin/user/jobs/job-1")
+                        .header("Authorization", "Bearer " + token("GLOBEX", "USER")))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(provisioningService);
+    }
+
+    private static String token(String realm, String role) throws JOSEException {
+        String issuer = realm.startsWith("http") ? realm : server() + "/realms/" + realm;
+        Instant now = Instant.now();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(KEY.getKeyID()).build(),
+                new JWTClaimsSet.Builder()
+                        .issuer(issuer)
+                        .subject("tenant-user")
+                        .issueTime(Date.from(now))
+                        .expirationTime(Date.from(now.plus(Duration.ofHours(1))))
+                        .claim("realm_access", Map.of("roles", List.of(role)))
+                        .build());
+        jwt.sign(new RSASSASigner(KEY));
+        return jwt.serialize();
+    }
+
+    private static String server() {
+        return "http://127.0.0.1:" + JWKS.getAddress().getPort();
+    }
+
+    private static RSAKey generateKey() {
+        try {
+            return new RSAKeyGenerator(2048).keyID("tenant").generate();
+        } catch (JOSEException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Every realm of the stand-in publishes the same key
+    private static HttpServer startJwks() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+            byte[] body = new JWKSet(KEY.toPublicJWK()).toString().getBytes(StandardCharsets.UTF_8);
+            server.createContext("/realms/", exchange -> {
+                try (exchange; OutputStream out = exchange.getResponseBody()) {
+                    exchange.getResponseHeaders().set("Content-Type", "application/json");
+                    exchange.sendResponseHeaders(200, body.length);
+                    out.write(body);
+                }
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
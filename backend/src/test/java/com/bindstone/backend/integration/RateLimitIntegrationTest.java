@@ -0,0 +1,34 @@
+package com.bindstone.backend.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs on the embedded container, unlike the MockMvc tests: only a real servlet container performs the error
+ * dispatch that a rejected request must not trigger.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT,
+        properties = "security.rate-limit.rules=/public=ip:1:0.01")
+class RateLimitIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void whenLimitExceeded_thenTooManyRequestsReachesTheClient() {
+        assertEquals(HttpStatus.OK, restTemplate.getForEntity("/public", String.class).getStatusCode());
+
+        ResponseEntity<String> rejected = restTemplate.getForEntity("/public", String.class);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getStatusCode());
+        assertEquals("100", rejected.getHeaders().getFirst("Retry-After"));
+        assertEquals("Rate limit exceeded", rejected.getBody());
+    }
+}
@@ -0,0 +1,97 @@
+package com.bindstone.backend.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Role based access scenarios every web stack has to pass. Subclasses send the requests through their own filter
+ * chain: {@link RoleBasedAccessIntegrationTest} through MockMvc, the reactive profile through WebTestClient.
+ */
+abstract class RoleBasedAccessScenarios {
+
+    protected record Response(int status, String body) {
+    }
+
+    /**
+     * Sends a GET request as the current test user, with an {@code Origin} header unless {@code origin} is null.
+     */
+    protected abstract Response get(String path, String origin) throws Exception;
+
+    private Response get(String path) throws Exception {
+        return get(path, null);
+    }
+
+    private static void assertResponse(Response response, int status, String body) {
+        assertEquals(status, response.status());
+        if (body != null) {
+            assertEquals(body, response.body());
+        }
+    }
+
+    @Test
+    void testPublicEndpointAccessForAll() throws Exception {
+        assertResponse(get("/public"), 200, "Hello PUBLIC");
+    }
+
+    @Test
+    @WithMockUser
+    void testPublicEndpointAccessWithAuthenticatedUser() throws Exception {
+        assertResponse(get("/public"), 200, "Hello PUBLIC");
+    }
+
+    @Test
+    @WithMockUser(roles = {"CONTINENTAL_ROLE_ADMIN"})
+    void testPublicEndpointAccessWithAdminUser() throws Exception {
+        assertResponse(get("/public"), 200, "Hello PUBLIC");
+    }
+
+    @Test
+    void testPrivateEndpointAccessForAuthenticatedUsers() throws Exception {
+        assertResponse(get("/private"), 401, null);
+    }
+
+    @Test
+    @WithMockUser
+    void testPrivateEndpointAccessWithAuthenticatedUser() throws Exception {
+        assertResponse(get("/private"), 200, "Hello PRIVATE");
+    }
+
+    @Test
+    @WithMockUser(roles = {"CONTINENTAL_ROLE_ADMIN"})
+    void testPrivateEndpointAccessWithAdminUser() throws Exception {
+        assertResponse(get("/private"), 200, "Hello PRIVATE");
+    }
+
+    @Test
+    void testAdminEndpointAccessForAdminUsers() throws Exception {
+        assertResponse(get("/admin"), 401, null);
+    }
+
+    @Test
+    @WithMockUser
+    void testAdminEndpointAccessWithAuthenticatedUser() throws Exception {
+        assertResponse(get("/admin"), 403, null);
+    }
+
+    @Test
+    @WithMockUser(roles = {"CONTINENTAL_ROLE_ADMIN"})
+    void testAdminEndpointAccessWithAdminUser() throws Exception {
+        assertResponse(get("/admin"), 200, "Hello ADMIN");
+    }
+
+    @Test
+    @WithMockUser(roles = {"USER"})
+    void testRoleHierarchy() throws Exception {
+        assertResponse(get("/admin"), 403, null);
+        assertResponse(get("/private"), 200, null);
+    }
+
+    @Test
+    @WithMockUser(roles = {"CONTINENTAL_ROLE_ADMIN"})
+    void testCrossOriginRequests() throws Exception {
+        assertResponse(get("/public", "http://localhost:3000"), 200, null);
+        assertResponse(get("/private", "http://localhost:3000"), 200, null);
+    }
+}
@@ -0,0 +1,99 @@
+package com.bindstone.backend.integration;
+
+import com.bindstone.backend.service.SecurityEventStream;
+import com.bindstone.backend.utils.JwtTestUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureWebMvc
+class SecurityEventIntegrationTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private SecurityEventStream eventStream;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(this.webApplicationContext)
+                .apply(springSecurity())
+                .build();
+    }
+
+    @Test
+    void whenTokensRejected_thenAggregatedByReasonAndClient() throws Exception {
+        String valid = JwtTestUtils.generateTokenWithCustomClaims(Map.of("azp", "stuffing-client"));
+        String forged = valid.substring(0, valid.lastIndexOf('.') + 1) + "c2lnbmF0dXJl";
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/private").header("Authorization", "Bearer " + forged))
+                    .andExpect(status().isUnauthorized());
+        }
+        // Authenticated, but realm_access lacks the admin role
+        mockMvc.perform(get("/admin").with(jwt()
+                        .jwt(token -> token.claim("azp", "misconfigured-client"))
+                        .authorities(new SimpleGrantedAuthority("ROLE_USER"))))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(get("/admin/security-events").param("limit", "4")
+                        .with(user("admin").roles("CONTINENTAL_ROLE_ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reasons.INVALID_SIGNATURE").value(greaterThanOrEqualTo(3)))
+                .andExpect(jsonPath("$.reasons.ACCESS_DENIED").value(greaterThanOrEqualTo(1)))
+                .andExpect(jsonPath("$.clients[?(@.client == 'stuffing-client')].failures").value(3))
+                .andExpect(jsonPath("$.events[3].client").value("misconfigured-client"))
+                .andExpect(jsonPath("$.events[3].status").value(403))
+                .andExpect(jsonPath("$.events[3].path").value("/admin"))
+                .andExpect(jsonPath("$.events[2].reason").value("INVALID_SIGNATURE"))
+                .andExpect(jsonPath("$.events[2].client").value("stuffing-client"))
+                .andExpect(jsonPath("$.events[2].status").value(401));
+    }
+
+    @Test
+    void whenNotAdmin_thenSecurityEventsForbidden() throws Exception {
+        mockMvc.perform(get("/admin/security-events").with(user("user").roles("USER")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/admin/security-events/stream"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void whenSubscribed_thenNewFailuresStreamed() throws Exception {
+        MvcResult stream = mockMvc.perform(get("/admin/security-events/stream")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .with(user("admin").roles("CONTINENTAL_ROLE_ADMIN")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(get("/private"))
+                .andExpect(status().isUnauthorized());
+        eventStream.push();
+
+        String body = stream.getResponse().getContentAsString();
+        assertThat(body, containsString("event:auth-failure"));
+        assertThat(body, containsString("\"reason\":\"MISSING_TOKEN\""));
+    }
+}
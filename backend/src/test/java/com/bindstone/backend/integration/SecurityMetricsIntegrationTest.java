@@ -0,0 +1,116 @@
+package com.bindstone.backend.integration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureWebMvc
+@AutoConfigureObservability
+class SecurityMetricsIntegrationTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(this.webApplicationContext)
+                .apply(springSecurity())
+                .build();
+    }
+
+    @Test
+    void whenRequestWithoutToken_thenMissingTokenCounted() throws Exception {
+        double before = failures("missing_token");
+
+        mockMvc.perform(get("/private"))
+                .andExpect(status().isUnauthorized());
+
+        assertEquals(before + 1, failures("missing_token"));
+    }
+
+    @Test
+    void whenRequestWithMalformedToken_thenMalformedCounted() throws Exception {
+        double before = failures("malformed");
+
+        mockMvc.perform(get("/private").header("Authorization", "Bearer not-a-jwt"))
+                .andExpect(status().isUnauthorized());
+
+        assertEquals(before + 1, failures("malformed"));
+    }
+
+    @Test
+    @WithMockUser
+    void whenAdminDenied_thenAccessDeniedCountedAndRuleTimed() throws Exception {
+        double before = failures("access_denied");
+
+        mockMvc.perform(get("/admin"))
+                .andExpect(status().isForbidden());
+
+        assertEquals(before + 1, failures("access_denied"));
+        assertEquals(1, meterRegistry.get("security.authorization")
+                .tags("rule", "/admin/**", "decision", "denied").timer().count(), 0.0);
+    }
+
+    @Test
+    void whenPostWithoutCsrfToken_thenCsrfCounted() throws Exception {
+        double before = failures("csrf");
+
+        mockMvc.perform(post("/admin/user"))
+                .andExpect(status().isForbidden());
+
+        assertEquals(before + 1, failures("csrf"));
+    }
+
+    @Test
+    @WithMockUser(roles = {"CONTINENTAL_ROLE_METRICS"})
+    void whenScrapingPrometheusWithMetricsRole_thenStageMetricsExposed() throws Exception {
+        mockMvc.perform(get("/public"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("security_authorization_seconds_bucket")))
+                .andExpect(content().string(containsString("security_auth_failures_total")))
+                .andExpect(content().string(containsString("security_jwt_cache_requests_total")))
+                .andExpect(content().string(containsString("keycloak_admin_requests_seconds")));
+    }
+
+    @Test
+    void whenScrapingPrometheusWithoutToken_thenUnauthorized() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @WithMockUser(roles = {"CONTINENTAL_ROLE_ADMIN"})
+    void whenScrapingPrometheusWithoutMetricsRole_thenForbidden() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isForbidden());
+    }
+
+    private double failures(String reason) {
+        return meterRegistry.get("security.auth.failures").tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,176 @@
+package com.bindstone.backend.integration;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Time from process start to the first successful authenticated request, for the plain JVM, the AOT + CDS build of
+ * the {@code fast-startup} profile and the native image. The packaged modes are skipped until they have been built.
+ * Keycloak is not needed: the JWK set comes from the snapshot file and the admin client never connects.
+ * <p>
+ * Each mode starts a new JVM or process, so the class is tagged {@code startup} and only runs with
+ * {@code ./mvnw -Pstartup-time test}.
+ */
+@Tag("startup")
+class StartupTimeTest {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTimeTest.class);
+
+    private static final String ISSUER = "http://startup-test/realms/CONTINENTAL";
+    private static final String UNREACHABLE = "http://127.0.0.1:9";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+    private static final Path TARGET = Path.of("target");
+
+    @TempDir
+    static Path tempDir;
+
+    private static Path snapshot;
+    private static String token;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    @BeforeAll
+    static void issueToken() throws JOSEException, IOException {
+        RSAKey key = new RSAKeyGenerator(2048).keyID("startup").generate();
+        snapshot = tempDir.resolve("jwks.json");
+        Files.writeString(snapshot, new JWKSet(key.toPublicJWK()).toString());
+
+        Instant now = Instant.now();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID("startup").build(),
+                new JWTClaimsSet.Builder()
+                        .issuer(ISSUER)
+                        .subject("startup-user")
+                        .issueTime(Date.from(now))
+                        .expirationTime(Date.from(now.plus(Duration.ofHours(1))))
+                        .claim("realm_access", Map.of("roles", List.of("USER")))
+                        .build());
+        jwt.sign(new RSASSASigner(key));
+        token = jwt.serialize();
+    }
+
+    @Test
+    void whenStartedOnJvm_thenFirstAuthenticatedRequestTimed() throws Exception {
+        String classpath = Arrays.stream(System.getProperty("surefire.test.class.path",
+                        System.getProperty("java.class.path")).split(File.pathSeparator))
+                .filter(entry -> !entry.endsWith("test-classes"))
+                .collect(Collectors.joining(File.pathSeparator));
+
+        measure("jvm", List.of(java(), "-cp", classpath, "com.bindstone.backend.BackendApplication"));
+    }
+
+    @Test
+    void whenStartedWithAotAndCds_thenFirstAuthenticatedRequestTimed() throws Exception {
+        Path jar = TARGET.resolve("extracted/backend-0.0.1-SNAPSHOT.jar");
+        Path archive = TARGET.resolve("extracted/backend.jsa");
+        assumeTrue(Files.exists(jar) && Files.exists(archive), "Build with ./mvnw -Pfast-startup package first");
+
+        measure("aot+cds", List.of(java(), "-XX:SharedArchiveFile=" + archive, "-Dspring.aot.enabled=true",
+                "-jar", jar.toString()));
+    }
+
+    @Test
+    void whenStartedAsNativeImage_thenFirstAuthenticatedRequestTimed() throws Exception {
+        Path executable = TARGET.resolve("backend");
+        assumeTrue(Files.isExecutable(executable), "Build with ./mvnw -Pnative native:compile first");
+
+        measure("native", List.of(executable.toString()));
+    }
+
+    private void measure(String mode, List<String> command) throws Exception {
+        int port = freePort();
+        List<String> arguments = new ArrayList<>(command);
+        arguments.addAll(List.of(
+                "--server.port=" + port,
+                "--spring.security.oauth2.resourceserver.jwt.issuer-uri=" + ISSUER,
+                "--spring.security.oauth2.resourceserver.jwt.jwk-set-uri=" + UNREACHABLE + "/certs",
+                "--security.jwt.jwks.snapshot-file=" + snapshot,
+                "--keycloak.server-url=" + UNREACHABLE,
+                "--logging.level.root=WARN"));
+        Path output = tempDir.resolve(mode.replace('+', '-') + ".log");
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/private"))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(5))
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(arguments)
+                .redirectErrorStream(true)
+                .redirectOutput(output.toFile())
+                .start();
+        try {
+            while (true) {
+                assertTrue(process.isAlive(), () -> mode + " backend exited early:\n" + read(output));
+                assertTrue(System.nanoTime() - start < STARTUP_TIMEOUT.toNanos(),
+                        () -> mode + " backend did not answer in time:\n" + read(output));
+                try {
+                    HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                    assertEquals(200, response.statusCode(), () -> read(output));
+                    break;
+                } catch (ConnectException e) {
+                    Thread.sleep(20);
+                }
+            }
+            log.info("Time to first authenticated request ({}): {} ms", mode,
+                    Duration.ofNanos(System.nanoTime() - start).toMillis());
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static String java() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static String read(Path log) {
+        try {
+            return Files.readString(log);
+        } catch (IOException e) {
+            return "(no output: " + e.getMessage() + ")";
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.bindstone.backend.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingJwtDecoderTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T10:00:00Z");
+
+    private final AtomicInteger delegateCalls = new AtomicInteger();
+    private Instant expiresAt;
+
+    private final JwtDecoder delegate = token -> {
+        delegateCalls.incrementAndGet();
+        if (token.startsWith("bad")) {
+            throw new BadJwtException("Invalid signature");
+        }
+        return Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .subject("user")
+                .issuedAt(NOW.minusSeconds(10))
+                .expiresAt(expiresAt)
+                .build();
+    };
+
+    @BeforeEach
+    void setUp() {
+        expiresAt = NOW.plusSeconds(300);
+    }
+
+    @Test
+    void whenSameTokenDecodedTwice_thenDelegateCalledOnce() {
+        JwtDecoderCache cache = new JwtDecoderCache(10, Clock.fixed(NOW, ZoneOffset.UTC));
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, cache);
+
+        Jwt first = decoder.decode("token-a");
+        Jwt second = decoder.decode("token-a");
+
+        assertSame(first, second);
+        assertEquals(1, delegateCalls.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void whenTokenExpired_thenVerifiedAgain() {
+        MutableClock clock = new MutableClock(NOW);
+        JwtDecoderCache cache = new JwtDecoderCache(10, clock);
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, cache);
+
+        decoder.decode("token-a");
+        clock.now = expiresAt;
+        decoder.decode("token-a");
+
+        assertEquals(2, delegateCalls.get());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    void whenInvalidToken_thenNotCached() {
+        JwtDecoderCache cache = new JwtDecoderCache(10, Clock.fixed(NOW, ZoneOffset.UTC));
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, cache);
+
+        assertThrows(BadJwtException.class, () -> decoder.decode("bad-token"));
+        assertThrows(BadJwtException.class, () -> decoder.decode("bad-token"));
+
+        assertEquals(2, delegateCalls.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void whenCacheFull_thenSizeStaysBounded() {
+        JwtDecoderCache cache = new JwtDecoderCache(3, Clock.fixed(NOW, ZoneOffset.UTC));
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, cache);
+
+        for (int i = 0; i < 10; i++) {
+            decoder.decode("token-" + i);
+        }
+
+        assertTrue(cache.size() <= 3);
+        assertEquals(7, cache.getEvictions());
+    }
+
+    @Test
+    void whenCacheFull_thenLeastRecentlyUsedEvicted() {
+        JwtDecoderCache cache = new JwtDecoderCache(2, Clock.fixed(NOW, ZoneOffset.UTC));
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, cache);
+
+        decoder.decode("token-a");
+        decoder.decode("token-b");
+        decoder.decode("token-a");
+        decoder.decode("token-c");
+        decoder.decode("token-a");
+        decoder.decode("token-b");
+
+        // token-a was used again, so the sweep passed over it and evicted token-b, later token-c
+        assertEquals(4, delegateCalls.get());
+        assertEquals(2, cache.getEvictions());
+    }
+
+    @Test
+    void whenDecodedConcurrently_thenSizeStaysBoundedAndEveryLookupCounted() throws Exception {
+        JwtDecoderCache cache = new JwtDecoderCache(16, Clock.fixed(NOW, ZoneOffset.UTC));
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, cache);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t;
+            workers.add(pool.submit(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    decoder.decode("token-" + ((i * 7 + offset) % 40));
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get(10, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertTrue(cache.size() <= 16, "size " + cache.size());
+        assertEquals(8_000, cache.getHits() + cache.getMisses());
+    }
+
+    @Test
+    void whenCacheDisabled_thenAlwaysDelegates() {
+        JwtDecoderCache cache = new JwtDecoderCache(0, Clock.fixed(NOW, ZoneOffset.UTC));
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, cache);
+
+        decoder.decode("token-a");
+        decoder.decode("token-a");
+
+        assertEquals(2, delegateCalls.get());
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.bindstone.backend.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionAuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionException;
+import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingOpaqueTokenIntrospectorTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T10:00:00Z");
+    private static final Duration REJECTION_TTL = Duration.ofSeconds(10);
+
+    private final AtomicInteger delegateCalls = new AtomicInteger();
+    private final MutableClock clock = new MutableClock(NOW);
+    private Instant expiresAt = NOW.plusSeconds(300);
+
+    private final OpaqueTokenIntrospector delegate = token -> {
+        delegateCalls.incrementAndGet();
+        if (token.startsWith("inactive")) {
+            throw new BadOpaqueTokenException("Provided token isn't active");
+        }
+        return principal(token);
+    };
+
+    @Test
+    void whenSameTokenIntrospectedTwice_thenDelegateCalledOnce() {
+        CachingOpaqueTokenIntrospector introspector = new CachingOpaqueTokenIntrospector(delegate, 10,
+                Duration.ofMinutes(1), REJECTION_TTL, clock);
+
+        OAuth2AuthenticatedPrincipal first = introspector.introspect("token-a");
+        OAuth2AuthenticatedPrincipal second = introspector.introspect("token-a");
+
+        assertSame(first, second);
+        assertEquals(1, delegateCalls.get());
+        assertEquals(1, introspector.getHits());
+        assertEquals(1, introspector.getMisses());
+    }
+
+    @Test
+    void whenMaxTtlPassed_thenIntrospectedAgain() {
+        CachingOpaqueTokenIntrospector introspector = new CachingOpaqueTokenIntrospector(delegate, 10,
+                Duration.ofMinutes(1), REJECTION_TTL, clock);
+
+        introspector.introspect("token-a");
+        clock.advance(Duration.ofMinutes(1));
+        introspector.introspect("token-a");
+
+        assertEquals(2, delegateCalls.get());
+    }
+
+    @Test
+    void whenTokenExpiresBeforeMaxTtl_thenCachedUntilExpiry() {
+        expiresAt = NOW.plusSeconds(10);
+        CachingOpaqueTokenIntrospector introspector = new CachingOpaqueTokenIntrospector(delegate, 10,
+                Duration.ofMinutes(1), REJECTION_TTL, clock);
+
+        introspector.introspect("token-a");
+        clock.advance(Duration.ofSeconds(9));
+        introspector.introspect("token-a");
+        clock.advance(Duration.ofSeconds(1));
+        introspector.introspect("token-a");
+
+        assertEquals(2, delegateCalls.get());
+    }
+
+    @Test
+    void whenTokenInactive_thenRejectedFromCacheUntilRejectionTtlPassed() {
+        CachingOpaqueTokenIntrospector introspector = new CachingOpaqueTokenIntrospector(delegate, 10,
+                Duration.ofMinutes(1), REJECTION_TTL, clock);
+
+        assertThrows(BadOpaqueTokenException.class, () -> introspector.introspect("inactive-token"));
+        assertThrows(BadOpaqueTokenException.class, () -> introspector.introspect("inactive-token"));
+        assertEquals(1, delegateCalls.get());
+        assertEquals(1, introspector.getRejections());
+
+        clock.advance(REJECTION_TTL);
+        assertThrows(BadOpaqueTokenException.class, () -> introspector.introspect("inactive-token"));
+        assertEquals(2, delegateCalls.get());
+    }
+
+    @Test
+    void whenKeycloakFails_thenFailureNotCached() {
+        OpaqueTokenIntrospector failing = token -> {
+            delegateCalls.incrementAndGet();
+            throw new OAuth2IntrospectionException("Connection refused");
+        };
+        CachingOpaqueTokenIntrospector introspector = new CachingOpaqueTokenIntrospector(failing, 10,
+                Duration.ofMinutes(1), REJECTION_TTL, clock);
+
+        assertThrows(OAuth2IntrospectionException.class, () -> introspector.introspect("token-a"));
+        assertThrows(OAuth2IntrospectionException.class, () -> introspector.introspect("token-a"));
+
+        assertEquals(2, delegateCalls.get());
+        assertEquals(0, introspector.size());
+    }
+
+    @Test
+    void whenConcurrentLookupsOfSameToken_thenOneIntrospection() throws Exception {
+        CountDownLatch introspecting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        OpaqueTokenIntrospector slow = token -> {
+            introspecting.countDown();
+            try {
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return delegate.introspect(token);
+        };
+        CachingOpaqueTokenIntrospector introspector = new CachingOpaqueTokenIntrospector(slow, 10,
+                Duration.ofMinutes(1), REJECTION_TTL, clock);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<OAuth2AuthenticatedPrincipal> first = executor.submit(() -> introspector.introspect("token-a"));
+            assertTrue(introspecting.await(5, TimeUnit.SECONDS));
+            Future<OAuth2AuthenticatedPrincipal> second = executor.submit(() -> introspector.introspect("token-a"));
+            while (introspector.getCollapsed() < 1) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, delegateCalls.get());
+    }
+
+    @Test
+    void whenFull_thenBoundedBySize() {
+        CachingOpaqueTokenIntrospector introspector = new CachingOpaqueTokenIntrospector(delegate, 3,
+                Duration.ofMinutes(1), REJECTION_TTL, clock);
+
+        for (int i = 0; i < 10; i++) {
+            introspector.introspect("token-" + i);
+        }
+
+        assertTrue(introspector.size() <= 3);
+        assertTrue(introspector.getEvictions() > 0);
+    }
+
+    @Test
+    void whenFull_thenRoomMadeInBatches() {
+        CachingOpaqueTokenIntrospector introspector = new CachingOpaqueTokenIntrospector(delegate, 10,
+                Duration.ofMinutes(1), REJECTION_TTL, clock);
+
+        for (int i = 0; i < 11; i++) {
+            introspector.introspect("token-" + i);
+        }
+        assertEquals(9, introspector.size());
+        assertEquals(2, introspector.getEvictions());
+
+        // Below the bound again, the next token is added without another sweep
+        introspector.introspect("token-11");
+        assertEquals(10, introspector.size());
+        assertEquals(2, introspector.getEvictions());
+    }
+
+    private OAuth2AuthenticatedPrincipal principal(String token) {
+        return new OAuth2IntrospectionAuthenticatedPrincipal(Map.of(
+                "active", true,
+                "sub", "user-" + token,
+                "exp", expiresAt,
+                "realm_access", Map.of("roles", List.of("USER"))), List.of());
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
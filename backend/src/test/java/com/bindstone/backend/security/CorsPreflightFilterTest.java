@@ -0,0 +1,105 @@
+package com.bindstone.backend.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.cors.CorsConfiguration;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CorsPreflightFilterTest {
+
+    private final CorsPolicy policy = new CorsPolicy(
+            List.of("http://localhost:3000", "https://*.example.com", "https://*.partner.org:8443"),
+            List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"),
+            List.of("Authorization", "Content-Type"),
+            Duration.ofMinutes(30));
+    private final CorsPreflightFilter filter = new CorsPreflightFilter(policy);
+
+    @Test
+    void whenPreflightFromAllowedOrigin_thenAnsweredWithoutChain() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = preflight("http://localhost:3000", "POST", "authorization, content-type", chain);
+
+        assertEquals(200, response.getStatus());
+        assertNull(chain.getRequest());
+        assertEquals("http://localhost:3000", response.getHeader("Access-Control-Allow-Origin"));
+        assertEquals("GET, POST, PUT, DELETE, OPTIONS", response.getHeader("Access-Control-Allow-Methods"));
+        assertEquals("Authorization, Content-Type", response.getHeader("Access-Control-Allow-Headers"));
+        assertEquals("1800", response.getHeader("Access-Control-Max-Age"));
+        assertTrue(response.getHeader("Vary").contains("Origin"));
+    }
+
+    @Test
+    void whenSubdomainPattern_thenOnlySubdomainsWithMatchingPortAllowed() {
+        assertTrue(policy.isOriginAllowed("https://app.example.com"));
+        assertTrue(policy.isOriginAllowed("https://eu.app.example.com"));
+        assertTrue(policy.isOriginAllowed("https://app.partner.org:8443"));
+        assertFalse(policy.isOriginAllowed("https://example.com"));
+        assertFalse(policy.isOriginAllowed("https://evil-example.com"));
+        assertFalse(policy.isOriginAllowed("http://app.example.com"));
+        assertFalse(policy.isOriginAllowed("https://app.example.com:8443"));
+        assertFalse(policy.isOriginAllowed("https://app.partner.org"));
+        assertFalse(policy.isOriginAllowed("https://app.example.com.evil.net"));
+    }
+
+    @Test
+    void whenSpringOriginPatterns_thenMatchedLikeActualRequests() {
+        CorsPolicy patterns = new CorsPolicy(List.of("https://app*.example.com", "https://*.partner.org:[8443,9443]"),
+                List.of("GET"), List.of(), Duration.ZERO);
+
+        assertTrue(patterns.isOriginAllowed("https://app-eu.example.com"));
+        assertTrue(patterns.isOriginAllowed("https://app.partner.org:9443"));
+        assertFalse(patterns.isOriginAllowed("https://web.example.com"));
+        assertFalse(patterns.isOriginAllowed("https://app.partner.org:8080"));
+        for (String origin : List.of("https://app-eu.example.com", "https://web.example.com")) {
+            assertEquals(patterns.isOriginAllowed(origin),
+                    patterns.toCorsConfiguration().checkOrigin(origin) != null, origin);
+        }
+    }
+
+    @Test
+    void whenExactOrigin_thenMatchedLikeCheckOrigin() {
+        CorsConfiguration spring = policy.toCorsConfiguration();
+
+        for (String origin : List.of("http://localhost:3000", "http://localhost:3000/", "HTTP://localhost:3000",
+                "http://localhost:3001", "http://localhost", "https://app.example.com/")) {
+            assertEquals(spring.checkOrigin(origin) != null, policy.isOriginAllowed(origin), origin);
+        }
+    }
+
+    @Test
+    void whenOriginMethodOrHeaderNotAllowed_thenForbidden() throws Exception {
+        assertEquals(403, preflight("http://evil.test", "GET", null, new MockFilterChain()).getStatus());
+        assertEquals(403, preflight("http://localhost:3000", "PATCH", null, new MockFilterChain()).getStatus());
+        assertEquals(403, preflight("http://localhost:3000", "GET", "X-Debug", new MockFilterChain()).getStatus());
+    }
+
+    @Test
+    void whenNotPreflight_thenPassedToChain() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/public");
+        request.addHeader("Origin", "http://localhost:3000");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertSame(request, chain.getRequest());
+    }
+
+    private MockHttpServletResponse preflight(String origin, String method, String headers, MockFilterChain chain)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("OPTIONS", "/admin/user");
+        request.addHeader("Origin", origin);
+        request.addHeader("Access-Control-Request-Method", method);
+        if (headers != null) {
+            request.addHeader("Access-Control-Request-Headers", headers);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
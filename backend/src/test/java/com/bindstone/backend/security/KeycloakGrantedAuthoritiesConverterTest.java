@@ -0,0 +1,96 @@
+package com.bindstone.backend.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeycloakGrantedAuthoritiesConverterTest {
+
+    private final KeycloakGrantedAuthoritiesConverter converter = new KeycloakGrantedAuthoritiesConverter(2);
+
+    @Test
+    void whenRealmAndResourceRoles_thenAllMappedWithRolePrefix() {
+        Map<String, Object> resourceAccess = new LinkedHashMap<>();
+        resourceAccess.put("backend-app", Map.of("roles", List.of("CONTINENTAL_ROLE_ADMIN")));
+        resourceAccess.put("account", Map.of("roles", List.of("view-profile")));
+
+        Collection<GrantedAuthority> authorities = converter.convert(jwt(Map.of(
+                "realm_access", Map.of("roles", List.of("USER")),
+                "resource_access", resourceAccess)));
+
+        assertEquals(List.of("ROLE_USER", "ROLE_CONTINENTAL_ROLE_ADMIN", "ROLE_view-profile"), names(authorities));
+    }
+
+    @Test
+    void whenNoRoleClaims_thenNoAuthorities() {
+        assertTrue(converter.convert(jwt(Map.of())).isEmpty());
+    }
+
+    @Test
+    void whenSameRoleSetSeenAgain_thenMemoizedCollectionReturned() {
+        Collection<GrantedAuthority> first = converter.convert(jwt(Map.of("realm_access", Map.of("roles", List.of("USER", "MANAGER")))));
+        Collection<GrantedAuthority> second = converter.convert(jwt(Map.of("realm_access", Map.of("roles", List.of("USER", "MANAGER")))));
+
+        assertSame(first, second);
+        assertThrows(UnsupportedOperationException.class, () -> second.clear());
+    }
+
+    @Test
+    void whenRoleSetsDiffer_thenAuthoritiesInterned() {
+        Collection<GrantedAuthority> user = converter.convert(jwt(Map.of("realm_access", Map.of("roles", List.of("USER")))));
+        Collection<GrantedAuthority> userAndManager = converter.convert(jwt(Map.of("realm_access", Map.of("roles", List.of("USER", "MANAGER")))));
+
+        assertNotSame(user, userAndManager);
+        assertSame(user.iterator().next(), userAndManager.iterator().next());
+    }
+
+    @Test
+    void whenMoreRoleSetsThanMaxSize_thenCacheStaysBounded() {
+        for (int i = 0; i < 10; i++) {
+            converter.convert(jwt(Map.of("realm_access", Map.of("roles", List.of("ROLE_" + i)))));
+        }
+
+        assertTrue(converter.size() <= 2);
+    }
+
+    @Test
+    void whenCacheDisabled_thenFreshAuthoritiesEveryTime() {
+        KeycloakGrantedAuthoritiesConverter uncached = new KeycloakGrantedAuthoritiesConverter(0);
+        Jwt jwt = jwt(Map.of("realm_access", Map.of("roles", List.of("USER"))));
+
+        Collection<GrantedAuthority> first = uncached.convert(jwt);
+        Collection<GrantedAuthority> second = uncached.convert(jwt);
+
+        assertEquals(first, second);
+        assertNotSame(first, second);
+    }
+
+    @Test
+    void whenRolesContainNull_thenNullSkipped() {
+        List<Object> roles = new ArrayList<>();
+        roles.add("USER");
+        roles.add(null);
+
+        Collection<GrantedAuthority> authorities = converter.convert(jwt(Map.of("realm_access", Map.of("roles", roles))));
+
+        assertEquals(List.of("ROLE_USER"), names(authorities));
+    }
+
+    private static Jwt jwt(Map<String, Object> claims) {
+        Jwt.Builder builder = Jwt.withTokenValue("token").header("alg", "none").subject("user");
+        claims.forEach(builder::claim);
+        return builder.build();
+    }
+
+    private static List<String> names(Collection<GrantedAuthority> authorities) {
+        return authorities.stream().map(GrantedAuthority::getAuthority).toList();
+    }
+}
@@ -0,0 +1,179 @@
+package com.bindstone.backend.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(OutputCaptureExtension.class)
+class KeycloakJwkSourceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicInteger fetches = new AtomicInteger();
+    private final AtomicReference<String> published = new AtomicReference<>();
+    private static RSAKey firstKey;
+    private static RSAKey rotatedKey;
+    private Path snapshot;
+
+    @BeforeAll
+    static void generateKeys() throws JOSEException {
+        firstKey = new RSAKeyGenerator(2048).keyID("first").generate();
+        rotatedKey = new RSAKeyGenerator(2048).keyID("rotated").generate();
+    }
+
+    @BeforeEach
+    void setUp() {
+        snapshot = tempDir.resolve("jwks.json");
+        published.set(new JWKSet(firstKey).toString());
+    }
+
+    @Test
+    void whenInitialized_thenKeysFetchedAndSnapshotWritten() throws Exception {
+        KeycloakJwkSource source = newSource(Duration.ofSeconds(30));
+
+        source.initialize().join();
+
+        assertEquals(List.of("first"), keyIds(source.getJwkSet()));
+        assertEquals(List.of("first"), keyIds(JWKSet.parse(Files.readString(snapshot))));
+    }
+
+    @Test
+    void whenKeycloakSlow_thenInitializeReturnsAndLookupJoinsTheFetch() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        KeycloakJwkSource source = new KeycloakJwkSource(() -> {
+            fetches.incrementAndGet();
+            release.await();
+            return new JWKSet(firstKey).toString();
+        }, null, Duration.ofSeconds(30), Clock.systemUTC());
+
+        CompletableFuture<JWKSet> prefetch = source.initialize();
+        while (fetches.get() == 0) {
+            Thread.onSpinWait();
+        }
+        assertFalse(prefetch.isDone());
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Future<List<JWK>> lookup = executor.submit(() -> source.get(selector("first"), null));
+            release.countDown();
+
+            assertEquals(1, lookup.get().size());
+        }
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    void whenKeycloakUnreachable_thenSnapshotUsed() throws Exception {
+        Files.writeString(snapshot, new JWKSet(firstKey).toString());
+        KeycloakJwkSource source = new KeycloakJwkSource(() -> {
+            throw new IOException("Connection refused");
+        }, snapshot, Duration.ofSeconds(30), Clock.systemUTC());
+
+        source.initialize().join();
+
+        assertEquals(1, source.get(selector("first"), null).size());
+    }
+
+    @Test
+    void whenFetchFailsWithoutMessage_thenExceptionClassLogged(CapturedOutput output) {
+        KeycloakJwkSource source = new KeycloakJwkSource(() -> {
+            throw new ConnectException();
+        }, null, Duration.ofSeconds(30), Clock.systemUTC());
+
+        source.initialize().join();
+
+        assertTrue(output.getOut().contains("keeping 0 known key(s): java.net.ConnectException"), output.getOut());
+    }
+
+    @Test
+    void whenUnknownKid_thenRefetchedOnce() throws Exception {
+        KeycloakJwkSource source = newSource(Duration.ZERO);
+        source.initialize().join();
+        published.set(new JWKSet(List.of(firstKey, rotatedKey)).toString());
+
+        assertEquals(1, source.get(selector("rotated"), null).size());
+        assertEquals(1, source.get(selector("rotated"), null).size());
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    void whenUnknownKidsWithinMinInterval_thenRefetchRateLimited() throws Exception {
+        KeycloakJwkSource source = newSource(Duration.ofSeconds(30));
+        source.initialize().join();
+
+        assertTrue(source.get(selector("forged-1"), null).isEmpty());
+        assertTrue(source.get(selector("forged-2"), null).isEmpty());
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    void whenConcurrentUnknownKids_thenSingleFetch() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        KeycloakJwkSource source = new KeycloakJwkSource(() -> {
+            fetches.incrementAndGet();
+            release.await();
+            return new JWKSet(List.of(firstKey, rotatedKey)).toString();
+        }, null, Duration.ZERO, Clock.systemUTC());
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            List<Future<List<JWK>>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> source.get(selector("rotated"), null)));
+            }
+            while (fetches.get() == 0) {
+                Thread.onSpinWait();
+            }
+            Thread.sleep(50);
+            release.countDown();
+            for (Future<List<JWK>> result : results) {
+                assertEquals(1, result.get().size());
+            }
+        }
+        assertEquals(1, fetches.get());
+    }
+
+    private KeycloakJwkSource newSource(Duration minRefetchInterval) {
+        return new KeycloakJwkSource(() -> {
+            fetches.incrementAndGet();
+            return published.get();
+        }, snapshot, minRefetchInterval, Clock.fixed(Instant.parse("2025-01-01T10:00:00Z"), ZoneOffset.UTC));
+    }
+
+    private static JWKSelector selector(String kid) {
+        return new JWKSelector(new JWKMatcher.Builder().keyID(kid).build());
+    }
+
+    private static List<String> keyIds(JWKSet jwkSet) {
+        return jwkSet.getKeys().stream().map(JWK::getKeyID).toList();
+    }
+}
@@ -0,0 +1,211 @@
+package com.bindstone.backend.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWEAlgorithm;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyOperation;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LightweightJwtDecoderTest {
+
+    private static final String ISSUER = "http://localhost:8080/realms/CONTINENTAL";
+
+    private static RSAKey signingKey;
+    private static RSAKey otherKey;
+
+    private final AtomicInteger fallbackCalls = new AtomicInteger();
+    private JwtDecoder standard;
+    private LightweightJwtDecoder lightweight;
+
+    @BeforeAll
+    static void generateKeys() throws JOSEException {
+        signingKey = new RSAKeyGenerator(2048).keyID("signing").generate();
+        otherKey = new RSAKeyGenerator(2048).keyID("signing").generate();
+    }
+
+    @BeforeEach
+    void setUp() {
+        KeycloakJwkSource source = new KeycloakJwkSource(() -> new JWKSet(signingKey.toPublicJWK()).toString(),
+                null, Duration.ofSeconds(30), Clock.systemUTC());
+        source.initialize();
+
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, source));
+        processor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+        NimbusJwtDecoder nimbus = new NimbusJwtDecoder(processor);
+        nimbus.setJwtValidator(JwtValidators.createDefaultWithIssuer(ISSUER));
+        standard = nimbus;
+        lightweight = new LightweightJwtDecoder(source, ISSUER, token -> {
+            fallbackCalls.incrementAndGet();
+            return nimbus.decode(token);
+        });
+    }
+
+    @Test
+    void whenDecoded_thenSameClaimsAndRolesAsStandardDecoder() throws Exception {
+        String token = sign(signingKey, claims(Instant.now().plusSeconds(300)).build());
+
+        Jwt expected = standard.decode(token);
+        Jwt actual = lightweight.decode(token);
+
+        assertInstanceOf(KeycloakJwt.class, actual);
+        assertEquals(expected.getSubject(), actual.getSubject());
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getIssuer(), actual.getIssuer());
+        assertEquals(expected.getExpiresAt(), actual.getExpiresAt());
+        assertEquals(expected.getIssuedAt(), actual.getIssuedAt());
+        assertEquals("frontend", actual.getClaimAsString("azp"));
+        assertEquals(List.of("USER", "CONTINENTAL_ROLE_ADMIN", "view-profile"), ((KeycloakJwt) actual).getRoles());
+
+        KeycloakGrantedAuthoritiesConverter converter = new KeycloakGrantedAuthoritiesConverter(16);
+        assertEquals(converter.convert(expected), converter.convert(actual));
+        assertFalse(((KeycloakJwt) actual).isMaterialized());
+        assertEquals(0, fallbackCalls.get());
+    }
+
+    @Test
+    void whenOtherClaimRequested_thenPayloadMaterialized() throws Exception {
+        String token = sign(signingKey, claims(Instant.now().plusSeconds(300))
+                .claim("email", "alice@example.com")
+                .build());
+
+        Jwt expected = standard.decode(token);
+        KeycloakJwt actual = (KeycloakJwt) lightweight.decode(token);
+
+        assertEquals("alice@example.com", actual.getClaimAsString("email"));
+        assertTrue(actual.isMaterialized());
+        assertEquals(expected.getClaims(), actual.getClaims());
+    }
+
+    @Test
+    void whenExpired_thenRejectedAsExpired() throws Exception {
+        String token = sign(signingKey, claims(Instant.now().minusSeconds(120)).build());
+
+        JwtValidationException e = assertThrows(JwtValidationException.class, () -> lightweight.decode(token));
+
+        assertEquals(AuthFailureReason.EXPIRED, AuthFailureReason.of(e));
+    }
+
+    @Test
+    void whenIssuerDiffers_thenRejected() throws Exception {
+        String token = sign(signingKey, claims(Instant.now().plusSeconds(300))
+                .issuer("http://evil.example/realms/CONTINENTAL")
+                .build());
+
+        JwtValidationException e = assertThrows(JwtValidationException.class, () -> lightweight.decode(token));
+
+        assertEquals(AuthFailureReason.INVALID_ISSUER, AuthFailureReason.of(e));
+    }
+
+    @Test
+    void whenSignedWithOtherKey_thenRejected() throws Exception {
+        String token = sign(otherKey, claims(Instant.now().plusSeconds(300)).build());
+
+        BadJwtException e = assertThrows(BadJwtException.class, () -> lightweight.decode(token));
+
+        assertEquals(AuthFailureReason.INVALID_SIGNATURE, AuthFailureReason.of(e));
+        assertThrows(BadJwtException.class, () -> lightweight.decode("not-a-jwt"));
+    }
+
+    @Test
+    void whenEncryptionKeySharesKid_thenOnlySigningKeyVerifies() throws Exception {
+        // Keycloak publishes an RSA-OAEP key with use=enc next to the signing key
+        RSAKey encryptionKey = new RSAKeyGenerator(2048).keyID("signing").keyUse(KeyUse.ENCRYPTION)
+                .algorithm(JWEAlgorithm.RSA_OAEP_256).generate();
+        LightweightJwtDecoder decoder = decoderFor(new JWKSet(List.of(signingKey.toPublicJWK(),
+                encryptionKey.toPublicJWK())));
+
+        assertEquals("alice", decoder.decode(sign(signingKey, claims(Instant.now().plusSeconds(300)).build()))
+                .getSubject());
+        BadJwtException e = assertThrows(BadJwtException.class,
+                () -> decoder.decode(sign(encryptionKey, claims(Instant.now().plusSeconds(300)).build())));
+        assertEquals(AuthFailureReason.INVALID_SIGNATURE, AuthFailureReason.of(e));
+    }
+
+    @Test
+    void whenKeyOperationsExcludeVerify_thenKeyNotUsed() throws Exception {
+        RSAKey wrappingKey = new RSAKeyGenerator(2048).keyID("wrapping")
+                .keyOperations(Set.of(KeyOperation.WRAP_KEY)).generate();
+        LightweightJwtDecoder decoder = decoderFor(new JWKSet(wrappingKey.toPublicJWK()));
+
+        assertThrows(BadJwtException.class,
+                () -> decoder.decode(sign(wrappingKey, claims(Instant.now().plusSeconds(300)).build())));
+    }
+
+    @Test
+    void whenTokenHasNoKid_thenRejected() throws Exception {
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).build(),
+                claims(Instant.now().plusSeconds(300)).build());
+        jwt.sign(new RSASSASigner(signingKey));
+
+        BadJwtException e = assertThrows(BadJwtException.class, () -> lightweight.decode(jwt.serialize()));
+
+        assertEquals(AuthFailureReason.INVALID_SIGNATURE, AuthFailureReason.of(e));
+    }
+
+    @Test
+    void whenConfirmationClaimPresent_thenStandardDecoderUsed() throws Exception {
+        String token = sign(signingKey, claims(Instant.now().plusSeconds(300))
+                .claim("cnf", Map.of("x5t#S256", "thumbprint"))
+                .build());
+
+        assertThrows(JwtValidationException.class, () -> lightweight.decode(token));
+        assertEquals(1, fallbackCalls.get());
+    }
+
+    private static LightweightJwtDecoder decoderFor(JWKSet jwkSet) {
+        KeycloakJwkSource source = new KeycloakJwkSource(jwkSet::toString, null, Duration.ofSeconds(30),
+                Clock.systemUTC());
+        source.initialize();
+        return new LightweightJwtDecoder(source, ISSUER, token -> fail("no fallback expected"));
+    }
+
+    private static JWTClaimsSet.Builder claims(Instant expiresAt) {
+        return new JWTClaimsSet.Builder()
+                .issuer(ISSUER)
+                .subject("alice")
+                .jwtID("jti-1")
+                .issueTime(Date.from(expiresAt.minusSeconds(600)))
+                .expirationTime(Date.from(expiresAt))
+                .claim("azp", "frontend")
+                .claim("realm_access", Map.of("roles", List.of("USER", "CONTINENTAL_ROLE_ADMIN")))
+                .claim("resource_access", Map.of("account", Map.of("roles", List.of("view-profile"))));
+    }
+
+    private static String sign(RSAKey key, JWTClaimsSet claims) throws JOSEException {
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+}
@@ -0,0 +1,195 @@
+package com.bindstone.backend.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiRealmJwtDecoderTest {
+
+    private static final String SERVER = "https://sso.example.com";
+    private static final String DEFAULT_ISSUER = SERVER + "/realms/CONTINENTAL";
+
+    private final List<String> built = new ArrayList<>();
+
+    @Test
+    void whenDefaultIssuer_thenDefaultDecoderWithoutBuildingAnother() {
+        MultiRealmJwtDecoder decoder = decoder(List.of(SERVER + "/realms/*"), 10);
+
+        assertEquals("default", decoder.decode(token(DEFAULT_ISSUER)).getSubject());
+        assertTrue(built.isEmpty());
+    }
+
+    @Test
+    void whenTrustedRealm_thenDecoderBuiltOnceOnFirstToken() {
+        MultiRealmJwtDecoder decoder = decoder(List.of(SERVER + "/realms/*"), 10);
+
+        decoder.decode(token(SERVER + "/realms/acme"));
+        Jwt jwt = decoder.decode(token(SERVER + "/realms/acme"));
+
+        assertEquals(SERVER + "/realms/acme", jwt.getSubject());
+        assertEquals(List.of(SERVER + "/realms/acme"), built);
+    }
+
+    @Test
+    void whenIssuerNotAllowListed_thenRejectedBeforeBuildingDecoder() {
+        MultiRealmJwtDecoder decoder = decoder(List.of(SERVER + "/realms/acme"), 10);
+
+        assertThrows(BadJwtException.class, () -> decoder.decode(token(SERVER + "/realms/other")));
+        assertThrows(BadJwtException.class, () -> decoder.decode(token("https://evil.example.com/realms/acme")));
+        assertThrows(BadJwtException.class, () -> decoder.decode(token(SERVER + "/realms/acme/extra")));
+        assertThrows(BadJwtException.class, () -> decoder.decode(token(null)));
+        assertTrue(built.isEmpty());
+    }
+
+    @Test
+    void whenWildcardRealmNameIsNotPlain_thenRejectedBeforeBuildingDecoder() {
+        MultiRealmJwtDecoder decoder = decoder(List.of(SERVER + "/realms/*"), 10);
+
+        assertThrows(BadJwtException.class, () -> decoder.decode(token(SERVER + "/realms/has space")));
+        assertThrows(BadJwtException.class, () -> decoder.decode(token(SERVER + "/realms/a%2Fb")));
+        assertThrows(BadJwtException.class, () -> decoder.decode(token(SERVER + "/realms/" + "x".repeat(65))));
+        assertThrows(BadJwtException.class, () -> decoder.decode(token(SERVER + "/realms/")));
+        assertTrue(built.isEmpty());
+    }
+
+    @Test
+    void whenRealmFactoryFails_thenBadJwt() {
+        MultiRealmJwtDecoder decoder = new MultiRealmJwtDecoder(DEFAULT_ISSUER, stub("default"),
+                List.of(SERVER + "/realms/*"), issuer -> {
+                    throw new IllegalArgumentException("Illegal character");
+                }, 10, Duration.ofMinutes(5));
+
+        assertThrows(BadJwtException.class, () -> decoder.decode(token(SERVER + "/realms/acme")));
+    }
+
+    @Test
+    void whenRealmHasNoKeys_thenRememberedAsUnknownUntilTtl() {
+        MutableClock clock = new MutableClock(Instant.parse("2025-01-01T10:00:00Z"));
+        MultiRealmJwtDecoder decoder = new MultiRealmJwtDecoder(DEFAULT_ISSUER, stub("default"),
+                List.of(SERVER + "/realms/*"), issuer -> {
+                    built.add(issuer);
+                    return new MultiRealmJwtDecoder.Realm(token -> {
+                        throw new BadJwtException("No matching key");
+                    }, () -> false);
+                }, 10, Duration.ofMinutes(5), clock);
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(BadJwtException.class, () -> decoder.decode(token(SERVER + "/realms/ghost")));
+        }
+        assertEquals(List.of(SERVER + "/realms/ghost"), built);
+        assertEquals(0, decoder.realmCount());
+
+        clock.now = clock.now.plus(Duration.ofMinutes(6));
+        assertThrows(BadJwtException.class, () -> decoder.decode(token(SERVER + "/realms/ghost")));
+        assertEquals(2, built.size());
+    }
+
+    @Test
+    void whenTokenOfKnownRealmFails_thenRealmKept() {
+        MultiRealmJwtDecoder decoder = new MultiRealmJwtDecoder(DEFAULT_ISSUER, stub("default"),
+                List.of(SERVER + "/realms/*"), issuer -> {
+                    built.add(issuer);
+                    return new MultiRealmJwtDecoder.Realm(token -> {
+                        throw new BadJwtException("Invalid signature");
+                    }, () -> true);
+                }, 10, Duration.ofMinutes(5));
+
+        assertThrows(BadJwtException.class, () -> decoder.decode(token(SERVER + "/realms/acme")));
+        assertThrows(BadJwtException.class, () -> decoder.decode(token(SERVER + "/realms/acme")));
+
+        assertEquals(1, built.size());
+        assertEquals(1, decoder.realmCount());
+    }
+
+    @Test
+    void whenMoreRealmsThanMaxSize_thenLeastRecentlyUsedEvicted() {
+        MultiRealmJwtDecoder decoder = decoder(List.of(SERVER + "/realms/*"), 2);
+
+        decoder.decode(token(SERVER + "/realms/a"));
+        decoder.decode(token(SERVER + "/realms/b"));
+        decoder.decode(token(SERVER + "/realms/a"));
+        decoder.decode(token(SERVER + "/realms/c"));
+        decoder.decode(token(SERVER + "/realms/a"));
+        decoder.decode(token(SERVER + "/realms/b"));
+
+        assertEquals(2, decoder.realmCount());
+        assertEquals(List.of(SERVER + "/realms/a", SERVER + "/realms/b", SERVER + "/realms/c",
+                SERVER + "/realms/b"), built);
+    }
+
+    @Test
+    void whenMalformedToken_thenBadJwt() {
+        MultiRealmJwtDecoder decoder = decoder(List.of(SERVER + "/realms/*"), 10);
+
+        BadJwtException e = assertThrows(BadJwtException.class, () -> decoder.decode("not-a-jwt"));
+        assertTrue(e.getMessage().contains("Malformed"));
+        assertThrows(BadJwtException.class, () -> decoder.decode("a.!!!.c"));
+    }
+
+    @Test
+    void whenWildcardNotAtRealm_thenRejectedAtStartup() {
+        assertThrows(IllegalArgumentException.class, () -> decoder(List.of("https://*.example.com/realms/acme"), 10));
+    }
+
+    private MultiRealmJwtDecoder decoder(List<String> trustedIssuers, int maxRealms) {
+        return new MultiRealmJwtDecoder(DEFAULT_ISSUER, stub("default"), trustedIssuers, issuer -> {
+            built.add(issuer);
+            return new MultiRealmJwtDecoder.Realm(stub(issuer), () -> true);
+        }, maxRealms, Duration.ofMinutes(5));
+    }
+
+    private static JwtDecoder stub(String subject) {
+        return token -> Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .subject(subject)
+                .issuedAt(Instant.parse("2025-01-01T10:00:00Z"))
+                .expiresAt(Instant.parse("2025-01-01T11:00:00Z"))
+                .build();
+    }
+
+    private static String token(String issuer) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String payload = issuer == null
+                ? "{\"sub\":\"user\"}"
+                : "{\"sub\":\"user\",\"realm_access\":{\"roles\":[\"USER\"]},\"iss\":\"" + issuer + "\"}";
+        return encoder.encodeToString("{\"alg\":\"RS256\"}".getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + ".signature";
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
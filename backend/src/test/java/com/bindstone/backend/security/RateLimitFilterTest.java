@@ -0,0 +1,125 @@
+package com.bindstone.backend.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void whenRuleParsed_thenMethodPathAndLimitSet() {
+        RateLimitRule rule = RateLimitRule.parse(" post /admin/user = subject:10:2.5 ");
+
+        assertEquals("POST", rule.method());
+        assertEquals("/admin/user", rule.path());
+        assertEquals(RateLimitRule.Key.SUBJECT, rule.key());
+        assertEquals(10, rule.capacity());
+        assertEquals(2.5, rule.refillPerSecond());
+        assertTrue(rule.matches("POST", "/admin/user"));
+        assertFalse(rule.matches("GET", "/admin/user"));
+        assertThrows(IllegalArgumentException.class, () -> RateLimitRule.parse("/public=ip:10"));
+    }
+
+    @Test
+    void whenBurstExhausted_thenTooManyRequestsWithRetryAfter() throws Exception {
+        RateLimitFilter filter = filter("/public=ip:3:1");
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, perform(filter, "GET", "/public", "10.0.0.1").getStatus());
+        }
+        MockHttpServletResponse rejected = perform(filter, "GET", "/public", "10.0.0.1");
+
+        assertEquals(429, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+        assertEquals("Rate limit exceeded", rejected.getContentAsString());
+        assertNull(rejected.getErrorMessage());
+        assertEquals(200, perform(filter, "GET", "/public", "10.0.0.2").getStatus());
+    }
+
+    @Test
+    void whenTimePasses_thenTokensRefilled() throws Exception {
+        RateLimitFilter filter = filter("/public=ip:1:2");
+
+        assertEquals(200, perform(filter, "GET", "/public", "10.0.0.1").getStatus());
+        assertEquals(429, perform(filter, "GET", "/public", "10.0.0.1").getStatus());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+
+        assertEquals(200, perform(filter, "GET", "/public", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void whenKeyedBySubject_thenEachSubjectHasItsOwnBucket() throws Exception {
+        RateLimitFilter filter = filter("POST /admin/user=subject:1:1", "/admin/users/**=client:1:1");
+
+        authenticate("alice", "frontend");
+        assertEquals(200, perform(filter, "POST", "/admin/user", "10.0.0.1").getStatus());
+        assertEquals(429, perform(filter, "POST", "/admin/user", "10.0.0.1").getStatus());
+        assertEquals(200, perform(filter, "GET", "/admin/user", "10.0.0.1").getStatus());
+
+        authenticate("bob", "frontend");
+        assertEquals(200, perform(filter, "POST", "/admin/user", "10.0.0.1").getStatus());
+
+        // Same client, different subjects share the client bucket
+        assertEquals(200, perform(filter, "POST", "/admin/users/batch", "10.0.0.1").getStatus());
+        authenticate("alice", "frontend");
+        assertEquals(429, perform(filter, "POST", "/admin/users/batch", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void whenBucketIdle_thenEvicted() throws Exception {
+        RateLimitFilter filter = filter("/public=ip:5:1");
+        perform(filter, "GET", "/public", "10.0.0.1");
+        assertEquals(1, filter.bucketCount());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        filter.evictIdle();
+        assertEquals(1, filter.bucketCount());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        filter.evictIdle();
+        assertEquals(0, filter.bucketCount());
+    }
+
+    private RateLimitFilter filter(String... rules) {
+        return new RateLimitFilter(List.of(rules).stream().map(RateLimitRule::parse).toList(),
+                Duration.ofSeconds(60), now::get);
+    }
+
+    private static void authenticate(String subject, String client) {
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject(subject)
+                .claim("azp", client)
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt, List.of()));
+    }
+
+    private static MockHttpServletResponse perform(RateLimitFilter filter, String method, String path,
+                                                   String remoteAddr) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr(remoteAddr);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
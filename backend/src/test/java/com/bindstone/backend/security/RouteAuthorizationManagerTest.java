@@ -0,0 +1,100 @@
+package com.bindstone.backend.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteAuthorizationManagerTest {
+
+    @Test
+    void whenRuleParsed_thenMethodPathAndAccessSet() {
+        RouteRule rule = RouteRule.parse(" post /admin/users/{id} = role:ADMIN|SUPPORT ");
+
+        assertEquals("POST", rule.method());
+        assertEquals("/admin/users/{id}", rule.path());
+        assertEquals("role:ADMIN|SUPPORT", rule.access());
+        assertEquals(List.of("admin", "users", "*"), rule.segments());
+        assertThrows(IllegalArgumentException.class, () -> RouteRule.parse("/admin=owner"));
+        assertThrows(IllegalArgumentException.class, () -> RouteRule.parse("/admin/**/users=authenticated"));
+        assertThrows(IllegalArgumentException.class, () -> RouteRule.parse("/admin/user*=authenticated"));
+    }
+
+    @Test
+    void whenRoutesOverlap_thenMostSpecificRuleWins() {
+        RouteAuthorizationManager manager = manager(
+                "/admin/**=role:ADMIN",
+                "/admin/users/*=role:SUPPORT",
+                "/admin/users/me=authenticated",
+                "POST /admin/users/*=role:ADMIN",
+                "/public=permitAll");
+
+        assertEquals("/admin/users/me", manager.find("GET", "/admin/users/me").toString());
+        assertEquals("/admin/users/*", manager.find("GET", "/admin/users/42").toString());
+        assertEquals("POST /admin/users/*", manager.find("POST", "/admin/users/42").toString());
+        assertEquals("/admin/**", manager.find("GET", "/admin/users/42/groups").toString());
+        assertEquals("/admin/**", manager.find("GET", "/admin").toString());
+        assertEquals("/public", manager.find("GET", "/public/").toString());
+        assertNull(manager.find("GET", "/private"));
+    }
+
+    @Test
+    void whenRequestChecked_thenMatchedRuleOrDefaultDecides() {
+        RouteAuthorizationManager manager = manager("/admin=role:ADMIN", "/public=permitAll");
+
+        assertTrue(granted(manager, "/public", null));
+        assertFalse(granted(manager, "/admin", user("ROLE_USER")));
+        assertTrue(granted(manager, "/admin", user("ROLE_ADMIN")));
+        assertTrue(granted(manager, "/private", user("ROLE_USER")));
+        assertFalse(granted(manager, "/private", null));
+    }
+
+    @Test
+    void whenEncodedPath_thenDecodedBeforeLookup() {
+        RouteAuthorizationManager manager = manager("/admin=role:ADMIN");
+
+        assertFalse(granted(manager, "/adm%69n", user("ROLE_USER")));
+    }
+
+    @Test
+    void whenDuplicateRoute_thenRejected() {
+        assertThrows(IllegalArgumentException.class, () -> manager("/admin/{id}=role:ADMIN", "/admin/*=authenticated"));
+    }
+
+    @Test
+    void whenRulesShadowedOrOverlapping_thenConflictsReported() {
+        RouteAuthorizationManager manager = manager(
+                "/admin/**=role:ADMIN",
+                "/admin/health=permitAll",
+                "/api/*/orders=role:SALES",
+                "/api/v2=authenticated");
+
+        assertEquals(List.of(
+                "/admin/health=permitAll overrides /admin/**=role:ADMIN",
+                "/api/*/orders=role:SALES is shadowed by the literal segment /api/v2 for paths starting with it"),
+                manager.conflicts());
+        assertTrue(manager("/admin/**=role:ADMIN", "/admin/users/*=role:ADMIN", "/public=permitAll")
+                .conflicts().isEmpty());
+    }
+
+    private static RouteAuthorizationManager manager(String... rules) {
+        return new RouteAuthorizationManager(Arrays.stream(rules).map(RouteRule::parse).toList(), "authenticated");
+    }
+
+    private static boolean granted(RouteAuthorizationManager manager, String path, Authentication authentication) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        return manager.authorize(() -> authentication, new RequestAuthorizationContext(request)).isGranted();
+    }
+
+    private static Authentication user(String authority) {
+        TestingAuthenticationToken token = new TestingAuthenticationToken("user", null, authority);
+        token.setAuthenticated(true);
+        return token;
+    }
+}
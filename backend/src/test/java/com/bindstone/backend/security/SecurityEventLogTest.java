@@ -0,0 +1,125 @@
+package com.bindstone.backend.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SecurityEventLogTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T10:00:00Z");
+
+    @Test
+    void whenRecorded_thenReadBackInOrder() {
+        SecurityEventLog log = new SecurityEventLog(8, 10, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        log.record(AuthFailureReason.EXPIRED, 401, "frontend", "10.0.0.1", "GET", "/private");
+        log.record(AuthFailureReason.ACCESS_DENIED, 403, "frontend", "10.0.0.1", "GET", "/admin");
+
+        assertEquals(List.of(
+                new SecurityEvent(0, NOW, AuthFailureReason.EXPIRED, 401, "frontend", "10.0.0.1", "GET", "/private"),
+                new SecurityEvent(1, NOW, AuthFailureReason.ACCESS_DENIED, 403, "frontend", "10.0.0.1", "GET", "/admin")),
+                log.since(0, 10));
+        assertEquals(List.of(1L), log.since(1, 10).stream().map(SecurityEvent::sequence).toList());
+        assertEquals(2, log.position());
+    }
+
+    @Test
+    void whenFewerEventsThanRequested_thenOnlyRecordedEventsReturned() {
+        SecurityEventLog log = new SecurityEventLog(8, 10, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        assertEquals(List.of(), log.recent(100));
+        log.record(AuthFailureReason.MISSING_TOKEN, 401, null, "10.0.0.1", "GET", "/private");
+
+        assertEquals(List.of(0L), log.recent(100).stream().map(SecurityEvent::sequence).toList());
+        assertEquals(List.of(0L), log.since(-5, 100).stream().map(SecurityEvent::sequence).toList());
+    }
+
+    @Test
+    void whenRingFull_thenOldestOverwrittenAndCountsKept() {
+        SecurityEventLog log = new SecurityEventLog(4, 10, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        for (int i = 0; i < 10; i++) {
+            log.record(AuthFailureReason.INVALID_SIGNATURE, 401, null, "10.0.0." + (i % 2), "GET", "/private");
+        }
+
+        assertEquals(List.of(6L, 7L, 8L, 9L), log.since(0, 10).stream().map(SecurityEvent::sequence).toList());
+        assertEquals(List.of(8L, 9L), log.recent(2).stream().map(SecurityEvent::sequence).toList());
+        assertEquals(Map.of(AuthFailureReason.INVALID_SIGNATURE, 10L), log.countsByReason());
+        assertEquals(List.of(Map.entry("10.0.0.0", 5L), Map.entry("10.0.0.1", 5L)),
+                log.topClients(5).stream().sorted(Map.Entry.comparingByKey()).toList());
+    }
+
+    @Test
+    void whenTooManyClients_thenRestCountedAsOther() {
+        SecurityEventLog log = new SecurityEventLog(16, 2);
+
+        log.record(AuthFailureReason.EXPIRED, 401, "a", "10.0.0.1", "GET", "/private");
+        log.record(AuthFailureReason.EXPIRED, 401, "a", "10.0.0.1", "GET", "/private");
+        log.record(AuthFailureReason.EXPIRED, 401, "b", "10.0.0.1", "GET", "/private");
+        log.record(AuthFailureReason.EXPIRED, 401, "c", "10.0.0.1", "GET", "/private");
+        log.record(AuthFailureReason.EXPIRED, 401, "d", "10.0.0.1", "GET", "/private");
+
+        List<Map.Entry<String, Long>> clients = log.topClients(10);
+        assertEquals(Map.entry("a", 2L), clients.get(0));
+        assertTrue(clients.contains(Map.entry(SecurityEventLog.OTHER_CLIENTS, 2L)));
+        assertEquals(1, log.topClients(1).size());
+    }
+
+    @Test
+    void whenFloodedWithForgedClients_thenFailingClientsStillCounted() {
+        SecurityEventLog log = new SecurityEventLog(16, 2);
+        for (int i = 0; i < 3; i++) {
+            log.record(AuthFailureReason.EXPIRED, 401, "frontend", "10.0.0.1", "GET", "/private");
+            log.record(AuthFailureReason.EXPIRED, 401, "backoffice", "10.0.0.2", "GET", "/private");
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            log.record(AuthFailureReason.INVALID_SIGNATURE, 401, "forged-" + i, "10.0.1.1", "GET", "/private");
+        }
+        List<String> afterFlood = log.topClients(10).stream().map(Map.Entry::getKey).toList();
+        for (int i = 0; i < 10; i++) {
+            log.record(AuthFailureReason.EXPIRED, 401, "misconfigured", "10.0.0.3", "GET", "/private");
+        }
+
+        assertEquals(Set.of(SecurityEventLog.OTHER_CLIENTS, "frontend", "backoffice"), Set.copyOf(afterFlood));
+        assertTrue(log.topClients(10).stream().anyMatch(entry -> entry.getKey().equals("misconfigured")));
+    }
+
+    @Test
+    void whenRecordedConcurrently_thenNoEventLostFromCountsAndReadsConsistent() throws Exception {
+        SecurityEventLog log = new SecurityEventLog(1024, 100);
+        int threads = 4;
+        int perThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            String client = "client-" + t;
+            executor.execute(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    log.record(AuthFailureReason.EXPIRED, 401, client, client, "GET", client);
+                }
+            });
+        }
+        // Read while writing: every event returned must be one write, never a mix of two
+        while (!executor.isTerminated()) {
+            for (SecurityEvent event : log.recent(256)) {
+                assertEquals(event.client(), event.path());
+            }
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MILLISECONDS);
+        }
+
+        assertEquals(threads * perThread, log.position());
+        assertEquals(Map.of(AuthFailureReason.EXPIRED, (long) threads * perThread), log.countsByReason());
+        assertEquals(1024, log.since(0, Integer.MAX_VALUE).size());
+    }
+}
@@ -0,0 +1,198 @@
+package com.bindstone.backend.security;
+
+import com.bindstone.backend.utils.JwtTestUtils;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SignatureVerifiersTest {
+
+    private static final String ISSUER = "http://localhost:8080/realms/CONTINENTAL";
+
+    private static KeyPair rsa;
+    private static KeyPair ec;
+    private static KeyPair ed;
+    private static KeycloakJwkSource source;
+
+    @BeforeAll
+    static void generateKeys() throws GeneralSecurityException {
+        KeyPairGenerator rsaGenerator = KeyPairGenerator.getInstance("RSA");
+        rsaGenerator.initialize(2048);
+        rsa = rsaGenerator.generateKeyPair();
+        KeyPairGenerator ecGenerator = KeyPairGenerator.getInstance("EC");
+        ecGenerator.initialize(new ECGenParameterSpec("secp256r1"));
+        ec = ecGenerator.generateKeyPair();
+        ed = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+
+        // The raw Ed25519 key is the tail of its X.509 encoding
+        byte[] encoded = ed.getPublic().getEncoded();
+        byte[] x = Arrays.copyOfRange(encoded, encoded.length - 32, encoded.length);
+        List<JWK> keys = List.of(
+                new RSAKey.Builder((RSAPublicKey) rsa.getPublic()).keyID("rsa").keyUse(KeyUse.SIGNATURE).build(),
+                new ECKey.Builder(Curve.P_256, (ECPublicKey) ec.getPublic()).keyID("ec").keyUse(KeyUse.SIGNATURE).build(),
+                new OctetKeyPair.Builder(Curve.Ed25519, Base64URL.encode(x)).keyID("ed").keyUse(KeyUse.SIGNATURE).build());
+        source = new KeycloakJwkSource(() -> new JWKSet(keys).toString(), null, Duration.ofSeconds(30),
+                Clock.systemUTC());
+        source.initialize();
+    }
+
+    @Test
+    void whenSignedWithEachAlgorithm_thenBothDecodersVerify() {
+        SignatureVerifiers verifiers = new SignatureVerifiers();
+        JwtDecoder standard = standard(verifiers);
+        JwtDecoder lightweight = new LightweightJwtDecoder(source, ISSUER, standard, verifiers, Clock.systemUTC());
+
+        for (String token : List.of(
+                JwtTestUtils.generateSignedToken(rsa.getPrivate(), "rsa", ISSUER),
+                JwtTestUtils.generateSignedToken(ec.getPrivate(), "ec", ISSUER),
+                JwtTestUtils.generateSignedToken(ed.getPrivate(), "ed", ISSUER))) {
+            assertEquals("test-user", standard.decode(token).getSubject());
+            assertEquals("test-user", lightweight.decode(token).getSubject());
+        }
+        assertEquals(Set.of("RS256", "ES256", "EdDSA"), Set.of(
+                alg(JwtTestUtils.generateSignedToken(rsa.getPrivate(), "rsa", ISSUER)),
+                alg(JwtTestUtils.generateSignedToken(ec.getPrivate(), "ec", ISSUER)),
+                alg(JwtTestUtils.generateSignedToken(ed.getPrivate(), "ed", ISSUER))));
+    }
+
+    @Test
+    void whenSignatureTampered_thenRejected() {
+        SignatureVerifiers verifiers = new SignatureVerifiers();
+        JwtDecoder standard = standard(verifiers);
+        JwtDecoder lightweight = new LightweightJwtDecoder(source, ISSUER, standard, verifiers, Clock.systemUTC());
+
+        for (String token : List.of(
+                JwtTestUtils.generateSignedToken(ec.getPrivate(), "ec", ISSUER),
+                JwtTestUtils.generateSignedToken(ed.getPrivate(), "ed", ISSUER))) {
+            String tampered = token.substring(0, token.length() - 4)
+                    + (token.endsWith("AAAA") ? "BBBB" : "AAAA");
+            assertThrows(BadJwtException.class, () -> standard.decode(tampered));
+            BadJwtException e = assertThrows(BadJwtException.class, () -> lightweight.decode(tampered));
+            assertEquals(AuthFailureReason.INVALID_SIGNATURE, AuthFailureReason.of(e));
+        }
+    }
+
+    @Test
+    void whenAlgorithmDoesNotMatchKey_thenRejected() {
+        SignatureVerifiers verifiers = new SignatureVerifiers();
+        byte[] content = "header.payload".getBytes(StandardCharsets.US_ASCII);
+
+        assertThrows(JOSEException.class,
+                () -> verifiers.verify(JWSAlgorithm.RS256, ec.getPublic(), content, new byte[64]));
+        assertThrows(JOSEException.class,
+                () -> verifiers.verify(JWSAlgorithm.EdDSA, rsa.getPublic(), content, new byte[64]));
+
+        // An EC signed token that names the RSA key
+        String token = JwtTestUtils.generateSignedToken(ec.getPrivate(), "rsa", ISSUER);
+        JwtDecoder standard = standard(verifiers);
+        assertThrows(BadJwtException.class, () -> standard.decode(token));
+        assertThrows(BadJwtException.class,
+                () -> new LightweightJwtDecoder(source, ISSUER, standard, verifiers, Clock.systemUTC()).decode(token));
+    }
+
+    @Test
+    void whenAlgorithmNotConfigured_thenRejected() {
+        SignatureVerifiers rsaOnly = SignatureVerifiers.of(List.of("RS256"), 8);
+        JwtDecoder standard = standard(rsaOnly);
+        JwtDecoder lightweight = new LightweightJwtDecoder(source, ISSUER, standard, rsaOnly, Clock.systemUTC());
+        String token = JwtTestUtils.generateSignedToken(ec.getPrivate(), "ec", ISSUER);
+
+        assertThrows(BadJwtException.class, () -> standard.decode(token));
+        assertThrows(BadJwtException.class, () -> lightweight.decode(token));
+        assertThrows(IllegalArgumentException.class, () -> SignatureVerifiers.of(List.of("HS256"), 8));
+    }
+
+    @Test
+    void whenVerifiedRepeatedly_thenSignatureInstanceReused() {
+        SignatureVerifiers verifiers = new SignatureVerifiers();
+        JwtDecoder decoder = standard(verifiers);
+        String token = JwtTestUtils.generateSignedToken(rsa.getPrivate(), "rsa", ISSUER);
+
+        for (int i = 0; i < 5; i++) {
+            decoder.decode(token);
+        }
+
+        assertEquals(1, verifiers.getCreated());
+        assertEquals(4, verifiers.getReused());
+        assertEquals(1, verifiers.size());
+    }
+
+    @Test
+    void whenJwkSeenAgain_thenConvertedOnceUntilRotated() throws Exception {
+        SignatureVerifiers verifiers = new SignatureVerifiers();
+        RSAKey jwk = new RSAKey.Builder((RSAPublicKey) rsa.getPublic()).keyID("rsa").build();
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        RSAKey rotated = new RSAKey.Builder((RSAPublicKey) generator.generateKeyPair().getPublic()).keyID("rsa").build();
+
+        SignatureVerifiers.VerificationKey key = verifiers.key(jwk);
+
+        assertSame(key, verifiers.key(jwk));
+        // A refetched set parses into new JWK objects for the same key
+        assertSame(key, verifiers.key(JWK.parse(jwk.toJSONString())));
+        assertNotSame(key, verifiers.key(rotated));
+        assertEquals(1, verifiers.size());
+        assertTrue(SignatureVerifiers.matches(JWSAlgorithm.RS256, key));
+        assertFalse(SignatureVerifiers.matches(JWSAlgorithm.ES256, key));
+    }
+
+    @Test
+    void whenMoreKeysThanPoolLimit_thenPoolsDropped() throws Exception {
+        SignatureVerifiers verifiers = new SignatureVerifiers(SignatureVerifiers.SUPPORTED, 2);
+        byte[] content = "header.payload".getBytes(StandardCharsets.US_ASCII);
+
+        verifiers.verify(JWSAlgorithm.RS256, rsa.getPublic(), content, new byte[256]);
+        verifiers.verify(JWSAlgorithm.ES256, ec.getPublic(), content, new byte[64]);
+        verifiers.verify(JWSAlgorithm.EdDSA, ed.getPublic(), content, new byte[64]);
+
+        assertTrue(verifiers.size() <= 2);
+    }
+
+    private static JwtDecoder standard(SignatureVerifiers verifiers) {
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new KeycloakJwsKeySelector(source, verifiers));
+        processor.setJWSVerifierFactory(new PooledJwsVerifierFactory(verifiers));
+        processor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(processor);
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(ISSUER));
+        return decoder;
+    }
+
+    private static String alg(String token) {
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))),
+                StandardCharsets.UTF_8);
+        return header.replaceAll(".*\"alg\":\"([^\"]+)\".*", "$1");
+    }
+}
@@ -0,0 +1,120 @@
+package com.bindstone.backend.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenRevocationListTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T10:00:00Z");
+
+    @Test
+    void whenJtiRevoked_thenOnlyThatTokenRejected() {
+        TokenRevocationList list = new TokenRevocationList(1000, 0.01, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        list.revokeToken("jti-1", NOW.plusSeconds(300));
+
+        assertTrue(list.isRevoked(jwt("jti-1", "sid-1")));
+        assertFalse(list.isRevoked(jwt("jti-2", "sid-1")));
+    }
+
+    @Test
+    void whenSessionRevoked_thenAllTokensOfSessionRejected() {
+        TokenRevocationList list = new TokenRevocationList(1000, 0.01, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        list.revokeSession("sid-1", NOW.plusSeconds(3600));
+
+        assertTrue(list.isRevoked(jwt("jti-1", "sid-1")));
+        assertTrue(list.isRevoked(jwt("jti-2", "sid-1")));
+        assertFalse(list.isRevoked(jwt("jti-3", "sid-2")));
+        assertFalse(list.isRevoked(jwt(null, null)));
+    }
+
+    @Test
+    void whenRevocationExpired_thenPurgedAndAccepted() {
+        MutableClock clock = new MutableClock(NOW);
+        TokenRevocationList list = new TokenRevocationList(1000, 0.01, clock);
+        list.revokeToken("jti-1", NOW.plusSeconds(60));
+        list.revokeToken("jti-2", NOW.plusSeconds(600));
+
+        clock.now = NOW.plusSeconds(61);
+        assertFalse(list.isRevoked(jwt("jti-1", null)));
+
+        list.purgeExpired();
+
+        assertEquals(1, list.size());
+        assertTrue(list.isRevoked(jwt("jti-2", null)));
+    }
+
+    @Test
+    void whenManyRevoked_thenFalsePositivesStayConfirmedByExactSet() {
+        TokenRevocationList list = new TokenRevocationList(10_000, 0.01, Clock.fixed(NOW, ZoneOffset.UTC));
+        for (int i = 0; i < 10_000; i++) {
+            list.revokeToken("revoked-" + i, NOW.plusSeconds(300));
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(list.isRevoked(jwt("revoked-" + i, null)));
+            assertFalse(list.isRevoked(jwt("live-" + i, null)));
+        }
+    }
+
+    @Test
+    void whenDecodedTokenRevoked_thenDecoderRejectsIt() {
+        TokenRevocationList list = new TokenRevocationList(1000, 0.01, Clock.fixed(NOW, ZoneOffset.UTC));
+        JwtDecoder delegate = token -> jwt(token, null);
+        RevocationCheckingJwtDecoder decoder = new RevocationCheckingJwtDecoder(delegate, list);
+
+        assertEquals("jti-1", decoder.decode("jti-1").getId());
+        list.revokeToken("jti-1", NOW.plusSeconds(300));
+
+        BadJwtException e = assertThrows(BadJwtException.class, () -> decoder.decode("jti-1"));
+        assertEquals(AuthFailureReason.REVOKED, AuthFailureReason.of(e));
+    }
+
+    private static Jwt jwt(String jti, String sid) {
+        Jwt.Builder builder = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("user")
+                .expiresAt(NOW.plusSeconds(300));
+        if (jti != null) {
+            builder.jti(jti);
+        }
+        if (sid != null) {
+            builder.claim("sid", sid);
+        }
+        return builder.build();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.bindstone.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyCacheTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-01-01T10:00:00Z"));
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    void whenSameKeyReplayed_thenOriginalResponseReturned() {
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofHours(1), clock);
+
+        ResponseEntity<?> first = cache.execute("admin", "key-1", "alice", () -> respond(HttpStatus.CREATED));
+        ResponseEntity<?> replay = cache.execute("admin", "key-1", "alice", () -> respond(HttpStatus.CONFLICT));
+
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.CREATED, first.getStatusCode());
+        assertEquals(HttpStatus.CREATED, replay.getStatusCode());
+        assertEquals("call-1", replay.getBody());
+        assertEquals("true", replay.getHeaders().getFirst(IdempotencyCache.REPLAYED_HEADER));
+        assertEquals(1, cache.getReplays());
+    }
+
+    @Test
+    void whenKeyReusedForDifferentRequest_thenUnprocessable() {
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofHours(1), clock);
+
+        cache.execute("admin", "key-1", "alice", () -> respond(HttpStatus.CREATED));
+        ResponseEntity<?> reused = cache.execute("admin", "key-1", "bob", () -> respond(HttpStatus.CREATED));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, reused.getStatusCode());
+        assertEquals(1, executions.get());
+        assertEquals(1, cache.getMismatches());
+    }
+
+    @Test
+    void whenKeysFromDifferentCallers_thenExecutedSeparately() {
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofHours(1), clock);
+
+        cache.execute("admin", "key-1", "alice", () -> respond(HttpStatus.CREATED));
+        cache.execute("partner", "key-1", "alice", () -> respond(HttpStatus.CONFLICT));
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void whenTransientFailure_thenNotRemembered() {
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofHours(1), clock);
+
+        cache.execute("admin", "key-1", "alice", () -> respond(HttpStatus.SERVICE_UNAVAILABLE));
+        ResponseEntity<?> retry = cache.execute("admin", "key-1", "alice", () -> respond(HttpStatus.CREATED));
+
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertEquals(2, executions.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void whenEntryExpired_thenExecutedAgain() {
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofMinutes(5), clock);
+
+        cache.execute("admin", "key-1", "alice", () -> respond(HttpStatus.CREATED));
+        clock.advance(Duration.ofMinutes(5));
+        cache.execute("admin", "key-1", "bob", () -> respond(HttpStatus.CREATED));
+
+        assertEquals(2, executions.get());
+        assertEquals(0, cache.getMismatches());
+    }
+
+    @Test
+    void whenFull_thenBoundedBySize() {
+        IdempotencyCache cache = new IdempotencyCache(3, Duration.ofHours(1), clock);
+
+        for (int i = 0; i < 10; i++) {
+            cache.execute("admin", "key-" + i, "alice", () -> respond(HttpStatus.CREATED));
+        }
+
+        assertTrue(cache.size() <= 3, "size " + cache.size());
+        assertTrue(cache.getEvictions() > 0);
+    }
+
+    @Test
+    void whenFull_thenRoomMadeInBatches() {
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofHours(1), clock);
+
+        for (int i = 0; i < 11; i++) {
+            cache.execute("admin", "key-" + i, "alice", () -> respond(HttpStatus.CREATED));
+        }
+        assertEquals(9, cache.size());
+        assertEquals(2, cache.getEvictions());
+
+        // Below the bound again, the next key is added without another sweep
+        cache.execute("admin", "key-11", "alice", () -> respond(HttpStatus.CREATED));
+        assertEquals(10, cache.size());
+        assertEquals(2, cache.getEvictions());
+    }
+
+    @Test
+    void whenFullWhileRequestRunning_thenRunningEntryKept() {
+        IdempotencyCache cache = new IdempotencyCache(1, Duration.ofHours(1), clock);
+
+        cache.execute("admin", "running", "alice", () -> {
+            cache.execute("admin", "key-1", "bob", () -> respond(HttpStatus.CREATED));
+            cache.execute("admin", "key-2", "carol", () -> respond(HttpStatus.CREATED));
+            return respond(HttpStatus.CREATED);
+        });
+        ResponseEntity<?> replay = cache.execute("admin", "running", "alice", () -> respond(HttpStatus.CREATED));
+
+        assertEquals(3, executions.get());
+        assertEquals("true", replay.getHeaders().getFirst(IdempotencyCache.REPLAYED_HEADER));
+    }
+
+    private ResponseEntity<?> respond(HttpStatus status) {
+        return ResponseEntity.status(status).body("call-" + executions.incrementAndGet());
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.bindstone.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeycloakAdminExecutorTest {
+
+    @Test
+    void whenBatchesRunConcurrently_thenPoolSizeBoundsAllOfThem() throws Exception {
+        KeycloakAdminExecutor adminExecutor = new KeycloakAdminExecutor(2, true);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger done = new AtomicInteger();
+        Runnable call = () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            done.incrementAndGet();
+        };
+
+        Thread other = Thread.ofPlatform().start(() -> {
+            try (KeycloakAdminExecutor.Batch batch = adminExecutor.batch(3)) {
+                for (int i = 0; i < 10; i++) {
+                    batch.submit(call);
+                }
+            }
+        });
+        try (KeycloakAdminExecutor.Batch batch = adminExecutor.batch(3)) {
+            for (int i = 0; i < 10; i++) {
+                batch.submit(call);
+            }
+        }
+        other.join();
+
+        assertEquals(20, done.get());
+        assertTrue(maxRunning.get() <= 2);
+        adminExecutor.destroy();
+    }
+
+    @Test
+    void whenTaskFails_thenLaterTasksRefusedAndCloseRethrows() throws Exception {
+        KeycloakAdminExecutor adminExecutor = new KeycloakAdminExecutor(2, false);
+        IllegalStateException sinkFailure = new IllegalStateException("client went away");
+        AtomicInteger ran = new AtomicInteger();
+        AtomicInteger submitted = new AtomicInteger();
+
+        KeycloakAdminExecutor.Batch batch = adminExecutor.batch(1);
+        for (int i = 0; i < 10; i++) {
+            int task = i;
+            if (!batch.submit(() -> {
+                ran.incrementAndGet();
+                if (task == 2) {
+                    throw sinkFailure;
+                }
+            })) {
+                break;
+            }
+            submitted.incrementAndGet();
+        }
+
+        assertSame(sinkFailure, assertThrows(IllegalStateException.class, batch::close));
+        // With one slot, the task after the failing one waits for it and is refused
+        assertEquals(3, submitted.get());
+        assertEquals(3, ran.get());
+        adminExecutor.destroy();
+    }
+}
@@ -0,0 +1,100 @@
+package com.bindstone.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.ws.rs.NotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.GroupsResource;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.admin.client.resource.UserResource;
+import org.keycloak.admin.client.resource.UsersResource;
+import org.keycloak.representations.idm.GroupRepresentation;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class KeycloakGroupServiceTest {
+
+    private static final String REALM = "CONTINENTAL";
+    private static final String GROUP = "CONTINENTAL_GROUP_USER";
+
+    private Keycloak keycloak;
+    private GroupsResource groupsResource;
+    private UserResource userResource;
+    private KeycloakGroupService groupService;
+
+    @BeforeEach
+    void setUp() {
+        keycloak = mock(Keycloak.class);
+        RealmResource realmResource = mock(RealmResource.class);
+        groupsResource = mock(GroupsResource.class);
+        UsersResource usersResource = mock(UsersResource.class);
+        userResource = mock(UserResource.class);
+
+        when(keycloak.realm(REALM)).thenReturn(realmResource);
+        when(realmResource.groups()).thenReturn(groupsResource);
+        when(realmResource.users()).thenReturn(usersResource);
+        when(usersResource.get("user-1")).thenReturn(userResource);
+
+        groupService = new KeycloakGroupService(keycloak, new SimpleMeterRegistry(), Duration.ofMinutes(5),
+                Clock.fixed(Instant.parse("2025-01-01T10:00:00Z"), ZoneOffset.UTC));
+    }
+
+    @Test
+    void whenResolvedTwice_thenSearchedOnce() {
+        when(groupsResource.groups(eq(GROUP), eq(true), anyInt(), anyInt(), anyBoolean()))
+                .thenReturn(List.of(group("g-1", GROUP)));
+
+        assertEquals("g-1", groupService.resolveGroupId(REALM, GROUP));
+        assertEquals("g-1", groupService.resolveGroupId(REALM, GROUP));
+
+        verify(groupsResource, times(1)).groups(eq(GROUP), eq(true), anyInt(), anyInt(), anyBoolean());
+        verify(groupsResource, never()).groups();
+    }
+
+    @Test
+    void whenGroupIsNested_thenSubGroupResolved() {
+        GroupRepresentation parent = group("parent", "TENANTS");
+        parent.setSubGroups(List.of(group("g-2", GROUP)));
+        when(groupsResource.groups(eq(GROUP), eq(true), anyInt(), anyInt(), anyBoolean()))
+                .thenReturn(List.of(parent));
+
+        assertEquals("g-2", groupService.resolveGroupId(REALM, GROUP));
+    }
+
+    @Test
+    void whenGroupMissing_thenFails() {
+        when(groupsResource.groups(eq(GROUP), eq(true), anyInt(), anyInt(), anyBoolean()))
+                .thenReturn(List.of());
+
+        assertThrows(IllegalStateException.class, () -> groupService.resolveGroupId(REALM, GROUP));
+    }
+
+    @Test
+    void whenCachedGroupIdIsStale_thenRefreshedAndRetriedOnce() {
+        when(groupsResource.groups(eq(GROUP), eq(true), anyInt(), anyInt(), anyBoolean()))
+                .thenReturn(List.of(group("old", GROUP)))
+                .thenReturn(List.of(group("new", GROUP)));
+        doThrow(new NotFoundException()).when(userResource).joinGroup("old");
+
+        groupService.joinGroup(REALM, "user-1", GROUP);
+
+        verify(userResource).joinGroup("new");
+        assertEquals("new", groupService.resolveGroupId(REALM, GROUP));
+    }
+
+    private static GroupRepresentation group(String id, String name) {
+        GroupRepresentation group = new GroupRepresentation();
+        group.setId(id);
+        group.setName(name);
+        return group;
+    }
+}
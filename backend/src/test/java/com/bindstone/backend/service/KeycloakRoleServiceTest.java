@@ -0,0 +1,95 @@
+package com.bindstone.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.ws.rs.NotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.ClientResource;
+import org.keycloak.admin.client.resource.ClientsResource;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.admin.client.resource.RoleResource;
+import org.keycloak.admin.client.resource.RolesResource;
+import org.keycloak.representations.idm.ClientRepresentation;
+import org.keycloak.representations.idm.RoleRepresentation;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class KeycloakRoleServiceTest {
+
+    private static final String REALM = "CONTINENTAL";
+
+    private RolesResource realmRoles;
+    private ClientsResource clientsResource;
+    private RolesResource clientRoles;
+    private KeycloakRoleService roleService;
+
+    @BeforeEach
+    void setUp() {
+        Keycloak keycloak = mock(Keycloak.class);
+        RealmResource realmResource = mock(RealmResource.class);
+        realmRoles = mock(RolesResource.class);
+        clientsResource = mock(ClientsResource.class);
+        ClientResource clientResource = mock(ClientResource.class);
+        clientRoles = mock(RolesResource.class);
+
+        when(keycloak.realm(REALM)).thenReturn(realmResource);
+        when(realmResource.roles()).thenReturn(realmRoles);
+        when(realmResource.clients()).thenReturn(clientsResource);
+        when(clientsResource.get("client-uuid")).thenReturn(clientResource);
+        when(clientResource.roles()).thenReturn(clientRoles);
+
+        roleService = new KeycloakRoleService(keycloak, new SimpleMeterRegistry(), Duration.ofMinutes(5),
+                Clock.fixed(Instant.parse("2025-01-01T10:00:00Z"), ZoneOffset.UTC));
+    }
+
+    @Test
+    void whenRolesResolvedTwice_thenLookedUpOnce() {
+        RoleResource realmRole = roleResource("r-1");
+        RoleResource clientRole = roleResource("r-2");
+        when(realmRoles.get("CONTINENTAL_ROLE_USER")).thenReturn(realmRole);
+        when(clientRoles.get("CONTINENTAL_ROLE_USER")).thenReturn(clientRole);
+        ClientRepresentation client = new ClientRepresentation();
+        client.setId("client-uuid");
+        when(clientsResource.findByClientId("CONTINENTAL-CLIENT")).thenReturn(List.of(client));
+
+        for (int i = 0; i < 2; i++) {
+            assertEquals("r-1", roleService.resolveRealmRole(REALM, "CONTINENTAL_ROLE_USER").getId());
+            assertEquals("r-2", roleService.resolveClientRole(REALM, "CONTINENTAL-CLIENT", "CONTINENTAL_ROLE_USER").getId());
+        }
+
+        verify(realmRole, times(1)).toRepresentation();
+        verify(clientRole, times(1)).toRepresentation();
+        verify(clientsResource, times(1)).findByClientId("CONTINENTAL-CLIENT");
+
+        roleService.invalidate(REALM);
+        roleService.resolveRealmRole(REALM, "CONTINENTAL_ROLE_USER");
+        verify(realmRole, times(2)).toRepresentation();
+    }
+
+    @Test
+    void whenRoleOrClientMissing_thenFails() {
+        RoleResource missing = mock(RoleResource.class);
+        when(missing.toRepresentation()).thenThrow(new NotFoundException());
+        when(realmRoles.get("MISSING")).thenReturn(missing);
+        when(clientsResource.findByClientId("UNKNOWN")).thenReturn(List.of());
+
+        assertThrows(IllegalStateException.class, () -> roleService.resolveRealmRole(REALM, "MISSING"));
+        assertThrows(IllegalStateException.class, () -> roleService.resolveClientId(REALM, "UNKNOWN"));
+    }
+
+    private static RoleResource roleResource(String id) {
+        RoleRepresentation role = new RoleRepresentation();
+        role.setId(id);
+        RoleResource resource = mock(RoleResource.class);
+        when(resource.toRepresentation()).thenReturn(role);
+        return resource;
+    }
+}
@@ -0,0 +1,211 @@
+package com.bindstone.backend.service;
+
+import com.bindstone.backend.dto.ProvisioningJobStatus;
+import com.bindstone.backend.dto.ProvisioningJobStatus.State;
+import com.bindstone.backend.dto.ProvisioningResult;
+import com.bindstone.backend.dto.UserPayload;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.UserRepresentation;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProvisioningJobServiceTest {
+
+    private static final String REALM = "CONTINENTAL";
+
+    private UserProvisioningService provisioningService;
+    private ProvisioningJobService jobService;
+
+    @BeforeEach
+    void setUp() {
+        provisioningService = mock(UserProvisioningService.class);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        jobService.destroy();
+    }
+
+    @Test
+    void whenProvisioningSucceeds_thenJobSucceeds() throws Exception {
+        jobService = new ProvisioningJobService(provisioningService, 1, 10, 3, 1, 3600);
+        when(provisioningService.createUser(any(), any())).thenReturn(created());
+        when(provisioningService.joinUserGroup(REALM, "user-1", "alice")).thenReturn(ProvisioningResult.created("alice"));
+
+        ProvisioningJobStatus submitted = jobService.submit(REALM, payload("alice"));
+        ProvisioningJobStatus done = awaitCompletion(submitted.id());
+
+        assertEquals(State.SUCCEEDED, done.state());
+        assertEquals(1, done.attempts());
+        assertEquals(201, done.status());
+        assertNotNull(done.completedAt());
+    }
+
+    @Test
+    void whenJobCompletes_thenFinalStatusHandedToCallback() throws Exception {
+        jobService = new ProvisioningJobService(provisioningService, 1, 10, 3, 1, 3600);
+        when(provisioningService.createUser(any(), any()))
+                .thenReturn(rejected(ProvisioningResult.rejected("alice", 409, "Conflict")));
+        CompletableFuture<ProvisioningJobStatus> completed = new CompletableFuture<>();
+
+        jobService.submit(REALM, payload("alice"), completed::complete);
+
+        ProvisioningJobStatus done = completed.get(5, TimeUnit.SECONDS);
+        assertEquals(State.FAILED, done.state());
+        assertEquals(409, done.status());
+        assertNotNull(done.completedAt());
+    }
+
+    @Test
+    void whenKeycloakFailsTransiently_thenRetried() throws Exception {
+        jobService = new ProvisioningJobService(provisioningService, 1, 10, 3, 1, 3600);
+        when(provisioningService.createUser(any(), any()))
+                .thenReturn(rejected(ProvisioningResult.rejected("alice", 503, "Service Unavailable")))
+                .thenReturn(created());
+        when(provisioningService.joinUserGroup(REALM, "user-1", "alice"))
+                .thenReturn(ProvisioningResult.error("alice", new IllegalStateException("timeout")))
+                .thenReturn(ProvisioningResult.created("alice"));
+
+        ProvisioningJobStatus done = awaitCompletion(jobService.submit(REALM, payload("alice")).id());
+
+        assertEquals(State.SUCCEEDED, done.state());
+        assertEquals(3, done.attempts());
+        // The user is created once, only the failed group step is repeated
+        verify(provisioningService, times(2)).createUser(any(), any());
+        verify(provisioningService, times(2)).joinUserGroup(REALM, "user-1", "alice");
+    }
+
+    @Test
+    void whenTimedOutCreationHadSucceeded_thenExistingUserJoinsGroup() throws Exception {
+        jobService = new ProvisioningJobService(provisioningService, 1, 10, 3, 1, 3600);
+        when(provisioningService.createUser(any(), any()))
+                .thenReturn(rejected(ProvisioningResult.error("alice", new IllegalStateException("timeout"))))
+                .thenReturn(rejected(ProvisioningResult.rejected("alice", 409, "Conflict")));
+        when(provisioningService.findUser(REALM, "alice"))
+                .thenReturn(Optional.of(user("user-1", "Alice@example.com", "Alice", "Smith")));
+        when(provisioningService.joinUserGroup(REALM, "user-1", "alice")).thenReturn(ProvisioningResult.created("alice"));
+
+        ProvisioningJobStatus done = awaitCompletion(jobService.submit(REALM, payload("alice")).id());
+
+        assertEquals(State.SUCCEEDED, done.state());
+        assertEquals(2, done.attempts());
+    }
+
+    @Test
+    void whenConflictingUserAfterTimeoutIsNotOurs_thenFailsAsConflict() throws Exception {
+        jobService = new ProvisioningJobService(provisioningService, 1, 10, 3, 1, 3600);
+        when(provisioningService.createUser(any(), any()))
+                .thenReturn(rejected(ProvisioningResult.error("alice", new IllegalStateException("timeout"))))
+                .thenReturn(rejected(ProvisioningResult.rejected("alice", 409, "Conflict")));
+        when(provisioningService.findUser(REALM, "alice"))
+                .thenReturn(Optional.of(user("user-2", "mallory@example.com", "Alice", "Smith")));
+
+        ProvisioningJobStatus done = awaitCompletion(jobService.submit(REALM, payload("alice")).id());
+
+        assertEquals(State.FAILED, done.state());
+        assertEquals(409, done.status());
+        verify(provisioningService, never()).joinUserGroup(any(), any(), any());
+    }
+
+    @Test
+    void whenProvisioningThrows_thenExceptionDetailNotExposed() throws Exception {
+        jobService = new ProvisioningJobService(provisioningService, 1, 10, 1, 1, 3600);
+        when(provisioningService.createUser(any(), any()))
+                .thenReturn(rejected(ProvisioningResult.error("alice", new IllegalStateException("db password wrong"))));
+
+        ProvisioningJobStatus done = awaitCompletion(jobService.submit(REALM, payload("alice")).id());
+
+        assertEquals(State.FAILED, done.state());
+        assertFalse(done.message().contains("db password wrong"));
+    }
+
+    @Test
+    void whenConflict_thenFailsWithoutRetry() throws Exception {
+        jobService = new ProvisioningJobService(provisioningService, 1, 10, 3, 1, 3600);
+        when(provisioningService.createUser(any(), any()))
+                .thenReturn(rejected(ProvisioningResult.rejected("alice", 409, "Conflict")));
+
+        ProvisioningJobStatus done = awaitCompletion(jobService.submit(REALM, payload("alice")).id());
+
+        assertEquals(State.FAILED, done.state());
+        assertEquals(1, done.attempts());
+        assertEquals(409, done.status());
+        verify(provisioningService, times(1)).createUser(any(), any());
+        verify(provisioningService, never()).findUser(any(), any());
+        verify(provisioningService, never()).joinUserGroup(any(), any(), any());
+    }
+
+    @Test
+    void whenQueueFull_thenRejected() throws Exception {
+        jobService = new ProvisioningJobService(provisioningService, 1, 1, 1, 1, 3600);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        when(provisioningService.createUser(any(), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return created();
+        });
+
+        jobService.submit(REALM, payload("running"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        jobService.submit(REALM, payload("queued"));
+
+        assertThrows(RejectedExecutionException.class, () -> jobService.submit(REALM, payload("rejected")));
+        release.countDown();
+    }
+
+    @Test
+    void whenUnknownJob_thenEmpty() {
+        jobService = new ProvisioningJobService(provisioningService, 1, 10, 3, 1, 3600);
+
+        assertTrue(jobService.find(REALM, "missing").isEmpty());
+    }
+
+    private ProvisioningJobStatus awaitCompletion(String id) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            ProvisioningJobStatus status = jobService.find(REALM, id).orElseThrow();
+            if (status.completedAt() != null) {
+                return status;
+            }
+            Thread.sleep(10);
+        }
+        return fail("Job " + id + " did not complete");
+    }
+
+    private static UserProvisioningService.Creation created() {
+        return new UserProvisioningService.Creation("user-1", ProvisioningResult.created("alice"));
+    }
+
+    private static UserProvisioningService.Creation rejected(ProvisioningResult result) {
+        return new UserProvisioningService.Creation(null, result);
+    }
+
+    private static UserPayload payload(String username) {
+        UserPayload payload = new UserPayload();
+        payload.setUsername(username);
+        payload.setEmail("alice@example.com");
+        payload.setFirstName("Alice");
+        payload.setLastName("Smith");
+        return payload;
+    }
+
+    private static UserRepresentation user(String id, String email, String firstName, String lastName) {
+        UserRepresentation user = new UserRepresentation();
+        user.setId(id);
+        user.setEmail(email);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        return user;
+    }
+}
@@ -0,0 +1,167 @@
+package com.bindstone.backend.service;
+
+import com.bindstone.backend.dto.RoleAssignmentRequest;
+import com.bindstone.backend.dto.RoleAssignmentRequest.Operation;
+import com.bindstone.backend.dto.RoleAssignmentResult;
+import com.bindstone.backend.dto.RoleAssignmentSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.ws.rs.ForbiddenException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.admin.client.resource.UsersResource;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RoleAssignmentServiceTest {
+
+    private static final String REALM = "CONTINENTAL";
+    private static final String GROUP = "CONTINENTAL_GROUP_USER";
+
+    private UsersResource usersResource;
+    private KeycloakGroupService groupService;
+    private KeycloakRoleService roleService;
+    private RoleAssignmentService assignmentService;
+    private final KeycloakAdminExecutor adminExecutor = new KeycloakAdminExecutor(4, false);
+    private final RoleRepresentation realmRole = role("r-1", "CONTINENTAL_ROLE_USER");
+    private final RoleRepresentation clientRole = role("r-2", "CONTINENTAL_ROLE_USER");
+    private final List<RoleAssignmentResult> results = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Keycloak keycloak = mock(Keycloak.class);
+        RealmResource realmResource = mock(RealmResource.class);
+        usersResource = mock(UsersResource.class);
+        when(keycloak.realm(REALM)).thenReturn(realmResource);
+        when(realmResource.users()).thenReturn(usersResource);
+        when(usersResource.searchByUsername(anyString(), eq(true))).thenAnswer(invocation -> {
+            String username = invocation.getArgument(0);
+            return username.startsWith("ghost") ? List.of() : List.of(user("id-" + username, username));
+        });
+
+        groupService = mock(KeycloakGroupService.class);
+        roleService = mock(KeycloakRoleService.class);
+        when(roleService.resolveRealmRole(REALM, "CONTINENTAL_ROLE_USER")).thenReturn(realmRole);
+        when(roleService.resolveClientId(REALM, "CONTINENTAL-CLIENT")).thenReturn("client-uuid");
+        when(roleService.resolveClientRole(REALM, "CONTINENTAL-CLIENT", "CONTINENTAL_ROLE_USER")).thenReturn(clientRole);
+
+        assignmentService = new RoleAssignmentService(keycloak, groupService, roleService, adminExecutor,
+                new SimpleMeterRegistry(), List.of(GROUP), List.of("CONTINENTAL_ROLE_USER", "MISSING"),
+                List.of("CONTINENTAL-CLIENT:CONTINENTAL_ROLE_USER"));
+        ReflectionTestUtils.setField(assignmentService, "maxUsers", 100);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        adminExecutor.destroy();
+    }
+
+    @Test
+    void whenAdding_thenEveryUserGetsGroupsAndRoles() {
+        RoleAssignmentSummary summary = assignmentService.assign(REALM, request(Operation.ADD, "alice", "bob"), 2,
+                results::add);
+
+        assertEquals(2, summary.total());
+        assertEquals(2, summary.succeeded());
+        assertTrue(summary.failures().isEmpty());
+        assertEquals(2, results.size());
+        verify(groupService).joinGroup(REALM, "id-alice", GROUP);
+        verify(roleService).updateRealmRoles(REALM, "id-bob", List.of(realmRole), true);
+        verify(roleService).updateClientRoles(REALM, "id-bob", "client-uuid", List.of(clientRole), true);
+        // Resolved once for the whole request, not per user
+        verify(groupService, times(1)).resolveGroupId(REALM, GROUP);
+        verify(roleService, times(1)).resolveRealmRole(REALM, "CONTINENTAL_ROLE_USER");
+    }
+
+    @Test
+    void whenRemoving_thenGroupsLeftAndRolesRemoved() {
+        assignmentService.assign(REALM, request(Operation.REMOVE, "alice"), 1, results::add);
+
+        verify(groupService).leaveGroup(REALM, "id-alice", GROUP);
+        verify(roleService).updateRealmRoles(REALM, "id-alice", List.of(realmRole), false);
+        verify(groupService, never()).joinGroup(any(), any(), any());
+    }
+
+    @Test
+    void whenSomeUsersFail_thenOthersStillAssigned() {
+        doThrow(new ForbiddenException()).when(roleService)
+                .updateRealmRoles(eq(REALM), eq("id-carol"), any(), anyBoolean());
+
+        RoleAssignmentSummary summary = assignmentService.assign(REALM,
+                request(Operation.ADD, "alice", "ghost", "carol", "alice"), 4, results::add);
+
+        assertEquals(3, summary.total());
+        assertEquals(1, summary.succeeded());
+        assertEquals(2, summary.failed());
+        assertTrue(summary.failures().contains(new RoleAssignmentResult("ghost", 404, "User not found")));
+        RoleAssignmentResult carol = summary.failures().stream()
+                .filter(result -> result.username().equals("carol")).findFirst().orElseThrow();
+        assertEquals(403, carol.status());
+        assertTrue(carol.message().contains("realm roles"));
+    }
+
+    @Test
+    void whenRoleUnknown_thenNoUserTouched() {
+        when(roleService.resolveRealmRole(REALM, "MISSING")).thenThrow(new IllegalStateException("Realm role not found"));
+
+        RoleAssignmentRequest request = new RoleAssignmentRequest(Operation.ADD, List.of("alice"), null,
+                List.of("MISSING"), null);
+
+        assertThrows(IllegalStateException.class, () -> assignmentService.assign(REALM, request, 1, results::add));
+        verifyNoInteractions(usersResource);
+    }
+
+    @Test
+    void whenRoleNotAllowListed_thenDeniedBeforeAnyLookup() {
+        RoleAssignmentRequest request = new RoleAssignmentRequest(Operation.ADD, List.of("alice"), List.of(GROUP),
+                List.of("admin"), Map.of("realm-management", List.of("manage-users")));
+
+        AccessDeniedException e = assertThrows(AccessDeniedException.class,
+                () -> assignmentService.assign(REALM, request, 1, results::add));
+
+        assertTrue(e.getMessage().contains("realm role admin"));
+        assertTrue(e.getMessage().contains("client role realm-management:manage-users"));
+        verifyNoInteractions(usersResource, groupService, roleService);
+    }
+
+    @Test
+    void whenRequestIncomplete_thenRejected() {
+        assertThrows(IllegalArgumentException.class, () -> assignmentService.assign(REALM,
+                new RoleAssignmentRequest(Operation.ADD, List.of("alice"), List.of(), null, Map.of()), 1, results::add));
+        assertThrows(IllegalArgumentException.class, () -> assignmentService.assign(REALM,
+                new RoleAssignmentRequest(null, List.of("alice"), List.of(GROUP), null, null), 1, results::add));
+        assertThrows(IllegalArgumentException.class, () -> assignmentService.assign(REALM,
+                new RoleAssignmentRequest(Operation.ADD, List.of(), List.of(GROUP), null, null), 1, results::add));
+    }
+
+    private static RoleAssignmentRequest request(Operation operation, String... users) {
+        return new RoleAssignmentRequest(operation, List.of(users), List.of(GROUP), List.of("CONTINENTAL_ROLE_USER"),
+                Map.of("CONTINENTAL-CLIENT", List.of("CONTINENTAL_ROLE_USER")));
+    }
+
+    private static UserRepresentation user(String id, String username) {
+        UserRepresentation user = new UserRepresentation();
+        user.setId(id);
+        user.setUsername(username);
+        return user;
+    }
+
+    private static RoleRepresentation role(String id, String name) {
+        RoleRepresentation role = new RoleRepresentation();
+        role.setId(id);
+        role.setName(name);
+        return role;
+    }
+}
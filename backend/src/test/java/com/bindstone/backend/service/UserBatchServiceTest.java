@@ -0,0 +1,143 @@
+package com.bindstone.backend.service;
+
+import com.bindstone.backend.dto.BatchRecordResult;
+import com.bindstone.backend.dto.BatchSummary;
+import com.bindstone.backend.dto.ProvisioningResult;
+import com.bindstone.backend.dto.UserPayload;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class UserBatchServiceTest {
+
+    private static final String REALM = "CONTINENTAL";
+
+    private UserProvisioningService provisioningService;
+    private UserBatchService batchService;
+    private KeycloakAdminExecutor adminExecutor = new KeycloakAdminExecutor(4, false);
+    private final List<BatchRecordResult> results = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        provisioningService = mock(UserProvisioningService.class);
+        when(provisioningService.provision(any(), any())).thenAnswer(invocation -> {
+            UserPayload payload = invocation.getArgument(1);
+            return payload.getUsername().startsWith("taken")
+                    ? ProvisioningResult.rejected(payload.getUsername(), 409, "Conflict")
+                    : ProvisioningResult.created(payload.getUsername());
+        });
+        batchService = new UserBatchService(provisioningService, new ObjectMapper(), adminExecutor);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        adminExecutor.destroy();
+    }
+
+    @Test
+    void whenJsonArray_thenEveryRecordProvisioned() throws Exception {
+        BatchSummary summary = batchService.provisionAll(REALM, body("""
+                [{"username":"alice"},{"username":"taken-bob"},{"username":"carol"}]
+                """), 2, results::add);
+
+        assertEquals(3, summary.total());
+        assertEquals(2, summary.created());
+        assertEquals(1, summary.conflict());
+        assertEquals(3, results.size());
+    }
+
+    @Test
+    void whenNdjson_thenEveryRecordProvisioned() throws Exception {
+        BatchSummary summary = batchService.provisionAll(REALM, body("""
+                {"username":"alice"}
+                {"username":"bob"}
+                """), 2, results::add);
+
+        assertEquals(2, summary.total());
+        assertEquals(2, summary.created());
+    }
+
+    @Test
+    void whenSinkFails_thenReadingStopsAndFailureRethrown() {
+        UncheckedIOException disconnected = new UncheckedIOException(new IOException("Broken pipe"));
+        StringBuilder records = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            records.append("{\"username\":\"user-").append(i).append("\"}\n");
+        }
+
+        UncheckedIOException e = assertThrows(UncheckedIOException.class,
+                () -> batchService.provisionAll(REALM, body(records.toString()), 1, result -> {
+                    throw disconnected;
+                }));
+
+        assertSame(disconnected, e);
+        verify(provisioningService, atMost(2)).provision(any(), any());
+    }
+
+    @Test
+    void whenRecordMalformed_thenBatchStopsWithError() throws Exception {
+        BatchSummary summary = batchService.provisionAll(REALM, body("""
+                {"username":"alice"}
+                {"username":
+                """), 2, results::add);
+
+        assertEquals(1, summary.created());
+        assertEquals(1, summary.error());
+        assertTrue(results.stream().anyMatch(r -> r.status() == 400));
+    }
+
+    @Test
+    void whenProvisioning_thenConcurrencyLimitHonoured() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        doAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            running.decrementAndGet();
+            return ProvisioningResult.created(((UserPayload) invocation.getArgument(1)).getUsername());
+        }).when(provisioningService).provision(any(), any());
+
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            ndjson.append("{\"username\":\"user-").append(i).append("\"}\n");
+        }
+        BatchSummary summary = batchService.provisionAll(REALM, body(ndjson.toString()), 3, results::add);
+
+        assertEquals(20, summary.created());
+        assertTrue(maxRunning.get() <= 3);
+    }
+
+    @Test
+    void whenVirtualThreadsEnabled_thenRecordsProvisionedOnVirtualThreads() throws Exception {
+        adminExecutor.destroy();
+        adminExecutor = new KeycloakAdminExecutor(4, true);
+        batchService = new UserBatchService(provisioningService, new ObjectMapper(), adminExecutor);
+        List<Boolean> virtual = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            virtual.add(Thread.currentThread().isVirtual());
+            return ProvisioningResult.created(((UserPayload) invocation.getArgument(1)).getUsername());
+        }).when(provisioningService).provision(any(), any());
+
+        batchService.provisionAll(REALM, body("[{\"username\":\"alice\"},{\"username\":\"bob\"}]"), 2, results::add);
+
+        assertEquals(List.of(true, true), virtual);
+    }
+
+    private static InputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,124 @@
+package com.bindstone.backend.service;
+
+import com.bindstone.backend.dto.ProvisioningResult;
+import com.bindstone.backend.dto.ProvisioningResult.Outcome;
+import com.bindstone.backend.dto.UserPayload;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.admin.client.resource.UsersResource;
+
+import java.net.URI;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class UserProvisioningServiceTest {
+
+    private UsersResource usersResource;
+    private KeycloakGroupService groupService;
+    private SimpleMeterRegistry meterRegistry;
+    private UserProvisioningService service;
+
+    @BeforeEach
+    void setUp() {
+        Keycloak keycloak = mock(Keycloak.class);
+        RealmResource realmResource = mock(RealmResource.class);
+        usersResource = mock(UsersResource.class);
+        groupService = mock(KeycloakGroupService.class);
+        meterRegistry = new SimpleMeterRegistry();
+
+        when(keycloak.realm(any())).thenReturn(realmResource);
+        when(realmResource.users()).thenReturn(usersResource);
+
+        service = new UserProvisioningService(keycloak, groupService, meterRegistry);
+    }
+
+    @Test
+    void whenSameUsernameInFlight_thenSingleCreationShared() throws Exception {
+        CountDownLatch creating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(usersResource.create(any())).thenAnswer(invocation -> {
+            creating.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return Response.created(URI.create("http://keycloak/admin/realms/CONTINENTAL/users/user-1")).build();
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ProvisioningResult> first = executor.submit(() -> service.provision(payload("alice")));
+            assertTrue(creating.await(5, TimeUnit.SECONDS));
+            Future<ProvisioningResult> second = executor.submit(() -> service.provision(payload("Alice")));
+            while (meterRegistry.counter("keycloak.admin.collapsed").count() < 1) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            assertEquals(Outcome.CREATED, first.get(5, TimeUnit.SECONDS).outcome());
+            assertEquals(Outcome.CREATED, second.get(5, TimeUnit.SECONDS).outcome());
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(usersResource, times(1)).create(any());
+        verify(groupService, times(1)).joinGroup(any(), eq("user-1"), eq(UserProvisioningService.USER_GROUP));
+    }
+
+    @Test
+    void whenDifferentPayloadInFlight_thenConflictWithoutSecondCreation() throws Exception {
+        CountDownLatch creating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(usersResource.create(any())).thenAnswer(invocation -> {
+            creating.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return Response.created(URI.create("http://keycloak/admin/realms/CONTINENTAL/users/user-1")).build();
+        });
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<ProvisioningResult> first = executor.submit(() -> service.provision(payload("alice")));
+            assertTrue(creating.await(5, TimeUnit.SECONDS));
+            UserPayload otherPassword = payload("alice");
+            otherPassword.setPassword("other");
+
+            ProvisioningResult second = service.provision(otherPassword);
+            release.countDown();
+
+            assertEquals(Outcome.CONFLICT, second.outcome());
+            assertEquals(Outcome.CREATED, first.get(5, TimeUnit.SECONDS).outcome());
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(usersResource, times(1)).create(any());
+        assertEquals(0, meterRegistry.counter("keycloak.admin.collapsed").count());
+    }
+
+    @Test
+    void whenPreviousCreationFinished_thenNextCallCreatesAgain() {
+        when(usersResource.create(any()))
+                .thenReturn(Response.created(URI.create("http://keycloak/admin/realms/CONTINENTAL/users/user-1")).build())
+                .thenReturn(Response.status(409).build());
+
+        assertEquals(Outcome.CREATED, service.provision(payload("alice")).outcome());
+        ProvisioningResult second = service.provision(payload("alice"));
+
+        assertEquals(Outcome.CONFLICT, second.outcome());
+        assertEquals(409, second.status());
+        verify(usersResource, times(2)).create(any());
+        assertEquals(0, meterRegistry.counter("keycloak.admin.collapsed").count());
+    }
+
+    private static UserPayload payload(String username) {
+        UserPayload payload = new UserPayload();
+        payload.setUsername(username);
+        return payload;
+    }
+}
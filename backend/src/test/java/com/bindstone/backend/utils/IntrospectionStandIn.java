@@ -0,0 +1,118 @@
+package com.bindstone.backend.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for Keycloak's token introspection endpoint. Answers registered opaque tokens with an active,
+ * Keycloak-shaped response and anything else with {@code {"active":false}}; callers must authenticate as
+ * {@link #CLIENT_ID}. Counts the requests per token so tests can check what was served from a cache.
+ */
+public class IntrospectionStandIn implements AutoCloseable {
+
+    public static final String CLIENT_ID = "backend";
+    public static final String CLIENT_SECRET = "backend-secret";
+    public static final String PATH = "/realms/CONTINENTAL/protocol/openid-connect/token/introspect";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpServer server;
+    private final Map<String, Map<String, Object>> tokens = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+
+    public IntrospectionStandIn() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext(PATH, this::introspect);
+        server.start();
+    }
+
+    public String introspectionUri() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + PATH;
+    }
+
+    /**
+     * Registers an active token of {@code subject} with the given realm roles, valid for {@code lifetime}.
+     */
+    public String issue(String subject, List<String> roles, Duration lifetime) {
+        String token = "opaque-" + subject + "-" + tokens.size();
+        Instant now = Instant.now();
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("active", true);
+        claims.put("sub", subject);
+        claims.put("username", subject);
+        claims.put("client_id", "frontend");
+        claims.put("token_type", "Bearer");
+        claims.put("jti", "jti-" + token);
+        claims.put("sid", "sid-" + subject);
+        claims.put("iat", now.getEpochSecond());
+        claims.put("exp", now.plus(lifetime).getEpochSecond());
+        claims.put("realm_access", Map.of("roles", roles));
+        tokens.put(token, claims);
+        return token;
+    }
+
+    public void deactivate(String token) {
+        tokens.remove(token);
+    }
+
+    public int requests(String token) {
+        AtomicInteger count = requests.get(token);
+        return count == null ? 0 : count.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void introspect(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String expected = "Basic " + Base64.getEncoder().encodeToString(
+                    (CLIENT_ID + ":" + CLIENT_SECRET).getBytes(StandardCharsets.UTF_8));
+            if (!"POST".equals(exchange.getRequestMethod())
+                    || !expected.equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+                exchange.sendResponseHeaders(401, -1);
+                return;
+            }
+            String token = formParameter(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8),
+                    "token");
+            requests.computeIfAbsent(String.valueOf(token), key -> new AtomicInteger()).incrementAndGet();
+
+            Map<String, Object> claims = token == null ? null : tokens.get(token);
+            byte[] body = MAPPER.writeValueAsBytes(claims != null ? claims : Map.of("active", false));
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private static String formParameter(String form, String name) {
+        for (String pair : form.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0 && pair.substring(0, equals).equals(name)) {
+                return URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+}
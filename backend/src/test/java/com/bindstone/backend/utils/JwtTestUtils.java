@@ -4,8 +4,10 @@ import com.bindstone.backend.config.TestSecurityConfig;
 import io.jsonwebtoken.Jwts;
 
 import javax.crypto.SecretKey;
+import java.security.PrivateKey;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -73,6 +75,31 @@ public class JwtTestUtils {
                 .compact();
     }
     
+    public static String generateLargeRoleToken(int roleCount) {
+        Instant now = Instant.now();
+        List<String> realmRoles = new ArrayList<>();
+        Map<String, Object> resourceAccess = new HashMap<>();
+        for (int i = 0; i < roleCount; i++) {
+            realmRoles.add("REALM_ROLE_" + i);
+        }
+        for (int client = 0; client < 4; client++) {
+            List<String> clientRoles = new ArrayList<>();
+            for (int i = 0; i < roleCount / 4; i++) {
+                clientRoles.add("CLIENT_" + client + "_ROLE_" + i);
+            }
+            resourceAccess.put("client-" + client, Map.of("roles", clientRoles));
+        }
+
+        return Jwts.builder()
+                .setSubject("large-role-user")
+                .setIssuedAt(Date.from(now))
+                .setExpiration(Date.from(now.plus(1, ChronoUnit.HOURS)))
+                .claim("realm_access", Map.of("roles", realmRoles))
+                .claim("resource_access", resourceAccess)
+                .signWith(SECRET_KEY)
+                .compact();
+    }
+    
     public static String generateExpiredToken() {
         Instant past = Instant.now().minus(1, ChronoUnit.HOURS);
         return Jwts.builder()
@@ -106,6 +133,20 @@ public class JwtTestUtils {
         return builder.compact();
     }
     
+    // Signed with an asymmetric realm key; the algorithm follows the key: RS256, ES256 or EdDSA
+    public static String generateSignedToken(PrivateKey key, String keyId, String issuer) {
+        Instant now = Instant.now();
+        return Jwts.builder()
+                .setHeaderParam("kid", keyId)
+                .setIssuer(issuer)
+                .setSubject("test-user")
+                .setIssuedAt(Date.from(now))
+                .setExpiration(Date.from(now.plus(1, ChronoUnit.HOURS)))
+                .claim("realm_access", Map.of("roles", List.of("USER")))
+                .signWith(key)
+                .compact();
+    }
+
     public static SecretKey getSecretKey() {
         return SECRET_KEY;
     }